@@ -0,0 +1,191 @@
+/*
+ * Copyright (c) 2018, vindell (https://github.com/vindell).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.springframework.security.boot;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Properties;
+
+import javax.servlet.Filter;
+import javax.servlet.ServletException;
+import javax.servlet.http.Cookie;
+
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.mock.web.MockServletContext;
+import org.springframework.web.context.support.GenericWebApplicationContext;
+
+/**
+ * 每个请求的内存分配预算检查：用 {@code ThreadMXBean#getThreadAllocatedBytes} 测量一次请求经过本 starter
+ * 安全过滤器链时在当前线程上分配的字节数，与 {@code allocation-budgets.properties} 中的预算比较，超出时以非零状态退出。
+ * <p>
+ * 过滤器链与 {@link SecurityLoadTest} 使用相同的配置，但不启动容器，直接以模拟请求调用
+ * {@code springSecurityFilterChain}；模拟请求在测量开始前构造好，不计入分配。
+ * 每个场景先预热，再取多次测量的中位数。
+ * </p>
+ * 运行方式：{@code mvn -P benchmark test}；加上 {@code -Dallocation.args=report} 只输出测量值不检查预算。
+ * @author ： <a href="https://github.com/vindell">wandl</a>
+ */
+public class AllocationBudgetCheck {
+
+	static final String BUDGETS = "allocation-budgets.properties";
+
+	public static void main(String[] args) throws Exception {
+		boolean reportOnly = Arrays.asList(args).contains("report");
+		if (System.getProperty("org.slf4j.simpleLogger.defaultLogLevel") == null) {
+			System.setProperty("org.slf4j.simpleLogger.defaultLogLevel", "warn");
+		}
+		com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory
+				.getThreadMXBean();
+		if (!threads.isThreadAllocatedMemorySupported()) {
+			System.out.println("Thread allocated memory is not supported by this JVM, skipping allocation budgets");
+			return;
+		}
+		threads.setThreadAllocatedMemoryEnabled(true);
+		Properties budgets = new Properties();
+		try (InputStream in = AllocationBudgetCheck.class.getClassLoader().getResourceAsStream(BUDGETS)) {
+			if (in == null) {
+				throw new IllegalStateException(BUDGETS + " not found on the classpath");
+			}
+			budgets.load(in);
+		}
+
+		ConfigurableApplicationContext context = new SpringApplicationBuilder(
+				SecurityLoadTest.LoadTestApplication.class)
+				.contextClass(GenericWebApplicationContext.class)
+				.initializers(ctx -> ((GenericWebApplicationContext) ctx).setServletContext(new MockServletContext()))
+				.properties("spring.main.banner-mode=off", "spring.security.upc.enabled=true",
+						"spring.security.upc.stateless.enabled=true",
+						"spring.security.upc.stateless.secret=" + SecurityLoadTest.STATELESS_SECRET,
+						"spring.security.upc.authc.login-url-patterns=" + SecurityLoadTest.LOGIN_URL)
+				.run();
+		int violations = 0;
+		try {
+			Filter filterChain = context.getBean("springSecurityFilterChain", Filter.class);
+			Cookie[] cookies = login(filterChain, SecurityLoadTest.ADMIN, SecurityLoadTest.PASSWORD).getCookies();
+			Case[] cases = {
+					new Case("anonymous-asset", 2000, 200, filterChain, () -> get("/assets/app.js", null)),
+					new Case("authenticated-api", 2000, 200, filterChain,
+							() -> get(SecurityLoadTest.PROTECTED_URL, cookies)),
+					new Case("failed-login", 50, 20, filterChain,
+							() -> post(SecurityLoadTest.ADMIN, "wrong-password")),
+					new Case("successful-login", 50, 20, filterChain,
+							() -> post(SecurityLoadTest.ADMIN, SecurityLoadTest.PASSWORD)) };
+			System.out.printf(Locale.ROOT, "%-20s %12s %12s  %s%n", "case", "bytes", "budget", "result");
+			for (Case c : cases) {
+				long bytes = c.measure(threads);
+				String budget = budgets.getProperty(c.name);
+				String result;
+				if (reportOnly || budget == null) {
+					result = budget == null ? "NO BUDGET" : "-";
+				} else if (bytes > Long.parseLong(budget.trim())) {
+					result = "OVER BUDGET";
+					violations++;
+				} else {
+					result = "ok";
+				}
+				System.out.printf(Locale.ROOT, "%-20s %12d %12s  %s%n", c.name, bytes, budget, result);
+			}
+		} finally {
+			context.close();
+		}
+		if (violations > 0) {
+			System.out.println(violations + " case(s) allocate more than their budget in " + BUDGETS);
+			System.exit(1);
+		}
+	}
+
+	static MockHttpServletResponse login(Filter filterChain, String username, String password)
+			throws IOException, ServletException {
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		filterChain.doFilter(post(username, password), response, new MockFilterChain());
+		if (response.getStatus() != 200) {
+			throw new IllegalStateException("Login of " + username + " returned " + response.getStatus());
+		}
+		return response;
+	}
+
+	static MockHttpServletRequest get(String path, Cookie[] cookies) {
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", path);
+		request.setServletPath(path);
+		if (cookies != null && cookies.length > 0) {
+			request.setCookies(cookies);
+		}
+		return request;
+	}
+
+	static MockHttpServletRequest post(String username, String password) {
+		MockHttpServletRequest request = new MockHttpServletRequest("POST", SecurityLoadTest.LOGIN_URL);
+		request.setServletPath(SecurityLoadTest.LOGIN_URL);
+		request.setContentType("application/json;charset=UTF-8");
+		request.setContent(("{\"username\":\"" + username + "\",\"password\":\"" + password + "\"}")
+				.getBytes(StandardCharsets.UTF_8));
+		return request;
+	}
+
+	interface RequestFactory {
+
+		MockHttpServletRequest create();
+
+	}
+
+	static final class Case {
+
+		private final String name;
+		private final int warmup;
+		private final int iterations;
+		private final Filter filterChain;
+		private final RequestFactory requests;
+
+		Case(String name, int warmup, int iterations, Filter filterChain, RequestFactory requests) {
+			this.name = name;
+			this.warmup = warmup;
+			this.iterations = iterations;
+			this.filterChain = filterChain;
+			this.requests = requests;
+		}
+
+		/**
+		 * @return the median number of bytes allocated by one pass through the filter chain
+		 */
+		long measure(com.sun.management.ThreadMXBean threads) throws IOException, ServletException {
+			long threadId = Thread.currentThread().getId();
+			for (int i = 0; i < warmup; i++) {
+				filterChain.doFilter(requests.create(), new MockHttpServletResponse(), new MockFilterChain());
+			}
+			long[] samples = new long[iterations];
+			for (int i = 0; i < iterations; i++) {
+				MockHttpServletRequest request = requests.create();
+				MockHttpServletResponse response = new MockHttpServletResponse();
+				MockFilterChain chain = new MockFilterChain();
+				long before = threads.getThreadAllocatedBytes(threadId);
+				filterChain.doFilter(request, response, chain);
+				samples[i] = threads.getThreadAllocatedBytes(threadId) - before;
+			}
+			Arrays.sort(samples);
+			return samples[iterations / 2];
+		}
+
+	}
+
+}
@@ -0,0 +1,345 @@
+/*
+ * Copyright (c) 2018, vindell (https://github.com/vindell).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.springframework.security.boot;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.servlet.ServletRegistrationBean;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.boot.biz.userdetails.InMemoryUserDetailsServiceAdapter;
+import org.springframework.security.boot.biz.userdetails.UserDetailsServiceAdapter;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+/**
+ * 端到端压测：在随机端口启动内嵌 Tomcat，按样例 {@code application.yml} 的路径规则自动配置本 starter，
+ * 再由多个客户端线程并发发起登录、有权限的接口调用和被拒绝的接口调用，输出吞吐量和 p50/p99/p999 延迟。
+ * <p>
+ * 运行方式：{@code mvn -P benchmark test-compile exec:exec@load-test -Dloadtest.args="threads=16 duration=30"}，
+ * 参数为 {@code key=value} 形式：
+ * </p>
+ * <ul>
+ * <li>{@code threads} 客户端线程数，默认 8</li>
+ * <li>{@code warmup} 每个场景的预热秒数，默认 5</li>
+ * <li>{@code duration} 每个场景的测量秒数，默认 15</li>
+ * <li>{@code scenarios} 逗号分隔的场景，默认 {@code login,authorized,rejected}</li>
+ * </ul>
+ * 所有请求都只访问 localhost，用户保存在内存中，密码使用默认的 BCrypt 编码。
+ * @author ： <a href="https://github.com/vindell">wandl</a>
+ */
+public class SecurityLoadTest {
+
+	static final String ADMIN = "admin";
+	static final String GUEST = "guest";
+	static final String PASSWORD = "correct-horse-battery-staple";
+	static final String STATELESS_SECRET = "load-test-stateless-secret";
+	static final String LOGIN_URL = "/authz/login";
+	/** 样例配置中的 roles[admin] */
+	static final String PROTECTED_URL = "/monitoring";
+
+	public static void main(String[] args) throws Exception {
+		Map<String, String> options = parse(args);
+		int threads = Integer.parseInt(options.getOrDefault("threads", "8"));
+		long warmup = TimeUnit.SECONDS.toNanos(Long.parseLong(options.getOrDefault("warmup", "5")));
+		long duration = TimeUnit.SECONDS.toNanos(Long.parseLong(options.getOrDefault("duration", "15")));
+		String[] scenarios = options.getOrDefault("scenarios", "login,authorized,rejected").split(",");
+		// 测试类路径上的日志实现是 slf4j-simple，不读取 logging.level
+		if (System.getProperty("org.slf4j.simpleLogger.defaultLogLevel") == null) {
+			System.setProperty("org.slf4j.simpleLogger.defaultLogLevel", "warn");
+		}
+
+		ConfigurableApplicationContext context = new SpringApplicationBuilder(LoadTestApplication.class)
+				.properties("server.port=0", "spring.main.banner-mode=off",
+						"spring.security.upc.enabled=true",
+						"spring.security.upc.stateless.enabled=true",
+						"spring.security.upc.stateless.secret=" + STATELESS_SECRET,
+						"spring.security.upc.authc.login-url-patterns=" + LOGIN_URL)
+				.run();
+		try {
+			int port = ((ServletWebServerApplicationContext) context).getWebServer().getPort();
+			String baseUrl = "http://localhost:" + port;
+			System.out.printf(Locale.ROOT, "%-12s %10s %8s %12s %10s %10s %10s%n", "scenario", "requests", "errors",
+					"ops/s", "p50(ms)", "p99(ms)", "p999(ms)");
+			for (String name : scenarios) {
+				Scenario scenario = Scenario.valueOf(name.trim().toUpperCase(Locale.ROOT));
+				run(scenario, baseUrl, threads, warmup, true);
+				Result result = run(scenario, baseUrl, threads, duration, false);
+				System.out.printf(Locale.ROOT, "%-12s %10d %8d %12.1f %10.3f %10.3f %10.3f%n", name, result.count(),
+						result.errors, result.count() / (duration / 1e9), result.percentileMillis(0.50),
+						result.percentileMillis(0.99), result.percentileMillis(0.999));
+			}
+		} finally {
+			context.close();
+		}
+	}
+
+	static Map<String, String> parse(String[] args) {
+		Map<String, String> options = new LinkedHashMap<String, String>();
+		for (String arg : args) {
+			int index = arg.indexOf('=');
+			if (index < 0) {
+				throw new IllegalArgumentException("Expected key=value but was " + arg);
+			}
+			options.put(arg.substring(0, index), arg.substring(index + 1));
+		}
+		return options;
+	}
+
+	static Result run(Scenario scenario, String baseUrl, int threads, long nanos, boolean warmup)
+			throws InterruptedException {
+		List<Client> clients = new ArrayList<Client>(threads);
+		CountDownLatch start = new CountDownLatch(1);
+		CountDownLatch done = new CountDownLatch(threads);
+		for (int i = 0; i < threads; i++) {
+			Client client = new Client(scenario, baseUrl, start, done, nanos);
+			clients.add(client);
+			Thread thread = new Thread(client, "load-test-" + scenario.name().toLowerCase(Locale.ROOT) + "-" + i);
+			thread.setDaemon(true);
+			thread.start();
+		}
+		start.countDown();
+		done.await();
+		Result result = new Result();
+		for (Client client : clients) {
+			if (client.failure != null && !warmup) {
+				throw new IllegalStateException("Client failed", client.failure);
+			}
+			result.add(client);
+		}
+		result.sort();
+		return result;
+	}
+
+	enum Scenario {
+
+		/** 每次请求都用管理员账号重新登录 */
+		LOGIN(null, "POST", LOGIN_URL, 200),
+		/** 管理员登录一次后访问 roles[admin] 保护的地址 */
+		AUTHORIZED(ADMIN, "GET", PROTECTED_URL, 200),
+		/** 普通用户登录一次后访问同一地址，被拒绝 */
+		REJECTED(GUEST, "GET", PROTECTED_URL, 403);
+
+		private final String user;
+		private final String method;
+		private final String path;
+		private final int expectedStatus;
+
+		Scenario(String user, String method, String path, int expectedStatus) {
+			this.user = user;
+			this.method = method;
+			this.path = path;
+			this.expectedStatus = expectedStatus;
+		}
+
+	}
+
+	/**
+	 * 一个客户端线程，请求之间复用 keep-alive 连接和 Cookie。
+	 */
+	static final class Client implements Runnable {
+
+		private static final byte[] LOGIN_BODY = ("{\"username\":\"" + ADMIN + "\",\"password\":\"" + PASSWORD + "\"}")
+				.getBytes(StandardCharsets.UTF_8);
+
+		private final Scenario scenario;
+		private final String baseUrl;
+		private final CountDownLatch start;
+		private final CountDownLatch done;
+		private final long nanos;
+		private final Map<String, String> cookies = new LinkedHashMap<String, String>();
+		private final byte[] buffer = new byte[8192];
+		private long[] latencies = new long[1 << 14];
+		private int count;
+		private long errors;
+		private Throwable failure;
+
+		Client(Scenario scenario, String baseUrl, CountDownLatch start, CountDownLatch done, long nanos) {
+			this.scenario = scenario;
+			this.baseUrl = baseUrl;
+			this.start = start;
+			this.done = done;
+			this.nanos = nanos;
+		}
+
+		@Override
+		public void run() {
+			try {
+				if (scenario.user != null) {
+					byte[] body = ("{\"username\":\"" + scenario.user + "\",\"password\":\"" + PASSWORD + "\"}")
+							.getBytes(StandardCharsets.UTF_8);
+					int status = send("POST", LOGIN_URL, body);
+					if (status != 200) {
+						throw new IllegalStateException("Login of " + scenario.user + " returned " + status);
+					}
+				}
+				start.await();
+				long deadline = System.nanoTime() + nanos;
+				long begin;
+				while ((begin = System.nanoTime()) < deadline) {
+					int status = scenario == Scenario.LOGIN ? send("POST", LOGIN_URL, LOGIN_BODY)
+							: send(scenario.method, scenario.path, null);
+					record(System.nanoTime() - begin);
+					if (status != scenario.expectedStatus) {
+						errors++;
+					}
+				}
+			} catch (Throwable e) {
+				failure = e;
+			} finally {
+				done.countDown();
+			}
+		}
+
+		private int send(String method, String path, byte[] body) throws IOException {
+			HttpURLConnection connection = (HttpURLConnection) new URL(baseUrl + path).openConnection();
+			connection.setRequestMethod(method);
+			connection.setInstanceFollowRedirects(false);
+			if (!cookies.isEmpty()) {
+				StringBuilder header = new StringBuilder();
+				for (Map.Entry<String, String> cookie : cookies.entrySet()) {
+					if (header.length() > 0) {
+						header.append("; ");
+					}
+					header.append(cookie.getKey()).append('=').append(cookie.getValue());
+				}
+				connection.setRequestProperty("Cookie", header.toString());
+			}
+			if (body != null) {
+				connection.setDoOutput(true);
+				connection.setRequestProperty("Content-Type", "application/json;charset=UTF-8");
+				connection.setFixedLengthStreamingMode(body.length);
+				try (OutputStream out = connection.getOutputStream()) {
+					out.write(body);
+				}
+			}
+			int status = connection.getResponseCode();
+			List<String> setCookies = connection.getHeaderFields().get("Set-Cookie");
+			if (setCookies != null && scenario != Scenario.LOGIN) {
+				for (String setCookie : setCookies) {
+					String pair = setCookie.split(";", 2)[0];
+					int index = pair.indexOf('=');
+					cookies.put(pair.substring(0, index), pair.substring(index + 1));
+				}
+			}
+			// 读完响应体，连接才能放回 keep-alive 连接池
+			InputStream in = status >= 400 ? connection.getErrorStream() : connection.getInputStream();
+			if (in != null) {
+				try {
+					while (in.read(buffer) >= 0) {
+						// discard
+					}
+				} finally {
+					in.close();
+				}
+			}
+			return status;
+		}
+
+		private void record(long latency) {
+			if (count == latencies.length) {
+				latencies = Arrays.copyOf(latencies, count * 2);
+			}
+			latencies[count++] = latency;
+		}
+
+	}
+
+	static final class Result {
+
+		private long[] latencies = new long[0];
+		private long errors;
+
+		void add(Client client) {
+			int offset = latencies.length;
+			latencies = Arrays.copyOf(latencies, offset + client.count);
+			System.arraycopy(client.latencies, 0, latencies, offset, client.count);
+			errors += client.errors;
+		}
+
+		void sort() {
+			Arrays.sort(latencies);
+		}
+
+		int count() {
+			return latencies.length;
+		}
+
+		double percentileMillis(double percentile) {
+			if (latencies.length == 0) {
+				return 0;
+			}
+			int index = (int) Math.ceil(percentile * latencies.length) - 1;
+			return latencies[Math.max(index, 0)] / 1e6;
+		}
+
+	}
+
+	@Configuration
+	@EnableAutoConfiguration
+	static class LoadTestApplication {
+
+		@Bean
+		public UserDetailsServiceAdapter userDetailsService(PasswordEncoder passwordEncoder) {
+			InMemoryUserDetailsServiceAdapter userDetailsService = new InMemoryUserDetailsServiceAdapter();
+			String encoded = passwordEncoder.encode(PASSWORD);
+			userDetailsService.add(ADMIN, encoded, "ROLE_admin");
+			userDetailsService.add(GUEST, encoded, "ROLE_USER");
+			return userDetailsService;
+		}
+
+		/**
+		 * 代替业务接口：受保护地址通过授权后返回一个固定的小响应。
+		 */
+		@Bean
+		public ServletRegistrationBean<HttpServlet> apiServlet() {
+			HttpServlet servlet = new HttpServlet() {
+
+				private static final long serialVersionUID = 1L;
+
+				@Override
+				protected void service(HttpServletRequest request, HttpServletResponse response) throws IOException {
+					response.setContentType("application/json;charset=UTF-8");
+					response.getWriter().write("{\"status\":\"1\"}");
+				}
+
+			};
+			return new ServletRegistrationBean<HttpServlet>(servlet, PROTECTED_URL, "/index");
+		}
+
+	}
+
+}
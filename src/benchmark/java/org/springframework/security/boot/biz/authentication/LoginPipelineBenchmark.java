@@ -0,0 +1,204 @@
+/*
+ * Copyright (c) 2018, vindell (https://github.com/vindell).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.springframework.security.boot.biz.authentication;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import javax.servlet.ServletException;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.mock.web.MockHttpSession;
+import org.springframework.security.authentication.ProviderManager;
+import org.springframework.security.boot.biz.authentication.captcha.SessionCaptchaResolver;
+import org.springframework.security.boot.biz.metrics.AuthenticationMetrics;
+import org.springframework.security.boot.biz.metrics.HistogramAuthenticationMetrics;
+import org.springframework.security.boot.biz.userdetails.InMemoryUserDetailsServiceAdapter;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.NoOpPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.crypto.password.Pbkdf2PasswordEncoder;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * 登录流程的吞吐量基准：用 {@link MockHttpServletRequest} 驱动
+ * {@link PostRequestAuthenticationProcessingFilter#attemptAuthentication}，再交给成功或失败处理器输出 JSON。
+ * <p>
+ * 覆盖 JSON 和表单请求体、是否校验验证码、会话和请求参数两种失败计数器、登录成功和失败；
+ * 密码编码器通过 {@code -p encoder=noop|bcrypt|pbkdf2} 选择，默认 noop 以突出过滤器本身的开销。
+ * {@code metrics=histogram} 时记录分阶段耗时，与 noop 对比即为埋点的开销。
+ * 每次调用都构造新的模拟请求，{@link #baseline()} 单独测量这部分开销以便扣除。
+ * 配合 {@code -prof gc} 输出每次操作分配的字节数（{@code gc.alloc.rate.norm}）。
+ * </p>
+ * @author ： <a href="https://github.com/vindell">wandl</a>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class LoginPipelineBenchmark {
+
+	private static final String USERNAME = "alice";
+	private static final String PASSWORD = "correct-horse-battery-staple";
+	private static final String CAPTCHA = "x7k2p";
+	private static final String LOGIN_URL = "/login";
+
+	@Param({ "json", "form" })
+	public String body;
+
+	@Param({ "false", "true" })
+	public boolean captcha;
+
+	@Param({ "request", "session" })
+	public String counter;
+
+	@Param({ "success", "failure" })
+	public String outcome;
+
+	@Param({ "noop" })
+	public String encoder;
+
+	@Param({ "noop", "histogram" })
+	public String metrics;
+
+	private PostRequestAuthenticationProcessingFilter filter;
+	private PostRequestAuthenticationSuccessHandler successHandler;
+	private PostRequestAuthenticationFailureHandler failureHandler;
+	private AuthenticatingFailureCounter failureCounter;
+	private byte[] content;
+
+	@Setup
+	public void setup() throws IOException {
+		PasswordEncoder passwordEncoder = passwordEncoder(encoder);
+		InMemoryUserDetailsServiceAdapter userDetailsService = new InMemoryUserDetailsServiceAdapter();
+		userDetailsService.add(USERNAME, passwordEncoder.encode(PASSWORD));
+
+		AuthenticationMetrics authenticationMetrics = "histogram".equals(metrics)
+				? new HistogramAuthenticationMetrics() : AuthenticationMetrics.NOOP;
+		ObjectMapper objectMapper = new ObjectMapper();
+		PostRequestAuthenticationProvider provider = new PostRequestAuthenticationProvider(userDetailsService,
+				passwordEncoder);
+		provider.setMetrics(authenticationMetrics);
+		filter = new PostRequestAuthenticationProcessingFilter(objectMapper);
+		filter.setAuthenticationManager(new ProviderManager(Collections.singletonList(provider)));
+		filter.setMetrics(authenticationMetrics);
+		filter.setCaptchaRequired(captcha);
+		filter.setCaptchaResolver(new SessionCaptchaResolver());
+		if ("session".equals(counter)) {
+			failureCounter = new AuthenticatingFailureSessionCounter();
+		} else {
+			failureCounter = new AuthenticatingFailureRequestCounter();
+		}
+		filter.setFailureCounter(failureCounter);
+
+		successHandler = new PostRequestAuthenticationSuccessHandler("/index");
+		failureHandler = new PostRequestAuthenticationFailureHandler("/login?error");
+		successHandler.setMetrics(authenticationMetrics);
+		failureHandler.setMetrics(authenticationMetrics);
+
+		String password = "success".equals(outcome) ? PASSWORD : "wrong-password";
+		if ("json".equals(body)) {
+			Map<String, String> login = new HashMap<String, String>();
+			login.put("username", USERNAME);
+			login.put("password", password);
+			login.put("captcha", CAPTCHA);
+			content = objectMapper.writeValueAsBytes(login);
+		} else {
+			content = ("username=" + USERNAME + "&password=" + password + "&captcha=" + CAPTCHA)
+					.getBytes(StandardCharsets.UTF_8);
+		}
+	}
+
+	static PasswordEncoder passwordEncoder(String name) {
+		if ("bcrypt".equals(name)) {
+			return new BCryptPasswordEncoder();
+		} else if ("pbkdf2".equals(name)) {
+			return new Pbkdf2PasswordEncoder();
+		}
+		return NoOpPasswordEncoder.getInstance();
+	}
+
+	@Benchmark
+	public MockHttpServletResponse login() throws IOException, ServletException {
+		MockHttpServletRequest request = newRequest();
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		try {
+			Authentication authentication = filter.attemptAuthentication(request, response);
+			successHandler.onAuthenticationSuccess(request, response, authentication);
+		} catch (AuthenticationException e) {
+			failureCounter.increment(request, response, filter.getRetryTimesKeyAttribute());
+			failureHandler.onAuthenticationFailure(request, response, e);
+		}
+		return response;
+	}
+
+	/**
+	 * The cost of building the mock request and response alone.
+	 */
+	@Benchmark
+	public MockHttpServletResponse baseline() {
+		MockHttpServletRequest request = newRequest();
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		response.setStatus(request.getContentLength());
+		return response;
+	}
+
+	private MockHttpServletRequest newRequest() {
+		MockHttpServletRequest request = new MockHttpServletRequest("POST", LOGIN_URL);
+		request.setServletPath(LOGIN_URL);
+		if ("json".equals(body)) {
+			request.setContentType("application/json;charset=UTF-8");
+			request.setContent(content);
+		} else {
+			request.setContentType("application/x-www-form-urlencoded");
+			request.setContent(content);
+			request.setParameter("username", USERNAME);
+			request.setParameter("password", "success".equals(outcome) ? PASSWORD : "wrong-password");
+			request.setParameter("captcha", CAPTCHA);
+		}
+		MockHttpSession session = null;
+		if (captcha) {
+			session = new MockHttpSession();
+			session.setAttribute(SessionCaptchaResolver.KAPTCHA_SESSION_ATTRIBUTE_NAME, CAPTCHA);
+		}
+		if ("session".equals(counter)) {
+			if (session == null) {
+				session = new MockHttpSession();
+			}
+			session.setAttribute(filter.getRetryTimesKeyAttribute(), 1);
+		} else {
+			request.setParameter(AuthenticatingFailureCounter.DEFAULT_RETRY_TIMES_KEY_PARAM_NAME, "1");
+		}
+		request.setSession(session);
+		return request;
+	}
+
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright (c) 2018, vindell (https://github.com/vindell).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.springframework.security.boot.biz.authentication;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+/**
+ * {@link AuthorizationPermissionEvaluator#hasPermission} 随权限数量增长的开销：
+ * 权限位于列表开头、末尾和不存在三种情况。
+ * @author ： <a href="https://github.com/vindell">wandl</a>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class PermissionEvaluatorBenchmark {
+
+	@Param({ "10", "100", "1000", "10000" })
+	public int authorities;
+
+	@Param({ "first", "last", "missing" })
+	public String position;
+
+	private AuthorizationPermissionEvaluator evaluator;
+	private Authentication authentication;
+	private String permission;
+
+	@Setup
+	public void setup() {
+		evaluator = new AuthorizationPermissionEvaluator();
+		List<GrantedAuthority> granted = new ArrayList<GrantedAuthority>(authorities);
+		for (int i = 0; i < authorities; i++) {
+			granted.add(new SimpleGrantedAuthority("module" + i + ":view"));
+		}
+		authentication = new UsernamePasswordAuthenticationToken("alice", "", granted);
+		if ("first".equals(position)) {
+			permission = new String("module0:view");
+		} else if ("last".equals(position)) {
+			permission = new String("module" + (authorities - 1) + ":view");
+		} else {
+			permission = "module" + authorities + ":view";
+		}
+	}
+
+	@Benchmark
+	public boolean hasPermission() {
+		return evaluator.hasPermission(authentication, null, permission);
+	}
+
+}
@@ -0,0 +1,174 @@
+/*
+ * Copyright (c) 2018, vindell (https://github.com/vindell).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.springframework.security.boot.biz.authorization;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.access.AccessDecisionManager;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.access.ConfigAttribute;
+import org.springframework.security.access.SecurityConfig;
+import org.springframework.security.access.AccessDecisionVoter;
+import org.springframework.security.access.vote.AffirmativeBased;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.web.FilterInvocation;
+import org.springframework.security.web.access.expression.DefaultWebSecurityExpressionHandler;
+import org.springframework.security.web.access.expression.ExpressionBasedFilterInvocationSecurityMetadataSource;
+import org.springframework.security.web.access.expression.WebExpressionVoter;
+import org.springframework.security.web.access.intercept.FilterInvocationSecurityMetadataSource;
+import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
+import org.springframework.security.web.util.matcher.RequestMatcher;
+
+/**
+ * URL 授权的单次请求开销：按规模生成 {@code filterChainDefinitionMap}（anon、roles、perms、ipaddr 混合），
+ * 经 {@link FilterChainDefinitions} 转换后构造与 {@code http.authorizeRequests()} 相同的元数据源和投票器，
+ * 测量 {@code FilterSecurityInterceptor} 每个请求所做的工作：查找匹配的规则并做出决策。
+ * <p>
+ * 请求轮流访问各条规则，规则数影响查找，权限数影响角色和权限表达式的判断；
+ * 被拒绝的请求包括 {@link AccessDeniedException} 的创建开销。
+ * </p>
+ * @author ： <a href="https://github.com/vindell">wandl</a>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class UrlAuthorizationBenchmark {
+
+	private static final int REQUESTS = 64;
+
+	@Param({ "10", "100", "1000" })
+	public int rules;
+
+	@Param({ "10", "100", "1000", "10000" })
+	public int authorities;
+
+	private FilterInvocationSecurityMetadataSource metadataSource;
+	private AccessDecisionManager accessDecisionManager;
+	private Authentication authentication;
+	private FilterInvocation[] invocations;
+	private int next;
+
+	@Setup
+	public void setup() {
+		FilterChainDefinitions definitions = FilterChainDefinitions.parse(definitionMap(rules));
+		metadataSource = new ExpressionBasedFilterInvocationSecurityMetadataSource(requestMap(definitions),
+				new DefaultWebSecurityExpressionHandler());
+		List<AccessDecisionVoter<?>> voters = new ArrayList<AccessDecisionVoter<?>>();
+		voters.add(new WebExpressionVoter());
+		accessDecisionManager = new AffirmativeBased(voters);
+		authentication = authentication(authorities);
+
+		invocations = new FilterInvocation[REQUESTS];
+		for (int i = 0; i < REQUESTS; i++) {
+			int rule = (int) ((long) i * rules / REQUESTS);
+			MockHttpServletRequest request = new MockHttpServletRequest("GET", "");
+			request.setServletPath(path(rule) + "/item");
+			request.setRemoteAddr(i % 2 == 0 ? "10.1.2.3" : "192.168.9.9");
+			invocations[i] = new FilterInvocation(request, new MockHttpServletResponse(), new MockFilterChain());
+		}
+		System.out.println(definitions.getRules().size() + " rules, e.g. " + definitions.getRules().get(0));
+	}
+
+	/**
+	 * A definition map mixing {@code anon}, {@code roles[...]}, {@code perms[...]} and {@code ipaddr[...]}.
+	 */
+	static Map<String, String> definitionMap(int size) {
+		Map<String, String> definitionMap = new LinkedHashMap<String, String>();
+		for (int i = 0; i < size; i++) {
+			switch (i % 4) {
+			case 0:
+				definitionMap.put(path(i) + "/**", "anon");
+				break;
+			case 1:
+				definitionMap.put(path(i) + "/**", "roles[role" + (i % 50) + ",admin]");
+				break;
+			case 2:
+				definitionMap.put(path(i) + "/**", "perms[module" + i + ":view,module" + i + ":edit]");
+				break;
+			default:
+				definitionMap.put(path(i) + "/**", "ipaddr[10.0.0.0/8]");
+				break;
+			}
+		}
+		return definitionMap;
+	}
+
+	static String path(int rule) {
+		return "/module" + rule;
+	}
+
+	/**
+	 * The request map {@code http.authorizeRequests()} builds: anon patterns first, then the rules in order.
+	 */
+	static LinkedHashMap<RequestMatcher, Collection<ConfigAttribute>> requestMap(FilterChainDefinitions definitions) {
+		LinkedHashMap<RequestMatcher, Collection<ConfigAttribute>> requestMap = new LinkedHashMap<RequestMatcher, Collection<ConfigAttribute>>();
+		for (String pattern : definitions.getAnonPatterns()) {
+			requestMap.put(new AntPathRequestMatcher(pattern), SecurityConfig.createList("permitAll"));
+		}
+		for (FilterChainDefinitions.Rule rule : definitions.getRules()) {
+			requestMap.put(new AntPathRequestMatcher(rule.getPattern()), SecurityConfig.createList(rule.getExpression()));
+		}
+		return requestMap;
+	}
+
+	/**
+	 * A principal holding half of the roles and the view permission of every other module.
+	 */
+	static Authentication authentication(int size) {
+		List<GrantedAuthority> granted = new ArrayList<GrantedAuthority>(size);
+		for (int i = 0; granted.size() < size; i++) {
+			granted.add(new SimpleGrantedAuthority(i % 2 == 0 ? "ROLE_role" + i : "module" + (i * 4 + 2) + ":view"));
+		}
+		Collections.shuffle(granted, new java.util.Random(42));
+		return new UsernamePasswordAuthenticationToken("alice", "", granted);
+	}
+
+	@Benchmark
+	public boolean decide() {
+		FilterInvocation invocation = invocations[next++ & (REQUESTS - 1)];
+		Collection<ConfigAttribute> attributes = metadataSource.getAttributes(invocation);
+		if (attributes == null) {
+			return true;
+		}
+		try {
+			accessDecisionManager.decide(authentication, invocation, attributes);
+			return true;
+		} catch (AccessDeniedException e) {
+			return false;
+		}
+	}
+
+}
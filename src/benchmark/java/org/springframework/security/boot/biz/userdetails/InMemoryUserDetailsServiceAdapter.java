@@ -0,0 +1,68 @@
+/*
+ * Copyright (c) 2018, vindell (https://github.com/vindell).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.springframework.security.boot.biz.userdetails;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+
+/**
+ * 基准和压测用的内存 {@link UserDetailsServiceAdapter}，每次加载都返回新的 {@link SecurityPrincipal}
+ * @author ： <a href="https://github.com/vindell">wandl</a>
+ */
+public class InMemoryUserDetailsServiceAdapter extends UserDetailsServiceAdapter {
+
+	private final Map<String, User> users = new ConcurrentHashMap<String, User>();
+
+	/**
+	 * @param username the username
+	 * @param encodedPassword the password, already encoded
+	 * @param authorities the authorities, {@code ROLE_USER} when none are given
+	 */
+	public void add(String username, String encodedPassword, String... authorities) {
+		users.put(username, new User(encodedPassword, AuthorityUtils
+				.createAuthorityList(authorities.length > 0 ? authorities : new String[] { "ROLE_USER" })));
+	}
+
+	@Override
+	public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
+		User user = users.get(username);
+		if (user == null) {
+			throw new UsernameNotFoundException(username);
+		}
+		SecurityPrincipal principal = new SecurityPrincipal(username, user.password, user.authorities);
+		principal.setUserid("1024");
+		return principal;
+	}
+
+	private static final class User {
+
+		private final String password;
+		private final List<GrantedAuthority> authorities;
+
+		User(String password, List<GrantedAuthority> authorities) {
+			this.password = password;
+			this.authorities = authorities;
+		}
+
+	}
+
+}
@@ -0,0 +1,142 @@
+/*
+ * Copyright (c) 2018, vindell (https://github.com/vindell).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.springframework.security.boot.biz.userdetails;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+/**
+ * {@link SecurityPrincipal} 序列化的体积和耗时对比：默认 Java 序列化、紧凑格式的 Java 序列化和直接编解码。
+ * 各编码的字节数在初始化时输出。
+ * @author ： <a href="https://github.com/vindell">wandl</a>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class PrincipalSerializationBenchmark {
+
+	private SecurityPrincipal principal;
+	private SecurityPrincipal legacyPrincipal;
+	private byte[] legacyBytes;
+	private byte[] compactBytes;
+	private byte[] codecBytes;
+
+	@Setup
+	public void setup() throws IOException {
+		List<String> roles = Arrays.asList("ROLE_USER", "ROLE_ADMIN", "ROLE_AUDITOR", "ROLE_OPERATOR");
+		List<String> perms = Arrays.asList("user:list", "user:create", "user:update", "user:delete",
+				"role:list", "role:update", "audit:list", "report:export");
+		List<GrantedAuthority> authorities = roles.stream().map(SimpleGrantedAuthority::new).collect(Collectors.toList());
+		perms.forEach(perm -> authorities.add(new SimpleGrantedAuthority(perm)));
+		principal = fill(new SecurityPrincipal("alice", "$2a$10$7EqJtq98hPqEX7fNZaFWoOa0L2o6J8gRkc1p7j2l6Ujz1S5w9YbKe",
+				true, true, true, true, authorities), roles, perms);
+		legacyPrincipal = fill(new LegacyPrincipal("alice", "$2a$10$7EqJtq98hPqEX7fNZaFWoOa0L2o6J8gRkc1p7j2l6Ujz1S5w9YbKe",
+				authorities), roles, perms);
+		legacyBytes = serialize(legacyPrincipal);
+		compactBytes = serialize(principal);
+		codecBytes = SecurityPrincipalCodec.encode(principal);
+		System.out.println("SecurityPrincipal size: java=" + legacyBytes.length + " bytes, compact java="
+				+ compactBytes.length + " bytes, codec=" + codecBytes.length + " bytes");
+	}
+
+	private static SecurityPrincipal fill(SecurityPrincipal principal, List<String> roles, List<String> perms) {
+		principal.setUserid("1024");
+		principal.setUserkey("u-1024");
+		principal.setSalt("f3a9c1d2e4b5");
+		principal.setSecret("d41d8cd98f00b204e9800998ecf8427e");
+		principal.setAlias("Alice");
+		principal.setRoles(new LinkedHashSet<String>(roles));
+		Set<String> permSet = new LinkedHashSet<String>(perms);
+		principal.setPerms(permSet);
+		return principal;
+	}
+
+	@Benchmark
+	public byte[] javaSerialize() throws IOException {
+		return serialize(legacyPrincipal);
+	}
+
+	@Benchmark
+	public byte[] compactJavaSerialize() throws IOException {
+		return serialize(principal);
+	}
+
+	@Benchmark
+	public byte[] codecEncode() {
+		return SecurityPrincipalCodec.encode(principal);
+	}
+
+	@Benchmark
+	public Object javaRoundTrip() throws IOException, ClassNotFoundException {
+		return deserialize(serialize(legacyPrincipal));
+	}
+
+	@Benchmark
+	public Object compactJavaRoundTrip() throws IOException, ClassNotFoundException {
+		return deserialize(serialize(principal));
+	}
+
+	@Benchmark
+	public Object codecRoundTrip() {
+		return SecurityPrincipalCodec.decode(SecurityPrincipalCodec.encode(principal));
+	}
+
+	private static byte[] serialize(Object value) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream(1024);
+		try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+			out.writeObject(value);
+		}
+		return bytes.toByteArray();
+	}
+
+	private static Object deserialize(byte[] data) throws IOException, ClassNotFoundException {
+		try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(data))) {
+			return in.readObject();
+		}
+	}
+
+	/**
+	 * A subclass keeps the default Java serialization, which is the encoding used before.
+	 */
+	@SuppressWarnings("serial")
+	static class LegacyPrincipal extends SecurityPrincipal {
+
+		LegacyPrincipal(String username, String password, List<GrantedAuthority> authorities) {
+			super(username, password, authorities);
+		}
+
+	}
+
+}
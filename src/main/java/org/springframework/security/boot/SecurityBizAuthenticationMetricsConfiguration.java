@@ -0,0 +1,37 @@
+package org.springframework.security.boot;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.boot.biz.jfr.FlightRecorderAuthenticationMetrics;
+import org.springframework.security.boot.biz.jfr.SecurityFlightRecorder;
+import org.springframework.security.boot.biz.metrics.AuthenticationMetrics;
+import org.springframework.security.boot.biz.metrics.HistogramAuthenticationMetrics;
+
+/**
+ * 登录分阶段耗时的记录器，由 Servlet 和 WebFlux 两种认证配置共同导入
+ * @author ： <a href="https://github.com/vindell">wandl</a>
+ */
+@Configuration
+class SecurityBizAuthenticationMetricsConfiguration {
+
+	@Bean("upcHistogramAuthenticationMetrics")
+	@ConditionalOnProperty(prefix = SecurityBizUpcProperties.PREFIX, value = "metrics.enabled", havingValue = "true", matchIfMissing = true)
+	public HistogramAuthenticationMetrics upcHistogramAuthenticationMetrics() {
+		return new HistogramAuthenticationMetrics();
+	}
+
+	@Bean("upcAuthenticationMetrics")
+	public AuthenticationMetrics upcAuthenticationMetrics(SecurityBizUpcProperties bizUpcProperties,
+			@Qualifier("upcHistogramAuthenticationMetrics") ObjectProvider<HistogramAuthenticationMetrics> histogramMetricsProvider) {
+		HistogramAuthenticationMetrics histogramMetrics = histogramMetricsProvider.getIfAvailable();
+		AuthenticationMetrics metrics = histogramMetrics != null ? histogramMetrics : AuthenticationMetrics.NOOP;
+		if (bizUpcProperties.getMetrics().isFlightRecorder() && SecurityFlightRecorder.isAvailable()) {
+			metrics = metrics.andThen(new FlightRecorderAuthenticationMetrics());
+		}
+		return metrics;
+	}
+
+}
@@ -1,25 +1,25 @@
 package org.springframework.security.boot;
 
-import java.util.ArrayList;
+import java.time.Duration;
 import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
-import java.util.Set;
-import java.util.TreeMap;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
 import javax.servlet.http.HttpServletRequest;
 
-import org.apache.commons.lang3.ArrayUtils;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.boot.autoconfigure.AutoConfigureBefore;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication.Type;
 import org.springframework.boot.autoconfigure.security.servlet.SecurityAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.ServerProperties;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.core.annotation.Order;
 import org.springframework.security.access.PermissionEvaluator;
 import org.springframework.security.authentication.AuthenticationDetailsSource;
@@ -28,16 +28,21 @@ import org.springframework.security.authentication.AuthenticationProvider;
 import org.springframework.security.authentication.DefaultAuthenticationEventPublisher;
 import org.springframework.security.authentication.ProviderManager;
 import org.springframework.security.boot.biz.authentication.AuthorizationPermissionEvaluator;
-import org.springframework.security.boot.utils.StringUtils;
+import org.springframework.security.boot.biz.authorization.FilterChainDefinitions;
+import org.springframework.security.boot.biz.concurrent.BlockingExecutorFactory;
+import org.springframework.security.boot.biz.jfr.VirtualThreadPinningMonitor;
+import org.springframework.security.boot.biz.property.SecurityExecutorProperties;
+import org.springframework.security.boot.biz.property.SecuritySessionMgtProperties;
+import org.springframework.security.boot.biz.session.ConcurrentSessionRegistry;
+import org.springframework.security.boot.biz.startup.LazyInitBeanFactoryPostProcessor;
+import org.springframework.security.boot.biz.startup.StartupTimingBeanPostProcessor;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.builders.WebSecurity;
 import org.springframework.security.config.annotation.web.configuration.WebSecurityConfigurerAdapter;
-import org.springframework.security.config.annotation.web.configurers.ExpressionUrlAuthorizationConfigurer;
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.core.authority.mapping.GrantedAuthoritiesMapper;
 import org.springframework.security.core.authority.mapping.NullAuthoritiesMapper;
 import org.springframework.security.core.session.SessionRegistry;
-import org.springframework.security.core.session.SessionRegistryImpl;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.authentication.NullRememberMeServices;
@@ -46,6 +51,7 @@ import org.springframework.security.web.authentication.WebAuthenticationDetailsS
 import org.springframework.security.web.context.AbstractSecurityWebApplicationInitializer;
 import org.springframework.security.web.firewall.HttpFirewall;
 import org.springframework.security.web.firewall.StrictHttpFirewall;
+import org.springframework.util.Assert;
 import org.springframework.util.CollectionUtils;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -56,17 +62,28 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 @EnableConfigurationProperties({ SecurityBizProperties.class, SecurityBizUpcProperties.class })
 public class SecurityBizAutoConfiguration {
 	
+	/**
+	 * 声明为 static，不需要先创建配置类本身即可在 Bean 定义阶段生效
+	 */
+	@Bean
+	@ConditionalOnProperty(prefix = SecurityBizProperties.PREFIX, name = "lazy-init", havingValue = "true")
+	public static LazyInitBeanFactoryPostProcessor securityLazyInitBeanFactoryPostProcessor() {
+		return new LazyInitBeanFactoryPostProcessor();
+	}
 
 	@Bean
-	@ConditionalOnMissingBean
-	public AuthenticationDetailsSource<HttpServletRequest, ?> authenticationDetailsSource() {
-		return new WebAuthenticationDetailsSource();
+	@ConditionalOnProperty(prefix = SecurityBizProperties.PREFIX, name = "startup-report", havingValue = "true")
+	public static StartupTimingBeanPostProcessor securityStartupTimingBeanPostProcessor() {
+		return new StartupTimingBeanPostProcessor();
 	}
 
+	/**
+	 * 过滤链定义只解析一次，由各个 {@link WebSecurityConfigurerAdapter} 共享
+	 */
 	@Bean
 	@ConditionalOnMissingBean
-	protected HttpFirewall httpFirewall() {
-		return new StrictHttpFirewall();
+	public FilterChainDefinitions filterChainDefinitions(SecurityBizProperties bizProperties) {
+		return FilterChainDefinitions.parse(bizProperties.getFilterChainDefinitionMap());
 	}
 
 	@Bean
@@ -81,16 +98,54 @@ public class SecurityBizAutoConfiguration {
 		return new ObjectMapper();
 	}
 
+	/**
+	 * 声明为实际类型，延迟初始化时可以据此识别出它启动了后台清理线程
+	 */
+	@Bean
+	@ConditionalOnMissingBean(SessionRegistry.class)
+	public ConcurrentSessionRegistry sessionRegistry(SecurityBizUpcProperties upcProperties,
+			ObjectProvider<ServerProperties> serverPropertiesProvider) {
+		SecuritySessionMgtProperties sessionMgt = upcProperties.getSessionMgt();
+		// 容器的会话超时时间，会话永不超时时为 0
+		Duration sessionTimeout = serverPropertiesProvider.getIfAvailable(ServerProperties::new).getServlet()
+				.getSession().getTimeout();
+		long containerTimeout = sessionTimeout != null && !sessionTimeout.isNegative() ? sessionTimeout.toMillis() : 0;
+		Long idleTimeout = sessionMgt.getRegistryIdleTimeout();
+		if (idleTimeout == null) {
+			idleTimeout = containerTimeout;
+		} else if (idleTimeout > 0) {
+			// 清理掉仍然有效的会话会让最大会话数的限制失效
+			Assert.state(containerTimeout > 0 && idleTimeout >= containerTimeout, SecurityBizUpcProperties.PREFIX
+					+ ".session-mgt.registry-idle-timeout must not be shorter than server.servlet.session.timeout");
+		}
+		ConcurrentSessionRegistry sessionRegistry = new ConcurrentSessionRegistry(idleTimeout);
+		sessionRegistry.setSweepInterval(sessionMgt.getRegistrySweepInterval());
+		sessionRegistry.setSweepBatchSize(sessionMgt.getRegistrySweepBatchSize());
+		return sessionRegistry;
+	}
+
+	/*
+	 * 阻塞阶段的执行器由各个认证配置共享，JDK 21 及以上版本默认使用虚拟线程
+	 */
 	@Bean
 	@ConditionalOnMissingBean
-	public RememberMeServices rememberMeServices() {
-		return new NullRememberMeServices();
+	public BlockingExecutorFactory blockingExecutorFactory(SecurityBizUpcProperties upcProperties) {
+		return BlockingExecutorFactory.of(upcProperties.getExecutor().getType());
 	}
 
+	/*
+	 * 监控只在初始化时订阅 JFR 事件，没有其他 Bean 依赖它，延迟初始化时必须保持立即创建
+	 */
 	@Bean
+	@Lazy(false)
 	@ConditionalOnMissingBean
-	public SessionRegistry sessionRegistry() {
-		return new SessionRegistryImpl();
+	@ConditionalOnProperty(prefix = SecurityBizUpcProperties.PREFIX, name = "executor.pinning-diagnostics", havingValue = "true", matchIfMissing = true)
+	public VirtualThreadPinningMonitor virtualThreadPinningMonitor(SecurityBizUpcProperties upcProperties,
+			BlockingExecutorFactory blockingExecutorFactory) {
+		SecurityExecutorProperties executor = upcProperties.getExecutor();
+		VirtualThreadPinningMonitor monitor = new VirtualThreadPinningMonitor(executor.getPinningThreshold());
+		monitor.setEnabled(blockingExecutorFactory.isVirtual());
+		return monitor;
 	}
 	
 	@Bean
@@ -105,23 +160,49 @@ public class SecurityBizAutoConfiguration {
    		return new AuthorizationPermissionEvaluator();
    	}
 	
+	/**
+	 * 只有 Servlet 应用才需要的组件，WebFlux 应用的类路径上可能没有 Servlet API
+	 */
+	@Configuration
+	@ConditionalOnWebApplication(type = Type.SERVLET)
+	static class ServletConfiguration {
+
+		@Bean
+		@ConditionalOnMissingBean
+		public AuthenticationDetailsSource<HttpServletRequest, ?> authenticationDetailsSource() {
+			return new WebAuthenticationDetailsSource();
+		}
+
+		@Bean
+		@ConditionalOnMissingBean
+		protected HttpFirewall httpFirewall() {
+			return new StrictHttpFirewall();
+		}
+
+		@Bean
+		@ConditionalOnMissingBean
+		public RememberMeServices rememberMeServices() {
+			return new NullRememberMeServices();
+		}
+
+	}
 	
 	@Configuration
+	@ConditionalOnWebApplication(type = Type.SERVLET)
 	@ConditionalOnClass({ AbstractSecurityWebApplicationInitializer.class, SessionCreationPolicy.class })
    	@EnableConfigurationProperties({ SecurityBizProperties.class, SecurityBizUpcProperties.class })
+	// 启用 Upc 后由 UpcWebSecurityConfigurerAdapter 匹配全部请求，这条过滤器链无法到达，因此不再注册
+	@ConditionalOnProperty(prefix = SecurityBizUpcProperties.PREFIX, value = "enabled", havingValue = "false", matchIfMissing = true)
 	@Order(103)
    	static class BizWebSecurityConfigurerAdapter extends WebSecurityConfigurerAdapter { 
     	
-		private Pattern rolesPattern = Pattern.compile("roles\\[(\\S)\\]");
-		private Pattern permsPattern = Pattern.compile("perms\\[(\\S)\\]");
-		private Pattern ipaddrPattern = Pattern.compile("ipaddr\\[(\\S)\\]");
-        private final SecurityBizProperties bizProperties;
+        private final FilterChainDefinitions filterChainDefinitions;
 	    private final SecurityBizUpcProperties bizUpcProperties;
 
-		public BizWebSecurityConfigurerAdapter(SecurityBizProperties bizProperties,
+		public BizWebSecurityConfigurerAdapter(FilterChainDefinitions filterChainDefinitions,
 				SecurityBizUpcProperties bizUpcProperties) {
 
-			this.bizProperties = bizProperties;
+			this.filterChainDefinitions = filterChainDefinitions;
 			this.bizUpcProperties = bizUpcProperties;
 
 		}
@@ -145,93 +226,9 @@ public class SecurityBizAutoConfiguration {
    		@Override
    	    protected void configure(HttpSecurity http) throws Exception {
    	        
-   	    	
-   	    	// 对过滤链按过滤器名称进行分组
-   			Map<Object, List<Entry<String, String>>> groupingMap = bizProperties.getFilterChainDefinitionMap().entrySet().stream()
-   					.collect(Collectors.groupingBy(Entry::getValue, TreeMap::new, Collectors.toList()));
-
-   			ExpressionUrlAuthorizationConfigurer<HttpSecurity>.ExpressionInterceptUrlRegistry
-   				registry = http.authorizeRequests();
-   			
-   			
-   			List<Entry<String, String>> noneEntries = groupingMap.get("anon");
-   			List<String> permitMatchers = new ArrayList<String>();
-   			if (!CollectionUtils.isEmpty(noneEntries)) {
-   				permitMatchers = noneEntries.stream().map(mapper -> {
-   					return mapper.getKey();
-   				}).collect(Collectors.toList());
-   			}
-   			// 登录地址不拦截 
-   			permitMatchers.add(bizUpcProperties.getAuthc().getLoginUrlPatterns());
-   			
-   			//添加不需要认证的路径 
-   			registry.antMatchers(permitMatchers.toArray(new String[permitMatchers.size()])).permitAll();
-   			
    			// https://www.jianshu.com/p/01498e0e0c83
-   			Set<Object> keySet = groupingMap.keySet();
-   			for (Object key : keySet) {
-   				// Ant表达式 = roles[xxx] 
-   				Matcher rolesMatcher = rolesPattern.matcher(key.toString());
-   				if (rolesMatcher.find()) {
-   					
-   					System.out.println("Found value: " + rolesMatcher.group(0));
-   					System.out.println("Found value: " + rolesMatcher.group(1));
-
-   					List<String> matchers = groupingMap.get(key.toString()).stream().map(mapper -> {
-   						return mapper.getKey();
-   					}).collect(Collectors.toList());
-   					// 角色
-   					String[] roles = StringUtils.split(rolesMatcher.group(1), ",");
-   					if (ArrayUtils.isNotEmpty(roles)) {
-   						if (roles.length > 1) {
-   							// 如果用户具备给定角色中的某一个的话，就允许访问
-   							registry.antMatchers(matchers.toArray(new String[matchers.size()])).hasAnyRole(roles);
-   						} else {
-   							// 如果用户具备给定角色的话，就允许访问
-   							registry.antMatchers(matchers.toArray(new String[matchers.size()])).hasRole(roles[0]);
-   						}
-   					}
-   				}
-   				// Ant表达式 = perms[xxx] 
-   				Matcher permsMatcher = permsPattern.matcher(key.toString());
-   				if (permsMatcher.find()) {
-   					
-   					System.out.println("Found value: " + permsMatcher.group(0));
-   					System.out.println("Found value: " + permsMatcher.group(1));
-
-   					List<String> matchers = groupingMap.get(key.toString()).stream().map(mapper -> {
-   						return mapper.getKey();
-   					}).collect(Collectors.toList());
-   					// 权限标记
-   					String[] perms = StringUtils.split(permsMatcher.group(1), ",");
-   					if (ArrayUtils.isNotEmpty(perms)) {
-   						if (perms.length > 1) {
-   							// 如果用户具备给定全权限的某一个的话，就允许访问
-   							registry.antMatchers(matchers.toArray(new String[matchers.size()])).hasAnyAuthority(perms);
-   						} else {
-   							// 如果用户具备给定权限的话，就允许访问
-   							registry.antMatchers(matchers.toArray(new String[matchers.size()])).hasAuthority(perms[0]);
-   						}
-   					}
-   				}
-   				// Ant表达式 = ipaddr[192.168.1.0/24] 
-   				Matcher ipMatcher = ipaddrPattern.matcher(key.toString());
-   				if (rolesMatcher.find()) {
-   					
-   					System.out.println("Found value: " + ipMatcher.group(0));
-   					System.out.println("Found value: " + ipMatcher.group(1));
-
-   					List<String> matchers = groupingMap.get(key.toString()).stream().map(mapper -> {
-   						return mapper.getKey();
-   					}).collect(Collectors.toList());
-   					// ipaddress
-   					String ipaddr = rolesMatcher.group(1);
-   					if (StringUtils.hasText(ipaddr)) {
-   						// 如果请求来自给定IP地址的话，就允许访问
-   						registry.antMatchers(matchers.toArray(new String[matchers.size()])).hasIpAddress(ipaddr);
-   					}
-   				}
-   			}
+   			// 登录地址不拦截；roles[xxx]、perms[xxx]、ipaddr[192.168.1.0/24] 按定义顺序转换为授权表达式
+   			filterChainDefinitions.authorizeRequests(http, bizUpcProperties.getAuthc().getLoginUrlPatterns());
    			
    			//允许认证过的用户访问
    			//registry.anyRequest().authenticated();
@@ -241,21 +238,9 @@ public class SecurityBizAutoConfiguration {
    	    @Override
    	    public void configure(WebSecurity web) throws Exception {
    	    	
-   	    	// 对过滤链按过滤器名称进行分组
-   			Map<Object, List<Entry<String, String>>> groupingMap = bizProperties.getFilterChainDefinitionMap().entrySet().stream()
-   					.collect(Collectors.groupingBy(Entry::getValue, TreeMap::new, Collectors.toList()));
-   	    	
-   			List<Entry<String, String>> noneEntries = groupingMap.get("anon");
-   			List<String> permitMatchers = new ArrayList<String>();
-   			if (!CollectionUtils.isEmpty(noneEntries)) {
-   				permitMatchers = noneEntries.stream().map(mapper -> {
-   					return mapper.getKey();
-   				}).collect(Collectors.toList());
-   			}
-   			// 登录地址不拦截 
-   			permitMatchers.add(bizUpcProperties.getAuthc().getLoginUrlPatterns());
-   			
-   	    	web.ignoring().antMatchers(permitMatchers.toArray(new String[permitMatchers.size()]));
+   			// 登录地址需要经过登录过滤器，只放行不忽略
+   			List<String> ignoringMatchers = filterChainDefinitions.getAnonPatterns();
+   	    	web.ignoring().antMatchers(ignoringMatchers.toArray(new String[ignoringMatchers.size()]));
    	    	
    	    	//web.httpFirewall(httpFirewall)
    	    	
@@ -0,0 +1,51 @@
+package org.springframework.security.boot;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.autoconfigure.AutoConfigureAfter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.boot.biz.metrics.AuthenticationMetricsBinder;
+import org.springframework.security.boot.biz.metrics.AuthenticationMetricsEndpoint;
+import org.springframework.security.boot.biz.metrics.HistogramAuthenticationMetrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * 登录分阶段耗时指标的对外暴露：存在 Micrometer 时注册指标，存在 actuator 时注册 {@code loginmetrics} 端点
+ * @author ： <a href="https://github.com/vindell">wandl</a>
+ */
+@Configuration
+@AutoConfigureAfter({ SecurityBizUpcAutoConfiguration.class, SecurityBizReactiveAutoConfiguration.class })
+@ConditionalOnProperty(prefix = SecurityBizUpcProperties.PREFIX, value = "enabled", havingValue = "true")
+@ConditionalOnBean(HistogramAuthenticationMetrics.class)
+public class SecurityBizMetricsAutoConfiguration {
+
+	@Configuration
+	@ConditionalOnClass(MeterRegistry.class)
+	static class MicrometerConfiguration {
+
+		@Bean
+		public AuthenticationMetricsBinder upcAuthenticationMetricsBinder(
+				@Qualifier("upcHistogramAuthenticationMetrics") HistogramAuthenticationMetrics authenticationMetrics) {
+			return new AuthenticationMetricsBinder(authenticationMetrics);
+		}
+
+	}
+
+	@Configuration
+	@ConditionalOnClass(Endpoint.class)
+	static class EndpointConfiguration {
+
+		@Bean
+		public AuthenticationMetricsEndpoint upcAuthenticationMetricsEndpoint(
+				@Qualifier("upcHistogramAuthenticationMetrics") HistogramAuthenticationMetrics authenticationMetrics) {
+			return new AuthenticationMetricsEndpoint(authenticationMetrics);
+		}
+
+	}
+
+}
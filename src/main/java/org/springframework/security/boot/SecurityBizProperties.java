@@ -29,6 +29,14 @@ public class SecurityBizProperties {
 	 * 类似Shiro的过滤链定义，用于初始化默认的过滤规则
 	 */
 	private Map<String /* pattern */, String /* Chain name */> filterChainDefinitionMap = new LinkedHashMap<String, String>();
+	/**
+	 * 是否延迟初始化本组件声明的 Bean，未被引用的 Bean 不在启动时创建
+	 */
+	private boolean lazyInit = false;
+	/**
+	 * 是否在启动完成时输出本组件每个 Bean 的创建耗时
+	 */
+	private boolean startupReport = false;
 
 	public Map<String, String> getFilterChainDefinitionMap() {
 		return filterChainDefinitionMap;
@@ -38,4 +46,20 @@ public class SecurityBizProperties {
 		this.filterChainDefinitionMap = filterChainDefinitionMap;
 	}
 
+	public boolean isLazyInit() {
+		return lazyInit;
+	}
+
+	public void setLazyInit(boolean lazyInit) {
+		this.lazyInit = lazyInit;
+	}
+
+	public boolean isStartupReport() {
+		return startupReport;
+	}
+
+	public void setStartupReport(boolean startupReport) {
+		this.startupReport = startupReport;
+	}
+
 }
@@ -0,0 +1,178 @@
+package org.springframework.security.boot;
+
+import java.net.URI;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.AutoConfigureBefore;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication.Type;
+import org.springframework.boot.autoconfigure.security.reactive.ReactiveSecurityAutoConfiguration;
+import org.springframework.boot.autoconfigure.security.reactive.ReactiveUserDetailsServiceAutoConfiguration;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.boot.biz.authentication.PostRequestAuthenticationProvider;
+import org.springframework.security.boot.biz.authorization.FilterChainDefinitions;
+import org.springframework.security.boot.biz.concurrent.BlockingExecutorFactory;
+import org.springframework.security.boot.biz.metrics.AuthenticationMetrics;
+import org.springframework.security.boot.biz.property.CaptchaStore;
+import org.springframework.security.boot.biz.property.SecurityLogoutProperties;
+import org.springframework.security.boot.biz.property.SecurityReactiveProperties;
+import org.springframework.security.boot.biz.property.SecurityUserLookupProperties;
+import org.springframework.security.boot.biz.reactive.NullReactiveCaptchaResolver;
+import org.springframework.security.boot.biz.reactive.PostRequestAuthenticationWebFilter;
+import org.springframework.security.boot.biz.reactive.PostRequestReactiveAuthenticationManager;
+import org.springframework.security.boot.biz.reactive.PostRequestServerAuthenticationEntryPoint;
+import org.springframework.security.boot.biz.reactive.PostRequestServerAuthenticationFailureHandler;
+import org.springframework.security.boot.biz.reactive.PostRequestServerAuthenticationSuccessHandler;
+import org.springframework.security.boot.biz.reactive.ReactiveAuthenticatingFailureCounter;
+import org.springframework.security.boot.biz.reactive.ReactiveCaptchaResolver;
+import org.springframework.security.boot.biz.reactive.ReactiveFilterChainDefinitions;
+import org.springframework.security.boot.biz.reactive.WebSessionAuthenticatingFailureCounter;
+import org.springframework.security.boot.biz.reactive.WebSessionCaptchaResolver;
+import org.springframework.security.boot.biz.userdetails.BatchingUserDetailsService;
+import org.springframework.security.boot.biz.userdetails.UserDetailsServiceAdapter;
+import org.springframework.security.boot.utils.StringUtils;
+import org.springframework.security.config.annotation.web.reactive.EnableWebFluxSecurity;
+import org.springframework.security.config.web.server.SecurityWebFiltersOrder;
+import org.springframework.security.config.web.server.ServerHttpSecurity;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.web.server.SecurityWebFilterChain;
+import org.springframework.security.web.server.authentication.logout.RedirectServerLogoutSuccessHandler;
+import org.springframework.web.server.WebFilter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * WebFlux 应用的账号、密码、验证码认证：类路径上存在 WebFlux 且是响应式 Web 应用时生效，
+ * 授权规则同样来自 {@code filterChainDefinitionMap}
+ * @author ： <a href="https://github.com/vindell">wandl</a>
+ */
+@Configuration
+@AutoConfigureBefore({ ReactiveSecurityAutoConfiguration.class, ReactiveUserDetailsServiceAutoConfiguration.class })
+@ConditionalOnWebApplication(type = Type.REACTIVE)
+@ConditionalOnClass({ EnableWebFluxSecurity.class, WebFilter.class, Mono.class })
+@ConditionalOnProperty(prefix = SecurityBizUpcProperties.PREFIX, value = "enabled", havingValue = "true")
+@EnableConfigurationProperties({ SecurityBizProperties.class, SecurityBizUpcProperties.class })
+@Import(SecurityBizAuthenticationMetricsConfiguration.class)
+@EnableWebFluxSecurity
+public class SecurityBizReactiveAutoConfiguration {
+
+	@Autowired
+	private SecurityBizUpcProperties bizUpcProperties;
+
+	/*
+	 * 密码校验专用的有界执行器：同时运行和等待的登录都满时拒绝登录，而不是无限排队
+	 */
+	@Bean(name = "upcLoginScheduler", destroyMethod = "dispose")
+	public Scheduler upcLoginScheduler(BlockingExecutorFactory blockingExecutorFactory) {
+		SecurityReactiveProperties reactive = bizUpcProperties.getReactive();
+		return Schedulers.fromExecutorService(blockingExecutorFactory.create("login", reactive.getLoginThreads(),
+				reactive.getLoginQueueCapacity()));
+	}
+
+	@Bean
+	@ConditionalOnMissingBean
+	public ReactiveCaptchaResolver reactiveCaptchaResolver() {
+		// 令牌和内存存储依赖 Servlet 请求，响应式应用中只支持会话存储
+		if (CaptchaStore.SESSION.equals(bizUpcProperties.getCaptcha().getStore())) {
+			return new WebSessionCaptchaResolver();
+		}
+		return new NullReactiveCaptchaResolver();
+	}
+
+	@Bean("upcReactiveAuthenticatingFailureCounter")
+	public ReactiveAuthenticatingFailureCounter upcReactiveAuthenticatingFailureCounter() {
+		return new WebSessionAuthenticatingFailureCounter();
+	}
+
+	@Bean("upcReactiveAuthenticationManager")
+	public PostRequestReactiveAuthenticationManager upcReactiveAuthenticationManager(
+			UserDetailsServiceAdapter userDetailsService, PasswordEncoder passwordEncoder,
+			@Qualifier("upcLoginScheduler") Scheduler loginScheduler,
+			@Qualifier("upcAuthenticationMetrics") AuthenticationMetrics authenticationMetrics) {
+		SecurityUserLookupProperties userLookup = bizUpcProperties.getUserLookup();
+		if (userLookup.isBatching()) {
+			userDetailsService = new BatchingUserDetailsService(userDetailsService, userLookup.getBatchWindow(),
+					userLookup.getMaxBatchSize(), userLookup.getBatchTimeout());
+		}
+		PostRequestAuthenticationProvider authenticationProvider = new PostRequestAuthenticationProvider(
+				userDetailsService, passwordEncoder);
+		authenticationProvider.setMetrics(authenticationMetrics);
+		return new PostRequestReactiveAuthenticationManager(authenticationProvider, loginScheduler);
+	}
+
+	@Bean("upcSecurityWebFilterChain")
+	public SecurityWebFilterChain upcSecurityWebFilterChain(ServerHttpSecurity http,
+			SecurityBizProperties bizProperties,
+			ObjectProvider<FilterChainDefinitions> filterChainDefinitionsProvider,
+			ObjectProvider<ObjectMapper> objectMapperProvider,
+			ReactiveCaptchaResolver captchaResolver,
+			@Qualifier("upcReactiveAuthenticatingFailureCounter") ReactiveAuthenticatingFailureCounter failureCounter,
+			@Qualifier("upcReactiveAuthenticationManager") PostRequestReactiveAuthenticationManager authenticationManager,
+			@Qualifier("upcAuthenticationMetrics") AuthenticationMetrics authenticationMetrics) {
+
+		// Form Login With Captcha：过滤器不声明为 Bean，避免被注册为全局 WebFilter
+		PostRequestAuthenticationWebFilter authcFilter = new PostRequestAuthenticationWebFilter(authenticationManager,
+				objectMapperProvider.getIfAvailable(ObjectMapper::new));
+		if (StringUtils.hasText(bizUpcProperties.getAuthc().getLoginUrlPatterns())) {
+			authcFilter.setFilterProcessesUrl(bizUpcProperties.getAuthc().getLoginUrlPatterns());
+		}
+		authcFilter.setUsernameParameter(bizUpcProperties.getAuthc().getUsernameParameter());
+		authcFilter.setPasswordParameter(bizUpcProperties.getAuthc().getPasswordParameter());
+		authcFilter.setPostOnly(bizUpcProperties.getAuthc().isPostOnly());
+		authcFilter.setCaptchaParameter(bizUpcProperties.getCaptcha().getParamName());
+		// 是否验证码必填
+		authcFilter.setCaptchaRequired(bizUpcProperties.getCaptcha().isRequired());
+		authcFilter.setCaptchaResolver(captchaResolver);
+		// 认证失败计数器，超出限制需要输入验证码
+		authcFilter.setFailureCounter(failureCounter);
+		authcFilter.setRetryTimesKeyAttribute(bizUpcProperties.getAuthc().getRetryTimesKeyAttribute());
+		authcFilter.setRetryTimesWhenAccessDenied(bizUpcProperties.getAuthc().getRetryTimesWhenAccessDenied());
+		authcFilter.setAuthenticationSuccessHandler(
+				new PostRequestServerAuthenticationSuccessHandler(bizUpcProperties.getAuthc().getSuccessUrl()));
+		authcFilter.setAuthenticationFailureHandler(new PostRequestServerAuthenticationFailureHandler());
+		authcFilter.setMetrics(authenticationMetrics);
+
+		http.httpBasic().disable()
+			.formLogin().disable()
+			.authenticationManager(authenticationManager)
+			.exceptionHandling()
+			.authenticationEntryPoint(new PostRequestServerAuthenticationEntryPoint(bizUpcProperties.getAuthc().getLoginUrl()))
+			.and()
+			.addFilterAt(authcFilter, SecurityWebFiltersOrder.AUTHENTICATION);
+
+		// Session 注销配置
+		SecurityLogoutProperties logout = bizUpcProperties.getLogout();
+		ServerHttpSecurity.LogoutSpec logoutSpec = http.logout().logoutUrl(logout.getLogoutUrlPatterns());
+		if (StringUtils.hasText(logout.getLogoutUrl())) {
+			RedirectServerLogoutSuccessHandler logoutSuccessHandler = new RedirectServerLogoutSuccessHandler();
+			logoutSuccessHandler.setLogoutSuccessUrl(URI.create(logout.getLogoutUrl()));
+			logoutSpec.logoutSuccessHandler(logoutSuccessHandler);
+		}
+
+		// CSRF 配置
+		if (!bizUpcProperties.getCsrf().isEnabled()) {
+			http.csrf().disable();
+		}
+
+		// 登录地址不拦截；其余路径按 filterChainDefinitionMap 授权
+		FilterChainDefinitions filterChainDefinitions = filterChainDefinitionsProvider
+				.getIfAvailable(() -> FilterChainDefinitions.parse(bizProperties.getFilterChainDefinitionMap()));
+		ReactiveFilterChainDefinitions.authorizeExchange(http, filterChainDefinitions,
+				bizUpcProperties.getAuthc().getLoginUrlPatterns());
+
+		return http.build();
+	}
+
+}
@@ -1,17 +1,30 @@
 package org.springframework.security.boot;
 
+import java.nio.file.Paths;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
 
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
 import org.springframework.boot.autoconfigure.AutoConfigureBefore;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication.Type;
 import org.springframework.boot.autoconfigure.security.servlet.SecurityAutoConfiguration;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
 import org.springframework.security.authentication.DefaultAuthenticationEventPublisher;
+import org.springframework.security.boot.biz.audit.AuditJournal;
+import org.springframework.security.boot.biz.audit.AuditJournalAuthenticationListener;
+import org.springframework.security.boot.biz.audit.RecentAuthenticationEvents;
+import org.springframework.security.boot.biz.audit.RecentAuthenticationEventsEndpoint;
+import org.springframework.security.boot.biz.audit.RecentEventsAuthenticationListener;
 import org.springframework.security.boot.biz.authentication.AuthenticatingFailureCounter;
 import org.springframework.security.boot.biz.authentication.AuthenticatingFailureRequestCounter;
 import org.springframework.security.boot.biz.authentication.AuthenticationListener;
@@ -19,9 +32,32 @@ import org.springframework.security.boot.biz.authentication.PostRequestAuthentic
 import org.springframework.security.boot.biz.authentication.PostRequestAuthenticationFailureHandler;
 import org.springframework.security.boot.biz.authentication.PostRequestAuthenticationProvider;
 import org.springframework.security.boot.biz.authentication.PostRequestAuthenticationSuccessHandler;
+import org.springframework.security.boot.biz.authentication.RequestedUrlCookieRepository;
+import org.springframework.security.boot.biz.authentication.token.BearerTokenAuthenticationProvider;
+import org.springframework.security.boot.biz.concurrent.BlockingExecutorFactory;
+import org.springframework.security.boot.biz.context.CookieSecurityContextRepository;
+import org.springframework.security.boot.biz.context.RevokedTokenRegistry;
+import org.springframework.security.boot.biz.context.RevokingLogoutHandler;
+import org.springframework.security.boot.biz.context.StatelessTokenCodec;
+import org.springframework.security.boot.biz.crypto.HmacSigner;
+import org.springframework.security.boot.biz.crypto.RotatingKeySet;
+import org.springframework.security.boot.biz.csrf.HmacCsrfTokenRepository;
+import org.springframework.security.boot.biz.metrics.AuthenticationMetrics;
+import org.springframework.security.boot.biz.property.RequestCacheStore;
+import org.springframework.security.boot.biz.property.SecurityAsyncProperties;
+import org.springframework.security.boot.biz.property.SecurityAuditProperties;
+import org.springframework.security.boot.biz.property.SecurityCsrfProperties;
+import org.springframework.security.boot.biz.property.SecurityRedirectProperties;
+import org.springframework.security.boot.biz.property.SecurityRequestProperties;
 import org.springframework.security.boot.biz.property.SecuritySessionMgtProperties;
+import org.springframework.security.boot.biz.property.SecurityStatelessProperties;
+import org.springframework.security.boot.biz.property.SecurityUserLookupProperties;
 import org.springframework.security.boot.biz.property.SessionFixationPolicy;
+import org.springframework.security.boot.biz.savedrequest.CompactRequestCache;
+import org.springframework.security.boot.biz.savedrequest.SaveableRequestMatcher;
+import org.springframework.security.boot.biz.userdetails.BatchingUserDetailsService;
 import org.springframework.security.boot.biz.userdetails.UserDetailsServiceAdapter;
+import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.DefaultRedirectStrategy;
 import org.springframework.security.web.RedirectStrategy;
@@ -30,21 +66,26 @@ import org.springframework.security.web.authentication.session.ChangeSessionIdAu
 import org.springframework.security.web.authentication.session.NullAuthenticatedSessionStrategy;
 import org.springframework.security.web.authentication.session.SessionAuthenticationStrategy;
 import org.springframework.security.web.authentication.session.SessionFixationProtectionStrategy;
+import org.springframework.security.web.context.SecurityContextRepository;
 import org.springframework.security.web.csrf.CookieCsrfTokenRepository;
 import org.springframework.security.web.csrf.CsrfTokenRepository;
 import org.springframework.security.web.csrf.HttpSessionCsrfTokenRepository;
-import org.springframework.security.web.savedrequest.HttpSessionRequestCache;
+import org.springframework.security.web.savedrequest.NullRequestCache;
 import org.springframework.security.web.savedrequest.RequestCache;
 import org.springframework.security.web.session.InvalidSessionStrategy;
 import org.springframework.security.web.session.SessionInformationExpiredStrategy;
 import org.springframework.security.web.session.SimpleRedirectInvalidSessionStrategy;
 import org.springframework.security.web.session.SimpleRedirectSessionInformationExpiredStrategy;
+import org.springframework.util.Assert;
+import org.springframework.util.StringUtils;
 
 @Configuration
 @AutoConfigureBefore(SecurityAutoConfiguration.class)
+@ConditionalOnWebApplication(type = Type.SERVLET)
 @ConditionalOnClass(DefaultAuthenticationEventPublisher.class)
 @ConditionalOnProperty(prefix = SecurityBizUpcProperties.PREFIX, value = "enabled", havingValue = "true")
 @EnableConfigurationProperties({ SecurityBizProperties.class, SecurityBizUpcProperties.class })
+@Import(SecurityBizAuthenticationMetricsConfiguration.class)
 public class SecurityBizUpcAutoConfiguration {
 	
 	@Autowired
@@ -58,12 +99,19 @@ public class SecurityBizUpcAutoConfiguration {
 	}
 
 	@Bean("upcRequestCache")
-	public RequestCache upcRequestCache() {
-		HttpSessionRequestCache requestCache = new HttpSessionRequestCache();
+	public RequestCache upcRequestCache(
+			@Qualifier("upcRequestedUrlRepository") ObjectProvider<RequestedUrlCookieRepository> requestedUrlRepositoryProvider) {
+		SecurityRequestProperties request = bizUpcProperties.getRequest();
+		if (RequestCacheStore.NONE.equals(request.getCacheStore())) {
+			return new NullRequestCache();
+		}
+		// 只保存请求方法和地址，跳过非 GET、AJAX 和静态资源请求
+		CompactRequestCache requestCache = RequestCacheStore.COOKIE.equals(request.getCacheStore())
+				? new CompactRequestCache(requestedUrlRepositoryProvider.getObject()) : new CompactRequestCache();
+		requestCache.setRequestMatcher(new SaveableRequestMatcher(request.getCacheAssetExtensions(), request.getCacheAssetPaths()));
 		requestCache.setCreateSessionAllowed(bizUpcProperties.getSessionMgt().isAllowSessionCreation());
 		requestCache.setSessionAttrName(bizUpcProperties.getSessionMgt().getSessionAttrName());
-		// requestCache.setRequestMatcher(requestMatcher);
-		// requestCache.setSessionAttrName(sessionAttrName);
+		requestCache.setMaxUrlLength(request.getCacheMaxUrlLength());
 		return requestCache;
 	}
 
@@ -84,12 +132,77 @@ public class SecurityBizUpcAutoConfiguration {
 	public CsrfTokenRepository upcCsrfTokenRepository() {
 		// Session 管理器配置参数
 		SecuritySessionMgtProperties sessionMgt = bizUpcProperties.getSessionMgt();
+		SecurityCsrfProperties csrf = bizUpcProperties.getCsrf();
+		if (csrf.isEnabled() && SessionCreationPolicy.STATELESS.equals(sessionMgt.getCreationPolicy())) {
+			// 无状态模式：HMAC 签名的双重提交令牌，延迟生成；随机密钥会导致跨节点和重启后校验失败
+			Assert.state(StringUtils.hasText(csrf.getSecret()), SecurityBizUpcProperties.PREFIX
+					+ ".csrf.secret must be set when csrf is enabled in stateless mode");
+			HmacCsrfTokenRepository csrfTokenRepository = new HmacCsrfTokenRepository(HmacSigner.of(csrf.getSecret()));
+			csrfTokenRepository.setCookieName(csrf.getCookieName());
+			csrfTokenRepository.setHeaderName(csrf.getHeaderName());
+			csrfTokenRepository.setParameterName(csrf.getParameterName());
+			csrfTokenRepository.setTimeout(csrf.getTimeout());
+			return csrfTokenRepository;
+		}
 		if (SessionFixationPolicy.CHANGE_SESSION_ID.equals(sessionMgt.getFixationPolicy())) {
 			return new CookieCsrfTokenRepository();
 		}
 		return new HttpSessionCsrfTokenRepository();
 	}
 
+	@Bean("upcStatelessTokenCodec")
+	@ConditionalOnExpression("('${" + SecurityBizUpcProperties.PREFIX + ".session-mgt.creation-policy:STATELESS}'.equalsIgnoreCase('STATELESS') and ${" + SecurityBizUpcProperties.PREFIX + ".stateless.enabled:false}) or ${" + SecurityBizUpcProperties.PREFIX + ".stateless.bearer-enabled:false}")
+	public StatelessTokenCodec upcStatelessTokenCodec() {
+		SecurityStatelessProperties stateless = bizUpcProperties.getStateless();
+		// 随机密钥签发的令牌在重启后或其他节点上都会失效，不能静默降级
+		Assert.state(StringUtils.hasText(stateless.getSecret()), SecurityBizUpcProperties.PREFIX
+				+ ".stateless.secret must be set when the stateless context cookie or bearer tokens are enabled");
+		return new StatelessTokenCodec(RotatingKeySet.of(stateless.getSecret(), stateless.getKeyRotationPeriod()));
+	}
+
+	/*
+	 * 已吊销的无状态令牌：注销时写入，每个请求先经布隆过滤器检查
+	 */
+	@Bean("upcRevokedTokenRegistry")
+	@ConditionalOnExpression("('${" + SecurityBizUpcProperties.PREFIX + ".session-mgt.creation-policy:STATELESS}'.equalsIgnoreCase('STATELESS') and ${" + SecurityBizUpcProperties.PREFIX + ".stateless.enabled:false}) or ${" + SecurityBizUpcProperties.PREFIX + ".stateless.bearer-enabled:false}")
+	public RevokedTokenRegistry upcRevokedTokenRegistry() {
+		SecurityStatelessProperties stateless = bizUpcProperties.getStateless();
+		return new RevokedTokenRegistry(stateless.getTimeout(), stateless.getRevocationCapacity(),
+				stateless.getRevocationFpp());
+	}
+	
+	/*
+	 * 无状态模式下认证信息保存在签名 Cookie 中，不依赖会话
+	 */
+	@Bean("upcSecurityContextRepository")
+	@ConditionalOnExpression("'${" + SecurityBizUpcProperties.PREFIX + ".session-mgt.creation-policy:STATELESS}'.equalsIgnoreCase('STATELESS') and ${" + SecurityBizUpcProperties.PREFIX + ".stateless.enabled:false}")
+	public SecurityContextRepository upcSecurityContextRepository(
+			@Qualifier("upcStatelessTokenCodec") StatelessTokenCodec statelessTokenCodec,
+			@Qualifier("upcRevokedTokenRegistry") RevokedTokenRegistry revokedTokenRegistry) {
+		SecurityStatelessProperties stateless = bizUpcProperties.getStateless();
+		CookieSecurityContextRepository securityContextRepository = new CookieSecurityContextRepository(statelessTokenCodec);
+		securityContextRepository.setRevokedTokenRegistry(revokedTokenRegistry);
+		securityContextRepository.setCookieName(stateless.getCookieName());
+		securityContextRepository.setTimeout(stateless.getTimeout());
+		securityContextRepository.setRenewWindow(stateless.getRenewWindow());
+		securityContextRepository.setDisableUrlRewriting(!bizUpcProperties.getSessionMgt().isEnableSessionUrlRewriting());
+		return securityContextRepository;
+	}
+
+	/*
+	 * 请求头令牌认证：复用无状态令牌的编解码和轮换密钥
+	 */
+	@Bean("upcBearerTokenAuthenticationProvider")
+	@ConditionalOnProperty(prefix = SecurityBizUpcProperties.PREFIX, value = "stateless.bearer-enabled", havingValue = "true")
+	public BearerTokenAuthenticationProvider upcBearerTokenAuthenticationProvider(
+			@Qualifier("upcStatelessTokenCodec") StatelessTokenCodec statelessTokenCodec,
+			@Qualifier("upcRevokedTokenRegistry") RevokedTokenRegistry revokedTokenRegistry) {
+		BearerTokenAuthenticationProvider authenticationProvider = new BearerTokenAuthenticationProvider(
+				statelessTokenCodec, bizUpcProperties.getStateless().getBearerCacheCapacity());
+		authenticationProvider.setRevokedTokenRegistry(revokedTokenRegistry);
+		return authenticationProvider;
+	}
+
 	@Bean("upcSessionAuthenticationStrategy")
 	public SessionAuthenticationStrategy upcSessionAuthenticationStrategy() {
 		// Session 管理器配置参数
@@ -108,9 +221,13 @@ public class SecurityBizUpcAutoConfiguration {
 	}
 
 	@Bean("upcSecurityContextLogoutHandler")
-	public SecurityContextLogoutHandler upcSecurityContextLogoutHandler() {
+	public SecurityContextLogoutHandler upcSecurityContextLogoutHandler(
+			@Qualifier("upcRevokedTokenRegistry") ObjectProvider<RevokedTokenRegistry> revokedTokenRegistryProvider) {
 
-		SecurityContextLogoutHandler logoutHandler = new SecurityContextLogoutHandler();
+		// 使用无状态令牌时，注销同时吊销令牌
+		RevokedTokenRegistry revokedTokenRegistry = revokedTokenRegistryProvider.getIfAvailable();
+		SecurityContextLogoutHandler logoutHandler = revokedTokenRegistry != null
+				? new RevokingLogoutHandler(revokedTokenRegistry) : new SecurityContextLogoutHandler();
 		logoutHandler.setClearAuthentication(bizUpcProperties.getLogout().isClearAuthentication());
 		logoutHandler.setInvalidateHttpSession(bizUpcProperties.getLogout().isInvalidateHttpSession());
 
@@ -124,32 +241,101 @@ public class SecurityBizUpcAutoConfiguration {
 		return failureCounter;
 	}
 	
+	/*
+	 * 异步登录专用的有界执行器：同时运行和等待的登录都满时拒绝登录，而不是无限排队
+	 */
+	@Bean(name = "upcLoginExecutor", destroyMethod = "shutdown")
+	@ConditionalOnProperty(prefix = SecurityBizUpcProperties.PREFIX, value = "async.enabled", havingValue = "true")
+	public ExecutorService upcLoginExecutor(BlockingExecutorFactory blockingExecutorFactory) {
+		SecurityAsyncProperties async = bizUpcProperties.getAsync();
+		return blockingExecutorFactory.create("login", async.getThreads(), async.getQueueCapacity());
+	}
+	
+	@Bean("upcAuditJournal")
+	@ConditionalOnProperty(prefix = SecurityBizUpcProperties.PREFIX, value = "audit.enabled", havingValue = "true")
+	public AuditJournal upcAuditJournal() {
+		SecurityAuditProperties audit = bizUpcProperties.getAudit();
+		AuditJournal journal = new AuditJournal(Paths.get(audit.getDirectory()));
+		journal.setSegmentSize(audit.getSegmentSize());
+		journal.setMaxSegments(audit.getMaxSegments());
+		journal.setQueueCapacity(audit.getQueueCapacity());
+		journal.setForceInterval(audit.getForceInterval());
+		journal.setUsernameSalt(audit.getUsernameSalt());
+		return journal;
+	}
+	
+	@Bean("upcAuditJournalAuthenticationListener")
+	@ConditionalOnProperty(prefix = SecurityBizUpcProperties.PREFIX, value = "audit.enabled", havingValue = "true")
+	public AuditJournalAuthenticationListener upcAuditJournalAuthenticationListener(
+			@Qualifier("upcAuditJournal") AuditJournal auditJournal) {
+		return new AuditJournalAuthenticationListener(auditJournal);
+	}
+	
+	@Bean("upcRecentAuthenticationEvents")
+	@ConditionalOnProperty(prefix = SecurityBizUpcProperties.PREFIX, value = "recent-events.enabled", havingValue = "true", matchIfMissing = true)
+	public RecentAuthenticationEvents upcRecentAuthenticationEvents() {
+		return new RecentAuthenticationEvents(bizUpcProperties.getRecentEvents().getCapacity());
+	}
+	
+	@Bean("upcRecentEventsAuthenticationListener")
+	@ConditionalOnProperty(prefix = SecurityBizUpcProperties.PREFIX, value = "recent-events.enabled", havingValue = "true", matchIfMissing = true)
+	public RecentEventsAuthenticationListener upcRecentEventsAuthenticationListener(
+			@Qualifier("upcRecentAuthenticationEvents") RecentAuthenticationEvents recentAuthenticationEvents) {
+		return new RecentEventsAuthenticationListener(recentAuthenticationEvents);
+	}
+	
 	@Bean
 	public PostRequestAuthenticationSuccessHandler postRequestAuthenticationSuccessHandler(
 			@Autowired(required = false) List<AuthenticationListener> authenticationListeners,
 			@Qualifier("upcRedirectStrategy") RedirectStrategy redirectStrategy, 
-			@Qualifier("upcRequestCache") RequestCache requestCache) {
+			@Qualifier("upcRequestCache") RequestCache requestCache,
+			@Qualifier("upcStatelessTokenCodec") ObjectProvider<StatelessTokenCodec> statelessTokenCodecProvider,
+			@Qualifier("upcAuthenticationMetrics") AuthenticationMetrics authenticationMetrics) {
 		PostRequestAuthenticationSuccessHandler successHandler = new PostRequestAuthenticationSuccessHandler(
 				authenticationListeners, bizUpcProperties.getAuthc().getSuccessUrl());
+		if (bizUpcProperties.getStateless().isBearerEnabled()) {
+			successHandler.setTokenCodec(statelessTokenCodecProvider.getIfAvailable());
+			successHandler.setTokenTimeout(bizUpcProperties.getStateless().getTimeout());
+		}
 		successHandler.setRedirectStrategy(redirectStrategy);
 		successHandler.setRequestCache(requestCache);
 		successHandler.setTargetUrlParameter(bizUpcProperties.getAuthc().getTargetUrlParameter());
 		successHandler.setUseReferer(bizUpcProperties.getAuthc().isUseReferer());
+		successHandler.setMetrics(authenticationMetrics);
 		return successHandler;
 	}
 
 	@Bean
 	public PostRequestAuthenticationFailureHandler postRequestAuthenticationFailureHandler(
 			@Autowired(required = false) List<AuthenticationListener> authenticationListeners,
-			@Qualifier("upcRedirectStrategy") RedirectStrategy redirectStrategy) {
+			@Qualifier("upcRedirectStrategy") RedirectStrategy redirectStrategy,
+			@Qualifier("upcAuthenticationMetrics") AuthenticationMetrics authenticationMetrics) {
 		PostRequestAuthenticationFailureHandler failureHandler = new PostRequestAuthenticationFailureHandler(
 				authenticationListeners, bizUpcProperties.getAuthc().getFailureUrl());
 		failureHandler.setAllowSessionCreation(bizUpcProperties.getSessionMgt().isAllowSessionCreation());
 		failureHandler.setRedirectStrategy(redirectStrategy);
 		failureHandler.setUseForward(bizUpcProperties.getAuthc().isUseForward());
+		failureHandler.setMetrics(authenticationMetrics);
 		return failureHandler;
 	}
 	
+	/*
+	 * 登录前访问的地址保存在签名 Cookie 中，只有请求缓存使用 Cookie 时才需要
+	 */
+	@Bean("upcRequestedUrlRepository")
+	@ConditionalOnProperty(prefix = SecurityBizUpcProperties.PREFIX, name = "request.cache-store", havingValue = "COOKIE")
+	public RequestedUrlCookieRepository upcRequestedUrlRepository() {
+		SecurityRedirectProperties redirect = bizUpcProperties.getRedirect();
+		// 随机密钥签名的 Cookie 在重启后或其他节点上都会失效，不能静默降级
+		Assert.state(StringUtils.hasText(redirect.getRequestedUrlSecret()), SecurityBizUpcProperties.PREFIX
+				+ ".redirect.requested-url-secret must be set when request.cache-store is COOKIE");
+		RequestedUrlCookieRepository requestedUrlRepository = new RequestedUrlCookieRepository(
+				HmacSigner.of(redirect.getRequestedUrlSecret()));
+		requestedUrlRepository.setCookieName(redirect.getRequestedUrlCookieName());
+		requestedUrlRepository.setTimeout(redirect.getRequestedUrlTimeout());
+		return requestedUrlRepository;
+	}
+	
 	@Bean
 	public PostRequestAuthenticationEntryPoint postRequestAuthenticationEntryPoint() {
 
@@ -163,9 +349,30 @@ public class SecurityBizUpcAutoConfiguration {
 
 	@Bean
 	public PostRequestAuthenticationProvider postRequestAuthenticationProvider(
-			UserDetailsServiceAdapter userDetailsService, PasswordEncoder passwordEncoder) {
-		return new PostRequestAuthenticationProvider(userDetailsService, passwordEncoder);
+			UserDetailsServiceAdapter userDetailsService, PasswordEncoder passwordEncoder,
+			@Qualifier("upcAuthenticationMetrics") AuthenticationMetrics authenticationMetrics) {
+		SecurityUserLookupProperties userLookup = bizUpcProperties.getUserLookup();
+		if (userLookup.isBatching()) {
+			userDetailsService = new BatchingUserDetailsService(userDetailsService, userLookup.getBatchWindow(),
+					userLookup.getMaxBatchSize(), userLookup.getBatchTimeout());
+		}
+		PostRequestAuthenticationProvider authenticationProvider = new PostRequestAuthenticationProvider(
+				userDetailsService, passwordEncoder);
+		authenticationProvider.setMetrics(authenticationMetrics);
+		return authenticationProvider;
 	}
+	
+	@Configuration
+	@ConditionalOnClass(Endpoint.class)
+	@ConditionalOnProperty(prefix = SecurityBizUpcProperties.PREFIX, value = "recent-events.enabled", havingValue = "true", matchIfMissing = true)
+	static class RecentAuthenticationEventsEndpointConfiguration {
 
+		@Bean
+		public RecentAuthenticationEventsEndpoint upcRecentAuthenticationEventsEndpoint(
+				@Qualifier("upcRecentAuthenticationEvents") RecentAuthenticationEvents recentAuthenticationEvents) {
+			return new RecentAuthenticationEventsEndpoint(recentAuthenticationEvents);
+		}
+
+	}
 
 }
@@ -1,6 +1,8 @@
 package org.springframework.security.boot;
 
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
 
 import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -9,28 +11,50 @@ import org.springframework.boot.autoconfigure.AutoConfigureBefore;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication.Type;
+import org.springframework.boot.autoconfigure.security.servlet.SecurityAutoConfiguration;
 import org.springframework.boot.autoconfigure.security.servlet.SecurityFilterAutoConfiguration;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.ApplicationEventPublisherAware;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
 import org.springframework.core.annotation.Order;
 import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authentication.ProviderManager;
 import org.springframework.security.boot.biz.authentication.AuthenticatingFailureCounter;
 import org.springframework.security.boot.biz.authentication.PostRequestAuthenticationEntryPoint;
 import org.springframework.security.boot.biz.authentication.PostRequestAuthenticationFailureHandler;
 import org.springframework.security.boot.biz.authentication.PostRequestAuthenticationProcessingFilter;
 import org.springframework.security.boot.biz.authentication.PostRequestAuthenticationProvider;
 import org.springframework.security.boot.biz.authentication.PostRequestAuthenticationSuccessHandler;
+import org.springframework.security.boot.biz.authentication.captcha.CaptchaImageFilter;
+import org.springframework.security.boot.biz.authentication.captcha.CaptchaImagePool;
+import org.springframework.security.boot.biz.authentication.captcha.CaptchaProducer;
 import org.springframework.security.boot.biz.authentication.captcha.CaptchaResolver;
+import org.springframework.security.boot.biz.authentication.captcha.DefaultCaptchaProducer;
+import org.springframework.security.boot.biz.authentication.captcha.HmacCaptchaResolver;
+import org.springframework.security.boot.biz.authentication.captcha.MemoryCaptchaResolver;
 import org.springframework.security.boot.biz.authentication.captcha.NullCaptchaResolver;
+import org.springframework.security.boot.biz.authentication.captcha.SessionCaptchaResolver;
+import org.springframework.security.boot.biz.authentication.token.BearerTokenAuthenticationFilter;
+import org.springframework.security.boot.biz.authentication.token.BearerTokenAuthenticationProvider;
+import org.springframework.security.boot.biz.authorization.FilterChainDefinitions;
+import org.springframework.security.boot.biz.crypto.HmacSigner;
+import org.springframework.security.boot.biz.metrics.AuthenticationMetrics;
+import org.springframework.security.boot.biz.property.CaptchaStore;
+import org.springframework.security.boot.biz.property.SecurityCaptchaProperties;
 import org.springframework.security.boot.biz.property.SecurityCsrfProperties;
 import org.springframework.security.boot.biz.property.SecurityLogoutProperties;
 import org.springframework.security.boot.biz.property.SecuritySessionMgtProperties;
 import org.springframework.security.boot.utils.StringUtils;
 import org.springframework.security.config.annotation.authentication.builders.AuthenticationManagerBuilder;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
+import org.springframework.security.config.annotation.web.builders.WebSecurity;
 import org.springframework.security.config.annotation.web.configuration.WebSecurityConfigurerAdapter;
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.core.session.SessionRegistry;
@@ -41,16 +65,18 @@ import org.springframework.security.web.authentication.logout.LogoutHandler;
 import org.springframework.security.web.authentication.logout.SecurityContextLogoutHandler;
 import org.springframework.security.web.authentication.session.SessionAuthenticationStrategy;
 import org.springframework.security.web.context.AbstractSecurityWebApplicationInitializer;
-import org.springframework.security.web.csrf.CookieCsrfTokenRepository;
+import org.springframework.security.web.context.SecurityContextRepository;
 import org.springframework.security.web.csrf.CsrfTokenRepository;
 import org.springframework.security.web.savedrequest.RequestCache;
 import org.springframework.security.web.session.InvalidSessionStrategy;
 import org.springframework.security.web.session.SessionInformationExpiredStrategy;
+import org.springframework.util.Assert;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 
 @Configuration
-@AutoConfigureBefore({ SecurityFilterAutoConfiguration.class })
+@AutoConfigureBefore({ SecurityAutoConfiguration.class, SecurityFilterAutoConfiguration.class })
+@ConditionalOnWebApplication(type = Type.SERVLET)
 @ConditionalOnClass({ AbstractSecurityWebApplicationInitializer.class, SessionCreationPolicy.class })
 @ConditionalOnProperty(prefix = SecurityBizUpcProperties.PREFIX, value = "enabled", havingValue = "true")
 @EnableConfigurationProperties({ SecurityBizProperties.class, SecurityBizUpcProperties.class })
@@ -62,8 +88,63 @@ public class SecurityBizUpcFilterAutoConfiguration {
     @Bean
 	@ConditionalOnMissingBean 
 	public CaptchaResolver captchaResolver() {
+		// 验证码存储方式
+		SecurityCaptchaProperties captcha = bizUpcProperties.getCaptcha();
+		if (CaptchaStore.SESSION.equals(captcha.getStore())) {
+			return new SessionCaptchaResolver();
+		} else if (CaptchaStore.TOKEN.equals(captcha.getStore())) {
+			// 随机密钥签发的验证码令牌在重启后或其他节点上都会失效，不能静默降级
+			Assert.state(StringUtils.hasText(captcha.getSecret()), SecurityBizUpcProperties.PREFIX
+					+ ".captcha.secret must be set when captcha.store is TOKEN");
+			HmacCaptchaResolver captchaResolver = new HmacCaptchaResolver(HmacSigner.of(captcha.getSecret()),
+					captcha.getTimeout(), captcha.getReplayCapacity());
+			captchaResolver.setTokenHeaderName(captcha.getTokenHeaderName());
+			captchaResolver.setTokenParameterName(captcha.getTokenParameterName());
+			return captchaResolver;
+		} else if (CaptchaStore.MEMORY.equals(captcha.getStore())) {
+			MemoryCaptchaResolver captchaResolver = new MemoryCaptchaResolver(captcha.getTimeout(),
+					captcha.getStoreCapacity());
+			captchaResolver.setTokenHeaderName(captcha.getTokenHeaderName());
+			captchaResolver.setTokenParameterName(captcha.getTokenParameterName());
+			return captchaResolver;
+		}
 		return new NullCaptchaResolver();
 	}
+	
+	@Bean
+	@ConditionalOnMissingBean
+	@ConditionalOnProperty(prefix = SecurityBizUpcProperties.PREFIX, value = "captcha.image-enabled", havingValue = "true")
+	public CaptchaProducer captchaProducer() {
+		SecurityCaptchaProperties captcha = bizUpcProperties.getCaptcha();
+		DefaultCaptchaProducer captchaProducer = new DefaultCaptchaProducer();
+		captchaProducer.setLength(captcha.getTextLength());
+		captchaProducer.setWidth(captcha.getImageWidth());
+		captchaProducer.setHeight(captcha.getImageHeight());
+		return captchaProducer;
+	}
+	
+	@Bean
+	@ConditionalOnMissingBean
+	@ConditionalOnProperty(prefix = SecurityBizUpcProperties.PREFIX, value = "captcha.image-enabled", havingValue = "true")
+	public CaptchaImagePool captchaImagePool(CaptchaProducer captchaProducer) {
+		return new CaptchaImagePool(captchaProducer, bizUpcProperties.getCaptcha().getImagePoolSize());
+	}
+	
+	/*
+	 * 验证码图片输出过滤器：图片由后台线程预先渲染
+	 */
+	@Bean
+	@ConditionalOnProperty(prefix = SecurityBizUpcProperties.PREFIX, value = "captcha.image-enabled", havingValue = "true")
+	public FilterRegistrationBean<CaptchaImageFilter> captchaImageFilter(CaptchaImagePool captchaImagePool,
+			CaptchaResolver captchaResolver) {
+		String imageUrl = bizUpcProperties.getCaptcha().getImageUrl();
+		CaptchaImageFilter captchaImageFilter = new CaptchaImageFilter(captchaImagePool, captchaResolver);
+		captchaImageFilter.setFilterProcessesUrl(imageUrl);
+		FilterRegistrationBean<CaptchaImageFilter> registration = new FilterRegistrationBean<CaptchaImageFilter>(captchaImageFilter);
+		registration.addUrlPatterns(imageUrl);
+		registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 10);
+		return registration;
+	}
     
 	/*
 	 * 系统登录注销过滤器；默认：org.springframework.security.web.authentication.logout.LogoutFilter
@@ -80,7 +161,8 @@ public class SecurityBizUpcFilterAutoConfiguration {
 	@Configuration
     @ConditionalOnProperty(prefix = SecurityBizUpcProperties.PREFIX, value = "enabled", havingValue = "true")
    	@EnableConfigurationProperties({ SecurityBizUpcProperties.class, SecurityBizProperties.class })
-	@Order(104)
+	// 取代 BizWebSecurityConfigurerAdapter 匹配全部请求，登录、会话和 URL 授权规则都在这条过滤器链上
+	@Order(102)
    	static class UpcWebSecurityConfigurerAdapter extends WebSecurityConfigurerAdapter implements ApplicationEventPublisherAware {
     	
     	private ApplicationEventPublisher eventPublisher;
@@ -90,6 +172,7 @@ public class SecurityBizUpcFilterAutoConfiguration {
 	    private final RememberMeServices rememberMeServices;
 	    private final SessionRegistry sessionRegistry;
 	    
+    	private final FilterChainDefinitions filterChainDefinitions;
     	private final SecurityBizUpcProperties bizUpcProperties;
 	    private final PostRequestAuthenticationEntryPoint authenticationEntryPoint;
 	    private final PostRequestAuthenticationProvider authenticationProvider;
@@ -104,6 +187,10 @@ public class SecurityBizUpcFilterAutoConfiguration {
 		private final SecurityContextLogoutHandler securityContextLogoutHandler;
 		private final SessionAuthenticationStrategy sessionAuthenticationStrategy;
 		private final SessionInformationExpiredStrategy expiredSessionStrategy;
+		private final SecurityContextRepository securityContextRepository;
+		private final BearerTokenAuthenticationProvider bearerTokenAuthenticationProvider;
+		private final AuthenticationMetrics authenticationMetrics;
+		private final ExecutorService loginExecutor;
    		
    		public UpcWebSecurityConfigurerAdapter(
    			
@@ -112,6 +199,8 @@ public class SecurityBizUpcFilterAutoConfiguration {
    				ObjectProvider<SessionRegistry> sessionRegistryProvider,
    				ObjectProvider<RememberMeServices> rememberMeServicesProvider,
    				
+   				SecurityBizProperties bizProperties,
+   				ObjectProvider<FilterChainDefinitions> filterChainDefinitionsProvider,
    				SecurityBizUpcProperties bizUpcProperties,
    				ObjectProvider<PostRequestAuthenticationEntryPoint> authenticationEntryPointProvider,
    				ObjectProvider<PostRequestAuthenticationProvider> authenticationProvider,
@@ -125,7 +214,11 @@ public class SecurityBizUpcFilterAutoConfiguration {
 				@Qualifier("upcRequestCache") ObjectProvider<RequestCache> requestCacheProvider,
 				@Qualifier("upcSecurityContextLogoutHandler")  ObjectProvider<SecurityContextLogoutHandler> securityContextLogoutHandlerProvider,
 				@Qualifier("upcSessionAuthenticationStrategy") ObjectProvider<SessionAuthenticationStrategy> sessionAuthenticationStrategyProvider,
-				@Qualifier("upcExpiredSessionStrategy") ObjectProvider<SessionInformationExpiredStrategy> expiredSessionStrategyProvider
+				@Qualifier("upcExpiredSessionStrategy") ObjectProvider<SessionInformationExpiredStrategy> expiredSessionStrategyProvider,
+				@Qualifier("upcSecurityContextRepository") ObjectProvider<SecurityContextRepository> securityContextRepositoryProvider,
+				@Qualifier("upcBearerTokenAuthenticationProvider") ObjectProvider<BearerTokenAuthenticationProvider> bearerTokenAuthenticationProvider,
+				@Qualifier("upcAuthenticationMetrics") ObjectProvider<AuthenticationMetrics> authenticationMetricsProvider,
+				@Qualifier("upcLoginExecutor") ObjectProvider<ExecutorService> loginExecutorProvider
 			) {
    			
    			this.authenticationManager = authenticationManagerProvider.getIfAvailable();
@@ -133,6 +226,8 @@ public class SecurityBizUpcFilterAutoConfiguration {
    			this.rememberMeServices = rememberMeServicesProvider.getIfAvailable();
    			this.sessionRegistry = sessionRegistryProvider.getIfAvailable();
    			
+   			this.filterChainDefinitions = filterChainDefinitionsProvider
+   					.getIfAvailable(() -> FilterChainDefinitions.parse(bizProperties.getFilterChainDefinitionMap()));
    			this.bizUpcProperties = bizUpcProperties;
    			this.authenticationEntryPoint = authenticationEntryPointProvider.getIfAvailable();
    			this.authenticationProvider = authenticationProvider.getIfAvailable();
@@ -147,11 +242,15 @@ public class SecurityBizUpcFilterAutoConfiguration {
    			this.securityContextLogoutHandler = securityContextLogoutHandlerProvider.getIfAvailable();
    			this.sessionAuthenticationStrategy = sessionAuthenticationStrategyProvider.getIfAvailable();
    			this.expiredSessionStrategy = expiredSessionStrategyProvider.getIfAvailable();
+   			this.securityContextRepository = securityContextRepositoryProvider.getIfAvailable();
+   			this.bearerTokenAuthenticationProvider = bearerTokenAuthenticationProvider.getIfAvailable();
+   			this.authenticationMetrics = authenticationMetricsProvider.getIfAvailable(() -> AuthenticationMetrics.NOOP);
+   			this.loginExecutor = loginExecutorProvider.getIfAvailable();
    			
    		}
 
    		@Bean
-   		public PostRequestAuthenticationProcessingFilter authenticationProcessingFilter() {
+   		public PostRequestAuthenticationProcessingFilter authenticationProcessingFilter() throws Exception {
    			
    			// Form Login With Captcha
    			PostRequestAuthenticationProcessingFilter authcFilter = new PostRequestAuthenticationProcessingFilter(
@@ -170,7 +269,7 @@ public class SecurityBizUpcFilterAutoConfiguration {
    			authcFilter.setAllowSessionCreation(bizUpcProperties.getSessionMgt().isAllowSessionCreation());
    			authcFilter.setApplicationEventPublisher(eventPublisher);
    			authcFilter.setAuthenticationFailureHandler(authenticationFailureHandler);
-   			authcFilter.setAuthenticationManager(authenticationManager);
+   			authcFilter.setAuthenticationManager(authenticationManager != null ? authenticationManager : authenticationManagerBean());
    			authcFilter.setAuthenticationSuccessHandler(authenticationSuccessHandler);
    			authcFilter.setContinueChainBeforeSuccessfulAuthentication(bizUpcProperties.getAuthc().isContinueChainBeforeSuccessfulAuthentication());
    			if (StringUtils.hasText(bizUpcProperties.getAuthc().getLoginUrlPatterns())) {
@@ -184,12 +283,36 @@ public class SecurityBizUpcFilterAutoConfiguration {
    			authcFilter.setRetryTimesKeyAttribute(bizUpcProperties.getAuthc().getRetryTimesKeyAttribute());
    			authcFilter.setRetryTimesWhenAccessDenied(bizUpcProperties.getAuthc().getRetryTimesWhenAccessDenied());
    			authcFilter.setSessionAuthenticationStrategy(sessionAuthenticationStrategy);
+   			authcFilter.setMetrics(authenticationMetrics);
+   			// 异步登录：用户查询和密码校验不占用容器线程
+   			authcFilter.setAsyncExecutor(loginExecutor);
+   			authcFilter.setAsyncTimeout(bizUpcProperties.getAsync().getTimeout());
    			return authcFilter;
    		}
    		
+   		/*
+   		 * 登录过滤器只在安全过滤器链中生效，不再作为普通 Servlet 过滤器注册
+   		 */
+   		@Bean
+   		public FilterRegistrationBean<PostRequestAuthenticationProcessingFilter> authenticationProcessingFilterRegistration()
+   				throws Exception {
+   			FilterRegistrationBean<PostRequestAuthenticationProcessingFilter> registration = new FilterRegistrationBean<PostRequestAuthenticationProcessingFilter>(
+   					authenticationProcessingFilter());
+   			registration.setEnabled(false);
+   			return registration;
+   		}
+   		
    		@Override
    	    protected void configure(AuthenticationManagerBuilder auth) throws Exception {
    	        auth.authenticationProvider(authenticationProvider);
+   	        // 与 BizWebSecurityConfigurerAdapter 的认证管理器一样，包含全部 AuthenticationProvider
+   	        for (AuthenticationProvider provider : getApplicationContext().getBeansOfType(AuthenticationProvider.class).values()) {
+   	        	if (provider != authenticationProvider) {
+   	        		auth.authenticationProvider(provider);
+   	        	}
+   	        }
+   	        //不擦除认证密码，擦除会导致TokenBasedRememberMeServices因为找不到Credentials再调用UserDetailsService而抛出UsernameNotFoundException
+   	        auth.eraseCredentials(false);
    	    }
    	    
    	    @Override
@@ -228,6 +351,22 @@ public class SecurityBizUpcFilterAutoConfiguration {
    	        	.addFilterBefore(authenticationProcessingFilter(), UsernamePasswordAuthenticationFilter.class); 
    	        
    	        http.exceptionHandling().authenticationEntryPoint(authenticationEntryPoint);
+   	        
+   	        // 登录地址不拦截；其余路径按 filterChainDefinitionMap 授权
+   	        filterChainDefinitions.authorizeRequests(http, bizUpcProperties.getAuthc().getLoginUrlPatterns());
+   	        
+   	        // 无状态模式下的认证信息存储
+   	        if (securityContextRepository != null) {
+   	        	http.securityContext().securityContextRepository(securityContextRepository);
+   	        }
+   	        
+   	        // 请求头令牌认证，放在注销过滤器之前，令牌用户也能正常注销
+   	        if (bearerTokenAuthenticationProvider != null) {
+   	        	BearerTokenAuthenticationFilter bearerFilter = new BearerTokenAuthenticationFilter(
+   	        			new ProviderManager(Collections.singletonList(bearerTokenAuthenticationProvider)));
+   	        	bearerFilter.setHeaderName(bizUpcProperties.getStateless().getBearerHeaderName());
+   	        	http.addFilterBefore(bearerFilter, LogoutFilter.class);
+   	        }
    	 
 
    	       	// CSRF 配置
@@ -235,14 +374,20 @@ public class SecurityBizUpcFilterAutoConfiguration {
    	    	if(csrf.isEnabled()) {
    	       		http.csrf()
    				   	.csrfTokenRepository(csrfTokenRepository)
-   				   	.ignoringAntMatchers(StringUtils.tokenizeToStringArray(csrf.getIgnoringAntMatchers()))
-   					.csrfTokenRepository(CookieCsrfTokenRepository.withHttpOnlyFalse());
+   				   	.ignoringAntMatchers(StringUtils.tokenizeToStringArray(csrf.getIgnoringAntMatchers()));
    	        } else {
    	        	http.csrf().disable();
    	        }
    	        
    	    }
    	    
+   	    @Override
+   	    public void configure(WebSecurity web) throws Exception {
+   	    	// 静态资源等 anon 路径不经过安全过滤器链，登录地址需要经过登录过滤器，只放行不忽略
+   	    	List<String> ignoringMatchers = filterChainDefinitions.getAnonPatterns();
+   	    	web.ignoring().antMatchers(ignoringMatchers.toArray(new String[ignoringMatchers.size()]));
+   	    }
+   	    
    		@Override
    		public void setApplicationEventPublisher(ApplicationEventPublisher applicationEventPublisher) {
    			this.eventPublisher = applicationEventPublisher;
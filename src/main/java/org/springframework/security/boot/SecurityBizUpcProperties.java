@@ -17,12 +17,21 @@ package org.springframework.security.boot;
 
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.boot.context.properties.NestedConfigurationProperty;
+import org.springframework.security.boot.biz.property.SecurityAsyncProperties;
+import org.springframework.security.boot.biz.property.SecurityAuditProperties;
 import org.springframework.security.boot.biz.property.SecurityAuthcProperties;
 import org.springframework.security.boot.biz.property.SecurityCaptchaProperties;
 import org.springframework.security.boot.biz.property.SecurityCsrfProperties;
+import org.springframework.security.boot.biz.property.SecurityExecutorProperties;
 import org.springframework.security.boot.biz.property.SecurityLogoutProperties;
+import org.springframework.security.boot.biz.property.SecurityMetricsProperties;
+import org.springframework.security.boot.biz.property.SecurityReactiveProperties;
+import org.springframework.security.boot.biz.property.SecurityRecentEventsProperties;
 import org.springframework.security.boot.biz.property.SecurityRedirectProperties;
+import org.springframework.security.boot.biz.property.SecurityRequestProperties;
 import org.springframework.security.boot.biz.property.SecuritySessionMgtProperties;
+import org.springframework.security.boot.biz.property.SecurityStatelessProperties;
+import org.springframework.security.boot.biz.property.SecurityUserLookupProperties;
 
 /**
  *   默认的权限配置
@@ -45,7 +54,25 @@ public class SecurityBizUpcProperties {
 	@NestedConfigurationProperty
 	private SecurityRedirectProperties redirect = new SecurityRedirectProperties();
 	@NestedConfigurationProperty
+	private SecurityRequestProperties request = new SecurityRequestProperties();
+	@NestedConfigurationProperty
 	private SecuritySessionMgtProperties sessionMgt = new SecuritySessionMgtProperties();
+	@NestedConfigurationProperty
+	private SecurityStatelessProperties stateless = new SecurityStatelessProperties();
+	@NestedConfigurationProperty
+	private SecurityMetricsProperties metrics = new SecurityMetricsProperties();
+	@NestedConfigurationProperty
+	private SecurityAuditProperties audit = new SecurityAuditProperties();
+	@NestedConfigurationProperty
+	private SecurityRecentEventsProperties recentEvents = new SecurityRecentEventsProperties();
+	@NestedConfigurationProperty
+	private SecurityAsyncProperties async = new SecurityAsyncProperties();
+	@NestedConfigurationProperty
+	private SecurityReactiveProperties reactive = new SecurityReactiveProperties();
+	@NestedConfigurationProperty
+	private SecurityExecutorProperties executor = new SecurityExecutorProperties();
+	@NestedConfigurationProperty
+	private SecurityUserLookupProperties userLookup = new SecurityUserLookupProperties();
 
 	public boolean isEnabled() {
 		return enabled;
@@ -102,4 +129,77 @@ public class SecurityBizUpcProperties {
 	public void setCaptcha(SecurityCaptchaProperties captcha) {
 		this.captcha = captcha;
 	}
+
+	public SecurityRequestProperties getRequest() {
+		return request;
+	}
+
+	public void setRequest(SecurityRequestProperties request) {
+		this.request = request;
+	}
+
+	public SecurityStatelessProperties getStateless() {
+		return stateless;
+	}
+
+	public void setStateless(SecurityStatelessProperties stateless) {
+		this.stateless = stateless;
+	}
+
+	public SecurityMetricsProperties getMetrics() {
+		return metrics;
+	}
+
+	public void setMetrics(SecurityMetricsProperties metrics) {
+		this.metrics = metrics;
+	}
+
+	public SecurityAuditProperties getAudit() {
+		return audit;
+	}
+
+	public void setAudit(SecurityAuditProperties audit) {
+		this.audit = audit;
+	}
+
+	public SecurityRecentEventsProperties getRecentEvents() {
+		return recentEvents;
+	}
+
+	public void setRecentEvents(SecurityRecentEventsProperties recentEvents) {
+		this.recentEvents = recentEvents;
+	}
+
+	public SecurityAsyncProperties getAsync() {
+		return async;
+	}
+
+	public void setAsync(SecurityAsyncProperties async) {
+		this.async = async;
+	}
+
+	public SecurityReactiveProperties getReactive() {
+		return reactive;
+	}
+
+	public void setReactive(SecurityReactiveProperties reactive) {
+		this.reactive = reactive;
+	}
+
+	public SecurityExecutorProperties getExecutor() {
+		return executor;
+	}
+
+	public void setExecutor(SecurityExecutorProperties executor) {
+		this.executor = executor;
+	}
+
+	public SecurityUserLookupProperties getUserLookup() {
+		return userLookup;
+	}
+
+	public void setUserLookup(SecurityUserLookupProperties userLookup) {
+		this.userLookup = userLookup;
+	}
+
 }
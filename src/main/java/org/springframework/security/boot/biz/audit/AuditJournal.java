@@ -0,0 +1,379 @@
+/*
+ * Copyright (c) 2018, vindell (https://github.com/vindell).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.springframework.security.boot.biz.audit;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.util.Assert;
+
+/**
+ * 只追加的登录审计日志：记录以固定长度的二进制格式（见 {@link AuditRecord}）写入内存映射的分段文件。
+ * <p>
+ * 请求线程只把事件放入无锁队列，不做任何 I/O 和哈希计算；由单独的写线程编码并写入映射内存，
+ * 队列满时丢弃事件并计数，因此请求线程永远不会被磁盘阻塞。
+ * 分段写满后切换到新文件，只保留最近的 {@code maxSegments} 个分段；
+ * 映射内存按 {@code forceInterval} 定期刷盘，进程崩溃时已写入映射内存的记录不会丢失。
+ * </p>
+ * <p>
+ * 分段文件名为 {@code audit-<序号>.journal}，文件头 {@value #HEADER_SIZE} 字节，
+ * 之后依次是记录；可以用 {@link AuditJournalReader} 在线追踪或离线导出。
+ * </p>
+ * @author ： <a href="https://github.com/vindell">wandl</a>
+ */
+public class AuditJournal implements InitializingBean, DisposableBean {
+
+	public static final int DEFAULT_SEGMENT_SIZE = 8 * 1024 * 1024;
+	public static final int DEFAULT_MAX_SEGMENTS = 16;
+	public static final int DEFAULT_QUEUE_CAPACITY = 64 * 1024;
+	public static final long DEFAULT_FORCE_INTERVAL = 1000L;
+
+	static final int HEADER_SIZE = 64;
+	static final int MAGIC = 0x53414A31;
+	static final short VERSION = 1;
+	static final String SEGMENT_PREFIX = "audit-";
+	static final String SEGMENT_SUFFIX = ".journal";
+
+	private static final long PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+	private final Logger logger = LoggerFactory.getLogger(getClass());
+
+	private final Path directory;
+	private int segmentSize = DEFAULT_SEGMENT_SIZE;
+	private int maxSegments = DEFAULT_MAX_SEGMENTS;
+	private int queueCapacity = DEFAULT_QUEUE_CAPACITY;
+	private long forceInterval = DEFAULT_FORCE_INTERVAL;
+	private byte[] usernameSalt = new byte[0];
+
+	private final ConcurrentLinkedQueue<Pending> queue = new ConcurrentLinkedQueue<Pending>();
+	private final AtomicInteger queued = new AtomicInteger();
+	private volatile boolean running;
+	private volatile boolean parked;
+	private Thread writer;
+
+	private final LongAdder appended = new LongAdder();
+	private final LongAdder dropped = new LongAdder();
+	private final LongAdder written = new LongAdder();
+	private final LongAdder failed = new LongAdder();
+	private final LongAdder rotations = new LongAdder();
+
+	// 以下字段只由写线程访问
+	private MappedByteBuffer segment;
+	private long sequence;
+	private int position;
+	private boolean dirty;
+	private long lastForce;
+	private final MessageDigest digest = AuditRecord.sha256();
+	private final byte[] address = new byte[AuditRecord.ADDRESS_LENGTH];
+
+	public AuditJournal(Path directory) {
+		Assert.notNull(directory, "directory must not be null");
+		this.directory = directory;
+	}
+
+	@Override
+	public void afterPropertiesSet() throws IOException {
+		if (running) {
+			return;
+		}
+		Files.createDirectories(directory);
+		List<Path> segments = listSegments(directory);
+		sequence = segments.isEmpty() ? 0 : sequenceOf(segments.get(segments.size() - 1));
+		running = true;
+		writer = new Thread(this::writeLoop, "security-audit-journal");
+		writer.setDaemon(true);
+		writer.start();
+	}
+
+	/**
+	 * Stop accepting events, write the queued ones and force the current segment to disk.
+	 */
+	@Override
+	public void destroy() throws InterruptedException {
+		if (!running) {
+			return;
+		}
+		running = false;
+		LockSupport.unpark(writer);
+		writer.join(TimeUnit.SECONDS.toMillis(5));
+	}
+
+	/**
+	 * Queue a login outcome for the journal. Never blocks: when the queue is full or
+	 * the journal is stopped the event is dropped and counted.
+	 * @param username the submitted username, hashed before it is written
+	 * @param address the client IP address
+	 * @param outcome the login outcome
+	 * @param latencyNanos the time since the login attempt started, or a negative value when unknown
+	 * @return whether the event was queued
+	 */
+	public boolean append(String username, String address, AuditOutcome outcome, long latencyNanos) {
+		if (!running) {
+			dropped.increment();
+			return false;
+		}
+		if (queued.incrementAndGet() > queueCapacity) {
+			queued.decrementAndGet();
+			dropped.increment();
+			return false;
+		}
+		queue.offer(new Pending(System.currentTimeMillis(), username, address, outcome, latencyNanos));
+		appended.increment();
+		if (parked) {
+			LockSupport.unpark(writer);
+		}
+		return true;
+	}
+
+	private void writeLoop() {
+		try {
+			while (running || !queue.isEmpty()) {
+				Pending pending;
+				boolean idle = true;
+				while ((pending = queue.poll()) != null) {
+					queued.decrementAndGet();
+					idle = false;
+					write(pending);
+				}
+				long now = System.currentTimeMillis();
+				if (dirty && forceInterval > 0 && now - lastForce >= forceInterval) {
+					force();
+					lastForce = now;
+				}
+				if (idle && running) {
+					// 先声明将要休眠再检查队列，与 append 中先入队再检查 parked 配对，不会错过唤醒
+					parked = true;
+					if (queue.isEmpty()) {
+						LockSupport.parkNanos(this, PARK_NANOS);
+					}
+					parked = false;
+				}
+			}
+		} finally {
+			force();
+			segment = null;
+		}
+	}
+
+	private void write(Pending pending) {
+		try {
+			if (segment == null || position + AuditRecord.SIZE > segment.capacity()) {
+				rotate();
+			}
+		} catch (IOException | RuntimeException e) {
+			failed.increment();
+			logger.error("Failed to open a new audit journal segment in " + directory, e);
+			segment = null;
+			return;
+		}
+		int pos = position;
+		segment.putLong(pos + AuditRecord.USERNAME_OFFSET,
+				AuditRecord.hashUsername(digest, usernameSalt, pending.username));
+		AuditRecord.encodeAddress(pending.address, address);
+		for (int i = 0; i < address.length; i++) {
+			segment.put(pos + AuditRecord.ADDRESS_OFFSET + i, address[i]);
+		}
+		segment.putShort(pos + AuditRecord.OUTCOME_OFFSET, (short) pending.outcome.getCode());
+		long micros = pending.latencyNanos < 0 ? -1 : Math.min(pending.latencyNanos / 1000, Integer.MAX_VALUE);
+		segment.putInt(pos + AuditRecord.LATENCY_OFFSET, (int) micros);
+		// 时间戳最后写入，读取方以非零时间戳判断记录已完整写入
+		segment.putLong(pos + AuditRecord.TIMESTAMP_OFFSET, Math.max(pending.timestamp, 1L));
+		position = pos + AuditRecord.SIZE;
+		dirty = true;
+		written.increment();
+	}
+
+	private void rotate() throws IOException {
+		force();
+		long next = sequence + 1;
+		Path file = directory.resolve(segmentName(next));
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ,
+				StandardOpenOption.WRITE)) {
+			// 映射在通道关闭后依然有效
+			segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+		}
+		segment.putInt(0, MAGIC);
+		segment.putShort(4, VERSION);
+		segment.putShort(6, (short) AuditRecord.SIZE);
+		segment.putLong(8, next);
+		segment.putLong(16, System.currentTimeMillis());
+		sequence = next;
+		position = HEADER_SIZE;
+		rotations.increment();
+		deleteOldSegments();
+	}
+
+	private void force() {
+		if (segment != null && dirty) {
+			segment.force();
+			dirty = false;
+		}
+	}
+
+	private void deleteOldSegments() {
+		try {
+			List<Path> segments = listSegments(directory);
+			for (int i = 0; i < segments.size() - maxSegments; i++) {
+				Files.deleteIfExists(segments.get(i));
+			}
+		} catch (IOException e) {
+			logger.warn("Failed to delete old audit journal segments in " + directory, e);
+		}
+	}
+
+	static String segmentName(long sequence) {
+		return String.format("%s%020d%s", SEGMENT_PREFIX, sequence, SEGMENT_SUFFIX);
+	}
+
+	static long sequenceOf(Path segment) {
+		String name = segment.getFileName().toString();
+		return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+	}
+
+	/**
+	 * @return the segment files of the directory, oldest first
+	 */
+	static List<Path> listSegments(Path directory) throws IOException {
+		List<Path> segments = new ArrayList<Path>();
+		if (!Files.isDirectory(directory)) {
+			return segments;
+		}
+		try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory,
+				SEGMENT_PREFIX + "[0-9]*" + SEGMENT_SUFFIX)) {
+			for (Path segment : stream) {
+				segments.add(segment);
+			}
+		}
+		// 序号定长补零，按文件名排序即按序号排序
+		Collections.sort(segments);
+		return segments;
+	}
+
+	public Path getDirectory() {
+		return directory;
+	}
+
+	public int getSegmentSize() {
+		return segmentSize;
+	}
+
+	public void setSegmentSize(int segmentSize) {
+		Assert.isTrue(segmentSize >= HEADER_SIZE + AuditRecord.SIZE, "segmentSize must hold at least one record");
+		this.segmentSize = segmentSize;
+	}
+
+	public int getMaxSegments() {
+		return maxSegments;
+	}
+
+	public void setMaxSegments(int maxSegments) {
+		Assert.isTrue(maxSegments > 0, "maxSegments must be positive");
+		this.maxSegments = maxSegments;
+	}
+
+	public int getQueueCapacity() {
+		return queueCapacity;
+	}
+
+	public void setQueueCapacity(int queueCapacity) {
+		Assert.isTrue(queueCapacity > 0, "queueCapacity must be positive");
+		this.queueCapacity = queueCapacity;
+	}
+
+	public long getForceInterval() {
+		return forceInterval;
+	}
+
+	/**
+	 * @param forceInterval how often written records are forced to disk, in milliseconds;
+	 *        zero or less only forces on rotation and shutdown
+	 */
+	public void setForceInterval(long forceInterval) {
+		this.forceInterval = forceInterval;
+	}
+
+	public void setUsernameSalt(String usernameSalt) {
+		this.usernameSalt = usernameSalt != null ? usernameSalt.getBytes(StandardCharsets.UTF_8) : new byte[0];
+	}
+
+	/** @return the number of events waiting for the writer */
+	public int getQueued() {
+		return queued.get();
+	}
+
+	/** @return the number of events accepted */
+	public long getAppended() {
+		return appended.sum();
+	}
+
+	/** @return the number of events dropped because the queue was full or the journal stopped */
+	public long getDropped() {
+		return dropped.sum();
+	}
+
+	/** @return the number of records written */
+	public long getWritten() {
+		return written.sum();
+	}
+
+	/** @return the number of events lost because a segment could not be created */
+	public long getFailed() {
+		return failed.sum();
+	}
+
+	/** @return the number of segments created */
+	public long getRotations() {
+		return rotations.sum();
+	}
+
+	private static final class Pending {
+
+		private final long timestamp;
+		private final String username;
+		private final String address;
+		private final AuditOutcome outcome;
+		private final long latencyNanos;
+
+		Pending(long timestamp, String username, String address, AuditOutcome outcome, long latencyNanos) {
+			this.timestamp = timestamp;
+			this.username = username;
+			this.address = address;
+			this.outcome = outcome;
+			this.latencyNanos = latencyNanos;
+		}
+
+	}
+
+}
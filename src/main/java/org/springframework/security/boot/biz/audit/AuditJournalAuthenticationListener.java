@@ -0,0 +1,51 @@
+/*
+ * Copyright (c) 2018, vindell (https://github.com/vindell).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.springframework.security.boot.biz.audit;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.security.boot.biz.authentication.AuthenticationListener;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.util.Assert;
+
+/**
+ * 把登录结果写入 {@link AuditJournal}；只入队，不在请求线程上做 I/O。
+ * @author ： <a href="https://github.com/vindell">wandl</a>
+ */
+public class AuditJournalAuthenticationListener implements AuthenticationListener {
+
+	private final AuditJournal journal;
+
+	public AuditJournalAuthenticationListener(AuditJournal journal) {
+		Assert.notNull(journal, "journal must not be null");
+		this.journal = journal;
+	}
+
+	@Override
+	public void onSuccess(HttpServletRequest request, HttpServletResponse response, Authentication authentication) {
+		journal.append(authentication.getName(), request.getRemoteAddr(), AuditOutcome.SUCCESS,
+				LoginAttempts.latencyNanos(request));
+	}
+
+	@Override
+	public void onFailure(HttpServletRequest request, HttpServletResponse response, AuthenticationException ae) {
+		journal.append(LoginAttempts.username(request), request.getRemoteAddr(), AuditOutcome.of(ae),
+				LoginAttempts.latencyNanos(request));
+	}
+
+}
@@ -0,0 +1,212 @@
+/*
+ * Copyright (c) 2018, vindell (https://github.com/vindell).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.springframework.security.boot.biz.audit;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.List;
+import java.util.function.Consumer;
+
+import org.springframework.util.Assert;
+
+/**
+ * 读取 {@link AuditJournal} 写入的分段文件，可以在写入的同时追踪新记录，也可以离线导出为 CSV：
+ * <pre>
+ * java -cp ... org.springframework.security.boot.biz.audit.AuditJournalReader &lt;directory&gt; [output.csv]
+ * </pre>
+ * 读取时只映射文件，不加锁，不影响写线程。
+ * @author ： <a href="https://github.com/vindell">wandl</a>
+ */
+public class AuditJournalReader {
+
+	private final Path directory;
+
+	public AuditJournalReader(Path directory) {
+		Assert.notNull(directory, "directory must not be null");
+		this.directory = directory;
+	}
+
+	/**
+	 * @return the segment files, oldest first
+	 */
+	public List<Path> getSegments() throws IOException {
+		return AuditJournal.listSegments(directory);
+	}
+
+	/**
+	 * @return a cursor positioned at the oldest record still in the journal
+	 */
+	public Cursor cursor() {
+		return new Cursor();
+	}
+
+	/**
+	 * @return a cursor positioned after the last record written so far, which only
+	 *         sees records written from now on
+	 */
+	public Cursor tail() throws IOException {
+		Cursor cursor = new Cursor();
+		while (cursor.poll(record -> {}, Integer.MAX_VALUE) > 0) {
+			// 跳过已有记录
+		}
+		return cursor;
+	}
+
+	/**
+	 * Hand every record currently in the journal to the consumer, oldest first.
+	 * @return the number of records read
+	 */
+	public long read(Consumer<AuditRecord> consumer) throws IOException {
+		Cursor cursor = cursor();
+		long total = 0;
+		int read;
+		while ((read = cursor.poll(consumer, Integer.MAX_VALUE)) > 0) {
+			total += read;
+		}
+		return total;
+	}
+
+	/**
+	 * Write every record as a CSV line: timestamp, username hash, address, outcome and latency in microseconds.
+	 * @return the number of records written
+	 */
+	public long export(Appendable out) throws IOException {
+		out.append("timestamp,username_hash,address,outcome,latency_micros\n");
+		IOException[] failure = new IOException[1];
+		long count = read(record -> {
+			if (failure[0] != null) {
+				return;
+			}
+			try {
+				String address = record.getAddress();
+				out.append(Instant.ofEpochMilli(record.getTimestamp()).toString()).append(',')
+						.append(String.format("%016x", record.getUsernameHash())).append(',')
+						.append(address != null ? address : "").append(',')
+						.append(record.getOutcome().name()).append(',')
+						.append(Integer.toString(record.getLatencyMicros())).append('\n');
+			} catch (IOException e) {
+				failure[0] = e;
+			}
+		});
+		if (failure[0] != null) {
+			throw failure[0];
+		}
+		return count;
+	}
+
+	public static void main(String[] args) throws IOException {
+		if (args.length < 1) {
+			System.err.println("Usage: AuditJournalReader <directory> [output.csv]");
+			System.exit(2);
+		}
+		AuditJournalReader reader = new AuditJournalReader(Paths.get(args[0]));
+		if (args.length > 1) {
+			try (Writer out = Files.newBufferedWriter(Paths.get(args[1]), StandardCharsets.UTF_8)) {
+				reader.export(out);
+			}
+		} else {
+			Writer out = new OutputStreamWriter(System.out, StandardCharsets.UTF_8);
+			reader.export(out);
+			out.flush();
+		}
+	}
+
+	private static MappedByteBuffer map(Path segment) throws IOException {
+		try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ)) {
+			MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			if (buffer.capacity() < AuditJournal.HEADER_SIZE || buffer.getInt(0) != AuditJournal.MAGIC
+					|| buffer.getShort(6) != AuditRecord.SIZE) {
+				throw new IOException("Not an audit journal segment: " + segment);
+			}
+			return buffer;
+		}
+	}
+
+	/**
+	 * Reads the records in order, following the writer into new segments. Not thread-safe.
+	 */
+	public final class Cursor {
+
+		private long sequence = -1;
+		private MappedByteBuffer buffer;
+		private int position;
+
+		/**
+		 * Hand the records written since the last call to the consumer.
+		 * @param consumer receives the records
+		 * @param maxRecords the maximum number of records to read in this call
+		 * @return the number of records read, zero when the writer has not written any new record
+		 */
+		public int poll(Consumer<AuditRecord> consumer, int maxRecords) throws IOException {
+			int read = 0;
+			while (read < maxRecords) {
+				if (buffer != null && hasRecord()) {
+					consumer.accept(AuditRecord.read(buffer, position));
+					position += AuditRecord.SIZE;
+					read++;
+					continue;
+				}
+				Path next = nextSegment();
+				if (next == null) {
+					return read;
+				}
+				// 写线程切换分段前已写完旧分段，看到新分段后再确认一次旧分段没有剩余记录
+				if (buffer != null && hasRecord()) {
+					continue;
+				}
+				open(next);
+			}
+			return read;
+		}
+
+		private boolean hasRecord() {
+			return position + AuditRecord.SIZE <= buffer.capacity()
+					&& buffer.getLong(position + AuditRecord.TIMESTAMP_OFFSET) != 0;
+		}
+
+		private Path nextSegment() throws IOException {
+			for (Path segment : getSegments()) {
+				if (AuditJournal.sequenceOf(segment) > sequence) {
+					return segment;
+				}
+			}
+			return null;
+		}
+
+		private void open(Path segment) throws IOException {
+			sequence = AuditJournal.sequenceOf(segment);
+			try {
+				buffer = map(segment);
+			} catch (NoSuchFileException e) {
+				// 已被保留策略删除，继续读下一个分段
+				buffer = null;
+			}
+			position = AuditJournal.HEADER_SIZE;
+		}
+
+	}
+
+}
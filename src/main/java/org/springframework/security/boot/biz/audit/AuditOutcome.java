@@ -0,0 +1,97 @@
+/*
+ * Copyright (c) 2018, vindell (https://github.com/vindell).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.springframework.security.boot.biz.audit;
+
+import org.springframework.security.authentication.AccountExpiredException;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.CredentialsExpiredException;
+import org.springframework.security.authentication.DisabledException;
+import org.springframework.security.authentication.LockedException;
+import org.springframework.security.boot.biz.exception.AuthMethodNotSupportedException;
+import org.springframework.security.boot.biz.exception.AuthenticationCaptchaIncorrectException;
+import org.springframework.security.boot.biz.exception.AuthenticationCaptchaNotFoundException;
+import org.springframework.security.boot.biz.exception.AuthenticationOverRetryRemindException;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+
+/**
+ * 登录结果，以固定的数字编码写入审计记录；新增结果只能追加编码，不能修改已有编码
+ * @author ： <a href="https://github.com/vindell">wandl</a>
+ */
+public enum AuditOutcome {
+
+	SUCCESS(0),
+	BAD_CREDENTIALS(1),
+	USER_NOT_FOUND(2),
+	CAPTCHA_REQUIRED(3),
+	CAPTCHA_INCORRECT(4),
+	LOCKED(5),
+	DISABLED(6),
+	EXPIRED(7),
+	METHOD_NOT_SUPPORTED(8),
+	ERROR(9);
+
+	private static final AuditOutcome[] BY_CODE = new AuditOutcome[values().length];
+
+	static {
+		for (AuditOutcome outcome : values()) {
+			BY_CODE[outcome.code] = outcome;
+		}
+	}
+
+	private final int code;
+
+	AuditOutcome(int code) {
+		this.code = code;
+	}
+
+	public int getCode() {
+		return code;
+	}
+
+	/**
+	 * @return the outcome with the given code, {@link #ERROR} for unknown codes
+	 */
+	public static AuditOutcome valueOf(int code) {
+		return code >= 0 && code < BY_CODE.length ? BY_CODE[code] : ERROR;
+	}
+
+	/**
+	 * @return the outcome of a failed login
+	 */
+	public static AuditOutcome of(AuthenticationException e) {
+		if (e instanceof BadCredentialsException) {
+			return BAD_CREDENTIALS;
+		} else if (e instanceof UsernameNotFoundException) {
+			return USER_NOT_FOUND;
+		} else if (e instanceof AuthenticationCaptchaNotFoundException
+				|| e instanceof AuthenticationOverRetryRemindException) {
+			return CAPTCHA_REQUIRED;
+		} else if (e instanceof AuthenticationCaptchaIncorrectException) {
+			return CAPTCHA_INCORRECT;
+		} else if (e instanceof LockedException) {
+			return LOCKED;
+		} else if (e instanceof DisabledException) {
+			return DISABLED;
+		} else if (e instanceof AccountExpiredException || e instanceof CredentialsExpiredException) {
+			return EXPIRED;
+		} else if (e instanceof AuthMethodNotSupportedException) {
+			return METHOD_NOT_SUPPORTED;
+		}
+		return ERROR;
+	}
+
+}
@@ -0,0 +1,191 @@
+/*
+ * Copyright (c) 2018, vindell (https://github.com/vindell).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.springframework.security.boot.biz.audit;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+
+/**
+ * 审计日志中的一条登录记录。
+ * <p>
+ * 每条记录固定 {@value #SIZE} 字节，字节序为大端：
+ * </p>
+ * <pre>
+ *  0  long    timestamp, epoch milliseconds, written last; 0 marks the end of the written records
+ *  8  long    usernameHash, the first 8 bytes of SHA-256(salt + username)
+ * 16  byte[16] address, IPv6 or IPv4-mapped IPv6, all zero when unknown
+ * 32  short   outcome, {@link AuditOutcome#getCode()}
+ * 34  short   reserved
+ * 36  int     latency in microseconds from the start of the login attempt, -1 when unknown
+ * </pre>
+ * @author ： <a href="https://github.com/vindell">wandl</a>
+ */
+public final class AuditRecord {
+
+	public static final int SIZE = 40;
+
+	static final int TIMESTAMP_OFFSET = 0;
+	static final int USERNAME_OFFSET = 8;
+	static final int ADDRESS_OFFSET = 16;
+	static final int ADDRESS_LENGTH = 16;
+	static final int OUTCOME_OFFSET = 32;
+	static final int LATENCY_OFFSET = 36;
+
+	private final long timestamp;
+	private final long usernameHash;
+	private final byte[] address;
+	private final AuditOutcome outcome;
+	private final int latencyMicros;
+
+	AuditRecord(long timestamp, long usernameHash, byte[] address, AuditOutcome outcome, int latencyMicros) {
+		this.timestamp = timestamp;
+		this.usernameHash = usernameHash;
+		this.address = address;
+		this.outcome = outcome;
+		this.latencyMicros = latencyMicros;
+	}
+
+	/**
+	 * Decode the record at the given position, which must hold a written record.
+	 */
+	static AuditRecord read(ByteBuffer buffer, int position) {
+		byte[] address = new byte[ADDRESS_LENGTH];
+		for (int i = 0; i < ADDRESS_LENGTH; i++) {
+			address[i] = buffer.get(position + ADDRESS_OFFSET + i);
+		}
+		return new AuditRecord(buffer.getLong(position + TIMESTAMP_OFFSET), buffer.getLong(position + USERNAME_OFFSET),
+				address, AuditOutcome.valueOf(buffer.getShort(position + OUTCOME_OFFSET)),
+				buffer.getInt(position + LATENCY_OFFSET));
+	}
+
+	/**
+	 * Hash a username the way the journal does, to look it up in the records.
+	 * @param salt the salt the journal was written with
+	 * @param username the username
+	 * @return the username hash
+	 */
+	public static long hashUsername(byte[] salt, String username) {
+		return hashUsername(sha256(), salt, username);
+	}
+
+	static long hashUsername(MessageDigest digest, byte[] salt, String username) {
+		if (username == null) {
+			return 0L;
+		}
+		digest.reset();
+		digest.update(salt);
+		return ByteBuffer.wrap(digest.digest(username.getBytes(StandardCharsets.UTF_8))).getLong();
+	}
+
+	static MessageDigest sha256() {
+		try {
+			return MessageDigest.getInstance("SHA-256");
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/**
+	 * Encode a textual IP address as 16 bytes. Host names are not resolved.
+	 * @return the address bytes, all zero when the address is not an IP literal
+	 */
+	static byte[] encodeAddress(String address, byte[] target) {
+		Arrays.fill(target, (byte) 0);
+		if (address == null || address.isEmpty() || !isIpLiteral(address)) {
+			return target;
+		}
+		try {
+			byte[] raw = InetAddress.getByName(address).getAddress();
+			if (raw.length == 4) {
+				target[10] = (byte) 0xff;
+				target[11] = (byte) 0xff;
+				System.arraycopy(raw, 0, target, 12, 4);
+			} else {
+				System.arraycopy(raw, 0, target, 0, ADDRESS_LENGTH);
+			}
+		} catch (UnknownHostException e) {
+			// 非法的地址字面量记为未知
+		}
+		return target;
+	}
+
+	private static boolean isIpLiteral(String address) {
+		if (address.indexOf(':') >= 0) {
+			return true;
+		}
+		for (int i = 0; i < address.length(); i++) {
+			char c = address.charAt(i);
+			if (c != '.' && (c < '0' || c > '9')) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	public long getTimestamp() {
+		return timestamp;
+	}
+
+	public long getUsernameHash() {
+		return usernameHash;
+	}
+
+	/**
+	 * @return the client address, IPv4 addresses in dotted form, or null when unknown
+	 */
+	public String getAddress() {
+		boolean mapped = true;
+		for (int i = 0; i < 12; i++) {
+			byte expected = i < 10 ? 0 : (byte) 0xff;
+			if (address[i] != expected) {
+				mapped = false;
+				break;
+			}
+		}
+		try {
+			if (mapped) {
+				return InetAddress.getByAddress(Arrays.copyOfRange(address, 12, 16)).getHostAddress();
+			}
+			for (byte b : address) {
+				if (b != 0) {
+					return InetAddress.getByAddress(address).getHostAddress();
+				}
+			}
+		} catch (UnknownHostException e) {
+			// 长度固定，不会发生
+		}
+		return null;
+	}
+
+	public AuditOutcome getOutcome() {
+		return outcome;
+	}
+
+	public int getLatencyMicros() {
+		return latencyMicros;
+	}
+
+	@Override
+	public String toString() {
+		return timestamp + "," + Long.toHexString(usernameHash) + "," + getAddress() + "," + outcome + "," + latencyMicros;
+	}
+
+}
@@ -0,0 +1,47 @@
+/*
+ * Copyright (c) 2018, vindell (https://github.com/vindell).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.springframework.security.boot.biz.audit;
+
+import javax.servlet.http.HttpServletRequest;
+
+import org.springframework.security.boot.biz.authentication.PostRequestAuthenticationProcessingFilter;
+
+/**
+ * 读取登录过滤器放在请求属性中的登录信息
+ * @author ： <a href="https://github.com/vindell">wandl</a>
+ */
+final class LoginAttempts {
+
+	private LoginAttempts() {
+	}
+
+	/**
+	 * @return the submitted username, or null when the request did not get that far
+	 */
+	static String username(HttpServletRequest request) {
+		Object username = request.getAttribute(PostRequestAuthenticationProcessingFilter.ATTEMPT_USERNAME_ATTRIBUTE);
+		return username != null ? username.toString() : null;
+	}
+
+	/**
+	 * @return the time since the login attempt started, or -1 when unknown
+	 */
+	static long latencyNanos(HttpServletRequest request) {
+		Object start = request.getAttribute(PostRequestAuthenticationProcessingFilter.ATTEMPT_START_ATTRIBUTE);
+		return start instanceof Long ? System.nanoTime() - (Long) start : -1L;
+	}
+
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright (c) 2018, vindell (https://github.com/vindell).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.springframework.security.boot.biz.audit;
+
+/**
+ * {@link RecentAuthenticationEvents} 的查询结果
+ * @author ： <a href="https://github.com/vindell">wandl</a>
+ */
+public final class RecentAuthenticationEvent {
+
+	private final long sequence;
+	private final long timestamp;
+	private final String username;
+	private final String address;
+	private final AuditOutcome outcome;
+	private final long latencyMicros;
+
+	RecentAuthenticationEvent(long sequence, long timestamp, String username, String address, AuditOutcome outcome,
+			long latencyMicros) {
+		this.sequence = sequence;
+		this.timestamp = timestamp;
+		this.username = username;
+		this.address = address;
+		this.outcome = outcome;
+		this.latencyMicros = latencyMicros;
+	}
+
+	/** @return the position of the event in the order of recording */
+	public long getSequence() {
+		return sequence;
+	}
+
+	public long getTimestamp() {
+		return timestamp;
+	}
+
+	public String getUsername() {
+		return username;
+	}
+
+	public String getAddress() {
+		return address;
+	}
+
+	public AuditOutcome getOutcome() {
+		return outcome;
+	}
+
+	/** @return the time since the login attempt started, or -1 when unknown */
+	public long getLatencyMicros() {
+		return latencyMicros;
+	}
+
+	@Override
+	public String toString() {
+		return sequence + "," + timestamp + "," + username + "," + address + "," + outcome + "," + latencyMicros;
+	}
+
+}
@@ -0,0 +1,162 @@
+/*
+ * Copyright (c) 2018, vindell (https://github.com/vindell).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.springframework.security.boot.biz.audit;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.util.Assert;
+
+/**
+ * 最近登录事件的固定容量环形缓冲区，写满后覆盖最旧的事件，供排查故障时按条件查询。
+ * <p>
+ * 槽位在构造时一次性分配，每个字段是一个原子数组，记录事件只写入已有的引用和数值，不分配对象，也不加锁：
+ * 写入方以 CAS 把槽位序号改为“写入中”占有槽位，写完字段后发布新序号；
+ * 查询方在读取字段前后各读一次序号，序号不变才采用，因此查询永远不会阻塞写入。
+ * 极少数情况下槽位正被一个落后整整一圈的写入方占有，此时新事件被丢弃并计数。
+ * </p>
+ * 内存占用约为 {@code 容量 × 40} 字节，加上事件引用的用户名和地址字符串。
+ * @author ： <a href="https://github.com/vindell">wandl</a>
+ */
+public class RecentAuthenticationEvents {
+
+	public static final int DEFAULT_CAPACITY = 4096;
+
+	private static final int LATENCY_BITS = 32;
+
+	private final int mask;
+	private final AtomicLong next = new AtomicLong();
+	/** 槽位中事件的序号加一；0 表示空，负数表示正在写入 */
+	private final AtomicLongArray sequences;
+	private final AtomicLongArray timestamps;
+	/** 高位为结果编码，低 32 位为耗时（微秒） */
+	private final AtomicLongArray outcomes;
+	private final AtomicReferenceArray<String> usernames;
+	private final AtomicReferenceArray<String> addresses;
+	private final LongAdder dropped = new LongAdder();
+
+	public RecentAuthenticationEvents() {
+		this(DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * @param capacity the number of events kept, rounded up to a power of two
+	 */
+	public RecentAuthenticationEvents(int capacity) {
+		Assert.isTrue(capacity > 0 && capacity <= 1 << 30, "capacity must be between 1 and 2^30");
+		int size = Integer.highestOneBit(capacity);
+		size = size < capacity ? size << 1 : size;
+		this.mask = size - 1;
+		this.sequences = new AtomicLongArray(size);
+		this.timestamps = new AtomicLongArray(size);
+		this.outcomes = new AtomicLongArray(size);
+		this.usernames = new AtomicReferenceArray<String>(size);
+		this.addresses = new AtomicReferenceArray<String>(size);
+	}
+
+	/**
+	 * Record a login outcome, overwriting the oldest event when the buffer is full.
+	 * @param username the submitted username
+	 * @param address the client address
+	 * @param outcome the login outcome
+	 * @param latencyNanos the time since the login attempt started, or a negative value when unknown
+	 */
+	public void record(String username, String address, AuditOutcome outcome, long latencyNanos) {
+		long sequence = next.getAndIncrement();
+		int slot = (int) sequence & mask;
+		long current = sequences.get(slot);
+		// 只覆盖更早的已发布事件；槽位正在写入或已被更新的事件占用时丢弃
+		if (current < 0 || current > sequence || !sequences.compareAndSet(slot, current, -(sequence + 1))) {
+			dropped.increment();
+			return;
+		}
+		long micros = latencyNanos < 0 ? 0xFFFFFFFFL : Math.min(latencyNanos / 1000, 0xFFFFFFFEL);
+		timestamps.lazySet(slot, System.currentTimeMillis());
+		usernames.lazySet(slot, username);
+		addresses.lazySet(slot, address);
+		outcomes.lazySet(slot, ((long) outcome.getCode() << LATENCY_BITS) | micros);
+		sequences.lazySet(slot, sequence + 1);
+	}
+
+	/**
+	 * Find the recorded events matching all given conditions, newest first. Reads
+	 * without locking and never blocks {@link #record}.
+	 * @param username the username, or null for any
+	 * @param address the client address, or null for any
+	 * @param outcomes the outcomes, or null or empty for any
+	 * @param from the earliest timestamp in epoch milliseconds, inclusive
+	 * @param to the latest timestamp in epoch milliseconds, inclusive
+	 * @param limit the maximum number of events returned
+	 * @return the matching events
+	 */
+	public List<RecentAuthenticationEvent> query(String username, String address, Set<AuditOutcome> outcomes,
+			long from, long to, int limit) {
+		if (limit <= 0) {
+			return Collections.emptyList();
+		}
+		List<RecentAuthenticationEvent> events = new ArrayList<RecentAuthenticationEvent>(Math.min(limit, 64));
+		long newest = next.get() - 1;
+		long oldest = Math.max(0, newest - mask);
+		for (long sequence = newest; sequence >= oldest && events.size() < limit; sequence--) {
+			int slot = (int) sequence & mask;
+			long published = sequences.get(slot);
+			if (published != sequence + 1) {
+				continue;
+			}
+			long timestamp = timestamps.get(slot);
+			String eventUsername = usernames.get(slot);
+			String eventAddress = addresses.get(slot);
+			long packed = this.outcomes.get(slot);
+			if (sequences.get(slot) != published) {
+				// 读取期间被覆盖
+				continue;
+			}
+			AuditOutcome outcome = AuditOutcome.valueOf((int) (packed >>> LATENCY_BITS));
+			if (timestamp < from || timestamp > to
+					|| (username != null && !username.equals(eventUsername))
+					|| (address != null && !address.equals(eventAddress))
+					|| (outcomes != null && !outcomes.isEmpty() && !outcomes.contains(outcome))) {
+				continue;
+			}
+			long micros = packed & 0xFFFFFFFFL;
+			events.add(new RecentAuthenticationEvent(sequence, timestamp, eventUsername, eventAddress, outcome,
+					micros == 0xFFFFFFFFL ? -1 : micros));
+		}
+		return events;
+	}
+
+	/** @return the number of events kept */
+	public int getCapacity() {
+		return mask + 1;
+	}
+
+	/** @return the number of events recorded since startup, including overwritten ones */
+	public long getRecorded() {
+		return next.get();
+	}
+
+	/** @return the number of events dropped because their slot was still being written */
+	public long getDropped() {
+		return dropped.sum();
+	}
+
+}
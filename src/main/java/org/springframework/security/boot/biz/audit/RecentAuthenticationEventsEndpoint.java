@@ -0,0 +1,80 @@
+/*
+ * Copyright (c) 2018, vindell (https://github.com/vindell).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.springframework.security.boot.biz.audit;
+
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.boot.actuate.endpoint.InvalidEndpointRequestException;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.util.StringUtils;
+
+/**
+ * 最近登录事件的 actuator 端点：{@code /actuator/loginevents}，
+ * 可按 {@code username}、{@code address}、{@code outcome}（逗号分隔）、
+ * {@code from}/{@code to}（毫秒时间戳）或 {@code minutes}（最近几分钟）过滤，最多返回 {@code limit} 条。
+ * @author ： <a href="https://github.com/vindell">wandl</a>
+ */
+@Endpoint(id = "loginevents")
+public class RecentAuthenticationEventsEndpoint {
+
+	public static final int DEFAULT_LIMIT = 100;
+
+	private final RecentAuthenticationEvents events;
+
+	public RecentAuthenticationEventsEndpoint(RecentAuthenticationEvents events) {
+		this.events = events;
+	}
+
+	@ReadOperation
+	public Map<String, Object> events(@Nullable String username, @Nullable String address, @Nullable String outcome,
+			@Nullable Long from, @Nullable Long to, @Nullable Integer minutes, @Nullable Integer limit) {
+		long start = from != null ? from : 0L;
+		if (minutes != null) {
+			start = Math.max(start, System.currentTimeMillis() - minutes * 60_000L);
+		}
+		List<RecentAuthenticationEvent> matched = events.query(username, address, parseOutcomes(outcome), start,
+				to != null ? to : Long.MAX_VALUE, limit != null ? limit : DEFAULT_LIMIT);
+		Map<String, Object> result = new LinkedHashMap<String, Object>();
+		result.put("capacity", events.getCapacity());
+		result.put("recorded", events.getRecorded());
+		result.put("dropped", events.getDropped());
+		result.put("events", matched);
+		return result;
+	}
+
+	private static Set<AuditOutcome> parseOutcomes(String outcome) {
+		if (!StringUtils.hasText(outcome)) {
+			return null;
+		}
+		Set<AuditOutcome> outcomes = EnumSet.noneOf(AuditOutcome.class);
+		for (String name : StringUtils.commaDelimitedListToStringArray(outcome)) {
+			try {
+				outcomes.add(AuditOutcome.valueOf(name.trim().toUpperCase(Locale.ROOT)));
+			} catch (IllegalArgumentException e) {
+				throw new InvalidEndpointRequestException("Unknown outcome '" + name + "'", "Unknown outcome");
+			}
+		}
+		return outcomes;
+	}
+
+}
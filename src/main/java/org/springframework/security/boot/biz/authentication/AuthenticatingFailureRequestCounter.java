@@ -20,6 +20,7 @@ import javax.servlet.ServletRequest;
 import javax.servlet.ServletResponse;
 import javax.servlet.http.HttpServletRequest;
 
+import org.springframework.security.boot.biz.jfr.SecurityFlightRecorder;
 import org.springframework.web.util.WebUtils;
 
 
@@ -31,10 +32,9 @@ public class AuthenticatingFailureRequestCounter implements AuthenticatingFailur
 	public int get(ServletRequest request, ServletResponse response, String retryTimesKeyAttribute) {
 		HttpServletRequest httpRequest = WebUtils.getNativeRequest(request, HttpServletRequest.class);
 		String count = httpRequest.getParameter(getRetryTimesKeyParameter());
-		if (null != count) {
-			return Integer.parseInt(count);
-		}
-		return 0;
+		int retryTimes = null != count ? Integer.parseInt(count) : 0;
+		SecurityFlightRecorder.failureCount(this, "get", retryTimes);
+		return retryTimes;
 	}
 
 	@Override
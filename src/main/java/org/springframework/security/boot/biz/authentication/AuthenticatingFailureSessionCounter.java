@@ -19,6 +19,7 @@ import javax.servlet.ServletRequest;
 import javax.servlet.ServletResponse;
 import javax.servlet.http.HttpServletRequest;
 
+import org.springframework.security.boot.biz.jfr.SecurityFlightRecorder;
 import org.springframework.web.util.WebUtils;
 
 public class AuthenticatingFailureSessionCounter implements AuthenticatingFailureCounter {
@@ -27,22 +28,22 @@ public class AuthenticatingFailureSessionCounter implements AuthenticatingFailur
 	public int get(ServletRequest request, ServletResponse response, String retryTimesKeyAttribute) {
 		HttpServletRequest httpRequest = WebUtils.getNativeRequest(request, HttpServletRequest.class);
 		Object count = WebUtils.getSessionAttribute(httpRequest, retryTimesKeyAttribute);
-		if (null != count) {
-			return Integer.parseInt(String.valueOf(count));
-		}
-		return 0;
+		int retryTimes = null != count ? Integer.parseInt(String.valueOf(count)) : 0;
+		SecurityFlightRecorder.failureCount(this, "get", retryTimes);
+		return retryTimes;
 	}
 
 	@Override
 	public void increment(ServletRequest request, ServletResponse response, String retryTimesKeyAttribute) {
 		HttpServletRequest httpRequest = WebUtils.getNativeRequest(request, HttpServletRequest.class);
 		Object count = WebUtils.getSessionAttribute(httpRequest, retryTimesKeyAttribute);
+		long retryTimes = null == count ? 1 : Long.parseLong(String.valueOf(count)) + 1;
 		if (null == count) {
 			WebUtils.setSessionAttribute(httpRequest, retryTimesKeyAttribute, 1);
 		} else {
-			WebUtils.setSessionAttribute(httpRequest, retryTimesKeyAttribute,
-					Long.parseLong(String.valueOf(count)) + 1);
+			WebUtils.setSessionAttribute(httpRequest, retryTimesKeyAttribute, retryTimes);
 		}
+		SecurityFlightRecorder.failureCount(this, "increment", retryTimes);
 	}
 
 }
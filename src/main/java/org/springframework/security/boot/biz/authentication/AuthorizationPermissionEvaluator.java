@@ -20,6 +20,7 @@ import java.util.Collection;
 
 import org.apache.commons.lang3.StringUtils;
 import org.springframework.security.access.PermissionEvaluator;
+import org.springframework.security.boot.biz.jfr.SecurityFlightRecorder;
 import org.springframework.security.boot.utils.SubjectUtils;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
@@ -37,13 +38,7 @@ public class AuthorizationPermissionEvaluator implements PermissionEvaluator {
 		if (StringUtils.equalsIgnoreCase("*", permission.toString())) {
 			return true;
 		}
-		Collection<? extends GrantedAuthority> authorities = authentication.getAuthorities();
-		for (GrantedAuthority authority : authorities) {
-			if (authority.getAuthority().equals(permission)) {
-				return true;
-			}
-		}
-		return false;
+		return hasAuthority(authentication.getAuthorities(), permission);
 	}
 	
 	/**
@@ -55,20 +50,27 @@ public class AuthorizationPermissionEvaluator implements PermissionEvaluator {
 		if (StringUtils.equalsIgnoreCase("*", permission.toString())) {
 			return true;
 		}
-		Collection<? extends GrantedAuthority> authorities = authentication.getAuthorities();
-		for (GrantedAuthority authority : authorities) {
-			if (authority.getAuthority().equals(permission)) {
-				return true;
-			}
-		}
-		return false;
+		return hasAuthority(authentication.getAuthorities(), permission);
 	}
 	
 	public boolean hasPermission(Object permission) {
 		if (StringUtils.equalsIgnoreCase("*", permission.toString())) {
 			return true;
 		}
-		Collection<? extends GrantedAuthority> authorities = SubjectUtils.getAuthentication().getAuthorities();
+		return hasAuthority(SubjectUtils.getAuthentication().getAuthorities(), permission);
+	}
+
+	private boolean hasAuthority(Collection<? extends GrantedAuthority> authorities, Object permission) {
+		if (!SecurityFlightRecorder.isPermissionCheckEnabled()) {
+			return containsAuthority(authorities, permission);
+		}
+		long start = System.nanoTime();
+		boolean granted = containsAuthority(authorities, permission);
+		SecurityFlightRecorder.permissionCheck(permission, granted, authorities.size(), System.nanoTime() - start);
+		return granted;
+	}
+
+	private boolean containsAuthority(Collection<? extends GrantedAuthority> authorities, Object permission) {
 		for (GrantedAuthority authority : authorities) {
 			if (authority.getAuthority().equals(permission)) {
 				return true;
@@ -19,12 +19,23 @@ import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import javax.servlet.http.HttpSession;
 
-import org.springframework.security.boot.biz.filter.HttpParamsFilter;
 import org.springframework.security.boot.utils.StringUtils;
 import org.springframework.security.web.authentication.SimpleUrlAuthenticationSuccessHandler;
 
+/**
+ * 登录成功后跳转到登录前访问的地址：依次取目标地址参数、{@link RequestedUrlCookieRepository} 保存的地址、
+ * 会话中的 {@link #REQUESTED_URL_ATTRIBUTE}，都不存在时跳转到默认地址。
+ * <p>
+ * 地址保存在 Cookie 中时，仓库必须与写入方（{@code CompactRequestCache} 或过滤器）共用同一个实例，例如 {@code upcRequestedUrlRepository}。
+ * </p>
+ */
 public class NeteaseUrlAuthenticationSuccessHandler extends SimpleUrlAuthenticationSuccessHandler {
 
+    /** 会话中保存访问地址的属性名 */
+    public static final String REQUESTED_URL_ATTRIBUTE = "CasRequestedUrl";
+
+    private RequestedUrlCookieRepository requestedUrlRepository;
+
     public NeteaseUrlAuthenticationSuccessHandler() {
         super();
     }
@@ -33,6 +44,12 @@ public class NeteaseUrlAuthenticationSuccessHandler extends SimpleUrlAuthenticat
         super(defaultTargetUrl);
     }
 
+    public NeteaseUrlAuthenticationSuccessHandler(String defaultTargetUrl,
+            RequestedUrlCookieRepository requestedUrlRepository) {
+        super(defaultTargetUrl);
+        this.requestedUrlRepository = requestedUrlRepository;
+    }
+
     @Override
     protected String determineTargetUrl(HttpServletRequest request, HttpServletResponse response) {
         if (isAlwaysUseDefaultTargetUrl()) {
@@ -52,9 +69,19 @@ public class NeteaseUrlAuthenticationSuccessHandler extends SimpleUrlAuthenticat
             }
         }
 
+        if (!StringUtils.hasText(targetUrl) && requestedUrlRepository != null) {
+            targetUrl = requestedUrlRepository.getRequestedUrl(request);
+            if (StringUtils.hasText(targetUrl)) {
+                requestedUrlRepository.removeRequestedUrl(request, response);
+            }
+        }
+
         if (!StringUtils.hasText(targetUrl)) {
-            HttpSession session = request.getSession();
-            targetUrl = (String) session.getAttribute(HttpParamsFilter.REQUESTED_URL);
+            // 兼容旧的会话方式，不存在会话时不再创建
+            HttpSession session = request.getSession(false);
+            if (session != null) {
+                targetUrl = (String) session.getAttribute(REQUESTED_URL_ATTRIBUTE);
+            }
         }
 
         if (!StringUtils.hasText(targetUrl)) {
@@ -64,4 +91,12 @@ public class NeteaseUrlAuthenticationSuccessHandler extends SimpleUrlAuthenticat
 
         return targetUrl;
     }
-}
\ No newline at end of file
+
+    public RequestedUrlCookieRepository getRequestedUrlRepository() {
+        return requestedUrlRepository;
+    }
+
+    public void setRequestedUrlRepository(RequestedUrlCookieRepository requestedUrlRepository) {
+        this.requestedUrlRepository = requestedUrlRepository;
+    }
+}
\ No newline at end of file
@@ -23,17 +23,9 @@ import javax.servlet.http.HttpServletResponse;
 
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
-import org.springframework.security.authentication.BadCredentialsException;
-import org.springframework.security.boot.biz.exception.AuthMethodNotSupportedException;
-import org.springframework.security.boot.biz.exception.AuthTokenExpiredException;
-import org.springframework.security.boot.biz.exception.AuthTokenIncorrectException;
-import org.springframework.security.boot.biz.exception.AuthenticationCaptchaIncorrectException;
-import org.springframework.security.boot.biz.exception.AuthenticationCaptchaNotFoundException;
-import org.springframework.security.boot.biz.exception.ErrorCode;
 import org.springframework.security.boot.biz.exception.ErrorResponse;
 import org.springframework.security.boot.utils.WebUtils;
 import org.springframework.security.core.AuthenticationException;
-import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.web.authentication.LoginUrlAuthenticationEntryPoint;
 
 import com.alibaba.fastjson.JSONObject;
@@ -63,23 +55,7 @@ public class PostRequestAuthenticationEntryPoint extends LoginUrlAuthenticationE
 		response.setStatus(HttpStatus.UNAUTHORIZED.value());
 		response.setContentType(MediaType.APPLICATION_JSON_UTF8_VALUE);
 		
-		if (e instanceof UsernameNotFoundException) {
-			JSONObject.writeJSONString(response.getWriter(), ErrorResponse.of("Invalid username or password", ErrorCode.AUTHENTICATION, HttpStatus.UNAUTHORIZED));
-		}  else if (e instanceof BadCredentialsException) {
-			JSONObject.writeJSONString(response.getWriter(), ErrorResponse.of("Invalid username or password", ErrorCode.AUTHENTICATION, HttpStatus.UNAUTHORIZED));
-		}  else if (e instanceof AuthenticationCaptchaNotFoundException) {
-			JSONObject.writeJSONString(response.getWriter(), ErrorResponse.of(e.getMessage(), ErrorCode.CAPTCHA, HttpStatus.UNAUTHORIZED));
-		}  else if (e instanceof AuthenticationCaptchaIncorrectException) {
-			JSONObject.writeJSONString(response.getWriter(), ErrorResponse.of(e.getMessage(), ErrorCode.CAPTCHA, HttpStatus.UNAUTHORIZED));
-		} else if (e instanceof AuthTokenIncorrectException) {
-			JSONObject.writeJSONString(response.getWriter(), ErrorResponse.of("Token was incorrect", ErrorCode.TOKEN, HttpStatus.UNAUTHORIZED));
-		} else if (e instanceof AuthTokenExpiredException) {
-			JSONObject.writeJSONString(response.getWriter(), ErrorResponse.of("Token has expired", ErrorCode.TOKEN, HttpStatus.UNAUTHORIZED));
-		} else if (e instanceof AuthMethodNotSupportedException) {
-			JSONObject.writeJSONString(response.getWriter(), ErrorResponse.of(e.getMessage(), ErrorCode.AUTHENTICATION, HttpStatus.METHOD_NOT_ALLOWED));
-		} else {
-			JSONObject.writeJSONString(response.getWriter(), ErrorResponse.of("Authentication failed", ErrorCode.AUTHENTICATION, HttpStatus.UNAUTHORIZED));
-		}
+		JSONObject.writeJSONString(response.getWriter(), ErrorResponse.of(e));
 	}
-	
+
 }
@@ -7,20 +7,14 @@ import javax.servlet.ServletException;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
-import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
-import org.springframework.security.authentication.BadCredentialsException;
-import org.springframework.security.boot.biz.exception.AuthMethodNotSupportedException;
-import org.springframework.security.boot.biz.exception.AuthTokenExpiredException;
-import org.springframework.security.boot.biz.exception.AuthTokenIncorrectException;
-import org.springframework.security.boot.biz.exception.AuthenticationCaptchaIncorrectException;
-import org.springframework.security.boot.biz.exception.AuthenticationCaptchaNotFoundException;
-import org.springframework.security.boot.biz.exception.ErrorCode;
 import org.springframework.security.boot.biz.exception.ErrorResponse;
+import org.springframework.security.boot.biz.metrics.AuthenticationMetrics;
+import org.springframework.security.boot.biz.metrics.LoginStage;
 import org.springframework.security.boot.utils.WebUtils;
 import org.springframework.security.core.AuthenticationException;
-import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.web.authentication.ExceptionMappingAuthenticationFailureHandler;
+import org.springframework.util.Assert;
 
 import com.alibaba.fastjson.JSONObject;
 
@@ -30,6 +24,7 @@ import com.alibaba.fastjson.JSONObject;
 public class PostRequestAuthenticationFailureHandler extends ExceptionMappingAuthenticationFailureHandler {
 
 	private List<AuthenticationListener> authenticationListeners;
+	private AuthenticationMetrics metrics = AuthenticationMetrics.NOOP;
 	
 	public PostRequestAuthenticationFailureHandler(String defaultFailureUrl) {
 		this.setDefaultFailureUrl(defaultFailureUrl);
@@ -45,19 +40,27 @@ public class PostRequestAuthenticationFailureHandler extends ExceptionMappingAut
 			AuthenticationException e) throws IOException, ServletException {
 
 		//调用事件监听器
+		long start = System.nanoTime();
 		if(getAuthenticationListeners() != null && getAuthenticationListeners().size() > 0){
 			for (AuthenticationListener authenticationListener : getAuthenticationListeners()) {
 				authenticationListener.onFailure(request, response, e);
 			}
 		}
+		long now = System.nanoTime();
+		metrics.record(LoginStage.LISTENERS, false, now - start);
+		start = now;
 		
 		/*
 		 * if Rest request return json else rediect to specific page
 		 */
-		if (WebUtils.isPostRequest(request)) {
-			this.writeJSONString(request, response, e);
-		} else {
-			super.onAuthenticationFailure(request, response, e);
+		try {
+			if (WebUtils.isPostRequest(request)) {
+				this.writeJSONString(request, response, e);
+			} else {
+				super.onAuthenticationFailure(request, response, e);
+			}
+		} finally {
+			metrics.recordSince(LoginStage.RESPONSE, false, start);
 		}
 		
 	}
@@ -65,26 +68,11 @@ public class PostRequestAuthenticationFailureHandler extends ExceptionMappingAut
 	protected void writeJSONString(HttpServletRequest request, HttpServletResponse response,
 			AuthenticationException e) throws IOException, ServletException{
 		
-		response.setStatus(HttpStatus.UNAUTHORIZED.value());
+		ErrorResponse error = ErrorResponse.of(e);
+		response.setStatus(error.getStatus());
 		response.setContentType(MediaType.APPLICATION_JSON_UTF8_VALUE);
 		
-		if (e instanceof UsernameNotFoundException) {
-			JSONObject.writeJSONString(response.getWriter(), ErrorResponse.of("Invalid username or password", ErrorCode.AUTHENTICATION, HttpStatus.UNAUTHORIZED));
-		}  else if (e instanceof BadCredentialsException) {
-			JSONObject.writeJSONString(response.getWriter(), ErrorResponse.of("Invalid username or password", ErrorCode.AUTHENTICATION, HttpStatus.UNAUTHORIZED));
-		}  else if (e instanceof AuthenticationCaptchaNotFoundException) {
-			JSONObject.writeJSONString(response.getWriter(), ErrorResponse.of(e.getMessage(), ErrorCode.CAPTCHA, HttpStatus.UNAUTHORIZED));
-		}  else if (e instanceof AuthenticationCaptchaIncorrectException) {
-			JSONObject.writeJSONString(response.getWriter(), ErrorResponse.of(e.getMessage(), ErrorCode.CAPTCHA, HttpStatus.UNAUTHORIZED));
-		} else if (e instanceof AuthTokenIncorrectException) {
-			JSONObject.writeJSONString(response.getWriter(), ErrorResponse.of("Token was incorrect", ErrorCode.TOKEN, HttpStatus.UNAUTHORIZED));
-		} else if (e instanceof AuthTokenExpiredException) {
-			JSONObject.writeJSONString(response.getWriter(), ErrorResponse.of("Token has expired", ErrorCode.TOKEN, HttpStatus.UNAUTHORIZED));
-		} else if (e instanceof AuthMethodNotSupportedException) {
-			JSONObject.writeJSONString(response.getWriter(), ErrorResponse.of(e.getMessage(), ErrorCode.AUTHENTICATION, HttpStatus.METHOD_NOT_ALLOWED));
-		} else {
-			JSONObject.writeJSONString(response.getWriter(), ErrorResponse.of("Authentication failed", ErrorCode.AUTHENTICATION, HttpStatus.UNAUTHORIZED));
-		}
+		JSONObject.writeJSONString(response.getWriter(), error);
 	}
 
 	public List<AuthenticationListener> getAuthenticationListeners() {
@@ -95,4 +83,13 @@ public class PostRequestAuthenticationFailureHandler extends ExceptionMappingAut
 		this.authenticationListeners = authenticationListeners;
 	}
 
+	public AuthenticationMetrics getMetrics() {
+		return metrics;
+	}
+
+	public void setMetrics(AuthenticationMetrics metrics) {
+		Assert.notNull(metrics, "metrics must not be null");
+		this.metrics = metrics;
+	}
+
 }
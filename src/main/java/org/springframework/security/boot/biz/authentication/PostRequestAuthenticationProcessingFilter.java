@@ -1,7 +1,16 @@
 package org.springframework.security.boot.biz.authentication;
 
 import java.io.IOException;
-
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.servlet.AsyncContext;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.DispatcherType;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
 import javax.servlet.ServletRequest;
 import javax.servlet.ServletResponse;
 import javax.servlet.http.HttpServletRequest;
@@ -17,11 +26,18 @@ import org.springframework.security.boot.biz.exception.AuthMethodNotSupportedExc
 import org.springframework.security.boot.biz.exception.AuthenticationCaptchaIncorrectException;
 import org.springframework.security.boot.biz.exception.AuthenticationCaptchaNotFoundException;
 import org.springframework.security.boot.biz.exception.AuthenticationOverRetryRemindException;
+import org.springframework.security.boot.biz.exception.AuthenticationRejectedException;
+import org.springframework.security.boot.biz.exception.AuthenticationTimeoutException;
+import org.springframework.security.boot.biz.metrics.AuthenticationMetrics;
+import org.springframework.security.boot.biz.metrics.LoginStage;
+import org.springframework.security.boot.biz.metrics.TimedSessionAuthenticationStrategy;
 import org.springframework.security.boot.utils.StringUtils;
 import org.springframework.security.boot.utils.WebUtils;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.AuthenticationException;
 import org.springframework.security.web.authentication.AbstractAuthenticationProcessingFilter;
+import org.springframework.security.web.authentication.session.NullAuthenticatedSessionStrategy;
+import org.springframework.security.web.authentication.session.SessionAuthenticationStrategy;
 import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
 import org.springframework.util.Assert;
 
@@ -44,6 +60,13 @@ public class PostRequestAuthenticationProcessingFilter extends AbstractAuthentic
 	public static final String SPRING_SECURITY_FORM_PASSWORD_KEY = "password";
 	public static final String SPRING_SECURITY_FORM_CAPTCHA_KEY = "captcha";
 	public static final String DEFAULT_RETRY_TIMES_KEY_ATTRIBUTE_NAME = "securityLoginFailureRetries";
+	/** request attribute holding the {@link System#nanoTime()} at which the login attempt started */
+	public static final String ATTEMPT_START_ATTRIBUTE = PostRequestAuthenticationProcessingFilter.class.getName() + ".ATTEMPT_START";
+	/** request attribute holding the submitted username, also available to the failure listeners */
+	public static final String ATTEMPT_USERNAME_ATTRIBUTE = PostRequestAuthenticationProcessingFilter.class.getName() + ".ATTEMPT_USERNAME";
+	/** request attribute carrying the result of an asynchronous authentication back to the container thread */
+	public static final String ASYNC_RESULT_ATTRIBUTE = PostRequestAuthenticationProcessingFilter.class.getName() + ".ASYNC_RESULT";
+	public static final long DEFAULT_ASYNC_TIMEOUT = 10 * 1000L;
 	
 	private String usernameParameter = SPRING_SECURITY_FORM_USERNAME_KEY;
 	private String passwordParameter = SPRING_SECURITY_FORM_PASSWORD_KEY;
@@ -57,6 +80,13 @@ public class PostRequestAuthenticationProcessingFilter extends AbstractAuthentic
 	
 	private ObjectMapper objectMapper = new ObjectMapper();
 	private AuthenticatingFailureCounter failureCounter;
+	private AuthenticationMetrics metrics = AuthenticationMetrics.NOOP;
+	private SessionAuthenticationStrategy sessionStrategy = new NullAuthenticatedSessionStrategy();
+	private SessionAuthenticationStrategy effectiveSessionStrategy = sessionStrategy;
+	private boolean continueChainBeforeSuccessfulAuthentication = false;
+	/** 设置后登录请求转为异步处理，用户查询和密码校验在该线程池上执行 */
+	private Executor asyncExecutor;
+	private long asyncTimeout = DEFAULT_ASYNC_TIMEOUT;
 	
 	// ~ Constructors
 	// ===================================================================================================
@@ -74,10 +104,112 @@ public class PostRequestAuthenticationProcessingFilter extends AbstractAuthentic
 	// ~ Methods
 	// ========================================================================================================
 
+	@Override
+	public void doFilter(ServletRequest req, ServletResponse res, FilterChain chain)
+			throws IOException, ServletException {
+		
+		HttpServletRequest request = (HttpServletRequest) req;
+		HttpServletResponse response = (HttpServletResponse) res;
+		
+		// 异步认证完成后重新分派回来，在容器线程上继续处理认证结果
+		Object result = request.getAttribute(ASYNC_RESULT_ATTRIBUTE);
+		if (result != null && DispatcherType.ASYNC.equals(request.getDispatcherType())) {
+			request.removeAttribute(ASYNC_RESULT_ATTRIBUTE);
+			resumeAuthentication(request, response, chain, result);
+			return;
+		}
+		
+		if (asyncExecutor == null || !request.isAsyncSupported() || !requiresAuthentication(request, response)) {
+			super.doFilter(req, res, chain);
+			return;
+		}
+		
+		AbstractAuthenticationToken authRequest;
+		try {
+			authRequest = obtainAuthenticationRequest(request, response);
+		} catch (InternalAuthenticationServiceException failed) {
+			logger.error("An internal error occurred while trying to authenticate the user.", failed);
+			unsuccessfulAuthentication(request, response, failed);
+			return;
+		} catch (AuthenticationException failed) {
+			unsuccessfulAuthentication(request, response, failed);
+			return;
+		}
+		
+		// 用户查询和密码校验在专用线程池上执行，不占用容器线程
+		long start = (Long) request.getAttribute(ATTEMPT_START_ATTRIBUTE);
+		AsyncContext asyncContext = request.startAsync(request, response);
+		asyncContext.setTimeout(asyncTimeout);
+		AsyncAuthentication asyncAuthentication = new AsyncAuthentication(asyncContext);
+		asyncContext.addListener(asyncAuthentication);
+		try {
+			asyncExecutor.execute(() -> asyncAuthentication.complete(authenticateQuietly(authRequest, start)));
+		} catch (RejectedExecutionException e) {
+			metrics.recordSince(LoginStage.ATTEMPT, false, start);
+			asyncAuthentication.complete(new AuthenticationRejectedException("Too many concurrent login attempts", e));
+		}
+	}
+
+	/**
+	 * Handle the result of an asynchronous authentication the way
+	 * {@link AbstractAuthenticationProcessingFilter} handles a synchronous one.
+	 */
+	protected void resumeAuthentication(HttpServletRequest request, HttpServletResponse response, FilterChain chain,
+			Object result) throws IOException, ServletException {
+		if (result instanceof AuthenticationException) {
+			if (result instanceof InternalAuthenticationServiceException) {
+				logger.error("An internal error occurred while trying to authenticate the user.", (Throwable) result);
+			}
+			unsuccessfulAuthentication(request, response, (AuthenticationException) result);
+			return;
+		}
+		Authentication authResult = (Authentication) result;
+		try {
+			effectiveSessionStrategy.onAuthentication(authResult, request, response);
+		} catch (AuthenticationException failed) {
+			unsuccessfulAuthentication(request, response, failed);
+			return;
+		}
+		if (continueChainBeforeSuccessfulAuthentication) {
+			chain.doFilter(request, response);
+		}
+		successfulAuthentication(request, response, chain, authResult);
+	}
+
+	private Object authenticateQuietly(AbstractAuthenticationToken authRequest, long start) {
+		try {
+			return authenticate(authRequest, start);
+		} catch (AuthenticationException e) {
+			return e;
+		} catch (RuntimeException e) {
+			return new InternalAuthenticationServiceException(e.getMessage(), e);
+		}
+	}
+
 	@Override
 	public Authentication attemptAuthentication(HttpServletRequest request, HttpServletResponse response)
 			throws AuthenticationException {
+		AbstractAuthenticationToken authRequest = obtainAuthenticationRequest(request, response);
+		return authenticate(authRequest, (Long) request.getAttribute(ATTEMPT_START_ATTRIBUTE));
+	}
+
+	private Authentication authenticate(AbstractAuthenticationToken authRequest, long start) {
+		boolean success = false;
+		try {
+			Authentication authentication = this.getAuthenticationManager().authenticate(authRequest);
+			success = true;
+			return authentication;
+		} finally {
+			metrics.recordSince(LoginStage.ATTEMPT, success, start);
+		}
+	}
 
+	/**
+	 * Parse the login request and check the captcha, everything before the user lookup.
+	 * @return the authentication request to hand to the {@link org.springframework.security.authentication.AuthenticationManager}
+	 */
+	protected AbstractAuthenticationToken obtainAuthenticationRequest(HttpServletRequest request,
+			HttpServletResponse response) throws AuthenticationException {
 		if (isPostOnly() && !WebUtils.isPostRequest(request) ) {
 			if (logger.isDebugEnabled()) {
 				logger.debug("Authentication method not supported. Request method: " + request.getMethod());
@@ -85,13 +217,22 @@ public class PostRequestAuthenticationProcessingFilter extends AbstractAuthentic
 			throw new AuthMethodNotSupportedException("Authentication method not supported: " + request.getMethod());
 		}
 		
+		// 分阶段计时：当前阶段失败时在 finally 中记录
+		long start = System.nanoTime();
+		long stageStart = start;
+		request.setAttribute(ATTEMPT_START_ATTRIBUTE, start);
+		LoginStage stage = null;
+		boolean prepared = false;
 		try {
 
 			AbstractAuthenticationToken authRequest = null;
 			// Post && JSON
 			if(WebUtils.isPostRequest(request) && WebUtils.isContentTypeJson(request)) {
 				
+				stage = LoginStage.PARSE;
 				PostLoginRequest loginRequest = objectMapper.readValue(request.getReader(), PostLoginRequest.class);
+				stageStart = endStage(stage, stageStart);
+				stage = LoginStage.CAPTCHA;
 				
 				// The retry limit has been exceeded and a reminder is required
 		        if(isOverRetryRemind(request, response)) {
@@ -111,11 +252,14 @@ public class PostRequestAuthenticationProcessingFilter extends AbstractAuthentic
 					}
 					
 				}
+		 		stageStart = endStage(stage, stageStart);
+		 		stage = null;
 		 		
 		 		authRequest = this.authenticationToken( loginRequest.getUsername(), loginRequest.getPassword());
 
 			} else {
 				
+				stage = LoginStage.CAPTCHA;
 				// The retry limit has been exceeded and a reminder is required
 		        if(isOverRetryRemind(request, response)) {
 		        	throw new AuthenticationOverRetryRemindException("The number of login errors exceeds the maximum retry limit and a verification code is required.");
@@ -134,6 +278,8 @@ public class PostRequestAuthenticationProcessingFilter extends AbstractAuthentic
 					}
 					
 				}
+		 		stageStart = endStage(stage, stageStart);
+		 		stage = LoginStage.PARSE;
 		 		
 		 		String username = obtainUsername(request);
 				String password = obtainPassword(request);
@@ -147,15 +293,18 @@ public class PostRequestAuthenticationProcessingFilter extends AbstractAuthentic
 				}
 
 				username = username.trim();
+				stageStart = endStage(stage, stageStart);
+				stage = null;
 
 				authRequest = this.authenticationToken( username, password);
 		 		
 			}
 
 			// Allow subclasses to set the "details" property
+			request.setAttribute(ATTEMPT_USERNAME_ATTRIBUTE, authRequest.getPrincipal());
 			setDetails(request, authRequest);
-
-			return this.getAuthenticationManager().authenticate(authRequest);
+			prepared = true;
+			return authRequest;
 
 		} catch (JsonParseException e) {
 			throw new InternalAuthenticationServiceException(e.getMessage());
@@ -163,10 +312,23 @@ public class PostRequestAuthenticationProcessingFilter extends AbstractAuthentic
 			throw new InternalAuthenticationServiceException(e.getMessage());
 		} catch (IOException e) {
 			throw new InternalAuthenticationServiceException(e.getMessage());
+		} finally {
+			if (!prepared) {
+				if (stage != null) {
+					metrics.recordSince(stage, false, stageStart);
+				}
+				metrics.recordSince(LoginStage.ATTEMPT, false, start);
+			}
 		}
 
 	}
 
+	private long endStage(LoginStage stage, long stageStart) {
+		long now = System.nanoTime();
+		metrics.record(stage, true, now - stageStart);
+		return now;
+	}
+
 	protected AbstractAuthenticationToken authenticationToken(String username, String password) {
 		return new UsernamePasswordAuthenticationToken( username, password);
 	}
@@ -344,5 +506,100 @@ public class PostRequestAuthenticationProcessingFilter extends AbstractAuthentic
 	public ObjectMapper getObjectMapper() {
 		return objectMapper;
 	}
+
+	@Override
+	public void setSessionAuthenticationStrategy(SessionAuthenticationStrategy sessionStrategy) {
+		this.sessionStrategy = sessionStrategy;
+		applySessionStrategy();
+	}
+
+	public AuthenticationMetrics getMetrics() {
+		return metrics;
+	}
+
+	/**
+	 * @param metrics records the time spent in each stage, including the session strategy
+	 */
+	public void setMetrics(AuthenticationMetrics metrics) {
+		Assert.notNull(metrics, "metrics must not be null");
+		this.metrics = metrics;
+		applySessionStrategy();
+	}
+
+	private void applySessionStrategy() {
+		effectiveSessionStrategy = metrics == AuthenticationMetrics.NOOP || sessionStrategy == null ? sessionStrategy
+				: new TimedSessionAuthenticationStrategy(sessionStrategy, metrics);
+		super.setSessionAuthenticationStrategy(effectiveSessionStrategy);
+	}
+
+	@Override
+	public void setContinueChainBeforeSuccessfulAuthentication(boolean continueChainBeforeSuccessfulAuthentication) {
+		super.setContinueChainBeforeSuccessfulAuthentication(continueChainBeforeSuccessfulAuthentication);
+		this.continueChainBeforeSuccessfulAuthentication = continueChainBeforeSuccessfulAuthentication;
+	}
+
+	public Executor getAsyncExecutor() {
+		return asyncExecutor;
+	}
+
+	/**
+	 * @param asyncExecutor when set, login requests are put in async mode and the user lookup and
+	 *        password match run on this executor, freeing the container thread; null keeps them synchronous
+	 */
+	public void setAsyncExecutor(Executor asyncExecutor) {
+		this.asyncExecutor = asyncExecutor;
+	}
+
+	public long getAsyncTimeout() {
+		return asyncTimeout;
+	}
+
+	/**
+	 * @param asyncTimeout how long an asynchronous login may take before it fails, in milliseconds
+	 */
+	public void setAsyncTimeout(long asyncTimeout) {
+		Assert.isTrue(asyncTimeout > 0, "asyncTimeout must be positive");
+		this.asyncTimeout = asyncTimeout;
+	}
+
+	/**
+	 * 异步认证的结果只提交一次：认证完成、超时和线程池拒绝中先到的一个生效，之后重新分派到容器线程
+	 */
+	private static final class AsyncAuthentication implements AsyncListener {
+
+		private final AsyncContext asyncContext;
+		private final AtomicBoolean completed = new AtomicBoolean();
+
+		AsyncAuthentication(AsyncContext asyncContext) {
+			this.asyncContext = asyncContext;
+		}
+
+		void complete(Object result) {
+			if (completed.compareAndSet(false, true)) {
+				asyncContext.getRequest().setAttribute(ASYNC_RESULT_ATTRIBUTE, result);
+				asyncContext.dispatch();
+			}
+		}
+
+		@Override
+		public void onTimeout(AsyncEvent event) {
+			complete(new AuthenticationTimeoutException("Authentication timed out"));
+		}
+
+		@Override
+		public void onError(AsyncEvent event) {
+			// 连接已断开，由容器结束请求，不再分派
+			completed.set(true);
+		}
+
+		@Override
+		public void onComplete(AsyncEvent event) {
+		}
+
+		@Override
+		public void onStartAsync(AsyncEvent event) {
+		}
+
+	}
 	
 }
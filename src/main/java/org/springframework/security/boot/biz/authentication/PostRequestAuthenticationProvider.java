@@ -7,6 +7,8 @@ import org.springframework.security.authentication.AccountStatusUserDetailsCheck
 import org.springframework.security.authentication.AuthenticationProvider;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.boot.biz.metrics.AuthenticationMetrics;
+import org.springframework.security.boot.biz.metrics.LoginStage;
 import org.springframework.security.boot.biz.userdetails.SecurityPrincipal;
 import org.springframework.security.boot.biz.userdetails.UserDetailsServiceAdapter;
 import org.springframework.security.core.Authentication;
@@ -25,6 +27,7 @@ public class PostRequestAuthenticationProvider implements AuthenticationProvider
     private final PasswordEncoder passwordEncoder;
     private final UserDetailsServiceAdapter userDetailsService;
     private UserDetailsChecker userDetailsChecker = new AccountStatusUserDetailsChecker();
+    private AuthenticationMetrics metrics = AuthenticationMetrics.NOOP;
     
     public PostRequestAuthenticationProvider(final UserDetailsServiceAdapter userDetailsService, final PasswordEncoder passwordEncoder) {
         this.userDetailsService = userDetailsService;
@@ -61,13 +64,33 @@ public class PostRequestAuthenticationProvider implements AuthenticationProvider
 			throw new BadCredentialsException("No credentials found in request.");
 		}
         
-        UserDetails ud = getUserDetailsService().loadUserDetails(authentication);
-        if (!passwordEncoder.matches(password, ud.getPassword())) {
+        long start = System.nanoTime();
+        UserDetails ud;
+        try {
+        	ud = getUserDetailsService().loadUserDetails(authentication);
+        } catch (RuntimeException e) {
+        	metrics.recordSince(LoginStage.USER_LOOKUP, false, start);
+        	throw e;
+        }
+        long now = System.nanoTime();
+        metrics.record(LoginStage.USER_LOOKUP, true, now - start);
+        start = now;
+        boolean matches = passwordEncoder.matches(password, ud.getPassword());
+        now = System.nanoTime();
+        metrics.record(LoginStage.PASSWORD_MATCH, matches, now - start);
+        if (!matches) {
             throw new BadCredentialsException("Authentication Failed. Username or Password not valid.");
         }
         
         // User Status Check
-        getUserDetailsChecker().check(ud);
+        start = now;
+        try {
+        	getUserDetailsChecker().check(ud);
+        } catch (RuntimeException e) {
+        	metrics.recordSince(LoginStage.USER_CHECK, false, start);
+        	throw e;
+        }
+        metrics.recordSince(LoginStage.USER_CHECK, true, start);
         
         UsernamePasswordAuthenticationToken authenticationToken = null;
         if(SecurityPrincipal.class.isAssignableFrom(ud.getClass())) {
@@ -100,5 +123,14 @@ public class PostRequestAuthenticationProvider implements AuthenticationProvider
 	public UserDetailsServiceAdapter getUserDetailsService() {
 		return userDetailsService;
 	}
+
+	public AuthenticationMetrics getMetrics() {
+		return metrics;
+	}
+
+	public void setMetrics(AuthenticationMetrics metrics) {
+		Assert.notNull(metrics, "metrics must not be null");
+		this.metrics = metrics;
+	}
 	
 }
@@ -1,6 +1,7 @@
 package org.springframework.security.boot.biz.authentication;
 
 import java.io.IOException;
+import java.security.SecureRandom;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -11,9 +12,14 @@ import javax.servlet.http.HttpServletResponse;
 
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
+import org.springframework.security.boot.biz.context.StatelessToken;
+import org.springframework.security.boot.biz.context.StatelessTokenCodec;
+import org.springframework.security.boot.biz.metrics.AuthenticationMetrics;
+import org.springframework.security.boot.biz.metrics.LoginStage;
 import org.springframework.security.boot.utils.WebUtils;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.web.authentication.SavedRequestAwareAuthenticationSuccessHandler;
+import org.springframework.util.Assert;
 
 import com.alibaba.fastjson.JSONObject;
 
@@ -24,6 +30,10 @@ import com.alibaba.fastjson.JSONObject;
 public class PostRequestAuthenticationSuccessHandler extends SavedRequestAwareAuthenticationSuccessHandler {
 	
 	private List<AuthenticationListener> authenticationListeners;
+	private AuthenticationMetrics metrics = AuthenticationMetrics.NOOP;
+	private StatelessTokenCodec tokenCodec;
+	private long tokenTimeout = 30 * 60 * 1000L;
+	private final SecureRandom random = new SecureRandom();
 	
 	public PostRequestAuthenticationSuccessHandler(String defaultTargetUrl) {
 		this.setDefaultTargetUrl(defaultTargetUrl);
@@ -39,29 +49,44 @@ public class PostRequestAuthenticationSuccessHandler extends SavedRequestAwareAu
 			Authentication authentication) throws IOException, ServletException {
 		
 		//调用事件监听器
+		long start = System.nanoTime();
 		if(getAuthenticationListeners() != null && getAuthenticationListeners().size() > 0){
 			for (AuthenticationListener authenticationListener : getAuthenticationListeners()) {
 				authenticationListener.onSuccess(request, response, authentication);
 			}
 		}
+		long now = System.nanoTime();
+		metrics.record(LoginStage.LISTENERS, true, now - start);
+		start = now;
 		
 		/*
 		 * 判断是否Post请求
 		 */
-		if (WebUtils.isPostRequest(request)) {
+		try {
+			if (WebUtils.isPostRequest(request)) {
 			
-			Map<String, String> retMap = new HashMap<String, String>();
-			retMap.put("status", "1");
-			retMap.put("successUrl", getDefaultTargetUrl());
+				Map<String, Object> retMap = new HashMap<String, Object>();
+				retMap.put("status", "1");
+				retMap.put("successUrl", getDefaultTargetUrl());
+				// 签发令牌，后续请求通过 Authorization: Bearer 请求头认证
+				if (tokenCodec != null) {
+					StatelessToken token = StatelessToken.of(authentication, random.nextLong(),
+							System.currentTimeMillis() + tokenTimeout);
+					retMap.put("token", tokenCodec.encode(token));
+					retMap.put("expiresIn", tokenTimeout / 1000);
+				}
 
-			response.setStatus(HttpStatus.OK.value());
-			response.setContentType(MediaType.APPLICATION_JSON_UTF8_VALUE);
+				response.setStatus(HttpStatus.OK.value());
+				response.setContentType(MediaType.APPLICATION_JSON_UTF8_VALUE);
 			
-			JSONObject.writeJSONString(response.getWriter(), retMap);
+				JSONObject.writeJSONString(response.getWriter(), retMap);
 
-			clearAuthenticationAttributes(request);
-		} else {
-			super.onAuthenticationSuccess(request, response, authentication);
+				clearAuthenticationAttributes(request);
+			} else {
+				super.onAuthenticationSuccess(request, response, authentication);
+			}
+		} finally {
+			metrics.recordSince(LoginStage.RESPONSE, true, start);
 		}
 
 	}
@@ -74,4 +99,35 @@ public class PostRequestAuthenticationSuccessHandler extends SavedRequestAwareAu
 		this.authenticationListeners = authenticationListeners;
 	}
 
+	public StatelessTokenCodec getTokenCodec() {
+		return tokenCodec;
+	}
+
+	/**
+	 * @param tokenCodec when set, a bearer token is issued in the JSON response of a POST login
+	 */
+	public void setTokenCodec(StatelessTokenCodec tokenCodec) {
+		this.tokenCodec = tokenCodec;
+	}
+
+	public long getTokenTimeout() {
+		return tokenTimeout;
+	}
+
+	/**
+	 * @param tokenTimeout how long an issued token stays valid, in milliseconds
+	 */
+	public void setTokenTimeout(long tokenTimeout) {
+		this.tokenTimeout = tokenTimeout;
+	}
+
+	public AuthenticationMetrics getMetrics() {
+		return metrics;
+	}
+
+	public void setMetrics(AuthenticationMetrics metrics) {
+		Assert.notNull(metrics, "metrics must not be null");
+		this.metrics = metrics;
+	}
+
 }
@@ -0,0 +1,175 @@
+/*
+ * Copyright (c) 2018, vindell (https://github.com/vindell).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.springframework.security.boot.biz.authentication;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import javax.servlet.http.Cookie;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.security.boot.biz.crypto.HmacSigner;
+import org.springframework.security.boot.utils.StringUtils;
+import org.springframework.security.web.util.UrlUtils;
+import org.springframework.util.Assert;
+import org.springframework.web.util.WebUtils;
+
+/**
+ * 将登录前访问的地址保存在一个签名的短期 Cookie 中，代替保存在会话中，整个过程不会创建会话。
+ * <p>
+ * Cookie 内容为 过期时间(8)|地址|签名(16) 的 base64url 编码，只保存应用内的相对地址（不含上下文路径），
+ * 签名或过期时间校验失败的 Cookie 会被忽略，避免被用于开放重定向。
+ * </p>
+ * @author ： <a href="https://github.com/vindell">wandl</a>
+ */
+public class RequestedUrlCookieRepository {
+
+	public static final String DEFAULT_COOKIE_NAME = "REQUESTED_URL";
+	public static final long DEFAULT_TIMEOUT = 10 * 60 * 1000L;
+	public static final int DEFAULT_MAX_URL_LENGTH = 1024;
+
+	private static final String SAVED_ATTRIBUTE = RequestedUrlCookieRepository.class.getName() + ".SAVED";
+	private static final int TAG_LENGTH = 16;
+	private static final byte[] DOMAIN = { 'u' };
+
+	private final HmacSigner signer;
+	private String cookieName = DEFAULT_COOKIE_NAME;
+	private long timeout = DEFAULT_TIMEOUT;
+	private int maxUrlLength = DEFAULT_MAX_URL_LENGTH;
+
+	public RequestedUrlCookieRepository(HmacSigner signer) {
+		Assert.notNull(signer, "signer must not be null");
+		Assert.isTrue(signer.getMacLength() >= TAG_LENGTH, "mac is too short");
+		this.signer = signer;
+	}
+
+	/**
+	 * Save the url of the current request.
+	 */
+	public void saveRequestedUrl(HttpServletRequest request, HttpServletResponse response) {
+		saveRequestedUrl(request, response, UrlUtils.buildRequestUrl(request));
+	}
+
+	/**
+	 * Save the given url, which must be relative to the context path.
+	 */
+	public void saveRequestedUrl(HttpServletRequest request, HttpServletResponse response, String url) {
+		if (!isRelative(url) || url.equals(request.getAttribute(SAVED_ATTRIBUTE))) {
+			return;
+		}
+		byte[] urlBytes = url.getBytes(StandardCharsets.UTF_8);
+		if (urlBytes.length > maxUrlLength) {
+			return;
+		}
+		byte[] expiry = ByteBuffer.allocate(8).putLong(System.currentTimeMillis() + timeout).array();
+		byte[] value = new byte[8 + urlBytes.length + TAG_LENGTH];
+		System.arraycopy(expiry, 0, value, 0, 8);
+		System.arraycopy(urlBytes, 0, value, 8, urlBytes.length);
+		System.arraycopy(signer.sign(DOMAIN, expiry, urlBytes), 0, value, 8 + urlBytes.length, TAG_LENGTH);
+		writeCookie(request, response, Base64.getUrlEncoder().withoutPadding().encodeToString(value), (int) (timeout / 1000));
+		// 同一请求中请求缓存和认证入口都会保存，只写一次 Cookie
+		request.setAttribute(SAVED_ATTRIBUTE, url);
+	}
+
+	/**
+	 * @return the saved url relative to the context path, or null if there is no valid one
+	 */
+	public String getRequestedUrl(HttpServletRequest request) {
+		Cookie cookie = WebUtils.getCookie(request, cookieName);
+		if (cookie == null || !StringUtils.hasText(cookie.getValue())) {
+			return null;
+		}
+		byte[] value;
+		try {
+			value = Base64.getUrlDecoder().decode(cookie.getValue());
+		} catch (IllegalArgumentException e) {
+			return null;
+		}
+		int urlLength = value.length - 8 - TAG_LENGTH;
+		if (urlLength <= 0 || urlLength > maxUrlLength) {
+			return null;
+		}
+		byte[] expiry = new byte[8];
+		byte[] urlBytes = new byte[urlLength];
+		System.arraycopy(value, 0, expiry, 0, 8);
+		System.arraycopy(value, 8, urlBytes, 0, urlLength);
+		if (!signer.verify(value, 8 + urlLength, TAG_LENGTH, DOMAIN, expiry, urlBytes)) {
+			return null;
+		}
+		if (ByteBuffer.wrap(expiry).getLong() < System.currentTimeMillis()) {
+			return null;
+		}
+		return new String(urlBytes, StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Remove the saved url, if any.
+	 */
+	public void removeRequestedUrl(HttpServletRequest request, HttpServletResponse response) {
+		if (WebUtils.getCookie(request, cookieName) != null) {
+			writeCookie(request, response, "", 0);
+		}
+	}
+
+	protected boolean isRelative(String url) {
+		// 以单个 / 开头才是应用内地址，// 开头的是协议相对的外部地址
+		return url != null && url.startsWith("/") && !url.startsWith("//") && url.indexOf('\\') < 0;
+	}
+
+	private void writeCookie(HttpServletRequest request, HttpServletResponse response, String value, int maxAge) {
+		Cookie cookie = new Cookie(cookieName, value);
+		cookie.setPath(StringUtils.hasText(request.getContextPath()) ? request.getContextPath() : "/");
+		cookie.setHttpOnly(true);
+		cookie.setSecure(request.isSecure());
+		cookie.setMaxAge(maxAge);
+		response.addCookie(cookie);
+	}
+
+	public String getCookieName() {
+		return cookieName;
+	}
+
+	public void setCookieName(String cookieName) {
+		Assert.hasText(cookieName, "cookieName must not be empty");
+		this.cookieName = cookieName;
+	}
+
+	public long getTimeout() {
+		return timeout;
+	}
+
+	/**
+	 * @param timeout how long a saved url stays valid, in milliseconds
+	 */
+	public void setTimeout(long timeout) {
+		Assert.isTrue(timeout > 0, "timeout must be positive");
+		this.timeout = timeout;
+	}
+
+	public int getMaxUrlLength() {
+		return maxUrlLength;
+	}
+
+	/**
+	 * @param maxUrlLength urls longer than this, in bytes, are not saved so the cookie stays small
+	 */
+	public void setMaxUrlLength(int maxUrlLength) {
+		this.maxUrlLength = maxUrlLength;
+	}
+
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright (c) 2018, vindell (https://github.com/vindell).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.springframework.security.boot.biz.authentication.captcha;
+
+import javax.servlet.http.Cookie;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.util.Assert;
+import org.springframework.web.util.WebUtils;
+
+/**
+ * 不依赖会话的验证码解析器基类：验证码通过一个令牌与客户端关联，令牌经响应头和 Cookie 下发，
+ * 校验时依次从请求头、请求参数和 Cookie 中读取
+ * @author ： <a href="https://github.com/vindell">wandl</a>
+ */
+public abstract class AbstractCaptchaTokenResolver implements CaptchaResolver {
+
+	public static final String DEFAULT_TOKEN_HEADER_NAME = "X-Captcha-Token";
+	public static final String DEFAULT_TOKEN_PARAMETER_NAME = "captchaToken";
+	public static final long DEFAULT_TIMEOUT = 5 * 60 * 1000L;
+
+	private final long timeout;
+	private String tokenHeaderName = DEFAULT_TOKEN_HEADER_NAME;
+	private String tokenParameterName = DEFAULT_TOKEN_PARAMETER_NAME;
+
+	/**
+	 * @param timeout how long a captcha stays valid, in milliseconds
+	 */
+	protected AbstractCaptchaTokenResolver(long timeout) {
+		Assert.isTrue(timeout > 0, "timeout must be positive");
+		this.timeout = timeout;
+	}
+
+	/**
+	 * Obtain the captcha token from the request header, request parameter or cookie, in that order.
+	 * @param request the request
+	 * @return the token or null
+	 */
+	protected String obtainToken(HttpServletRequest request) {
+		String token = request.getHeader(getTokenHeaderName());
+		if (StringUtils.isEmpty(token)) {
+			token = request.getParameter(getTokenParameterName());
+		}
+		if (StringUtils.isEmpty(token)) {
+			Cookie cookie = WebUtils.getCookie(request, getTokenParameterName());
+			token = cookie != null ? cookie.getValue() : null;
+		}
+		return token;
+	}
+
+	/**
+	 * Hand the token to the client, a null token removes the cookie.
+	 */
+	protected void writeToken(HttpServletRequest request, HttpServletResponse response, String token) {
+		if (token != null) {
+			response.setHeader(getTokenHeaderName(), token);
+		}
+		Cookie cookie = new Cookie(getTokenParameterName(), token);
+		cookie.setPath(StringUtils.defaultIfEmpty(request.getContextPath(), "/"));
+		cookie.setHttpOnly(true);
+		cookie.setSecure(request.isSecure());
+		cookie.setMaxAge(token != null ? (int) (timeout / 1000) : 0);
+		response.addCookie(cookie);
+	}
+
+	public long getTimeout() {
+		return timeout;
+	}
+
+	public String getTokenHeaderName() {
+		return tokenHeaderName;
+	}
+
+	public void setTokenHeaderName(String tokenHeaderName) {
+		this.tokenHeaderName = tokenHeaderName;
+	}
+
+	public String getTokenParameterName() {
+		return tokenParameterName;
+	}
+
+	public void setTokenParameterName(String tokenParameterName) {
+		this.tokenParameterName = tokenParameterName;
+	}
+
+}
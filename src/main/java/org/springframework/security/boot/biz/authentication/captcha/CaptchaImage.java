@@ -0,0 +1,50 @@
+/*
+ * Copyright (c) 2018, vindell (https://github.com/vindell).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.springframework.security.boot.biz.authentication.captcha;
+
+/**
+ * 已渲染的验证码：答案文本和编码后的图片字节
+ * @author ： <a href="https://github.com/vindell">wandl</a>
+ */
+public final class CaptchaImage {
+
+	private final String text;
+	private final byte[] data;
+	private final String contentType;
+
+	public CaptchaImage(String text, byte[] data, String contentType) {
+		this.text = text;
+		this.data = data;
+		this.contentType = contentType;
+	}
+
+	public String getText() {
+		return text;
+	}
+
+	/**
+	 * The encoded image. The array is shared and written to the response as is,
+	 * callers must not modify it.
+	 */
+	public byte[] getData() {
+		return data;
+	}
+
+	public String getContentType() {
+		return contentType;
+	}
+
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright (c) 2018, vindell (https://github.com/vindell).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.springframework.security.boot.biz.authentication.captcha;
+
+import java.io.IOException;
+import java.util.Date;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
+import org.springframework.security.web.util.matcher.RequestMatcher;
+import org.springframework.util.Assert;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * 验证码图片输出过滤器：从 {@link CaptchaImagePool} 取出预渲染的图片直接写入响应，
+ * 并通过 {@link CaptchaResolver} 保存验证码答案
+ * @author ： <a href="https://github.com/vindell">wandl</a>
+ */
+public class CaptchaImageFilter extends OncePerRequestFilter {
+
+	public static final String DEFAULT_IMAGE_URL = "/kaptcha";
+
+	private final CaptchaImagePool imagePool;
+	private final CaptchaResolver captchaResolver;
+	private RequestMatcher requestMatcher = new AntPathRequestMatcher(DEFAULT_IMAGE_URL, "GET");
+
+	public CaptchaImageFilter(CaptchaImagePool imagePool, CaptchaResolver captchaResolver) {
+		Assert.notNull(imagePool, "imagePool must not be null");
+		Assert.notNull(captchaResolver, "captchaResolver must not be null");
+		this.imagePool = imagePool;
+		this.captchaResolver = captchaResolver;
+	}
+
+	@Override
+	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+			throws ServletException, IOException {
+
+		if (!requestMatcher.matches(request)) {
+			chain.doFilter(request, response);
+			return;
+		}
+
+		CaptchaImage image = imagePool.take();
+		captchaResolver.setCaptcha(request, response, image.getText(), new Date());
+
+		response.setDateHeader("Expires", 0);
+		response.setHeader("Cache-Control", "no-store, no-cache, must-revalidate");
+		response.setHeader("Pragma", "no-cache");
+		response.setContentType(image.getContentType());
+		response.setContentLength(image.getData().length);
+		// 直接写出池中已编码的字节数组，不再经过中间缓冲
+		response.getOutputStream().write(image.getData());
+		response.flushBuffer();
+	}
+
+	public void setFilterProcessesUrl(String filterProcessesUrl) {
+		this.requestMatcher = new AntPathRequestMatcher(filterProcessesUrl, "GET");
+	}
+
+	public void setRequestMatcher(RequestMatcher requestMatcher) {
+		Assert.notNull(requestMatcher, "requestMatcher must not be null");
+		this.requestMatcher = requestMatcher;
+	}
+
+}
@@ -0,0 +1,172 @@
+/*
+ * Copyright (c) 2018, vindell (https://github.com/vindell).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.springframework.security.boot.biz.authentication.captcha;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.imageio.ImageIO;
+import javax.imageio.stream.ImageOutputStream;
+import javax.imageio.stream.MemoryCacheImageOutputStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.util.Assert;
+
+/**
+ * 预渲染验证码池：由一个低优先级的后台线程持续渲染 PNG 图片并放入有界队列，
+ * 请求线程只需要从队列中取出一张即可；队列为空时退化为在请求线程中直接渲染。
+ * @author ： <a href="https://github.com/vindell">wandl</a>
+ */
+public class CaptchaImagePool implements InitializingBean, DisposableBean {
+
+	private static final Logger logger = LoggerFactory.getLogger(CaptchaImagePool.class);
+
+	public static final int DEFAULT_CAPACITY = 64;
+	public static final String CONTENT_TYPE = "image/png";
+
+	private final CaptchaProducer producer;
+	private final BlockingQueue<CaptchaImage> pool;
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+	private volatile Thread refiller;
+
+	public CaptchaImagePool(CaptchaProducer producer) {
+		this(producer, DEFAULT_CAPACITY);
+	}
+
+	public CaptchaImagePool(CaptchaProducer producer, int capacity) {
+		Assert.notNull(producer, "producer must not be null");
+		Assert.isTrue(capacity > 0, "capacity must be positive");
+		this.producer = producer;
+		this.pool = new ArrayBlockingQueue<CaptchaImage>(capacity);
+	}
+
+	/**
+	 * Take a pre-rendered captcha from the pool, or render one inline when the pool is empty.
+	 * @return the captcha, never null
+	 */
+	public CaptchaImage take() {
+		CaptchaImage image = pool.poll();
+		if (image != null) {
+			hits.increment();
+			return image;
+		}
+		misses.increment();
+		return render();
+	}
+
+	/**
+	 * Render a new captcha on the calling thread.
+	 */
+	public CaptchaImage render() {
+		String text = producer.createText();
+		BufferedImage image = producer.createImage(text);
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream(4096);
+		// 使用内存缓存，避免 ImageIO 在临时目录创建缓存文件
+		try (ImageOutputStream output = new MemoryCacheImageOutputStream(bytes)) {
+			ImageIO.write(image, "png", output);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		return new CaptchaImage(text, bytes.toByteArray(), CONTENT_TYPE);
+	}
+
+	@Override
+	public void afterPropertiesSet() {
+		start();
+	}
+
+	@Override
+	public void destroy() {
+		stop();
+	}
+
+	public synchronized void start() {
+		if (refiller != null) {
+			return;
+		}
+		Thread thread = new Thread(this::refill, "captcha-pool-refiller");
+		thread.setDaemon(true);
+		thread.setPriority(Thread.MIN_PRIORITY);
+		this.refiller = thread;
+		thread.start();
+	}
+
+	public synchronized void stop() {
+		Thread thread = this.refiller;
+		this.refiller = null;
+		if (thread != null) {
+			thread.interrupt();
+			try {
+				// 等待补充线程退出后再清空，避免其在清空之后又放入一张图片
+				thread.join();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+		pool.clear();
+	}
+
+	private void refill() {
+		Thread current = Thread.currentThread();
+		while (refiller == current) {
+			try {
+				CaptchaImage image = render();
+				// 队列满时等待验证码被取走；渲染过程可能吞掉中断标记，因此限时等待并重新检查是否已停止
+				while (!pool.offer(image, 1, TimeUnit.SECONDS)) {
+					if (refiller != current) {
+						return;
+					}
+				}
+			} catch (InterruptedException e) {
+				return;
+			} catch (RuntimeException e) {
+				logger.warn("Captcha rendering failed: " + e.getMessage(), e);
+				try {
+					TimeUnit.SECONDS.sleep(1);
+				} catch (InterruptedException ie) {
+					return;
+				}
+			}
+		}
+	}
+
+	public int size() {
+		return pool.size();
+	}
+
+	public long getHits() {
+		return hits.sum();
+	}
+
+	public long getMisses() {
+		return misses.sum();
+	}
+
+	public CaptchaProducer getProducer() {
+		return producer;
+	}
+
+}
@@ -0,0 +1,38 @@
+/*
+ * Copyright (c) 2018, vindell (https://github.com/vindell).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.springframework.security.boot.biz.authentication.captcha;
+
+import java.awt.image.BufferedImage;
+
+/**
+ * Responsible for creating captcha text and rendering it as an image.
+ * @author ： <a href="https://github.com/vindell">wandl</a>
+ */
+public interface CaptchaProducer {
+
+	/**
+	 * @return the text to be drawn
+	 */
+	String createText();
+
+	/**
+	 * Create an image which will have written a distorted text.
+	 * @param text the distorted characters
+	 * @return image with the text
+	 */
+	BufferedImage createImage(String text);
+
+}
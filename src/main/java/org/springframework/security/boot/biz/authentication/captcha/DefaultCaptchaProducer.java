@@ -0,0 +1,145 @@
+/*
+ * Copyright (c) 2018, vindell (https://github.com/vindell).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.springframework.security.boot.biz.authentication.captcha;
+
+import java.awt.BasicStroke;
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.security.SecureRandom;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.springframework.util.Assert;
+
+/**
+ * 基于 Java2D 的默认验证码生成器：随机字符、轻微旋转和干扰线
+ * @author ： <a href="https://github.com/vindell">wandl</a>
+ */
+public class DefaultCaptchaProducer implements CaptchaProducer {
+
+	/** 去除了容易混淆的字符：0/O、1/I/l */
+	public static final String DEFAULT_CHARS = "23456789abcdefghjkmnpqrstuvwxyzABCDEFGHJKLMNPQRSTUVWXYZ";
+
+	private final SecureRandom random = new SecureRandom();
+	private String chars = DEFAULT_CHARS;
+	private int length = 4;
+	private int width = 120;
+	private int height = 40;
+	private int noiseLines = 6;
+	private String[] fontNames = { Font.SANS_SERIF, Font.SERIF, Font.MONOSPACED };
+
+	@Override
+	public String createText() {
+		char[] text = new char[length];
+		for (int i = 0; i < length; i++) {
+			text[i] = chars.charAt(random.nextInt(chars.length()));
+		}
+		return new String(text);
+	}
+
+	@Override
+	public BufferedImage createImage(String text) {
+		Assert.hasText(text, "text must not be empty");
+		Random noise = ThreadLocalRandom.current();
+		BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+		Graphics2D g = image.createGraphics();
+		try {
+			g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+			g.setColor(Color.WHITE);
+			g.fillRect(0, 0, width, height);
+
+			int fontSize = (int) (height * 0.7);
+			int step = width / (text.length() + 1);
+			for (int i = 0; i < text.length(); i++) {
+				g.setFont(new Font(fontNames[noise.nextInt(fontNames.length)], Font.BOLD, fontSize));
+				g.setColor(randomColor(noise, 20, 130));
+				double theta = (noise.nextDouble() - 0.5) * 0.6;
+				int x = step * i + step / 2;
+				int y = (height + fontSize) / 2 - 4;
+				g.rotate(theta, x, y);
+				g.drawString(String.valueOf(text.charAt(i)), x, y);
+				g.rotate(-theta, x, y);
+			}
+
+			g.setStroke(new BasicStroke(1.5f));
+			for (int i = 0; i < noiseLines; i++) {
+				g.setColor(randomColor(noise, 100, 200));
+				g.drawLine(noise.nextInt(width), noise.nextInt(height), noise.nextInt(width), noise.nextInt(height));
+			}
+		} finally {
+			g.dispose();
+		}
+		return image;
+	}
+
+	private static Color randomColor(Random random, int min, int max) {
+		int bound = max - min;
+		return new Color(min + random.nextInt(bound), min + random.nextInt(bound), min + random.nextInt(bound));
+	}
+
+	public String getChars() {
+		return chars;
+	}
+
+	public void setChars(String chars) {
+		Assert.hasText(chars, "chars must not be empty");
+		this.chars = chars;
+	}
+
+	public int getLength() {
+		return length;
+	}
+
+	public void setLength(int length) {
+		this.length = length;
+	}
+
+	public int getWidth() {
+		return width;
+	}
+
+	public void setWidth(int width) {
+		this.width = width;
+	}
+
+	public int getHeight() {
+		return height;
+	}
+
+	public void setHeight(int height) {
+		this.height = height;
+	}
+
+	public int getNoiseLines() {
+		return noiseLines;
+	}
+
+	public void setNoiseLines(int noiseLines) {
+		this.noiseLines = noiseLines;
+	}
+
+	public String[] getFontNames() {
+		return fontNames;
+	}
+
+	public void setFontNames(String[] fontNames) {
+		this.fontNames = fontNames;
+	}
+
+}
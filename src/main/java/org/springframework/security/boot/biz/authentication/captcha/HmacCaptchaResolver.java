@@ -0,0 +1,130 @@
+/*
+ * Copyright (c) 2018, vindell (https://github.com/vindell).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.springframework.security.boot.biz.authentication.captcha;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Date;
+import java.util.Locale;
+import java.util.concurrent.ThreadLocalRandom;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.security.boot.biz.cache.RotatingBloomFilter;
+import org.springframework.security.boot.biz.crypto.HmacSigner;
+import org.springframework.util.Assert;
+
+/**
+ * 无状态验证码解析器：验证码答案不保存在服务端，而是以 HMAC 签名令牌的形式交给客户端。
+ * <p>
+ * 令牌结构为 {@code id(8) | expiry(8) | tokenTag(16) | answerTag(16)}，经 Base64URL 编码后通过响应头和 Cookie 下发。
+ * tokenTag 证明令牌由服务端签发，answerTag 绑定了验证码答案；令牌本身不包含可被离线穷举的答案摘要。
+ * 每个令牌只能校验一次，已使用的令牌 id 记录在按时间分片轮换的布隆过滤器中，内存占用固定。
+ * </p>
+ * @author ： <a href="https://github.com/vindell">wandl</a>
+ */
+public class HmacCaptchaResolver extends AbstractCaptchaTokenResolver {
+
+	public static final long DEFAULT_REPLAY_CAPACITY = 100_000L;
+
+	private static final int TAG_LENGTH = 16;
+	private static final int TOKEN_LENGTH = 16 + TAG_LENGTH * 2;
+	private static final byte[] ANSWER_DOMAIN = { 'a' };
+
+	private final HmacSigner signer;
+	private final RotatingBloomFilter consumedTokens;
+
+	public HmacCaptchaResolver(HmacSigner signer) {
+		this(signer, DEFAULT_TIMEOUT, DEFAULT_REPLAY_CAPACITY);
+	}
+
+	/**
+	 * @param signer the signer used to issue and verify tokens
+	 * @param timeout how long a captcha stays valid, in milliseconds
+	 * @param replayCapacity the number of consumed tokens remembered per timeout window
+	 */
+	public HmacCaptchaResolver(HmacSigner signer, long timeout, long replayCapacity) {
+		super(timeout);
+		Assert.notNull(signer, "signer must not be null");
+		Assert.isTrue(signer.getMacLength() >= TAG_LENGTH, "mac is too short");
+		this.signer = signer;
+		this.consumedTokens = new RotatingBloomFilter(replayCapacity, 0.0001, timeout);
+	}
+
+	@Override
+	public boolean validCaptcha(HttpServletRequest request, String capText) {
+		if (StringUtils.isEmpty(capText)) {
+			return false;
+		}
+		byte[] token = decode(obtainToken(request));
+		if (token == null) {
+			return false;
+		}
+		long expiry = ByteBuffer.wrap(token, 8, 8).getLong();
+		long now = System.currentTimeMillis();
+		if (expiry < now || expiry - now > getTimeout()) {
+			return false;
+		}
+		byte[] header = new byte[16];
+		System.arraycopy(token, 0, header, 0, 16);
+		if (!signer.verify(token, 16, TAG_LENGTH, header)) {
+			return false;
+		}
+		// 令牌真实有效后立即标记为已使用：无论答案是否正确，同一令牌都不能再次尝试
+		long id = ByteBuffer.wrap(token, 0, 8).getLong();
+		if (!consumedTokens.putIfAbsent(id)) {
+			return false;
+		}
+		return signer.verify(token, 16 + TAG_LENGTH, TAG_LENGTH, ANSWER_DOMAIN, header, answerBytes(capText));
+	}
+
+	@Override
+	public void setCaptcha(HttpServletRequest request, HttpServletResponse response, String capText, Date capDate) {
+		if (StringUtils.isEmpty(capText)) {
+			writeToken(request, response, null);
+			return;
+		}
+		long issued = capDate != null ? capDate.getTime() : System.currentTimeMillis();
+		byte[] header = ByteBuffer.allocate(16)
+				.putLong(ThreadLocalRandom.current().nextLong())
+				.putLong(issued + getTimeout()).array();
+		byte[] token = new byte[TOKEN_LENGTH];
+		System.arraycopy(header, 0, token, 0, 16);
+		System.arraycopy(signer.sign(header), 0, token, 16, TAG_LENGTH);
+		System.arraycopy(signer.sign(ANSWER_DOMAIN, header, answerBytes(capText)), 0, token, 16 + TAG_LENGTH, TAG_LENGTH);
+		writeToken(request, response, Base64.getUrlEncoder().withoutPadding().encodeToString(token));
+	}
+
+	private byte[] decode(String token) {
+		if (StringUtils.isEmpty(token)) {
+			return null;
+		}
+		try {
+			byte[] bytes = Base64.getUrlDecoder().decode(token);
+			return bytes.length == TOKEN_LENGTH ? bytes : null;
+		} catch (IllegalArgumentException e) {
+			return null;
+		}
+	}
+
+	private static byte[] answerBytes(String capText) {
+		return capText.toLowerCase(Locale.ROOT).getBytes(StandardCharsets.UTF_8);
+	}
+
+}
@@ -0,0 +1,195 @@
+/*
+ * Copyright (c) 2018, vindell (https://github.com/vindell).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.springframework.security.boot.biz.authentication.captcha;
+
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.Date;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.security.boot.biz.cache.TimingWheel;
+import org.springframework.util.Assert;
+
+/**
+ * 基于内存的验证码解析器：验证码答案保存在服务端内存中，以一个短随机 id 作为令牌下发给客户端，不创建会话。
+ * <p>
+ * 过期由分层时间轮驱动，在每次读写时顺带推进，不需要后台线程和全量扫描；
+ * 每个验证码只能校验一次；条目数量超过上限时淘汰最早过期的条目。
+ * </p>
+ * @author ： <a href="https://github.com/vindell">wandl</a>
+ */
+public class MemoryCaptchaResolver extends AbstractCaptchaTokenResolver {
+
+	public static final int DEFAULT_MAX_ENTRIES = 100_000;
+
+	private static final long TICK_MILLIS = 1000L;
+	private static final int ID_LENGTH = 12;
+
+	private final SecureRandom random = new SecureRandom();
+	private final ConcurrentMap<String, TimingWheel.Node<Entry>> entries = new ConcurrentHashMap<String, TimingWheel.Node<Entry>>();
+	private final ReentrantLock lock = new ReentrantLock();
+	private final TimingWheel<Entry> wheel;
+	private final int maxEntries;
+
+	private final LongAdder stored = new LongAdder();
+	private final LongAdder matched = new LongAdder();
+	private final LongAdder mismatched = new LongAdder();
+	private final LongAdder missing = new LongAdder();
+	private final LongAdder expired = new LongAdder();
+	private final LongAdder evicted = new LongAdder();
+
+	public MemoryCaptchaResolver() {
+		this(DEFAULT_TIMEOUT, DEFAULT_MAX_ENTRIES);
+	}
+
+	/**
+	 * @param timeout how long a captcha stays valid, in milliseconds
+	 * @param maxEntries the maximum number of captchas kept in memory
+	 */
+	public MemoryCaptchaResolver(long timeout, int maxEntries) {
+		super(timeout);
+		Assert.isTrue(maxEntries > 0, "maxEntries must be positive");
+		this.maxEntries = maxEntries;
+		this.wheel = new TimingWheel<Entry>(TICK_MILLIS, System.currentTimeMillis());
+	}
+
+	@Override
+	public boolean validCaptcha(HttpServletRequest request, String capText) {
+		if (StringUtils.isEmpty(capText)) {
+			return false;
+		}
+		String id = obtainToken(request);
+		// 一次性使用：无论答案是否正确都移除
+		TimingWheel.Node<Entry> node = id != null ? entries.remove(id) : null;
+		long now = System.currentTimeMillis();
+		lock.lock();
+		try {
+			if (node != null) {
+				wheel.cancel(node);
+			}
+			expire(now);
+		} finally {
+			lock.unlock();
+		}
+		if (node == null || node.getDeadline() < now) {
+			missing.increment();
+			return false;
+		}
+		if (StringUtils.equalsIgnoreCase(node.getValue().text, capText)) {
+			matched.increment();
+			return true;
+		}
+		mismatched.increment();
+		return false;
+	}
+
+	@Override
+	public void setCaptcha(HttpServletRequest request, HttpServletResponse response, String capText, Date capDate) {
+		if (StringUtils.isEmpty(capText)) {
+			writeToken(request, response, null);
+			return;
+		}
+		long now = System.currentTimeMillis();
+		long deadline = (capDate != null ? capDate.getTime() : now) + getTimeout();
+		String id = nextId();
+		Entry entry = new Entry(id, capText);
+		lock.lock();
+		try {
+			expire(now);
+			while (wheel.size() >= maxEntries) {
+				TimingWheel.Node<Entry> eldest = wheel.pollFirst();
+				entries.remove(eldest.getValue().id, eldest);
+				evicted.increment();
+			}
+			entries.put(id, wheel.schedule(entry, deadline));
+		} finally {
+			lock.unlock();
+		}
+		stored.increment();
+		writeToken(request, response, id);
+	}
+
+	private void expire(long now) {
+		wheel.advance(now, Integer.MAX_VALUE, node -> {
+			entries.remove(node.getValue().id, node);
+			expired.increment();
+		});
+	}
+
+	private String nextId() {
+		byte[] bytes = new byte[ID_LENGTH];
+		random.nextBytes(bytes);
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+	}
+
+	public int size() {
+		return entries.size();
+	}
+
+	public int getMaxEntries() {
+		return maxEntries;
+	}
+
+	/** @return the number of captchas stored */
+	public long getStored() {
+		return stored.sum();
+	}
+
+	/** @return the number of validations with the right answer */
+	public long getMatched() {
+		return matched.sum();
+	}
+
+	/** @return the number of validations with a wrong answer */
+	public long getMismatched() {
+		return mismatched.sum();
+	}
+
+	/** @return the number of validations without a live captcha */
+	public long getMissing() {
+		return missing.sum();
+	}
+
+	/** @return the number of captchas removed by expiry */
+	public long getExpired() {
+		return expired.sum();
+	}
+
+	/** @return the number of captchas removed because the store was full */
+	public long getEvicted() {
+		return evicted.sum();
+	}
+
+	private static final class Entry {
+
+		private final String id;
+		private final String text;
+
+		Entry(String id, String text) {
+			this.id = id;
+			this.text = text;
+		}
+
+	}
+
+}
@@ -0,0 +1,144 @@
+/*
+ * Copyright (c) 2018, vindell (https://github.com/vindell).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.springframework.security.boot.biz.authentication.token;
+
+import java.io.IOException;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.AuthenticationDetailsSource;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.boot.biz.exception.AuthTokenExpiredException;
+import org.springframework.security.boot.biz.exception.AuthTokenRevokedException;
+import org.springframework.security.boot.biz.exception.ErrorCode;
+import org.springframework.security.boot.biz.exception.ErrorResponse;
+import org.springframework.security.boot.utils.StringUtils;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.authentication.AuthenticationFailureHandler;
+import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
+import org.springframework.util.Assert;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import com.alibaba.fastjson.JSONObject;
+
+/**
+ * 令牌认证过滤器：从 {@code Authorization: Bearer <token>} 请求头读取令牌并交给
+ * {@link AuthenticationManager} 校验，通常是只包含 {@link BearerTokenAuthenticationProvider} 的管理器。
+ * <p>
+ * 没有令牌的请求原样放行；令牌无效或过期时返回 401 和 JSON 错误信息，不重定向到登录页。
+ * </p>
+ * @author ： <a href="https://github.com/vindell">wandl</a>
+ */
+public class BearerTokenAuthenticationFilter extends OncePerRequestFilter {
+
+	public static final String DEFAULT_HEADER_NAME = HttpHeaders.AUTHORIZATION;
+
+	private static final String BEARER_PREFIX = "Bearer ";
+
+	private final AuthenticationManager authenticationManager;
+	private AuthenticationDetailsSource<HttpServletRequest, ?> authenticationDetailsSource = new WebAuthenticationDetailsSource();
+	private AuthenticationFailureHandler failureHandler;
+	private String headerName = DEFAULT_HEADER_NAME;
+
+	public BearerTokenAuthenticationFilter(AuthenticationManager authenticationManager) {
+		Assert.notNull(authenticationManager, "authenticationManager must not be null");
+		this.authenticationManager = authenticationManager;
+	}
+
+	@Override
+	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+			throws ServletException, IOException {
+		String token = obtainToken(request);
+		if (token == null) {
+			chain.doFilter(request, response);
+			return;
+		}
+		BearerTokenAuthenticationToken authRequest = new BearerTokenAuthenticationToken(token);
+		authRequest.setDetails(authenticationDetailsSource.buildDetails(request));
+		Authentication authentication;
+		try {
+			authentication = authenticationManager.authenticate(authRequest);
+		} catch (AuthenticationException e) {
+			SecurityContextHolder.clearContext();
+			if (logger.isDebugEnabled()) {
+				logger.debug("Bearer token authentication failed: " + e.getMessage());
+			}
+			onUnsuccessfulAuthentication(request, response, e);
+			return;
+		}
+		SecurityContext context = SecurityContextHolder.createEmptyContext();
+		context.setAuthentication(authentication);
+		SecurityContextHolder.setContext(context);
+		chain.doFilter(request, response);
+	}
+
+	/**
+	 * @return the token of the bearer header, or null if there is none
+	 */
+	protected String obtainToken(HttpServletRequest request) {
+		String header = request.getHeader(headerName);
+		if (header == null || !header.regionMatches(true, 0, BEARER_PREFIX, 0, BEARER_PREFIX.length())) {
+			return null;
+		}
+		String token = header.substring(BEARER_PREFIX.length()).trim();
+		return StringUtils.hasText(token) ? token : null;
+	}
+
+	protected void onUnsuccessfulAuthentication(HttpServletRequest request, HttpServletResponse response,
+			AuthenticationException e) throws IOException, ServletException {
+		if (failureHandler != null) {
+			failureHandler.onAuthenticationFailure(request, response, e);
+			return;
+		}
+		String message = e instanceof AuthTokenExpiredException ? "Token has expired"
+				: e instanceof AuthTokenRevokedException ? "Token has been revoked" : "Token was incorrect";
+		response.setStatus(HttpStatus.UNAUTHORIZED.value());
+		response.setContentType(MediaType.APPLICATION_JSON_UTF8_VALUE);
+		response.setHeader(HttpHeaders.WWW_AUTHENTICATE, "Bearer");
+		JSONObject.writeJSONString(response.getWriter(), ErrorResponse.of(message, ErrorCode.TOKEN, HttpStatus.UNAUTHORIZED));
+	}
+
+	public void setAuthenticationDetailsSource(AuthenticationDetailsSource<HttpServletRequest, ?> authenticationDetailsSource) {
+		Assert.notNull(authenticationDetailsSource, "authenticationDetailsSource must not be null");
+		this.authenticationDetailsSource = authenticationDetailsSource;
+	}
+
+	/**
+	 * @param failureHandler handles invalid tokens instead of the default 401 JSON response
+	 */
+	public void setFailureHandler(AuthenticationFailureHandler failureHandler) {
+		this.failureHandler = failureHandler;
+	}
+
+	public String getHeaderName() {
+		return headerName;
+	}
+
+	public void setHeaderName(String headerName) {
+		Assert.hasText(headerName, "headerName must not be empty");
+		this.headerName = headerName;
+	}
+
+}
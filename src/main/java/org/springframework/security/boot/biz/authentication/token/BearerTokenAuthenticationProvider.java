@@ -0,0 +1,136 @@
+/*
+ * Copyright (c) 2018, vindell (https://github.com/vindell).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.springframework.security.boot.biz.authentication.token;
+
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.boot.biz.cache.ExpiringCache;
+import org.springframework.security.boot.biz.context.RevokedTokenRegistry;
+import org.springframework.security.boot.biz.context.StatelessAuthenticationToken;
+import org.springframework.security.boot.biz.context.StatelessToken;
+import org.springframework.security.boot.biz.context.StatelessTokenCodec;
+import org.springframework.security.boot.biz.exception.AuthTokenExpiredException;
+import org.springframework.security.boot.biz.exception.AuthTokenIncorrectException;
+import org.springframework.security.boot.biz.exception.AuthTokenRevokedException;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.util.Assert;
+
+/**
+ * 校验 {@link BearerTokenAuthenticationToken} 的认证提供者。
+ * <p>
+ * 令牌由 {@link StatelessTokenCodec} 校验：按令牌中的 kid 直接定位轮换密钥，HMAC 使用线程内复用的 {@code Mac}；
+ * 校验通过的令牌在剩余有效期内缓存，同一令牌的后续请求只需一次哈希查找，不再计算签名，也不查询用户。
+ * </p>
+ * @author ： <a href="https://github.com/vindell">wandl</a>
+ */
+public class BearerTokenAuthenticationProvider implements AuthenticationProvider {
+
+	public static final int DEFAULT_CACHE_CAPACITY = 10_000;
+
+	private final StatelessTokenCodec codec;
+	private final ExpiringCache<String, StatelessToken> verified;
+
+	private RevokedTokenRegistry revokedTokenRegistry;
+
+	private final LongAdder incorrect = new LongAdder();
+	private final LongAdder expired = new LongAdder();
+	private final LongAdder revoked = new LongAdder();
+
+	public BearerTokenAuthenticationProvider(StatelessTokenCodec codec) {
+		this(codec, DEFAULT_CACHE_CAPACITY);
+	}
+
+	/**
+	 * @param codec the codec verifying the tokens
+	 * @param cacheCapacity the maximum number of verified tokens kept in memory
+	 */
+	public BearerTokenAuthenticationProvider(StatelessTokenCodec codec, int cacheCapacity) {
+		Assert.notNull(codec, "codec must not be null");
+		this.codec = codec;
+		this.verified = new ExpiringCache<String, StatelessToken>(cacheCapacity);
+	}
+
+	@Override
+	public Authentication authenticate(Authentication authentication) throws AuthenticationException {
+		String value = ((BearerTokenAuthenticationToken) authentication).getToken();
+		StatelessToken token = verified.get(value);
+		if (token == null) {
+			token = codec.verify(value);
+			if (token == null) {
+				incorrect.increment();
+				throw new AuthTokenIncorrectException("Token was incorrect");
+			}
+			if (token.isExpired(System.currentTimeMillis())) {
+				expired.increment();
+				throw new AuthTokenExpiredException("Token has expired");
+			}
+			verified.put(value, token, token.getExpiry());
+		}
+		// 缓存命中时同样检查，吊销立即生效
+		if (revokedTokenRegistry != null && revokedTokenRegistry.isRevoked(token)) {
+			revoked.increment();
+			throw new AuthTokenRevokedException("Token has been revoked");
+		}
+		StatelessAuthenticationToken result = new StatelessAuthenticationToken(token);
+		result.setDetails(authentication.getDetails());
+		return result;
+	}
+
+	@Override
+	public boolean supports(Class<?> authentication) {
+		return BearerTokenAuthenticationToken.class.isAssignableFrom(authentication);
+	}
+
+	/**
+	 * Drop a token from the verified cache, so the next request verifies it again.
+	 */
+	public void evict(String value) {
+		verified.remove(value);
+	}
+
+	public RevokedTokenRegistry getRevokedTokenRegistry() {
+		return revokedTokenRegistry;
+	}
+
+	/**
+	 * @param revokedTokenRegistry rejects revoked tokens, checked on every request
+	 */
+	public void setRevokedTokenRegistry(RevokedTokenRegistry revokedTokenRegistry) {
+		this.revokedTokenRegistry = revokedTokenRegistry;
+	}
+
+	public ExpiringCache<String, StatelessToken> getVerifiedCache() {
+		return verified;
+	}
+
+	/** @return the number of tokens rejected for a bad signature or format */
+	public long getIncorrect() {
+		return incorrect.sum();
+	}
+
+	/** @return the number of correctly signed but expired tokens */
+	public long getExpired() {
+		return expired.sum();
+	}
+
+	/** @return the number of rejected revoked tokens */
+	public long getRevoked() {
+		return revoked.sum();
+	}
+
+}
@@ -0,0 +1,51 @@
+/*
+ * Copyright (c) 2018, vindell (https://github.com/vindell).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.springframework.security.boot.biz.authentication.token;
+
+import java.util.Collections;
+
+import org.springframework.security.authentication.AbstractAuthenticationToken;
+
+/**
+ * 请求头中携带的、尚未校验的令牌
+ * @author ： <a href="https://github.com/vindell">wandl</a>
+ */
+@SuppressWarnings("serial")
+public class BearerTokenAuthenticationToken extends AbstractAuthenticationToken {
+
+	private final String token;
+
+	public BearerTokenAuthenticationToken(String token) {
+		super(Collections.emptyList());
+		this.token = token;
+		setAuthenticated(false);
+	}
+
+	public String getToken() {
+		return token;
+	}
+
+	@Override
+	public Object getCredentials() {
+		return token;
+	}
+
+	@Override
+	public Object getPrincipal() {
+		return token;
+	}
+
+}
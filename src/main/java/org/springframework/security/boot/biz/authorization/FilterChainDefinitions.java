@@ -0,0 +1,249 @@
+/*
+ * Copyright (c) 2018, vindell (https://github.com/vindell).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.springframework.security.boot.biz.authorization;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.boot.utils.StringUtils;
+import org.springframework.security.config.annotation.web.builders.HttpSecurity;
+import org.springframework.security.config.annotation.web.configurers.ExpressionUrlAuthorizationConfigurer;
+
+/**
+ * 解析 {@code filterChainDefinitionMap}：&lt;Ant 路径, 过滤器定义&gt;，转换为 URL 授权表达式。
+ * <p>
+ * 支持的定义：{@code anon}、{@code roles[a,b]}、{@code perms[x,y]}、{@code ipaddr[192.168.1.0/24]}，
+ * 同一路径上的多个定义以逗号分隔，需要同时满足。规则保持定义的顺序，先匹配的规则生效。
+ * </p>
+ * @author ： <a href="https://github.com/vindell">wandl</a>
+ */
+public class FilterChainDefinitions {
+
+	public static final String ANON = "anon";
+
+	private static final Logger LOG = LoggerFactory.getLogger(FilterChainDefinitions.class);
+	private static final Pattern DEFINITION_PATTERN = Pattern.compile("(\\w+)(?:\\[([^\\]]*)\\])?");
+
+	private final List<String> anonPatterns;
+	private final List<Rule> rules;
+
+	private FilterChainDefinitions(List<String> anonPatterns, List<Rule> rules) {
+		this.anonPatterns = Collections.unmodifiableList(anonPatterns);
+		this.rules = Collections.unmodifiableList(rules);
+	}
+
+	/**
+	 * Parse the definition map, in its iteration order.
+	 * @param definitionMap &lt;ant pattern, filter definition&gt;
+	 */
+	public static FilterChainDefinitions parse(Map<String, String> definitionMap) {
+		List<String> anonPatterns = new ArrayList<String>();
+		List<Rule> rules = new ArrayList<Rule>();
+		for (Map.Entry<String, String> entry : definitionMap.entrySet()) {
+			String pattern = entry.getKey();
+			String definition = entry.getValue();
+			if (!StringUtils.hasText(pattern) || !StringUtils.hasText(definition)) {
+				continue;
+			}
+			if (ANON.equals(definition.trim())) {
+				anonPatterns.add(pattern);
+				continue;
+			}
+			List<Clause> clauses = toClauses(definition);
+			if (!clauses.isEmpty()) {
+				rules.add(new Rule(pattern, clauses));
+			} else if (LOG.isDebugEnabled()) {
+				LOG.debug("Ignoring unsupported filter definition '" + definition + "' of " + pattern);
+			}
+		}
+		return new FilterChainDefinitions(anonPatterns, rules);
+	}
+
+	/**
+	 * Permit the anon patterns and the given patterns, then register the rules in order.
+	 * @param http the security builder
+	 * @param permitPatterns further patterns open to everyone, such as the login url
+	 */
+	public void authorizeRequests(HttpSecurity http, String... permitPatterns) throws Exception {
+		ExpressionUrlAuthorizationConfigurer<HttpSecurity>.ExpressionInterceptUrlRegistry registry = http
+				.authorizeRequests();
+		List<String> permitMatchers = new ArrayList<String>(anonPatterns);
+		for (String permitPattern : permitPatterns) {
+			if (StringUtils.hasText(permitPattern)) {
+				permitMatchers.add(permitPattern);
+			}
+		}
+		registry.antMatchers(permitMatchers.toArray(new String[permitMatchers.size()])).permitAll();
+		for (Rule rule : rules) {
+			registry.antMatchers(rule.getPattern()).access(rule.getExpression());
+		}
+	}
+
+	/**
+	 * @return the supported filters of the definition, empty if there are none
+	 */
+	static List<Clause> toClauses(String definition) {
+		List<Clause> clauses = new ArrayList<Clause>();
+		Matcher matcher = DEFINITION_PATTERN.matcher(definition);
+		while (matcher.find()) {
+			String name = matcher.group(1);
+			String[] values = StringUtils.tokenizeToStringArray(matcher.group(2), ",");
+			if (Clause.isSupported(name) && values.length > 0) {
+				clauses.add(new Clause(name, values));
+			}
+		}
+		return clauses;
+	}
+
+	/**
+	 * @return the expression or null if the definition contains no supported filter
+	 */
+	static String toExpression(String definition) {
+		List<Clause> clauses = toClauses(definition);
+		return clauses.isEmpty() ? null : toExpression(clauses);
+	}
+
+	private static String toExpression(List<Clause> clauses) {
+		StringBuilder expression = new StringBuilder();
+		for (Clause clause : clauses) {
+			expression.append(expression.length() > 0 ? " and " : "").append(clause.toExpression());
+		}
+		return expression.toString();
+	}
+
+	private static String call(String method, String[] values) {
+		StringBuilder builder = new StringBuilder(method).append('(');
+		for (int i = 0; i < values.length; i++) {
+			builder.append(i > 0 ? "," : "").append('\'').append(values[i].replace("'", "")).append('\'');
+		}
+		return builder.append(')').toString();
+	}
+
+	/**
+	 * @return the patterns defined as {@code anon}
+	 */
+	public List<String> getAnonPatterns() {
+		return anonPatterns;
+	}
+
+	/**
+	 * @return the authorization rules in definition order
+	 */
+	public List<Rule> getRules() {
+		return rules;
+	}
+
+	/**
+	 * An ant pattern and the expression guarding it.
+	 */
+	public static final class Rule {
+
+		private final String pattern;
+		private final List<Clause> clauses;
+		private final String expression;
+
+		Rule(String pattern, List<Clause> clauses) {
+			this.pattern = pattern;
+			this.clauses = Collections.unmodifiableList(clauses);
+			this.expression = FilterChainDefinitions.toExpression(clauses);
+		}
+
+		public String getPattern() {
+			return pattern;
+		}
+
+		public String getExpression() {
+			return expression;
+		}
+
+		/**
+		 * @return the filters which all have to pass
+		 */
+		public List<Clause> getClauses() {
+			return clauses;
+		}
+
+		@Override
+		public String toString() {
+			return pattern + "=" + expression;
+		}
+
+	}
+
+	/**
+	 * One filter of a definition, such as {@code roles[a,b]}, which passes when any of its values matches.
+	 */
+	public static final class Clause {
+
+		public static final String ROLES = "roles";
+		public static final String PERMS = "perms";
+		public static final String IPADDR = "ipaddr";
+
+		private final String name;
+		private final List<String> values;
+
+		Clause(String name, String[] values) {
+			this.name = name;
+			this.values = Collections.unmodifiableList(Arrays.asList(values));
+		}
+
+		static boolean isSupported(String name) {
+			return ROLES.equals(name) || PERMS.equals(name) || IPADDR.equals(name);
+		}
+
+		/**
+		 * @return {@link #ROLES}, {@link #PERMS} or {@link #IPADDR}
+		 */
+		public String getName() {
+			return name;
+		}
+
+		public List<String> getValues() {
+			return values;
+		}
+
+		String toExpression() {
+			String[] array = values.toArray(new String[values.size()]);
+			if (ROLES.equals(name)) {
+				// 具备给定角色中的某一个即允许访问
+				return call("hasAnyRole", array);
+			} else if (PERMS.equals(name)) {
+				// 具备给定权限中的某一个即允许访问
+				return call("hasAnyAuthority", array);
+			}
+			// 请求来自给定地址中的某一个即允许访问
+			StringBuilder any = new StringBuilder("(");
+			for (int i = 0; i < array.length; i++) {
+				any.append(i > 0 ? " or " : "").append(call("hasIpAddress", new String[] { array[i] }));
+			}
+			return any.append(')').toString();
+		}
+
+		@Override
+		public String toString() {
+			return name + values;
+		}
+
+	}
+
+}
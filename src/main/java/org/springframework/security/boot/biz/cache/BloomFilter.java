@@ -0,0 +1,111 @@
+/*
+ * Copyright (c) 2018, vindell (https://github.com/vindell).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.springframework.security.boot.biz.cache;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.springframework.util.Assert;
+
+/**
+ * 线程安全的定长布隆过滤器，键为 64 位整数；占用内存在创建时确定，不随插入数量增长
+ * @author ： <a href="https://github.com/vindell">wandl</a>
+ */
+public class BloomFilter {
+
+	private final AtomicLongArray bits;
+	private final long bitSize;
+	private final int numHashFunctions;
+
+	/**
+	 * @param expectedInsertions the number of keys the filter is sized for
+	 * @param fpp the desired false positive probability at {@code expectedInsertions}
+	 */
+	public BloomFilter(long expectedInsertions, double fpp) {
+		Assert.isTrue(expectedInsertions > 0, "expectedInsertions must be positive");
+		Assert.isTrue(fpp > 0 && fpp < 1, "fpp must be between 0 and 1");
+		long numBits = (long) (-expectedInsertions * Math.log(fpp) / (Math.log(2) * Math.log(2)));
+		int words = (int) Math.min(Integer.MAX_VALUE, Math.max(1, (numBits + 63) >>> 6));
+		this.bits = new AtomicLongArray(words);
+		this.bitSize = (long) words << 6;
+		this.numHashFunctions = Math.max(1, (int) Math.round((double) bitSize / expectedInsertions * Math.log(2)));
+	}
+
+	public boolean mightContain(long key) {
+		long hash1 = mix64(key);
+		long hash2 = mix64(hash1) | 1L;
+		long combined = hash1;
+		for (int i = 0; i < numHashFunctions; i++) {
+			long index = (combined & Long.MAX_VALUE) % bitSize;
+			if ((bits.get((int) (index >>> 6)) & (1L << index)) == 0) {
+				return false;
+			}
+			combined += hash2;
+		}
+		return true;
+	}
+
+	/**
+	 * Add the key to the filter.
+	 * @param key the key
+	 * @return true if at least one bit changed, i.e. the key was definitely absent; concurrent
+	 *         puts of the same key may all return true, callers needing an atomic check-and-set
+	 *         have to synchronize
+	 */
+	public boolean put(long key) {
+		long hash1 = mix64(key);
+		long hash2 = mix64(hash1) | 1L;
+		long combined = hash1;
+		boolean changed = false;
+		for (int i = 0; i < numHashFunctions; i++) {
+			long index = (combined & Long.MAX_VALUE) % bitSize;
+			changed |= setBit((int) (index >>> 6), 1L << index);
+			combined += hash2;
+		}
+		return changed;
+	}
+
+	private boolean setBit(int word, long mask) {
+		long current;
+		do {
+			current = bits.get(word);
+			if ((current & mask) != 0) {
+				return false;
+			}
+		} while (!bits.compareAndSet(word, current, current | mask));
+		return true;
+	}
+
+	public long bitSize() {
+		return bitSize;
+	}
+
+	public int numHashFunctions() {
+		return numHashFunctions;
+	}
+
+	/**
+	 * Finalization step of MurmurHash3 (fmix64).
+	 */
+	static long mix64(long key) {
+		key ^= key >>> 33;
+		key *= 0xff51afd7ed558ccdL;
+		key ^= key >>> 33;
+		key *= 0xc4ceb9fe1a85ec53L;
+		key ^= key >>> 33;
+		return key;
+	}
+
+}
@@ -0,0 +1,166 @@
+/*
+ * Copyright (c) 2018, vindell (https://github.com/vindell).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.springframework.security.boot.biz.cache;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.springframework.util.Assert;
+
+/**
+ * 有容量上限、按条目截止时间过期的缓存。
+ * <p>
+ * 读取只访问 {@link ConcurrentHashMap}，不加锁；写入时在锁内推进 {@link TimingWheel}，顺带清除已过期的条目，
+ * 容量已满时淘汰最早过期的条目。过期条目在被清除前读取时同样视为不存在。
+ * </p>
+ * @author ： <a href="https://github.com/vindell">wandl</a>
+ */
+public class ExpiringCache<K, V> {
+
+	private static final long DEFAULT_TICK_MILLIS = 1000L;
+
+	private final ConcurrentMap<K, TimingWheel.Node<Entry<K, V>>> entries = new ConcurrentHashMap<K, TimingWheel.Node<Entry<K, V>>>();
+	private final ReentrantLock lock = new ReentrantLock();
+	private final TimingWheel<Entry<K, V>> wheel;
+	private final int maxEntries;
+
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+	private final LongAdder evictions = new LongAdder();
+
+	public ExpiringCache(int maxEntries) {
+		this(maxEntries, DEFAULT_TICK_MILLIS);
+	}
+
+	/**
+	 * @param maxEntries the maximum number of entries
+	 * @param tickMillis the expiry precision, in milliseconds
+	 */
+	public ExpiringCache(int maxEntries, long tickMillis) {
+		Assert.isTrue(maxEntries > 0, "maxEntries must be positive");
+		this.maxEntries = maxEntries;
+		this.wheel = new TimingWheel<Entry<K, V>>(tickMillis, System.currentTimeMillis());
+	}
+
+	/**
+	 * @return the value or null if it is absent or expired
+	 */
+	public V get(K key) {
+		TimingWheel.Node<Entry<K, V>> node = entries.get(key);
+		if (node == null || node.getDeadline() <= System.currentTimeMillis()) {
+			misses.increment();
+			return null;
+		}
+		hits.increment();
+		return node.getValue().value;
+	}
+
+	public boolean containsKey(K key) {
+		TimingWheel.Node<Entry<K, V>> node = entries.get(key);
+		return node != null && node.getDeadline() > System.currentTimeMillis();
+	}
+
+	/**
+	 * Add or replace an entry.
+	 * @param deadline the time the entry expires, in milliseconds
+	 */
+	public void put(K key, V value, long deadline) {
+		long now = System.currentTimeMillis();
+		if (deadline <= now) {
+			return;
+		}
+		Entry<K, V> entry = new Entry<K, V>(key, value);
+		lock.lock();
+		try {
+			expire(now);
+			TimingWheel.Node<Entry<K, V>> previous = entries.get(key);
+			if (previous != null) {
+				wheel.cancel(previous);
+			}
+			while (wheel.size() >= maxEntries) {
+				TimingWheel.Node<Entry<K, V>> eldest = wheel.pollFirst();
+				entries.remove(eldest.getValue().key, eldest);
+				evictions.increment();
+			}
+			entries.put(key, wheel.schedule(entry, deadline));
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	public void remove(K key) {
+		TimingWheel.Node<Entry<K, V>> node = entries.remove(key);
+		if (node != null) {
+			lock.lock();
+			try {
+				wheel.cancel(node);
+			} finally {
+				lock.unlock();
+			}
+		}
+	}
+
+	/**
+	 * Remove the expired entries now rather than on the next write.
+	 */
+	public void expire() {
+		lock.lock();
+		try {
+			expire(System.currentTimeMillis());
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	private void expire(long now) {
+		wheel.advance(now, Integer.MAX_VALUE, node -> entries.remove(node.getValue().key, node));
+	}
+
+	public int size() {
+		return entries.size();
+	}
+
+	public int getMaxEntries() {
+		return maxEntries;
+	}
+
+	public long getHits() {
+		return hits.sum();
+	}
+
+	public long getMisses() {
+		return misses.sum();
+	}
+
+	public long getEvictions() {
+		return evictions.sum();
+	}
+
+	private static final class Entry<K, V> {
+
+		private final K key;
+		private final V value;
+
+		Entry(K key, V value) {
+			this.key = key;
+			this.value = value;
+		}
+
+	}
+
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright (c) 2018, vindell (https://github.com/vindell).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.springframework.security.boot.biz.cache;
+
+import org.springframework.util.Assert;
+
+/**
+ * 按时间分片轮换的一对布隆过滤器：写入总是进入当前分片，查询同时检查当前和上一个分片。
+ * 一个键在写入后至少会被记住 {@code sliceMillis} 毫秒，之后随分片轮换自动淘汰，因此内存占用固定。
+ * @author ： <a href="https://github.com/vindell">wandl</a>
+ */
+public class RotatingBloomFilter {
+
+	private final long expectedInsertions;
+	private final double fpp;
+	private final long sliceMillis;
+
+	private volatile Slice current;
+	private volatile Slice previous;
+
+	/**
+	 * @param expectedInsertions keys expected per slice
+	 * @param fpp false positive probability of each slice
+	 * @param sliceMillis the minimum time a key is remembered
+	 */
+	public RotatingBloomFilter(long expectedInsertions, double fpp, long sliceMillis) {
+		Assert.isTrue(sliceMillis > 0, "sliceMillis must be positive");
+		this.expectedInsertions = expectedInsertions;
+		this.fpp = fpp;
+		this.sliceMillis = sliceMillis;
+		this.current = new Slice(new BloomFilter(expectedInsertions, fpp), System.currentTimeMillis());
+	}
+
+	public boolean mightContain(long key) {
+		rotateIfNecessary(System.currentTimeMillis());
+		Slice prev = previous;
+		return current.filter.mightContain(key) || (prev != null && prev.filter.mightContain(key));
+	}
+
+	/**
+	 * Record the key in the current slice, even if it is (probably) present already, so it is
+	 * remembered for at least {@code sliceMillis} from now.
+	 * @param key the key
+	 */
+	public void put(long key) {
+		// 与分片轮换互斥，写入不会落到刚被替换的分片上
+		synchronized (this) {
+			rotateIfNecessary(System.currentTimeMillis());
+			current.filter.put(key);
+		}
+	}
+
+	/**
+	 * Record the key unless it is already (probably) present. The check and the insert are
+	 * atomic: of several concurrent calls with the same key, at most one returns true.
+	 * @param key the key
+	 * @return true if the key was absent and has now been recorded
+	 */
+	public boolean putIfAbsent(long key) {
+		// BloomFilter#put 只报告是否有位被改变，同一个键的并发写入可能各自改变不同的位而都返回 true，
+		// 因此检查和写入在锁内完成；锁同时与分片轮换互斥，写入不会落到刚被替换的分片上
+		synchronized (this) {
+			rotateIfNecessary(System.currentTimeMillis());
+			Slice prev = previous;
+			if (prev != null && prev.filter.mightContain(key)) {
+				return false;
+			}
+			return current.filter.put(key);
+		}
+	}
+
+	private void rotateIfNecessary(long now) {
+		if (now - current.start < sliceMillis) {
+			return;
+		}
+		synchronized (this) {
+			Slice slice = current;
+			long elapsed = now - slice.start;
+			if (elapsed < sliceMillis) {
+				return;
+			}
+			// 超过两个分片没有访问时，上一个分片中的键也已全部过期
+			previous = elapsed < 2 * sliceMillis ? slice : null;
+			current = new Slice(new BloomFilter(expectedInsertions, fpp), now);
+		}
+	}
+
+	public long getSliceMillis() {
+		return sliceMillis;
+	}
+
+	private static final class Slice {
+
+		private final BloomFilter filter;
+		private final long start;
+
+		Slice(BloomFilter filter, long start) {
+			this.filter = filter;
+			this.start = start;
+		}
+
+	}
+
+}
@@ -0,0 +1,282 @@
+/*
+ * Copyright (c) 2018, vindell (https://github.com/vindell).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.springframework.security.boot.biz.cache;
+
+import java.util.function.Consumer;
+
+import org.springframework.util.Assert;
+
+/**
+ * 分层时间轮：4 层、每层 64 个槽位，节点以侵入式双向链表挂在槽位上。
+ * <p>
+ * 调度和取消均为 O(1)；推进时间时只处理到期槽位，高层槽位在低层转完一圈时整体下沉（cascade），
+ * 每个节点最多被下沉 3 次，因此过期处理是均摊 O(1) 的，不需要扫描全部节点。
+ * 以 {@code tickMillis} 为精度，节点不会早于其截止时间到期，最多晚一个 tick。
+ * </p>
+ * 本类不是线程安全的，调用方需要自行同步。
+ * @author ： <a href="https://github.com/vindell">wandl</a>
+ */
+public class TimingWheel<T> {
+
+	private static final int WHEEL_BITS = 6;
+	private static final int WHEEL_SIZE = 1 << WHEEL_BITS;
+	private static final int WHEEL_MASK = WHEEL_SIZE - 1;
+	private static final int LEVELS = 4;
+	private static final long MAX_DELTA = (1L << (WHEEL_BITS * LEVELS)) - 1;
+
+	private final long tickMillis;
+	private final Node<?>[] slots;
+	private final Node<?>[] tails;
+	private long currentTick;
+	private boolean pending;
+	private int size;
+
+	public TimingWheel(long tickMillis, long now) {
+		Assert.isTrue(tickMillis > 0, "tickMillis must be positive");
+		this.tickMillis = tickMillis;
+		this.slots = new Node<?>[LEVELS * WHEEL_SIZE];
+		this.tails = new Node<?>[LEVELS * WHEEL_SIZE];
+		this.currentTick = now / tickMillis;
+	}
+
+	/**
+	 * Schedule a new node expiring at the given time.
+	 * @param value the value carried by the node
+	 * @param deadline the expiry time in milliseconds
+	 * @return the node, which can be used to cancel or reschedule it
+	 */
+	public Node<T> schedule(T value, long deadline) {
+		Node<T> node = new Node<T>(value);
+		node.deadline = deadline;
+		add(node);
+		return node;
+	}
+
+	/**
+	 * Move a node to a new deadline, scheduling it again if it has already expired or been cancelled.
+	 */
+	public void reschedule(Node<T> node, long deadline) {
+		if (node.slot >= 0) {
+			unlink(node);
+		}
+		node.deadline = deadline;
+		add(node);
+	}
+
+	/**
+	 * @return true if the node was scheduled and has been removed
+	 */
+	public boolean cancel(Node<T> node) {
+		if (node.slot < 0) {
+			return false;
+		}
+		unlink(node);
+		return true;
+	}
+
+	/**
+	 * Advance the wheel to the given time and hand every expired node to the consumer.
+	 * Expired nodes are unscheduled before the consumer sees them, so it may reschedule them.
+	 * @param now the current time in milliseconds
+	 * @param maxExpired the maximum number of nodes to expire in this call, the remainder
+	 *        is handed out by the next call
+	 * @param consumer receives the expired nodes
+	 * @return the number of expired nodes
+	 */
+	public int advance(long now, int maxExpired, Consumer<Node<T>> consumer) {
+		long targetTick = now / tickMillis;
+		int expired = 0;
+		if (pending) {
+			expired += drain(maxExpired, consumer);
+			if (pending) {
+				return expired;
+			}
+		}
+		while (currentTick < targetTick) {
+			if (size == 0) {
+				currentTick = targetTick;
+				break;
+			}
+			currentTick++;
+			for (int level = 1; level < LEVELS; level++) {
+				if ((currentTick & ((1L << (WHEEL_BITS * level)) - 1)) != 0) {
+					break;
+				}
+				cascade(level, (int) ((currentTick >>> (WHEEL_BITS * level)) & WHEEL_MASK));
+			}
+			pending = true;
+			expired += drain(maxExpired - expired, consumer);
+			if (pending) {
+				break;
+			}
+		}
+		return expired;
+	}
+
+	/**
+	 * Remove and return the node which expires first, scanning slots rather than nodes.
+	 * Within the upper levels the order is approximate.
+	 * @return the node or null if the wheel is empty
+	 */
+	public Node<T> pollFirst() {
+		if (size == 0) {
+			return null;
+		}
+		for (int level = 0; level < LEVELS; level++) {
+			long index = currentTick >>> (WHEEL_BITS * level);
+			for (int i = level == 0 ? 0 : 1; i < WHEEL_SIZE + 1; i++) {
+				Node<T> head = head(level * WHEEL_SIZE + (int) ((index + i) & WHEEL_MASK));
+				if (head != null) {
+					unlink(head);
+					return head;
+				}
+			}
+		}
+		return null;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public long getTickMillis() {
+		return tickMillis;
+	}
+
+	private int drain(int budget, Consumer<Node<T>> consumer) {
+		int slot = (int) (currentTick & WHEEL_MASK);
+		int expired = 0;
+		Node<T> node;
+		while ((node = head(slot)) != null) {
+			if (expired >= budget) {
+				return expired;
+			}
+			unlink(node);
+			if (tickOf(node.deadline) > currentTick) {
+				// 超出最大跨度而被截断的节点，重新放回时间轮
+				add(node);
+				continue;
+			}
+			expired++;
+			consumer.accept(node);
+		}
+		pending = false;
+		return expired;
+	}
+
+	private void cascade(int level, int index) {
+		int slot = level * WHEEL_SIZE + index;
+		Node<T> node = head(slot);
+		slots[slot] = null;
+		tails[slot] = null;
+		while (node != null) {
+			Node<T> next = node.next;
+			node.prev = node.next = null;
+			node.slot = -1;
+			size--;
+			add(node);
+			node = next;
+		}
+	}
+
+	private void add(Node<T> node) {
+		long tick = Math.max(tickOf(node.deadline), currentTick + 1);
+		long delta = Math.min(tick - currentTick, MAX_DELTA);
+		tick = currentTick + delta;
+		int level = 0;
+		while (delta >= WHEEL_SIZE && level < LEVELS - 1) {
+			delta >>>= WHEEL_BITS;
+			level++;
+		}
+		int slot = level * WHEEL_SIZE + (int) ((tick >>> (WHEEL_BITS * level)) & WHEEL_MASK);
+		// 追加到槽位尾部，同一槽位内保持调度顺序
+		Node<T> tail = tail(slot);
+		node.prev = tail;
+		node.next = null;
+		if (tail != null) {
+			tail.next = node;
+		} else {
+			slots[slot] = node;
+		}
+		tails[slot] = node;
+		node.slot = slot;
+		size++;
+	}
+
+	private void unlink(Node<T> node) {
+		if (node.prev != null) {
+			node.prev.next = node.next;
+		} else {
+			slots[node.slot] = node.next;
+		}
+		if (node.next != null) {
+			node.next.prev = node.prev;
+		} else {
+			tails[node.slot] = node.prev;
+		}
+		node.prev = node.next = null;
+		node.slot = -1;
+		size--;
+	}
+
+	/*
+	 * 槽位中只存放本时间轮的节点，数组因泛型擦除声明为 Node<?>[]
+	 */
+	@SuppressWarnings("unchecked")
+	private Node<T> head(int slot) {
+		return (Node<T>) slots[slot];
+	}
+
+	@SuppressWarnings("unchecked")
+	private Node<T> tail(int slot) {
+		return (Node<T>) tails[slot];
+	}
+
+	private long tickOf(long deadline) {
+		// 向上取整，保证不会提前过期
+		return (deadline + tickMillis - 1) / tickMillis;
+	}
+
+	/**
+	 * A scheduled entry of the wheel.
+	 */
+	public static final class Node<T> {
+
+		private final T value;
+		private long deadline;
+		private Node<T> prev;
+		private Node<T> next;
+		private int slot = -1;
+
+		Node(T value) {
+			this.value = value;
+		}
+
+		public T getValue() {
+			return value;
+		}
+
+		public long getDeadline() {
+			return deadline;
+		}
+
+		public boolean isScheduled() {
+			return slot >= 0;
+		}
+
+	}
+
+}
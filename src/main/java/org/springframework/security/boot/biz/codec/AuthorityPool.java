@@ -0,0 +1,62 @@
+/*
+ * Copyright (c) 2018, vindell (https://github.com/vindell).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.springframework.security.boot.biz.codec;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+/**
+ * 角色、权限名称的共享池：反序列化出的相同权限共用同一个 {@link SimpleGrantedAuthority} 和字符串实例，
+ * 减少大量会话同时驻留内存时的重复对象。池的大小有上限，超出后不再缓存新名称。
+ * @author ： <a href="https://github.com/vindell">wandl</a>
+ */
+public final class AuthorityPool {
+
+	public static final int MAX_SIZE = 4096;
+
+	private static final ConcurrentMap<String, SimpleGrantedAuthority> AUTHORITIES = new ConcurrentHashMap<String, SimpleGrantedAuthority>();
+
+	private AuthorityPool() {
+	}
+
+	/**
+	 * @return the shared authority of the given name
+	 */
+	public static SimpleGrantedAuthority authority(String name) {
+		SimpleGrantedAuthority authority = AUTHORITIES.get(name);
+		if (authority != null) {
+			return authority;
+		}
+		authority = new SimpleGrantedAuthority(name);
+		if (AUTHORITIES.size() < MAX_SIZE) {
+			SimpleGrantedAuthority existing = AUTHORITIES.putIfAbsent(name, authority);
+			if (existing != null) {
+				return existing;
+			}
+		}
+		return authority;
+	}
+
+	/**
+	 * @return the shared instance of the given name, or null if name is null
+	 */
+	public static String name(String name) {
+		return name != null ? authority(name).getAuthority() : null;
+	}
+
+}
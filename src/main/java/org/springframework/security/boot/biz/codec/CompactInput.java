@@ -0,0 +1,141 @@
+/*
+ * Copyright (c) 2018, vindell (https://github.com/vindell).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.springframework.security.boot.biz.codec;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 读取 {@link CompactOutput} 写出的数据，数据不完整或格式错误时抛出 {@link IllegalArgumentException}。
+ * 本类不是线程安全的。
+ * @author ： <a href="https://github.com/vindell">wandl</a>
+ */
+public class CompactInput {
+
+	private final byte[] buf;
+	private final int limit;
+	private int pos;
+	private List<String> strings;
+
+	public CompactInput(byte[] buf) {
+		this(buf, 0, buf.length);
+	}
+
+	public CompactInput(byte[] buf, int offset, int length) {
+		if (offset < 0 || length < 0 || buf.length - offset < length) {
+			throw new IllegalArgumentException("Invalid range");
+		}
+		this.buf = buf;
+		this.pos = offset;
+		this.limit = offset + length;
+	}
+
+	public int readByte() {
+		require(1);
+		return buf[pos++] & 0xFF;
+	}
+
+	public boolean readBoolean() {
+		return readByte() != 0;
+	}
+
+	public long readLong() {
+		require(8);
+		long value = 0;
+		for (int i = 0; i < 8; i++) {
+			value = value << 8 | (buf[pos++] & 0xFF);
+		}
+		return value;
+	}
+
+	public long readVarLong() {
+		long value = 0;
+		for (int shift = 0; shift < 64; shift += 7) {
+			int b = readByte();
+			value |= (long) (b & 0x7F) << shift;
+			if ((b & 0x80) == 0) {
+				return value;
+			}
+		}
+		throw new IllegalArgumentException("Malformed varint");
+	}
+
+	public int readVarInt() {
+		long value = readVarLong();
+		if (value > 0xFFFFFFFFL) {
+			throw new IllegalArgumentException("Malformed varint");
+		}
+		return (int) value;
+	}
+
+	/**
+	 * Read a varint which is used as a length or count and must not exceed the remaining bytes.
+	 */
+	public int readLength() {
+		int length = readVarInt();
+		if (length < 0 || length > remaining()) {
+			throw new IllegalArgumentException("Invalid length " + length);
+		}
+		return length;
+	}
+
+	public String readString() {
+		int tag = readVarInt();
+		if (tag == 0) {
+			return null;
+		}
+		return readUtf8(tag - 1);
+	}
+
+	public String readInternedString() {
+		int tag = readVarInt();
+		if (tag == 0) {
+			return null;
+		}
+		if (strings == null) {
+			strings = new ArrayList<String>();
+		}
+		if ((tag & 1) != 0) {
+			int index = tag >>> 1;
+			if (index >= strings.size()) {
+				throw new IllegalArgumentException("Invalid string reference " + index);
+			}
+			return strings.get(index);
+		}
+		String value = readUtf8((tag >>> 1) - 1);
+		strings.add(value);
+		return value;
+	}
+
+	public int remaining() {
+		return limit - pos;
+	}
+
+	private String readUtf8(int length) {
+		require(length);
+		String value = new String(buf, pos, length, StandardCharsets.UTF_8);
+		pos += length;
+		return value;
+	}
+
+	private void require(int length) {
+		if (length < 0 || limit - pos < length) {
+			throw new IllegalArgumentException("Unexpected end of data");
+		}
+	}
+
+}
@@ -0,0 +1,145 @@
+/*
+ * Copyright (c) 2018, vindell (https://github.com/vindell).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.springframework.security.boot.biz.codec;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 紧凑二进制编码输出：整数使用 varint 编码，字符串使用长度前缀加 UTF-8 编码。
+ * <p>
+ * {@link #writeInternedString(String)} 在同一次编码中对重复出现的字符串只写一次，之后写入其序号，
+ * 适合角色、权限这类大量重复的短字符串。
+ * </p>
+ * 本类不是线程安全的。
+ * @author ： <a href="https://github.com/vindell">wandl</a>
+ */
+public class CompactOutput {
+
+	private byte[] buf;
+	private int count;
+	private Map<String, Integer> strings;
+
+	public CompactOutput() {
+		this(64);
+	}
+
+	public CompactOutput(int initialCapacity) {
+		this.buf = new byte[Math.max(initialCapacity, 16)];
+	}
+
+	public void writeByte(int value) {
+		ensureCapacity(1);
+		buf[count++] = (byte) value;
+	}
+
+	public void writeBoolean(boolean value) {
+		writeByte(value ? 1 : 0);
+	}
+
+	/**
+	 * Write a fixed length, big-endian long.
+	 */
+	public void writeLong(long value) {
+		ensureCapacity(8);
+		for (int shift = 56; shift >= 0; shift -= 8) {
+			buf[count++] = (byte) (value >>> shift);
+		}
+	}
+
+	/**
+	 * Write an unsigned varint, 7 bits per byte.
+	 */
+	public void writeVarLong(long value) {
+		ensureCapacity(10);
+		while ((value & ~0x7FL) != 0) {
+			buf[count++] = (byte) ((value & 0x7F) | 0x80);
+			value >>>= 7;
+		}
+		buf[count++] = (byte) value;
+	}
+
+	public void writeVarInt(int value) {
+		writeVarLong(value & 0xFFFFFFFFL);
+	}
+
+	/**
+	 * Write a nullable string as varint(length + 1) followed by its UTF-8 bytes, 0 stands for null.
+	 */
+	public void writeString(String value) {
+		if (value == null) {
+			writeByte(0);
+			return;
+		}
+		byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+		writeVarInt(bytes.length + 1);
+		write(bytes, 0, bytes.length);
+	}
+
+	/**
+	 * Write a nullable string, replacing repeats within this output by a back reference.
+	 * The tag is 0 for null, {@code index << 1 | 1} for a back reference and
+	 * {@code (length + 1) << 1} for a new string followed by its UTF-8 bytes.
+	 */
+	public void writeInternedString(String value) {
+		if (value == null) {
+			writeByte(0);
+			return;
+		}
+		if (strings == null) {
+			strings = new HashMap<String, Integer>();
+		}
+		Integer index = strings.get(value);
+		if (index != null) {
+			writeVarInt(index << 1 | 1);
+			return;
+		}
+		strings.put(value, strings.size());
+		byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+		writeVarInt((bytes.length + 1) << 1);
+		write(bytes, 0, bytes.length);
+	}
+
+	public void write(byte[] bytes, int offset, int length) {
+		ensureCapacity(length);
+		System.arraycopy(bytes, offset, buf, count, length);
+		count += length;
+	}
+
+	public int size() {
+		return count;
+	}
+
+	/**
+	 * @return the internal buffer, valid up to {@link #size()}
+	 */
+	public byte[] buffer() {
+		return buf;
+	}
+
+	public byte[] toByteArray() {
+		return Arrays.copyOf(buf, count);
+	}
+
+	private void ensureCapacity(int extra) {
+		if (count + extra > buf.length) {
+			buf = Arrays.copyOf(buf, Math.max(buf.length << 1, count + extra));
+		}
+	}
+
+}
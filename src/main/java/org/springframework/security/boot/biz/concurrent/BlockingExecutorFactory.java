@@ -0,0 +1,65 @@
+/*
+ * Copyright (c) 2018, vindell (https://github.com/vindell).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.springframework.security.boot.biz.concurrent;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.springframework.security.boot.biz.property.ExecutorType;
+
+/**
+ * 为阻塞的安全处理阶段（查询用户、校验密码等）创建执行器，所有被移出请求线程的阶段都通过它获取线程，
+ * 使同一个应用可以在平台线程和虚拟线程之间切换，而不需要修改各阶段的代码。
+ * @author ： <a href="https://github.com/vindell">wandl</a>
+ */
+public interface BlockingExecutorFactory {
+
+	/**
+	 * Create the executor of a blocking stage. At most {@code concurrency} tasks run at
+	 * the same time and at most {@code queueCapacity} tasks wait, beyond that
+	 * {@link ExecutorService#execute(Runnable)} throws a {@link RejectedExecutionException}.
+	 * @param stage the name of the stage, used for thread names
+	 * @param concurrency the maximum number of tasks running at the same time
+	 * @param queueCapacity the maximum number of waiting tasks
+	 * @return a new executor, to be shut down by the caller
+	 */
+	ExecutorService create(String stage, int concurrency, int queueCapacity);
+
+	/**
+	 * @return whether the tasks run on virtual threads
+	 */
+	boolean isVirtual();
+
+	/**
+	 * @param type the configured executor type
+	 * @return the factory of the type, {@link ExecutorType#AUTO} picks virtual threads when the JVM supports them
+	 * @throws IllegalStateException if virtual threads are required but not supported
+	 */
+	static BlockingExecutorFactory of(ExecutorType type) {
+		if (ExecutorType.PLATFORM.equals(type)) {
+			return new PlatformThreadExecutorFactory();
+		}
+		if (VirtualThreadExecutorFactory.isSupported()) {
+			return new VirtualThreadExecutorFactory();
+		}
+		if (ExecutorType.VIRTUAL.equals(type)) {
+			throw new IllegalStateException("Virtual threads require JDK 21 or later, running on "
+					+ System.getProperty("java.version"));
+		}
+		return new PlatformThreadExecutorFactory();
+	}
+
+}
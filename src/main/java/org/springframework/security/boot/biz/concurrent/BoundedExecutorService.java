@@ -0,0 +1,95 @@
+/*
+ * Copyright (c) 2018, vindell (https://github.com/vindell).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.springframework.security.boot.biz.concurrent;
+
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 限制同时运行和等待的任务数的 {@link ExecutorService} 包装，用于本身不限制线程数的执行器
+ * @author ： <a href="https://github.com/vindell">wandl</a>
+ */
+final class BoundedExecutorService extends AbstractExecutorService {
+
+	private final ExecutorService delegate;
+	/** 运行中和等待中的任务 */
+	private final Semaphore admitted;
+	/** 运行中的任务 */
+	private final Semaphore running;
+
+	BoundedExecutorService(ExecutorService delegate, int concurrency, int queueCapacity) {
+		this.delegate = delegate;
+		this.admitted = new Semaphore(concurrency + queueCapacity);
+		this.running = new Semaphore(concurrency);
+	}
+
+	@Override
+	public void execute(Runnable command) {
+		if (!admitted.tryAcquire()) {
+			throw new RejectedExecutionException("Task " + command + " rejected, too many tasks in flight");
+		}
+		try {
+			delegate.execute(() -> {
+				try {
+					running.acquire();
+				} catch (InterruptedException e) {
+					admitted.release();
+					Thread.currentThread().interrupt();
+					return;
+				}
+				try {
+					command.run();
+				} finally {
+					running.release();
+					admitted.release();
+				}
+			});
+		} catch (RejectedExecutionException e) {
+			admitted.release();
+			throw e;
+		}
+	}
+
+	@Override
+	public void shutdown() {
+		delegate.shutdown();
+	}
+
+	@Override
+	public List<Runnable> shutdownNow() {
+		return delegate.shutdownNow();
+	}
+
+	@Override
+	public boolean isShutdown() {
+		return delegate.isShutdown();
+	}
+
+	@Override
+	public boolean isTerminated() {
+		return delegate.isTerminated();
+	}
+
+	@Override
+	public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+		return delegate.awaitTermination(timeout, unit);
+	}
+
+}
@@ -0,0 +1,55 @@
+/*
+ * Copyright (c) 2018, vindell (https://github.com/vindell).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.springframework.security.boot.biz.concurrent;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.util.Assert;
+
+/**
+ * 以有界线程池执行阻塞阶段：线程和队列都满时拒绝任务，而不是无限排队；空闲线程超时后回收
+ * @author ： <a href="https://github.com/vindell">wandl</a>
+ */
+public class PlatformThreadExecutorFactory implements BlockingExecutorFactory {
+
+	private static final long KEEP_ALIVE_SECONDS = 60L;
+
+	@Override
+	public ExecutorService create(String stage, int concurrency, int queueCapacity) {
+		Assert.hasText(stage, "stage must not be empty");
+		Assert.isTrue(concurrency > 0, "concurrency must be positive");
+		Assert.isTrue(queueCapacity > 0, "queueCapacity must be positive");
+		AtomicInteger counter = new AtomicInteger();
+		ThreadPoolExecutor executor = new ThreadPoolExecutor(concurrency, concurrency, KEEP_ALIVE_SECONDS,
+				TimeUnit.SECONDS, new ArrayBlockingQueue<Runnable>(queueCapacity), runnable -> {
+					Thread thread = new Thread(runnable, "security-" + stage + "-" + counter.incrementAndGet());
+					thread.setDaemon(true);
+					return thread;
+				}, new ThreadPoolExecutor.AbortPolicy());
+		executor.allowCoreThreadTimeOut(true);
+		return executor;
+	}
+
+	@Override
+	public boolean isVirtual() {
+		return false;
+	}
+
+}
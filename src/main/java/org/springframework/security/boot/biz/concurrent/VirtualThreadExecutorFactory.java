@@ -0,0 +1,96 @@
+/*
+ * Copyright (c) 2018, vindell (https://github.com/vindell).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.springframework.security.boot.biz.concurrent;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+import org.springframework.util.Assert;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ReflectionUtils;
+
+/**
+ * 每个任务一个虚拟线程的执行器，需要 JDK 21 及以上版本。
+ * <p>
+ * 虚拟线程的 API 通过反射调用，本类仍以 Java 8 编译，在旧版本 JDK 上 {@link #isSupported()} 返回 false。
+ * 虚拟线程本身不限制数量，因此用信号量限制同时运行和等待的任务数，保护用户查询背后的数据库等资源；
+ * 等待运行许可的任务阻塞在虚拟线程上，不占用平台线程。
+ * </p>
+ * @author ： <a href="https://github.com/vindell">wandl</a>
+ */
+public class VirtualThreadExecutorFactory implements BlockingExecutorFactory {
+
+	private static final Method OF_VIRTUAL;
+	private static final Method NAME;
+	private static final Method FACTORY;
+	private static final Method NEW_THREAD_PER_TASK_EXECUTOR;
+
+	static {
+		Method ofVirtual = null;
+		Method name = null;
+		Method factory = null;
+		Method newThreadPerTaskExecutor = null;
+		try {
+			Class<?> builder = ClassUtils.forName("java.lang.Thread$Builder", Thread.class.getClassLoader());
+			ofVirtual = Thread.class.getMethod("ofVirtual");
+			name = builder.getMethod("name", String.class, long.class);
+			factory = builder.getMethod("factory");
+			newThreadPerTaskExecutor = Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class);
+			// JDK 19、20 中虚拟线程是预览特性，未开启时调用会失败
+			ofVirtual.invoke(null);
+		} catch (ClassNotFoundException | NoSuchMethodException | LinkageError | IllegalAccessException
+				| InvocationTargetException | RuntimeException e) {
+			ofVirtual = null;
+		}
+		OF_VIRTUAL = ofVirtual;
+		NAME = name;
+		FACTORY = factory;
+		NEW_THREAD_PER_TASK_EXECUTOR = newThreadPerTaskExecutor;
+	}
+
+	/**
+	 * @return whether this JVM supports virtual threads
+	 */
+	public static boolean isSupported() {
+		return OF_VIRTUAL != null;
+	}
+
+	public VirtualThreadExecutorFactory() {
+		Assert.state(isSupported(), "Virtual threads are not supported by this JVM");
+	}
+
+	@Override
+	public ExecutorService create(String stage, int concurrency, int queueCapacity) {
+		Assert.hasText(stage, "stage must not be empty");
+		Assert.isTrue(concurrency > 0, "concurrency must be positive");
+		Assert.isTrue(queueCapacity > 0, "queueCapacity must be positive");
+		Object builder = ReflectionUtils.invokeMethod(OF_VIRTUAL, null);
+		builder = ReflectionUtils.invokeMethod(NAME, builder, "security-" + stage + "-", 1L);
+		ThreadFactory threadFactory = (ThreadFactory) ReflectionUtils.invokeMethod(FACTORY, builder);
+		ExecutorService executor = (ExecutorService) ReflectionUtils.invokeMethod(NEW_THREAD_PER_TASK_EXECUTOR, null,
+				threadFactory);
+		return new BoundedExecutorService(executor, concurrency, queueCapacity);
+	}
+
+	@Override
+	public boolean isVirtual() {
+		return true;
+	}
+
+}
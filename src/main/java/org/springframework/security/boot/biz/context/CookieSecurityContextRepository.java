@@ -0,0 +1,242 @@
+/*
+ * Copyright (c) 2018, vindell (https://github.com/vindell).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.springframework.security.boot.biz.context;
+
+import java.security.SecureRandom;
+
+import javax.servlet.http.Cookie;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.authentication.AuthenticationTrustResolver;
+import org.springframework.security.authentication.AuthenticationTrustResolverImpl;
+import org.springframework.security.boot.utils.StringUtils;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.context.HttpRequestResponseHolder;
+import org.springframework.security.web.context.SaveContextOnUpdateOrErrorResponseWrapper;
+import org.springframework.security.web.context.SecurityContextRepository;
+import org.springframework.util.Assert;
+import org.springframework.web.util.WebUtils;
+
+/**
+ * 无状态模式下的 {@link SecurityContextRepository}：认证信息编码为签名令牌保存在 Cookie 中，
+ * 读取时只做一次 HMAC 校验，不查询用户，也不需要会话存储。
+ * <p>
+ * 令牌在剩余有效期小于 {@code renewWindow} 时才重新签发，其余请求不会写 Cookie。
+ * </p>
+ * @author ： <a href="https://github.com/vindell">wandl</a>
+ */
+public class CookieSecurityContextRepository implements SecurityContextRepository {
+
+	public static final String DEFAULT_COOKIE_NAME = "SECURITY_CONTEXT";
+	public static final long DEFAULT_TIMEOUT = 30 * 60 * 1000L;
+	public static final long DEFAULT_RENEW_WINDOW = 10 * 60 * 1000L;
+
+	protected final Logger logger = LoggerFactory.getLogger(getClass());
+
+	private final StatelessTokenCodec codec;
+	private final SecureRandom random = new SecureRandom();
+	private AuthenticationTrustResolver trustResolver = new AuthenticationTrustResolverImpl();
+	private String cookieName = DEFAULT_COOKIE_NAME;
+	private long timeout = DEFAULT_TIMEOUT;
+	private long renewWindow = DEFAULT_RENEW_WINDOW;
+	private boolean disableUrlRewriting = true;
+	private RevokedTokenRegistry revokedTokenRegistry;
+
+	public CookieSecurityContextRepository(StatelessTokenCodec codec) {
+		Assert.notNull(codec, "codec must not be null");
+		this.codec = codec;
+	}
+
+	@Override
+	public SecurityContext loadContext(HttpRequestResponseHolder requestResponseHolder) {
+		HttpServletRequest request = requestResponseHolder.getRequest();
+		SecurityContext context = SecurityContextHolder.createEmptyContext();
+		StatelessToken token = readToken(request);
+		if (token != null) {
+			context.setAuthentication(new StatelessAuthenticationToken(token));
+		}
+		// 无效、过期或已吊销的 Cookie 在响应时清除，避免每个请求都重复校验
+		boolean staleCookie = token == null && hasCookie(request);
+		requestResponseHolder.setResponse(new SaveToCookieResponseWrapper(request,
+				requestResponseHolder.getResponse(), token, staleCookie));
+		return context;
+	}
+
+	@Override
+	public void saveContext(SecurityContext context, HttpServletRequest request, HttpServletResponse response) {
+		SaveToCookieResponseWrapper responseWrapper = WebUtils.getNativeResponse(response,
+				SaveToCookieResponseWrapper.class);
+		if (responseWrapper == null) {
+			throw new IllegalStateException("Cannot invoke saveContext on response " + response
+					+ ". You must use the HttpRequestResponseHolder.response after invoking loadContext");
+		}
+		if (!responseWrapper.isContextSaved()) {
+			responseWrapper.saveContext(context);
+		}
+	}
+
+	@Override
+	public boolean containsContext(HttpServletRequest request) {
+		return readToken(request) != null;
+	}
+
+	private boolean hasCookie(HttpServletRequest request) {
+		Cookie cookie = WebUtils.getCookie(request, cookieName);
+		return cookie != null && StringUtils.hasText(cookie.getValue());
+	}
+
+	protected StatelessToken readToken(HttpServletRequest request) {
+		Cookie cookie = WebUtils.getCookie(request, cookieName);
+		if (cookie == null || !StringUtils.hasText(cookie.getValue())) {
+			return null;
+		}
+		StatelessToken token = codec.decode(cookie.getValue());
+		if (token == null) {
+			if (logger.isDebugEnabled()) {
+				logger.debug("Ignoring invalid or expired security context cookie");
+			}
+			return null;
+		}
+		if (revokedTokenRegistry != null && revokedTokenRegistry.isRevoked(token)) {
+			if (logger.isDebugEnabled()) {
+				logger.debug("Ignoring revoked security context cookie");
+			}
+			return null;
+		}
+		return token;
+	}
+
+	/**
+	 * Create a token for a newly authenticated user, or renew the loaded one keeping its id.
+	 */
+	protected StatelessToken createToken(Authentication authentication, StatelessToken loaded) {
+		long expiry = System.currentTimeMillis() + timeout;
+		if (authentication instanceof StatelessAuthenticationToken) {
+			StatelessToken token = ((StatelessAuthenticationToken) authentication).getToken();
+			return new StatelessToken(token.getTokenId(), expiry, token.getUserid(), token.getUsername(),
+					token.getAuthorities());
+		}
+		return StatelessToken.of(authentication, random.nextLong(), expiry);
+	}
+
+	protected void writeCookie(HttpServletRequest request, HttpServletResponse response, String value, int maxAge) {
+		Cookie cookie = new Cookie(cookieName, value);
+		cookie.setPath(StringUtils.hasText(request.getContextPath()) ? request.getContextPath() : "/");
+		cookie.setHttpOnly(true);
+		cookie.setSecure(request.isSecure());
+		cookie.setMaxAge(maxAge);
+		response.addCookie(cookie);
+	}
+
+	public String getCookieName() {
+		return cookieName;
+	}
+
+	public void setCookieName(String cookieName) {
+		Assert.hasText(cookieName, "cookieName must not be empty");
+		this.cookieName = cookieName;
+	}
+
+	public long getTimeout() {
+		return timeout;
+	}
+
+	/**
+	 * @param timeout how long an issued token stays valid, in milliseconds
+	 */
+	public void setTimeout(long timeout) {
+		Assert.isTrue(timeout > 0, "timeout must be positive");
+		this.timeout = timeout;
+	}
+
+	public long getRenewWindow() {
+		return renewWindow;
+	}
+
+	/**
+	 * @param renewWindow a token is renewed once it expires within this time, in milliseconds
+	 */
+	public void setRenewWindow(long renewWindow) {
+		this.renewWindow = renewWindow;
+	}
+
+	public void setTrustResolver(AuthenticationTrustResolver trustResolver) {
+		Assert.notNull(trustResolver, "trustResolver must not be null");
+		this.trustResolver = trustResolver;
+	}
+
+	public void setDisableUrlRewriting(boolean disableUrlRewriting) {
+		this.disableUrlRewriting = disableUrlRewriting;
+	}
+
+	public RevokedTokenRegistry getRevokedTokenRegistry() {
+		return revokedTokenRegistry;
+	}
+
+	/**
+	 * @param revokedTokenRegistry rejects the cookies of revoked tokens
+	 */
+	public void setRevokedTokenRegistry(RevokedTokenRegistry revokedTokenRegistry) {
+		this.revokedTokenRegistry = revokedTokenRegistry;
+	}
+
+	/**
+	 * Writes the token cookie when the response is committed or the request completes.
+	 */
+	final class SaveToCookieResponseWrapper extends SaveContextOnUpdateOrErrorResponseWrapper {
+
+		private final HttpServletRequest request;
+		private final StatelessToken loaded;
+		private final boolean staleCookie;
+
+		SaveToCookieResponseWrapper(HttpServletRequest request, HttpServletResponse response, StatelessToken loaded,
+				boolean staleCookie) {
+			super(response, disableUrlRewriting);
+			this.request = request;
+			this.loaded = loaded;
+			this.staleCookie = staleCookie;
+		}
+
+		@Override
+		protected void saveContext(SecurityContext context) {
+			HttpServletResponse response = (HttpServletResponse) getResponse();
+			Authentication authentication = context.getAuthentication();
+			if (authentication == null || trustResolver.isAnonymous(authentication)) {
+				if (loaded != null || staleCookie) {
+					// 已注销、认证被清除或 Cookie 已失效
+					writeCookie(request, response, "", 0);
+				}
+				return;
+			}
+			if (authentication instanceof StatelessAuthenticationToken) {
+				StatelessToken token = ((StatelessAuthenticationToken) authentication).getToken();
+				// 请求头中的令牌由客户端自行保存，不写 Cookie
+				if (token != loaded || loaded.getExpiry() - System.currentTimeMillis() > renewWindow) {
+					return;
+				}
+			}
+			StatelessToken token = createToken(authentication, loaded);
+			writeCookie(request, response, codec.encode(token), (int) (timeout / 1000));
+		}
+
+	}
+
+}
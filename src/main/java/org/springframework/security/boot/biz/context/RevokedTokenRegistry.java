@@ -0,0 +1,114 @@
+/*
+ * Copyright (c) 2018, vindell (https://github.com/vindell).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.springframework.security.boot.biz.context;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.boot.biz.cache.ExpiringCache;
+import org.springframework.security.boot.biz.cache.RotatingBloomFilter;
+import org.springframework.util.Assert;
+
+/**
+ * 已吊销令牌的登记表，内存占用固定。
+ * <p>
+ * 吊销的令牌 id 同时写入按时间分片轮换的布隆过滤器和一个按令牌过期时间自动清除的精确集合。
+ * 每个请求先查布隆过滤器，绝大多数未吊销的令牌只需几次哈希探测即可放行，
+ * 只有布隆过滤器命中时才查精确集合排除误判。令牌本身过期后，条目随之清除。
+ * </p>
+ * 登记表只保存在本机内存中，集群部署时需要在各节点分别吊销。
+ * @author ： <a href="https://github.com/vindell">wandl</a>
+ */
+public class RevokedTokenRegistry {
+
+	public static final int DEFAULT_CAPACITY = 100_000;
+	public static final double DEFAULT_FPP = 0.001;
+
+	protected final Logger logger = LoggerFactory.getLogger(getClass());
+
+	private final RotatingBloomFilter filter;
+	private final ExpiringCache<Long, Boolean> revoked;
+	private final long maxLifetime;
+
+	/**
+	 * @param maxLifetime the longest time a token stays valid, in milliseconds
+	 */
+	public RevokedTokenRegistry(long maxLifetime) {
+		this(maxLifetime, DEFAULT_CAPACITY, DEFAULT_FPP);
+	}
+
+	/**
+	 * @param maxLifetime the longest time a token stays valid, in milliseconds
+	 * @param capacity the maximum number of revoked tokens remembered
+	 * @param fpp the false positive probability of the Bloom filter
+	 */
+	public RevokedTokenRegistry(long maxLifetime, int capacity, double fpp) {
+		Assert.isTrue(maxLifetime > 0, "maxLifetime must be positive");
+		this.maxLifetime = maxLifetime;
+		// 布隆过滤器至少记住一个分片，令牌最长有效期为一个分片时，过期之前不会被遗忘
+		this.filter = new RotatingBloomFilter(capacity, fpp, maxLifetime);
+		this.revoked = new ExpiringCache<Long, Boolean>(capacity);
+	}
+
+	/**
+	 * Revoke the token until it expires.
+	 */
+	public void revoke(StatelessToken token) {
+		revoke(token.getTokenId(), token.getExpiry());
+	}
+
+	/**
+	 * Revoke a token by id.
+	 * @param tokenId the id of the token
+	 * @param expiry the expiry time of the token in milliseconds, it can be forgotten afterwards
+	 */
+	public void revoke(long tokenId, long expiry) {
+		long now = System.currentTimeMillis();
+		if (expiry <= now) {
+			return;
+		}
+		if (expiry - now > maxLifetime) {
+			logger.warn("Token " + tokenId + " outlives the registry lifetime, it is revoked for " + maxLifetime + "ms only");
+			expiry = now + maxLifetime;
+		}
+		long evictions = revoked.getEvictions();
+		revoked.put(tokenId, Boolean.TRUE, expiry);
+		// 总是写入当前分片：键只因误判出现在上一个分片时，putIfAbsent 不会写入，分片轮换后吊销就会失效
+		filter.put(tokenId);
+		if (revoked.getEvictions() != evictions) {
+			logger.warn("Revoked token registry is full, the earliest expiring tokens are no longer revoked");
+		}
+	}
+
+	public boolean isRevoked(StatelessToken token) {
+		return isRevoked(token.getTokenId());
+	}
+
+	public boolean isRevoked(long tokenId) {
+		return filter.mightContain(tokenId) && revoked.containsKey(tokenId);
+	}
+
+	/**
+	 * @return the number of revoked tokens which have not expired yet
+	 */
+	public int size() {
+		return revoked.size();
+	}
+
+	public long getMaxLifetime() {
+		return maxLifetime;
+	}
+
+}
@@ -0,0 +1,52 @@
+/*
+ * Copyright (c) 2018, vindell (https://github.com/vindell).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.springframework.security.boot.biz.context;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.security.core.Authentication;
+import org.springframework.security.web.authentication.logout.SecurityContextLogoutHandler;
+import org.springframework.util.Assert;
+
+/**
+ * 注销时吊销当前的无状态令牌，令牌在过期之前即使被重放也不再有效
+ * @author ： <a href="https://github.com/vindell">wandl</a>
+ */
+public class RevokingLogoutHandler extends SecurityContextLogoutHandler {
+
+	private final RevokedTokenRegistry registry;
+
+	public RevokingLogoutHandler(RevokedTokenRegistry registry) {
+		Assert.notNull(registry, "registry must not be null");
+		this.registry = registry;
+	}
+
+	@Override
+	public void logout(HttpServletRequest request, HttpServletResponse response, Authentication authentication) {
+		if (authentication instanceof StatelessAuthenticationToken) {
+			StatelessToken token = ((StatelessAuthenticationToken) authentication).getToken();
+			if (token != null) {
+				registry.revoke(token);
+				if (logger.isDebugEnabled()) {
+					logger.debug("Revoked token " + token.getTokenId());
+				}
+			}
+		}
+		super.logout(request, response, authentication);
+	}
+
+}
@@ -0,0 +1,126 @@
+/*
+ * Copyright (c) 2018, vindell (https://github.com/vindell).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.springframework.security.boot.biz.context;
+
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.springframework.security.authentication.AbstractAuthenticationToken;
+import org.springframework.security.boot.biz.codec.AuthorityPool;
+import org.springframework.security.boot.biz.codec.CompactInput;
+import org.springframework.security.boot.biz.codec.CompactOutput;
+import org.springframework.security.boot.biz.userdetails.SecurityPrincipal;
+import org.springframework.security.core.GrantedAuthority;
+
+/**
+ * 由无状态令牌还原出的认证信息，不需要再次查询用户
+ * @author ： <a href="https://github.com/vindell">wandl</a>
+ */
+@SuppressWarnings("serial")
+public class StatelessAuthenticationToken extends AbstractAuthenticationToken {
+
+	private final SecurityPrincipal principal;
+	private final transient StatelessToken token;
+
+	public StatelessAuthenticationToken(StatelessToken token) {
+		super(toAuthorities(token.getAuthorities()));
+		this.token = token;
+		this.principal = new SecurityPrincipal(token.getUsername(), "", getAuthorities());
+		this.principal.setUserid(token.getUserid());
+		setAuthenticated(true);
+	}
+
+	private static List<GrantedAuthority> toAuthorities(List<String> authorities) {
+		return authorities.stream().map(AuthorityPool::authority).collect(Collectors.toList());
+	}
+
+	@Override
+	public Object getCredentials() {
+		return "";
+	}
+
+	@Override
+	public SecurityPrincipal getPrincipal() {
+		return principal;
+	}
+
+	public StatelessToken getToken() {
+		return token;
+	}
+
+	private Object writeReplace() {
+		return new SerializationProxy(this);
+	}
+
+	/**
+	 * Serialized form of {@link StatelessAuthenticationToken}: the token in the compact
+	 * format of {@link StatelessTokenCodec}, followed by the details.
+	 */
+	public static final class SerializationProxy implements Externalizable {
+
+		private static final long serialVersionUID = 1L;
+		private static final int MAX_LENGTH = 1 << 16;
+
+		private StatelessToken token;
+		private Object details;
+
+		public SerializationProxy() {
+		}
+
+		SerializationProxy(StatelessAuthenticationToken authentication) {
+			this.token = authentication.getToken();
+			this.details = authentication.getDetails();
+		}
+
+		@Override
+		public void writeExternal(ObjectOutput out) throws IOException {
+			CompactOutput body = new CompactOutput(128);
+			StatelessTokenCodec.writeBody(token, body);
+			out.writeInt(body.size());
+			out.write(body.buffer(), 0, body.size());
+			out.writeObject(details);
+		}
+
+		@Override
+		public void readExternal(ObjectInput in) throws IOException, ClassNotFoundException {
+			int length = in.readInt();
+			if (length < 0 || length > MAX_LENGTH) {
+				throw new InvalidObjectException("Invalid length " + length);
+			}
+			byte[] data = new byte[length];
+			in.readFully(data);
+			try {
+				this.token = StatelessTokenCodec.readBody(new CompactInput(data));
+			} catch (IllegalArgumentException e) {
+				throw new InvalidObjectException(e.getMessage());
+			}
+			this.details = in.readObject();
+		}
+
+		private Object readResolve() {
+			StatelessAuthenticationToken authentication = new StatelessAuthenticationToken(token);
+			authentication.setDetails(details);
+			return authentication;
+		}
+
+	}
+
+}
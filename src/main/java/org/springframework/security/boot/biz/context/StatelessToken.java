@@ -0,0 +1,94 @@
+/*
+ * Copyright (c) 2018, vindell (https://github.com/vindell).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.springframework.security.boot.biz.context;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.springframework.security.boot.biz.userdetails.SecurityPrincipal;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+/**
+ * 无状态令牌中携带的用户信息
+ * @author ： <a href="https://github.com/vindell">wandl</a>
+ */
+public class StatelessToken {
+
+	private final long tokenId;
+	private final long expiry;
+	private final String userid;
+	private final String username;
+	private final List<String> authorities;
+
+	/**
+	 * @param tokenId the id of the token, kept when the token is renewed
+	 * @param expiry the expiry time in milliseconds, truncated to seconds when encoded
+	 * @param userid the user id, may be null
+	 * @param username the username
+	 * @param authorities the authority names
+	 */
+	public StatelessToken(long tokenId, long expiry, String userid, String username, List<String> authorities) {
+		this.tokenId = tokenId;
+		this.expiry = expiry;
+		this.userid = userid;
+		this.username = username;
+		this.authorities = authorities != null ? authorities : Collections.<String>emptyList();
+	}
+
+	/**
+	 * Create a token carrying the user of the given authentication.
+	 * @param authentication the authenticated user
+	 * @param tokenId the id of the token
+	 * @param expiry the expiry time in milliseconds
+	 */
+	public static StatelessToken of(Authentication authentication, long tokenId, long expiry) {
+		Object principal = authentication.getPrincipal();
+		String userid = principal instanceof SecurityPrincipal ? ((SecurityPrincipal) principal).getUserid() : null;
+		String username = principal instanceof UserDetails ? ((UserDetails) principal).getUsername()
+				: authentication.getName();
+		List<String> authorities = authentication.getAuthorities().stream().map(GrantedAuthority::getAuthority)
+				.collect(Collectors.toList());
+		return new StatelessToken(tokenId, expiry, userid, username, authorities);
+	}
+
+	public long getTokenId() {
+		return tokenId;
+	}
+
+	public long getExpiry() {
+		return expiry;
+	}
+
+	public String getUserid() {
+		return userid;
+	}
+
+	public String getUsername() {
+		return username;
+	}
+
+	public List<String> getAuthorities() {
+		return authorities;
+	}
+
+	public boolean isExpired(long now) {
+		return expiry <= now;
+	}
+
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright (c) 2018, vindell (https://github.com/vindell).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.springframework.security.boot.biz.context;
+
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+import org.springframework.security.boot.biz.codec.AuthorityPool;
+import org.springframework.security.boot.biz.codec.CompactInput;
+import org.springframework.security.boot.biz.codec.CompactOutput;
+import org.springframework.security.boot.biz.crypto.HmacSigner;
+import org.springframework.security.boot.biz.crypto.RotatingKeySet;
+import org.springframework.util.Assert;
+
+/**
+ * 无状态令牌的二进制编解码：
+ * 版本(1)|kid(1)|令牌id(8)|过期秒数|userid|username|权限数|权限...|签名(16)，整体 base64url 编码。
+ * <p>
+ * 整数使用 varint 编码，字符串以 varint 长度前缀加 UTF-8 编码，重复的权限名称只写一次；
+ * 校验只需一次 HMAC 计算，不查询用户也不访问会话。
+ * </p>
+ * @author ： <a href="https://github.com/vindell">wandl</a>
+ */
+public class StatelessTokenCodec {
+
+	public static final int VERSION = 1;
+
+	private static final int TAG_LENGTH = 16;
+	private static final int HEADER_LENGTH = 1 + 1 + 8;
+
+	private final RotatingKeySet keySet;
+
+	public StatelessTokenCodec(RotatingKeySet keySet) {
+		Assert.notNull(keySet, "keySet must not be null");
+		this.keySet = keySet;
+	}
+
+	/**
+	 * Encode and sign the token with the current key.
+	 */
+	public String encode(StatelessToken token) {
+		long now = System.currentTimeMillis();
+		CompactOutput out = new CompactOutput(128);
+		out.writeByte(VERSION);
+		out.writeByte(keySet.currentKid(now));
+		writeBody(token, out);
+		byte[] tag = keySet.current(now).sign(out.buffer(), 0, out.size());
+		out.write(tag, 0, TAG_LENGTH);
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(out.toByteArray());
+	}
+
+	/**
+	 * Verify and decode the token.
+	 * @return the token, or null if it is malformed, wrongly signed or expired
+	 */
+	public StatelessToken decode(String value) {
+		StatelessToken token = verify(value);
+		return token == null || token.isExpired(System.currentTimeMillis()) ? null : token;
+	}
+
+	/**
+	 * Verify and decode the token without checking its expiry, so callers can tell an
+	 * expired token from a forged one.
+	 * @return the token, or null if it is malformed or wrongly signed
+	 */
+	public StatelessToken verify(String value) {
+		long now = System.currentTimeMillis();
+		byte[] data;
+		try {
+			data = Base64.getUrlDecoder().decode(value);
+		} catch (IllegalArgumentException e) {
+			return null;
+		}
+		int length = data.length - TAG_LENGTH;
+		if (length < HEADER_LENGTH || data[0] != VERSION) {
+			return null;
+		}
+		HmacSigner signer = keySet.forKid(data[1] & 0xFF, now);
+		if (!HmacSigner.isEqual(signer.sign(data, 0, length), 0, data, length, TAG_LENGTH)) {
+			return null;
+		}
+		try {
+			return readBody(new CompactInput(data, 2, length - 2));
+		} catch (IllegalArgumentException e) {
+			return null;
+		}
+	}
+
+	static void writeBody(StatelessToken token, CompactOutput out) {
+		out.writeLong(token.getTokenId());
+		out.writeVarLong(token.getExpiry() / 1000);
+		out.writeString(token.getUserid());
+		out.writeString(token.getUsername());
+		out.writeVarInt(token.getAuthorities().size());
+		for (String authority : token.getAuthorities()) {
+			out.writeInternedString(authority);
+		}
+	}
+
+	static StatelessToken readBody(CompactInput in) {
+		long tokenId = in.readLong();
+		long expiry = in.readVarLong() * 1000;
+		String userid = in.readString();
+		String username = in.readString();
+		int count = in.readLength();
+		List<String> authorities = new ArrayList<String>(count);
+		for (int i = 0; i < count; i++) {
+			authorities.add(AuthorityPool.name(in.readInternedString()));
+		}
+		return new StatelessToken(tokenId, expiry, userid, username, authorities);
+	}
+
+}
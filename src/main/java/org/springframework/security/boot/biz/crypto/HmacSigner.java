@@ -0,0 +1,139 @@
+/*
+ * Copyright (c) 2018, vindell (https://github.com/vindell).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.springframework.security.boot.biz.crypto;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.boot.utils.StringUtils;
+import org.springframework.util.Assert;
+
+/**
+ * HMAC 签名工具：每个线程持有一个已初始化的 {@link Mac} 实例，避免每次签名重新获取和初始化
+ * @author ： <a href="https://github.com/vindell">wandl</a>
+ */
+public class HmacSigner {
+
+	private static final Logger logger = LoggerFactory.getLogger(HmacSigner.class);
+
+	public static final String DEFAULT_ALGORITHM = "HmacSHA256";
+	public static final int DEFAULT_SECRET_LENGTH = 32;
+
+	private final SecretKeySpec secretKey;
+	private final int macLength;
+	private final ThreadLocal<Mac> macHolder;
+
+	public HmacSigner(byte[] secret) {
+		this(secret, DEFAULT_ALGORITHM);
+	}
+
+	public HmacSigner(byte[] secret, String algorithm) {
+		Assert.isTrue(secret != null && secret.length > 0, "secret must not be empty");
+		Assert.hasText(algorithm, "algorithm must not be empty");
+		this.secretKey = new SecretKeySpec(secret.clone(), algorithm);
+		this.macHolder = ThreadLocal.withInitial(this::newMac);
+		this.macLength = macHolder.get().getMacLength();
+	}
+
+	/**
+	 * 使用给定的密钥创建签名器；未配置密钥时生成随机密钥，此时签名只在当前 JVM 内有效
+	 * @param secret the configured secret, may be null
+	 * @return the signer
+	 */
+	public static HmacSigner of(String secret) {
+		if (StringUtils.hasText(secret)) {
+			return new HmacSigner(secret.getBytes(StandardCharsets.UTF_8));
+		}
+		logger.warn("No HMAC secret configured, using a random key. Signed values will not survive a restart or be accepted by other nodes.");
+		return random();
+	}
+
+	public static HmacSigner random() {
+		byte[] secret = new byte[DEFAULT_SECRET_LENGTH];
+		new SecureRandom().nextBytes(secret);
+		return new HmacSigner(secret);
+	}
+
+	private Mac newMac() {
+		try {
+			Mac mac = Mac.getInstance(secretKey.getAlgorithm());
+			mac.init(secretKey);
+			return mac;
+		} catch (GeneralSecurityException e) {
+			throw new IllegalStateException("Unable to initialize " + secretKey.getAlgorithm(), e);
+		}
+	}
+
+	/**
+	 * Sign the concatenation of the given parts.
+	 * @param parts the data to be signed
+	 * @return the full length mac
+	 */
+	public byte[] sign(byte[]... parts) {
+		Mac mac = macHolder.get();
+		for (byte[] part : parts) {
+			mac.update(part);
+		}
+		return mac.doFinal();
+	}
+
+	/**
+	 * Sign a range of the given buffer.
+	 */
+	public byte[] sign(byte[] data, int offset, int length) {
+		Mac mac = macHolder.get();
+		mac.update(data, offset, length);
+		return mac.doFinal();
+	}
+
+	/**
+	 * Verify that the first {@code length} bytes of the mac of the given parts
+	 * equal the bytes of {@code expected} starting at {@code offset}. The
+	 * comparison runs in constant time.
+	 */
+	public boolean verify(byte[] expected, int offset, int length, byte[]... parts) {
+		if (length > macLength || offset < 0 || expected.length - offset < length) {
+			return false;
+		}
+		return isEqual(sign(parts), 0, expected, offset, length);
+	}
+
+	/**
+	 * Constant time comparison of two byte ranges.
+	 */
+	public static boolean isEqual(byte[] a, int aOffset, byte[] b, int bOffset, int length) {
+		int result = 0;
+		for (int i = 0; i < length; i++) {
+			result |= a[aOffset + i] ^ b[bOffset + i];
+		}
+		return result == 0;
+	}
+
+	public int getMacLength() {
+		return macLength;
+	}
+
+	public String getAlgorithm() {
+		return secretKey.getAlgorithm();
+	}
+
+}
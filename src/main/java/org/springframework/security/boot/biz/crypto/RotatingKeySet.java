@@ -0,0 +1,110 @@
+/*
+ * Copyright (c) 2018, vindell (https://github.com/vindell).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.springframework.security.boot.biz.crypto;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import org.springframework.util.Assert;
+
+/**
+ * 按时间段轮换的签名密钥：每个时间段的密钥由主密钥和时间段序号派生，不需要保存或分发历史密钥。
+ * <p>
+ * 密钥编号（kid）为时间段序号的低 8 位，签名数据中带上 kid，校验时由 kid 还原出最近的对应时间段；
+ * 由于派生时绑定了完整的时间段序号，kid 回绕后旧数据无法通过校验。
+ * </p>
+ * @author ： <a href="https://github.com/vindell">wandl</a>
+ */
+public class RotatingKeySet {
+
+	public static final long DEFAULT_ROTATION_PERIOD = 24 * 60 * 60 * 1000L;
+
+	private static final byte[] KEY_DOMAIN = "rotating-key".getBytes(StandardCharsets.UTF_8);
+	private static final int KID_MASK = 0xFF;
+
+	private final HmacSigner master;
+	private final long rotationPeriod;
+	private final AtomicReferenceArray<PeriodKey> keys = new AtomicReferenceArray<PeriodKey>(KID_MASK + 1);
+
+	/**
+	 * @param master the signer holding the master secret
+	 * @param rotationPeriod how long a derived key is used for signing, in milliseconds
+	 */
+	public RotatingKeySet(HmacSigner master, long rotationPeriod) {
+		Assert.notNull(master, "master must not be null");
+		Assert.isTrue(rotationPeriod > 0, "rotationPeriod must be positive");
+		this.master = master;
+		this.rotationPeriod = rotationPeriod;
+	}
+
+	public static RotatingKeySet of(String secret, long rotationPeriod) {
+		return new RotatingKeySet(HmacSigner.of(secret), rotationPeriod);
+	}
+
+	/**
+	 * @return the id of the key used for signing at the given time
+	 */
+	public int currentKid(long now) {
+		return (int) (now / rotationPeriod) & KID_MASK;
+	}
+
+	/**
+	 * @return the signer used for signing at the given time
+	 */
+	public HmacSigner current(long now) {
+		return signer(now / rotationPeriod);
+	}
+
+	/**
+	 * Look up the signer of the most recent period with the given key id.
+	 * @param kid the key id carried by the signed data
+	 * @param now the current time in milliseconds
+	 * @return the signer
+	 */
+	public HmacSigner forKid(int kid, long now) {
+		long current = now / rotationPeriod;
+		return signer(current - ((current - kid) & KID_MASK));
+	}
+
+	public long getRotationPeriod() {
+		return rotationPeriod;
+	}
+
+	private HmacSigner signer(long period) {
+		int kid = (int) period & KID_MASK;
+		PeriodKey key = keys.get(kid);
+		if (key == null || key.period != period) {
+			byte[] secret = master.sign(KEY_DOMAIN, ByteBuffer.allocate(8).putLong(period).array());
+			key = new PeriodKey(period, new HmacSigner(secret, master.getAlgorithm()));
+			keys.set(kid, key);
+		}
+		return key.signer;
+	}
+
+	private static final class PeriodKey {
+
+		private final long period;
+		private final HmacSigner signer;
+
+		PeriodKey(long period, HmacSigner signer) {
+			this.period = period;
+			this.signer = signer;
+		}
+
+	}
+
+}
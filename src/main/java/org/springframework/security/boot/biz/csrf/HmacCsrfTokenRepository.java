@@ -0,0 +1,208 @@
+/*
+ * Copyright (c) 2018, vindell (https://github.com/vindell).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.springframework.security.boot.biz.csrf;
+
+import java.nio.ByteBuffer;
+import java.util.Base64;
+import java.util.concurrent.ThreadLocalRandom;
+
+import javax.servlet.http.Cookie;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.security.boot.biz.crypto.HmacSigner;
+import org.springframework.security.boot.utils.StringUtils;
+import org.springframework.security.web.csrf.CsrfToken;
+import org.springframework.security.web.csrf.CsrfTokenRepository;
+import org.springframework.security.web.csrf.DefaultCsrfToken;
+import org.springframework.util.Assert;
+import org.springframework.web.util.WebUtils;
+
+/**
+ * 无状态的双重提交 CSRF 令牌仓库：令牌为 随机数(12)|时间片(4)|签名(16) 的 base64url 编码，
+ * 保存在可被脚本读取的 Cookie 中，请求时由客户端在请求头或参数中回传。
+ * <p>
+ * 读取 Cookie 时用常量时间的 HMAC 校验确认令牌由服务端签发且未过期，不访问会话；
+ * 随机数由 {@link ThreadLocalRandom} 生成，令牌不可伪造依赖的是签名密钥，不需要竞争 {@code SecureRandom}。
+ * 新令牌延迟生成，只有页面实际读取令牌时才计算并写入 Cookie。
+ * </p>
+ * @author ： <a href="https://github.com/vindell">wandl</a>
+ */
+public class HmacCsrfTokenRepository implements CsrfTokenRepository {
+
+	public static final String DEFAULT_CSRF_COOKIE_NAME = "XSRF-TOKEN";
+	public static final String DEFAULT_CSRF_PARAMETER_NAME = "_csrf";
+	public static final String DEFAULT_CSRF_HEADER_NAME = "X-XSRF-TOKEN";
+	public static final long DEFAULT_TIME_SLICE = 60 * 60 * 1000L;
+	public static final long DEFAULT_TIMEOUT = 12 * 60 * 60 * 1000L;
+
+	private static final int NONCE_LENGTH = 12;
+	private static final int TAG_LENGTH = 16;
+	private static final int TOKEN_LENGTH = NONCE_LENGTH + 4 + TAG_LENGTH;
+	private static final byte[] DOMAIN = { 'c' };
+
+	private final HmacSigner signer;
+	private String cookieName = DEFAULT_CSRF_COOKIE_NAME;
+	private String parameterName = DEFAULT_CSRF_PARAMETER_NAME;
+	private String headerName = DEFAULT_CSRF_HEADER_NAME;
+	private long timeSlice = DEFAULT_TIME_SLICE;
+	private long timeout = DEFAULT_TIMEOUT;
+	private boolean cookieHttpOnly = false;
+
+	public HmacCsrfTokenRepository(HmacSigner signer) {
+		Assert.notNull(signer, "signer must not be null");
+		Assert.isTrue(signer.getMacLength() >= TAG_LENGTH, "mac is too short");
+		this.signer = signer;
+	}
+
+	@Override
+	public CsrfToken generateToken(HttpServletRequest request) {
+		return new LazyCsrfToken(this);
+	}
+
+	@Override
+	public void saveToken(CsrfToken token, HttpServletRequest request, HttpServletResponse response) {
+		if (token == null) {
+			if (WebUtils.getCookie(request, cookieName) != null) {
+				writeCookie(request, response, "", 0);
+			}
+			return;
+		}
+		if (token instanceof LazyCsrfToken) {
+			// 令牌被读取时再写入 Cookie
+			((LazyCsrfToken) token).bind(request, response);
+			return;
+		}
+		writeCookie(request, response, token.getToken(), -1);
+	}
+
+	@Override
+	public CsrfToken loadToken(HttpServletRequest request) {
+		Cookie cookie = WebUtils.getCookie(request, cookieName);
+		if (cookie == null || !StringUtils.hasText(cookie.getValue())) {
+			return null;
+		}
+		String value = cookie.getValue();
+		return isValid(value) ? new DefaultCsrfToken(headerName, parameterName, value) : null;
+	}
+
+	/**
+	 * Check the signature and age of a token in constant time.
+	 */
+	public boolean isValid(String value) {
+		byte[] data;
+		try {
+			data = Base64.getUrlDecoder().decode(value);
+		} catch (IllegalArgumentException e) {
+			return false;
+		}
+		if (data.length != TOKEN_LENGTH) {
+			return false;
+		}
+		// 令牌只保存时间片的低 32 位，按回绕差值计算年龄，来自未来的令牌年龄为负
+		int age = (int) currentSlice() - ByteBuffer.wrap(data, NONCE_LENGTH, 4).getInt();
+		if (age < 0 || (long) age * timeSlice >= timeout) {
+			return false;
+		}
+		return HmacSigner.isEqual(tag(data), 0, data, NONCE_LENGTH + 4, TAG_LENGTH);
+	}
+
+	private byte[] tag(byte[] data) {
+		byte[] signed = new byte[DOMAIN.length + NONCE_LENGTH + 4];
+		System.arraycopy(DOMAIN, 0, signed, 0, DOMAIN.length);
+		System.arraycopy(data, 0, signed, DOMAIN.length, NONCE_LENGTH + 4);
+		return signer.sign(signed, 0, signed.length);
+	}
+
+	String createTokenValue() {
+		byte[] data = new byte[TOKEN_LENGTH];
+		ThreadLocalRandom random = ThreadLocalRandom.current();
+		for (int i = 0; i < NONCE_LENGTH; i += 4) {
+			int r = random.nextInt();
+			data[i] = (byte) r;
+			data[i + 1] = (byte) (r >>> 8);
+			data[i + 2] = (byte) (r >>> 16);
+			data[i + 3] = (byte) (r >>> 24);
+		}
+		ByteBuffer.wrap(data, NONCE_LENGTH, 4).putInt((int) currentSlice());
+		System.arraycopy(tag(data), 0, data, NONCE_LENGTH + 4, TAG_LENGTH);
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(data);
+	}
+
+	private long currentSlice() {
+		return System.currentTimeMillis() / timeSlice;
+	}
+
+	void writeCookie(HttpServletRequest request, HttpServletResponse response, String value, int maxAge) {
+		Cookie cookie = new Cookie(cookieName, value);
+		cookie.setPath(StringUtils.hasText(request.getContextPath()) ? request.getContextPath() : "/");
+		cookie.setHttpOnly(cookieHttpOnly);
+		cookie.setSecure(request.isSecure());
+		cookie.setMaxAge(maxAge);
+		response.addCookie(cookie);
+	}
+
+	public String getCookieName() {
+		return cookieName;
+	}
+
+	public void setCookieName(String cookieName) {
+		Assert.hasText(cookieName, "cookieName must not be empty");
+		this.cookieName = cookieName;
+	}
+
+	public String getParameterName() {
+		return parameterName;
+	}
+
+	public void setParameterName(String parameterName) {
+		Assert.hasText(parameterName, "parameterName must not be empty");
+		this.parameterName = parameterName;
+	}
+
+	public String getHeaderName() {
+		return headerName;
+	}
+
+	public void setHeaderName(String headerName) {
+		Assert.hasText(headerName, "headerName must not be empty");
+		this.headerName = headerName;
+	}
+
+	/**
+	 * @param timeSlice the granularity of the issue time carried by the token, in milliseconds
+	 */
+	public void setTimeSlice(long timeSlice) {
+		Assert.isTrue(timeSlice > 0, "timeSlice must be positive");
+		this.timeSlice = timeSlice;
+	}
+
+	/**
+	 * @param timeout how long a token is accepted after it was issued, in milliseconds
+	 */
+	public void setTimeout(long timeout) {
+		Assert.isTrue(timeout > 0, "timeout must be positive");
+		this.timeout = timeout;
+	}
+
+	/**
+	 * Defaults to <code>false</code> so that scripts can read the token and send it back in a header.
+	 */
+	public void setCookieHttpOnly(boolean cookieHttpOnly) {
+		this.cookieHttpOnly = cookieHttpOnly;
+	}
+
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright (c) 2018, vindell (https://github.com/vindell).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.springframework.security.boot.biz.csrf;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.security.web.csrf.CsrfToken;
+
+/**
+ * 延迟生成的 CSRF 令牌：第一次调用 {@link #getToken()} 时才计算令牌并写入 Cookie，
+ * 不读取令牌的请求（如接口调用、静态页面）不会产生新的令牌和 Cookie。
+ * @author ： <a href="https://github.com/vindell">wandl</a>
+ */
+@SuppressWarnings("serial")
+final class LazyCsrfToken implements CsrfToken {
+
+	private final transient HmacCsrfTokenRepository repository;
+	private final String headerName;
+	private final String parameterName;
+	private transient HttpServletRequest request;
+	private transient HttpServletResponse response;
+	private volatile String token;
+
+	LazyCsrfToken(HmacCsrfTokenRepository repository) {
+		this.repository = repository;
+		this.headerName = repository.getHeaderName();
+		this.parameterName = repository.getParameterName();
+	}
+
+	synchronized void bind(HttpServletRequest request, HttpServletResponse response) {
+		this.request = request;
+		this.response = response;
+		if (token != null) {
+			repository.writeCookie(request, response, token, -1);
+		}
+	}
+
+	@Override
+	public String getHeaderName() {
+		return headerName;
+	}
+
+	@Override
+	public String getParameterName() {
+		return parameterName;
+	}
+
+	@Override
+	public String getToken() {
+		String value = token;
+		if (value == null) {
+			synchronized (this) {
+				value = token;
+				if (value == null) {
+					value = repository.createTokenValue();
+					if (response != null && !response.isCommitted()) {
+						repository.writeCookie(request, response, value, -1);
+					}
+					token = value;
+				}
+			}
+		}
+		return value;
+	}
+
+	@Override
+	public String toString() {
+		return "LazyCsrfToken[" + headerName + "]";
+	}
+
+}
@@ -0,0 +1,31 @@
+package org.springframework.security.boot.biz.exception;
+
+import org.springframework.security.core.AuthenticationException;
+
+@SuppressWarnings("serial")
+public class AuthTokenRevokedException extends AuthenticationException {
+
+	// ~ Constructors
+	// ===================================================================================================
+
+	/**
+	 * Constructs an <code>AuthTokenRevokedException</code> with the specified
+	 * message.
+	 *
+	 * @param msg the detail message
+	 */
+	public AuthTokenRevokedException(String msg) {
+		super(msg);
+	}
+
+	/**
+	 * Constructs an <code>AuthTokenRevokedException</code> with the specified
+	 * message and root cause.
+	 *
+	 * @param msg the detail message
+	 * @param t   root cause
+	 */
+	public AuthTokenRevokedException(String msg, Throwable t) {
+		super(msg, t);
+	}
+}
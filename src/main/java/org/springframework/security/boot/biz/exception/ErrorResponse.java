@@ -3,6 +3,9 @@ package org.springframework.security.boot.biz.exception;
 import java.util.Date;
 
 import org.springframework.http.HttpStatus;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
 
 /**
  * Error model for interacting with client.
@@ -35,6 +38,30 @@ public class ErrorResponse {
         return new ErrorResponse(message, code, status);
     }
 
+    /**
+     * The error reported to the client for a failed login, shared by the servlet and reactive handlers.
+     */
+    public static ErrorResponse of(final AuthenticationException e) {
+        if (e instanceof UsernameNotFoundException || e instanceof BadCredentialsException) {
+            return of("Invalid username or password", ErrorCode.AUTHENTICATION, HttpStatus.UNAUTHORIZED);
+        } else if (e instanceof AuthenticationCaptchaNotFoundException || e instanceof AuthenticationCaptchaIncorrectException) {
+            return of(e.getMessage(), ErrorCode.CAPTCHA, HttpStatus.UNAUTHORIZED);
+        } else if (e instanceof AuthTokenIncorrectException) {
+            return of("Token was incorrect", ErrorCode.TOKEN, HttpStatus.UNAUTHORIZED);
+        } else if (e instanceof AuthTokenExpiredException) {
+            return of("Token has expired", ErrorCode.TOKEN, HttpStatus.UNAUTHORIZED);
+        } else if (e instanceof AuthTokenRevokedException) {
+            return of("Token has been revoked", ErrorCode.TOKEN, HttpStatus.UNAUTHORIZED);
+        } else if (e instanceof AuthMethodNotSupportedException) {
+            return of(e.getMessage(), ErrorCode.AUTHENTICATION, HttpStatus.METHOD_NOT_ALLOWED);
+        } else if (e instanceof AuthenticationTimeoutException) {
+            return of("Authentication timed out", ErrorCode.AUTHENTICATION, HttpStatus.SERVICE_UNAVAILABLE);
+        } else if (e instanceof AuthenticationRejectedException) {
+            return of("Too many concurrent login attempts", ErrorCode.AUTHENTICATION, HttpStatus.SERVICE_UNAVAILABLE);
+        }
+        return of("Authentication failed", ErrorCode.AUTHENTICATION, HttpStatus.UNAUTHORIZED);
+    }
+
     public Integer getStatus() {
         return status.value();
     }
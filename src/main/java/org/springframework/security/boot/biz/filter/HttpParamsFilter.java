@@ -27,12 +27,35 @@ import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import javax.servlet.http.HttpSession;
 
-import org.springframework.web.util.WebUtils;
+import org.springframework.security.boot.biz.authentication.NeteaseUrlAuthenticationSuccessHandler;
+import org.springframework.security.boot.biz.authentication.PostRequestAuthenticationEntryPoint;
+import org.springframework.security.boot.biz.authentication.RequestedUrlCookieRepository;
 
 // http://blog.csdn.net/jaune161/article/details/78060780
 
+/**
+ * 记录每个请求的访问地址，供 {@link NeteaseUrlAuthenticationSuccessHandler} 登录成功后跳转。
+ * <p>
+ * 无参构造保持原有行为，将地址写入会话（每个请求都会创建会话）；传入 {@link RequestedUrlCookieRepository}
+ * 时改为写入签名 Cookie，此时应与成功处理器共用同一个实例（如 {@code upcRequestedUrlRepository}），
+ * 否则签名密钥不同，写入的 Cookie 无法被读取。
+ * </p>
+ * @deprecated 由 {@link PostRequestAuthenticationEntryPoint} 在重定向到登录页时通过
+ *             {@link RequestedUrlCookieRepository} 记录访问地址，不再需要逐个请求记录
+ */
+@Deprecated
 public class HttpParamsFilter implements Filter {
-    public static String REQUESTED_URL = "CasRequestedUrl";
+    public static String REQUESTED_URL = NeteaseUrlAuthenticationSuccessHandler.REQUESTED_URL_ATTRIBUTE;
+
+    private final RequestedUrlCookieRepository requestedUrlRepository;
+
+    public HttpParamsFilter() {
+        this(null);
+    }
+
+    public HttpParamsFilter(RequestedUrlCookieRepository requestedUrlRepository) {
+        this.requestedUrlRepository = requestedUrlRepository;
+    }
 
     @Override
     public void init(FilterConfig filterConfig) throws ServletException {
@@ -44,11 +67,14 @@ public class HttpParamsFilter implements Filter {
             throws IOException, ServletException {
         final HttpServletRequest request = (HttpServletRequest) servletRequest;
         final HttpServletResponse response = (HttpServletResponse) servletResponse;
-        HttpSession session = request.getSession();
-
-        String requestPath = request.getPathInfo();
 
-        session.setAttribute(REQUESTED_URL, requestPath);
+        if (requestedUrlRepository != null) {
+            requestedUrlRepository.saveRequestedUrl(request, response);
+        } else {
+            HttpSession session = request.getSession();
+            String requestPath = request.getPathInfo();
+            session.setAttribute(REQUESTED_URL, requestPath);
+        }
 
         chain.doFilter(request, response);
     }
@@ -57,4 +83,4 @@ public class HttpParamsFilter implements Filter {
     public void destroy() {
 
     }
-}
\ No newline at end of file
+}
\ No newline at end of file
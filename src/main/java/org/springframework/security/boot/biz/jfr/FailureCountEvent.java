@@ -0,0 +1,57 @@
+/*
+ * Copyright (c) 2018, vindell (https://github.com/vindell).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.springframework.security.boot.biz.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * 登录失败计数器被读取或累加时提交的事件
+ * @author ： <a href="https://github.com/vindell">wandl</a>
+ */
+@Name("org.springframework.security.FailureCount")
+@Label("Login Failure Count")
+@Description("The login failure counter has been read or incremented")
+@Category({ "Spring Security", "Authentication" })
+@Enabled(false)
+@StackTrace(false)
+class FailureCountEvent extends Event {
+
+	@Label("Counter")
+	String counter;
+
+	@Label("Operation")
+	String operation;
+
+	@Label("Retry Times")
+	long retryTimes;
+
+	static void emit(Object counter, String operation, long retryTimes) {
+		FailureCountEvent event = new FailureCountEvent();
+		if (event.shouldCommit()) {
+			event.counter = counter.getClass().getSimpleName();
+			event.operation = operation;
+			event.retryTimes = retryTimes;
+			event.commit();
+		}
+	}
+
+}
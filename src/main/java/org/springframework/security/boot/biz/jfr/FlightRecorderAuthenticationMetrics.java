@@ -0,0 +1,32 @@
+/*
+ * Copyright (c) 2018, vindell (https://github.com/vindell).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.springframework.security.boot.biz.jfr;
+
+import org.springframework.security.boot.biz.metrics.AuthenticationMetrics;
+import org.springframework.security.boot.biz.metrics.LoginStage;
+
+/**
+ * 把登录各阶段的耗时作为 Flight Recorder 事件提交的 {@link AuthenticationMetrics} 实现
+ * @author ： <a href="https://github.com/vindell">wandl</a>
+ */
+public class FlightRecorderAuthenticationMetrics implements AuthenticationMetrics {
+
+	@Override
+	public void record(LoginStage stage, boolean success, long nanos) {
+		SecurityFlightRecorder.loginStage(stage, success, nanos);
+	}
+
+}
@@ -0,0 +1,62 @@
+/*
+ * Copyright (c) 2018, vindell (https://github.com/vindell).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.springframework.security.boot.biz.jfr;
+
+import org.springframework.security.boot.biz.metrics.LoginStage;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * 登录的一个阶段结束时提交的事件，阶段耗时记录在 {@code stageTime} 字段中
+ * @author ： <a href="https://github.com/vindell">wandl</a>
+ */
+@Name("org.springframework.security.LoginStage")
+@Label("Login Stage")
+@Description("A stage of a form or JSON login has finished")
+@Category({ "Spring Security", "Authentication" })
+@Enabled(false)
+@StackTrace(false)
+class LoginStageEvent extends Event {
+
+	@Label("Stage")
+	String stage;
+
+	@Label("Success")
+	@Description("Whether the stage passed; for the handler stages, whether the login succeeded")
+	boolean success;
+
+	@Label("Stage Time")
+	@Timespan(Timespan.NANOSECONDS)
+	long stageTime;
+
+	static void emit(LoginStage stage, boolean success, long nanos) {
+		LoginStageEvent event = new LoginStageEvent();
+		if (event.shouldCommit()) {
+			event.stage = stage.getName();
+			event.success = success;
+			event.stageTime = nanos;
+			event.commit();
+		}
+	}
+
+}
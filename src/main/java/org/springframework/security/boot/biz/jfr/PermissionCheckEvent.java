@@ -0,0 +1,68 @@
+/*
+ * Copyright (c) 2018, vindell (https://github.com/vindell).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.springframework.security.boot.biz.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * {@code hasPermission} 表达式检查一个权限时提交的事件
+ * @author ： <a href="https://github.com/vindell">wandl</a>
+ */
+@Name("org.springframework.security.PermissionCheck")
+@Label("Permission Check")
+@Description("A permission has been checked against the authorities of the current user")
+@Category({ "Spring Security", "Authorization" })
+@Enabled(false)
+@StackTrace(false)
+class PermissionCheckEvent extends Event {
+
+	@Label("Permission")
+	String permission;
+
+	@Label("Granted")
+	boolean granted;
+
+	@Label("Authorities")
+	@Description("The number of authorities the user has")
+	int authorities;
+
+	@Label("Check Time")
+	@Timespan(Timespan.NANOSECONDS)
+	long checkTime;
+
+	static boolean enabled() {
+		return new PermissionCheckEvent().isEnabled();
+	}
+
+	static void emit(Object permission, boolean granted, int authorities, long nanos) {
+		PermissionCheckEvent event = new PermissionCheckEvent();
+		if (event.shouldCommit()) {
+			event.permission = String.valueOf(permission);
+			event.granted = granted;
+			event.authorities = authorities;
+			event.checkTime = nanos;
+			event.commit();
+		}
+	}
+
+}
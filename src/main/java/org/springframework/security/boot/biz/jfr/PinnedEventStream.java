@@ -0,0 +1,73 @@
+/*
+ * Copyright (c) 2018, vindell (https://github.com/vindell).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.springframework.security.boot.biz.jfr;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordedThread;
+import jdk.jfr.consumer.RecordingStream;
+
+/**
+ * {@code jdk.VirtualThreadPinned} 事件流，只在 {@link VirtualThreadPinningMonitor#isSupported()} 时才会被加载
+ * @author ： <a href="https://github.com/vindell">wandl</a>
+ */
+final class PinnedEventStream {
+
+	private static final String EVENT = "jdk.VirtualThreadPinned";
+	private static final int MAX_FRAMES = 16;
+
+	private PinnedEventStream() {
+	}
+
+	static AutoCloseable start(VirtualThreadPinningMonitor monitor, long threshold) {
+		RecordingStream stream = new RecordingStream();
+		stream.enable(EVENT).withThreshold(Duration.ofMillis(threshold)).withStackTrace();
+		stream.onEvent(EVENT, event -> monitor.onPinned(threadName(event), event.getDuration().toNanos(), frames(event)));
+		stream.startAsync();
+		return stream;
+	}
+
+	private static String threadName(RecordedEvent event) {
+		RecordedThread thread = event.getThread();
+		if (thread == null) {
+			return "unknown";
+		}
+		return thread.getJavaName() != null ? thread.getJavaName() : "#" + thread.getJavaThreadId();
+	}
+
+	private static List<String> frames(RecordedEvent event) {
+		RecordedStackTrace stackTrace = event.getStackTrace();
+		if (stackTrace == null) {
+			return Collections.emptyList();
+		}
+		List<String> frames = new ArrayList<String>();
+		for (RecordedFrame frame : stackTrace.getFrames()) {
+			if (frames.size() == MAX_FRAMES) {
+				break;
+			}
+			frames.add(frame.getMethod().getType().getName() + "." + frame.getMethod().getName()
+					+ (frame.getLineNumber() > 0 ? ":" + frame.getLineNumber() : ""));
+		}
+		return frames;
+	}
+
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright (c) 2018, vindell (https://github.com/vindell).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.springframework.security.boot.biz.jfr;
+
+import org.springframework.security.boot.biz.metrics.LoginStage;
+import org.springframework.util.ClassUtils;
+
+/**
+ * JDK Flight Recorder 事件的入口。
+ * <p>
+ * 本类不引用 {@code jdk.jfr} 的类型，运行在没有 JFR 的 JDK 上时各方法什么也不做；
+ * 事件类只在 JFR 可用时才会被加载。所有事件默认关闭，需要在录制配置中启用，
+ * 例如 {@code jcmd <pid> JFR.start settings=profile +org.springframework.security.PermissionCheck#enabled=true}，
+ * 关闭时每次调用的开销只是一次是否启用的判断。
+ * </p>
+ * @author ： <a href="https://github.com/vindell">wandl</a>
+ */
+public final class SecurityFlightRecorder {
+
+	private static final boolean AVAILABLE = ClassUtils.isPresent("jdk.jfr.Event",
+			SecurityFlightRecorder.class.getClassLoader());
+
+	private SecurityFlightRecorder() {
+	}
+
+	/**
+	 * @return whether this JVM supports Flight Recorder events
+	 */
+	public static boolean isAvailable() {
+		return AVAILABLE;
+	}
+
+	public static void loginStage(LoginStage stage, boolean success, long nanos) {
+		if (AVAILABLE) {
+			LoginStageEvent.emit(stage, success, nanos);
+		}
+	}
+
+	/**
+	 * @return whether permission checks are being recorded, callers only need to time
+	 *         the check when this is true
+	 */
+	public static boolean isPermissionCheckEnabled() {
+		return AVAILABLE && PermissionCheckEvent.enabled();
+	}
+
+	public static void permissionCheck(Object permission, boolean granted, int authorities, long nanos) {
+		if (AVAILABLE) {
+			PermissionCheckEvent.emit(permission, granted, authorities, nanos);
+		}
+	}
+
+	public static void failureCount(Object counter, String operation, long retryTimes) {
+		if (AVAILABLE) {
+			FailureCountEvent.emit(counter, operation, retryTimes);
+		}
+	}
+
+}
@@ -0,0 +1,187 @@
+/*
+ * Copyright (c) 2018, vindell (https://github.com/vindell).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.springframework.security.boot.biz.jfr;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.security.boot.biz.concurrent.VirtualThreadExecutorFactory;
+import org.springframework.util.Assert;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.StringUtils;
+
+/**
+ * 报告被固定（pinned）在载体线程上的虚拟线程。
+ * <p>
+ * 虚拟线程在 {@code synchronized} 块或本地方法中阻塞时无法让出载体线程，阻塞的用户查询（例如持有监视器锁的 JDBC 驱动）
+ * 会让虚拟线程退化为占用平台线程，甚至耗尽载体线程池。本类订阅 JDK 的 {@code jdk.VirtualThreadPinned} 事件流，
+ * 按第一个非 JDK 栈帧统计固定位置，每个位置第一次出现时输出完整栈，之后只计数。
+ * 需要 JDK 21 及以上版本，在旧版本 JDK 上什么也不做。
+ * </p>
+ * @author ： <a href="https://github.com/vindell">wandl</a>
+ */
+public class VirtualThreadPinningMonitor implements InitializingBean, DisposableBean {
+
+	public static final long DEFAULT_THRESHOLD = 20L;
+
+	private static final int MAX_SITES = 256;
+
+	private static final boolean SUPPORTED = VirtualThreadExecutorFactory.isSupported()
+			&& ClassUtils.isPresent("jdk.jfr.consumer.RecordingStream", VirtualThreadPinningMonitor.class.getClassLoader());
+
+	protected final Logger logger = LoggerFactory.getLogger(getClass());
+
+	private final long threshold;
+	private final LongAdder pinned = new LongAdder();
+	private final LongAdder pinnedNanos = new LongAdder();
+	private final ConcurrentMap<String, LongAdder> sites = new ConcurrentHashMap<String, LongAdder>();
+	private boolean enabled = true;
+	private volatile AutoCloseable stream;
+
+	public VirtualThreadPinningMonitor() {
+		this(DEFAULT_THRESHOLD);
+	}
+
+	/**
+	 * @param threshold how long a virtual thread must stay pinned before it is reported, in milliseconds
+	 */
+	public VirtualThreadPinningMonitor(long threshold) {
+		Assert.isTrue(threshold >= 0, "threshold must not be negative");
+		this.threshold = threshold;
+	}
+
+	/**
+	 * @return whether this JVM has virtual threads and can stream Flight Recorder events
+	 */
+	public static boolean isSupported() {
+		return SUPPORTED;
+	}
+
+	@Override
+	public void afterPropertiesSet() {
+		if (!enabled || stream != null) {
+			return;
+		}
+		if (!SUPPORTED) {
+			if (logger.isDebugEnabled()) {
+				logger.debug("Virtual thread pinning diagnostics require JDK 21 or later");
+			}
+			return;
+		}
+		stream = PinnedEventStream.start(this, threshold);
+		logger.info("Reporting virtual threads pinned for more than " + threshold + " ms");
+	}
+
+	@Override
+	public void destroy() throws Exception {
+		AutoCloseable stream = this.stream;
+		this.stream = null;
+		if (stream != null) {
+			stream.close();
+		}
+	}
+
+	/**
+	 * Called for every pinned event.
+	 * @param thread the name of the pinned virtual thread
+	 * @param nanos how long the thread was pinned
+	 * @param frames the stack of the thread, innermost frame first
+	 */
+	void onPinned(String thread, long nanos, List<String> frames) {
+		pinned.increment();
+		pinnedNanos.add(nanos);
+		String site = site(frames);
+		LongAdder count = sites.get(site);
+		boolean first = false;
+		if (count == null && sites.size() < MAX_SITES) {
+			LongAdder created = new LongAdder();
+			count = sites.putIfAbsent(site, created);
+			if (count == null) {
+				count = created;
+				first = true;
+			}
+		}
+		if (count != null) {
+			count.increment();
+		}
+		if (first) {
+			logger.warn("Virtual thread " + thread + " was pinned to its carrier thread for "
+					+ TimeUnit.NANOSECONDS.toMillis(nanos) + " ms, further pinning at " + site
+					+ " is only counted:\n\tat " + StringUtils.collectionToDelimitedString(frames, "\n\tat "));
+		} else if (logger.isDebugEnabled()) {
+			logger.debug("Virtual thread " + thread + " was pinned to its carrier thread for "
+					+ TimeUnit.NANOSECONDS.toMillis(nanos) + " ms at " + site);
+		}
+	}
+
+	private static String site(List<String> frames) {
+		for (String frame : frames) {
+			if (!frame.startsWith("java.") && !frame.startsWith("jdk.") && !frame.startsWith("sun.")) {
+				return frame;
+			}
+		}
+		return frames.isEmpty() ? "unknown" : frames.get(0);
+	}
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	/**
+	 * @param enabled whether the monitor starts, e.g. only when blocking stages run on virtual threads
+	 */
+	public void setEnabled(boolean enabled) {
+		this.enabled = enabled;
+	}
+
+	public long getThreshold() {
+		return threshold;
+	}
+
+	/** @return whether pinned events are being streamed */
+	public boolean isRunning() {
+		return stream != null;
+	}
+
+	/** @return the number of pinned events */
+	public long getPinned() {
+		return pinned.sum();
+	}
+
+	/** @return the total time virtual threads were pinned, in nanoseconds */
+	public long getPinnedNanos() {
+		return pinnedNanos.sum();
+	}
+
+	/** @return the number of pinned events per site, at most 256 sites are tracked */
+	public Map<String, Long> getPinnedSites() {
+		Map<String, Long> counts = new HashMap<String, Long>();
+		for (Map.Entry<String, LongAdder> entry : sites.entrySet()) {
+			counts.put(entry.getKey(), entry.getValue().sum());
+		}
+		return counts;
+	}
+
+}
@@ -0,0 +1,60 @@
+/*
+ * Copyright (c) 2018, vindell (https://github.com/vindell).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.springframework.security.boot.biz.metrics;
+
+/**
+ * 登录各阶段耗时的记录接口。调用方在阶段前后各取一次 {@link System#nanoTime()}，
+ * 实现类决定如何汇总，默认的 {@link #NOOP} 不做任何事。
+ * @author ： <a href="https://github.com/vindell">wandl</a>
+ */
+public interface AuthenticationMetrics {
+
+	AuthenticationMetrics NOOP = (stage, success, nanos) -> {
+	};
+
+	/**
+	 * Record one execution of a stage.
+	 * @param stage the stage
+	 * @param success whether the stage passed, a failed stage ends the login; for the
+	 *        handler stages, whether the login succeeded
+	 * @param nanos the elapsed time in nanoseconds
+	 */
+	void record(LoginStage stage, boolean success, long nanos);
+
+	/**
+	 * Record a stage started at {@code startNanos}.
+	 */
+	default void recordSince(LoginStage stage, boolean success, long startNanos) {
+		record(stage, success, System.nanoTime() - startNanos);
+	}
+
+	/**
+	 * @return metrics recording to this and then to {@code after}
+	 */
+	default AuthenticationMetrics andThen(AuthenticationMetrics after) {
+		if (this == NOOP) {
+			return after;
+		}
+		if (after == NOOP) {
+			return this;
+		}
+		return (stage, success, nanos) -> {
+			record(stage, success, nanos);
+			after.record(stage, success, nanos);
+		};
+	}
+
+}
@@ -0,0 +1,59 @@
+/*
+ * Copyright (c) 2018, vindell (https://github.com/vindell).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.springframework.security.boot.biz.metrics;
+
+import java.util.concurrent.TimeUnit;
+
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * 将登录各阶段的直方图注册为 Micrometer 指标：{@code security.login.stage}（计数和总耗时）
+ * 和 {@code security.login.stage.max}，以 {@code stage} 和 {@code outcome} 为标签。
+ * 指标直接读取直方图，不重复记录。
+ * @author ： <a href="https://github.com/vindell">wandl</a>
+ */
+public class AuthenticationMetricsBinder implements MeterBinder {
+
+	private final HistogramAuthenticationMetrics metrics;
+
+	public AuthenticationMetricsBinder(HistogramAuthenticationMetrics metrics) {
+		this.metrics = metrics;
+	}
+
+	@Override
+	public void bindTo(MeterRegistry registry) {
+		for (LoginStage stage : LoginStage.values()) {
+			for (boolean success : new boolean[] { true, false }) {
+				LatencyHistogram histogram = metrics.getHistogram(stage, success);
+				String outcome = HistogramAuthenticationMetrics.outcome(success);
+				FunctionTimer.builder("security.login.stage", histogram, LatencyHistogram::getCount,
+						LatencyHistogram::getTotalNanos, TimeUnit.NANOSECONDS)
+						.description("Time spent in a stage of the login")
+						.tags("stage", stage.getName(), "outcome", outcome)
+						.register(registry);
+				TimeGauge.builder("security.login.stage.max", histogram, TimeUnit.NANOSECONDS,
+						LatencyHistogram::getMaxNanos)
+						.description("Longest time spent in a stage of the login")
+						.tags("stage", stage.getName(), "outcome", outcome)
+						.register(registry);
+			}
+		}
+	}
+
+}
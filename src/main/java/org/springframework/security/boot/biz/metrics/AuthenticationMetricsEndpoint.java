@@ -0,0 +1,41 @@
+/*
+ * Copyright (c) 2018, vindell (https://github.com/vindell).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.springframework.security.boot.biz.metrics;
+
+import java.util.Map;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+
+/**
+ * 登录各阶段耗时的 actuator 端点：{@code /actuator/loginmetrics}
+ * @author ： <a href="https://github.com/vindell">wandl</a>
+ */
+@Endpoint(id = "loginmetrics")
+public class AuthenticationMetricsEndpoint {
+
+	private final HistogramAuthenticationMetrics metrics;
+
+	public AuthenticationMetricsEndpoint(HistogramAuthenticationMetrics metrics) {
+		this.metrics = metrics;
+	}
+
+	@ReadOperation
+	public Map<String, Map<String, Map<String, Object>>> stages() {
+		return metrics.summary();
+	}
+
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright (c) 2018, vindell (https://github.com/vindell).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.springframework.security.boot.biz.metrics;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 每个阶段、每种结果一个 {@link LatencyHistogram} 的 {@link AuthenticationMetrics} 实现
+ * @author ： <a href="https://github.com/vindell">wandl</a>
+ */
+public class HistogramAuthenticationMetrics implements AuthenticationMetrics {
+
+	private final LatencyHistogram[] histograms = new LatencyHistogram[LoginStage.values().length * 2];
+
+	public HistogramAuthenticationMetrics() {
+		for (int i = 0; i < histograms.length; i++) {
+			histograms[i] = new LatencyHistogram();
+		}
+	}
+
+	@Override
+	public void record(LoginStage stage, boolean success, long nanos) {
+		getHistogram(stage, success).record(nanos);
+	}
+
+	public LatencyHistogram getHistogram(LoginStage stage, boolean success) {
+		return histograms[stage.ordinal() * 2 + (success ? 0 : 1)];
+	}
+
+	/**
+	 * @return &lt;stage, &lt;outcome, summary&gt;&gt; of the stages which have been recorded
+	 */
+	public Map<String, Map<String, Map<String, Object>>> summary() {
+		Map<String, Map<String, Map<String, Object>>> summary = new LinkedHashMap<String, Map<String, Map<String, Object>>>();
+		for (LoginStage stage : LoginStage.values()) {
+			Map<String, Map<String, Object>> outcomes = new LinkedHashMap<String, Map<String, Object>>();
+			for (boolean success : new boolean[] { true, false }) {
+				LatencyHistogram histogram = getHistogram(stage, success);
+				if (histogram.getCount() > 0) {
+					outcomes.put(outcome(success), summary(histogram));
+				}
+			}
+			if (!outcomes.isEmpty()) {
+				summary.put(stage.getName(), outcomes);
+			}
+		}
+		return summary;
+	}
+
+	private static Map<String, Object> summary(LatencyHistogram histogram) {
+		Map<String, Object> summary = new LinkedHashMap<String, Object>();
+		summary.put("count", histogram.getCount());
+		summary.put("meanMicros", histogram.getMeanNanos() / 1000);
+		summary.put("p50Micros", histogram.getQuantileNanos(0.5) / 1000.0);
+		summary.put("p90Micros", histogram.getQuantileNanos(0.9) / 1000.0);
+		summary.put("p99Micros", histogram.getQuantileNanos(0.99) / 1000.0);
+		summary.put("maxMicros", histogram.getMaxNanos() / 1000.0);
+		return summary;
+	}
+
+	public static String outcome(boolean success) {
+		return success ? "success" : "failure";
+	}
+
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright (c) 2018, vindell (https://github.com/vindell).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.springframework.security.boot.biz.metrics;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 以 2 的幂为桶边界的耗时直方图，记录只需几次 {@link LongAdder} 累加，不加锁、不分配对象。
+ * 分位数按桶的上界估算，误差在一倍以内，足以区分微秒级和毫秒级的阶段。
+ * @author ： <a href="https://github.com/vindell">wandl</a>
+ */
+public class LatencyHistogram {
+
+	private static final int BUCKETS = 64;
+
+	private final LongAdder[] buckets = new LongAdder[BUCKETS];
+	private final LongAdder count = new LongAdder();
+	private final LongAdder totalNanos = new LongAdder();
+	private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+
+	public LatencyHistogram() {
+		for (int i = 0; i < BUCKETS; i++) {
+			buckets[i] = new LongAdder();
+		}
+	}
+
+	/**
+	 * @param nanos the elapsed time in nanoseconds, negative values count as zero
+	 */
+	public void record(long nanos) {
+		if (nanos < 0) {
+			nanos = 0;
+		}
+		buckets[BUCKETS - Long.numberOfLeadingZeros(nanos) - (nanos == 0 ? 0 : 1)].increment();
+		count.increment();
+		totalNanos.add(nanos);
+		maxNanos.accumulate(nanos);
+	}
+
+	public long getCount() {
+		return count.sum();
+	}
+
+	public long getTotalNanos() {
+		return totalNanos.sum();
+	}
+
+	public long getMaxNanos() {
+		return maxNanos.get();
+	}
+
+	public double getMeanNanos() {
+		long n = count.sum();
+		return n == 0 ? 0 : (double) totalNanos.sum() / n;
+	}
+
+	/**
+	 * @param quantile between 0 and 1
+	 * @return the upper bound of the bucket holding the quantile, in nanoseconds
+	 */
+	public long getQuantileNanos(double quantile) {
+		long[] counts = new long[BUCKETS];
+		long total = 0;
+		for (int i = 0; i < BUCKETS; i++) {
+			counts[i] = buckets[i].sum();
+			total += counts[i];
+		}
+		if (total == 0) {
+			return 0;
+		}
+		long rank = (long) Math.ceil(quantile * total);
+		long seen = 0;
+		for (int i = 0; i < BUCKETS; i++) {
+			seen += counts[i];
+			if (seen >= rank && counts[i] > 0) {
+				return Math.min(i >= 62 ? Long.MAX_VALUE : (1L << (i + 1)) - 1, getMaxNanos());
+			}
+		}
+		return getMaxNanos();
+	}
+
+}
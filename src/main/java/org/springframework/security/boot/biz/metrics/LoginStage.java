@@ -0,0 +1,51 @@
+/*
+ * Copyright (c) 2018, vindell (https://github.com/vindell).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.springframework.security.boot.biz.metrics;
+
+/**
+ * 登录流程的各个阶段
+ * @author ： <a href="https://github.com/vindell">wandl</a>
+ */
+public enum LoginStage {
+
+	/** the whole attemptAuthentication call */
+	ATTEMPT,
+	/** reading the username and password from the JSON body or the form parameters */
+	PARSE,
+	/** the retry limit and captcha checks */
+	CAPTCHA,
+	/** UserDetailsServiceAdapter#loadUserDetails */
+	USER_LOOKUP,
+	/** PasswordEncoder#matches */
+	PASSWORD_MATCH,
+	/** UserDetailsChecker#check */
+	USER_CHECK,
+	/** AuthenticationListener dispatch in the success and failure handlers */
+	LISTENERS,
+	/** SessionAuthenticationStrategy#onAuthentication */
+	SESSION_STRATEGY,
+	/** writing the JSON body or the redirect */
+	RESPONSE;
+
+	public String getName() {
+		return name().toLowerCase().replace('_', '-');
+	}
+
+	public boolean equals(LoginStage stage) {
+		return this.compareTo(stage) == 0;
+	}
+
+}
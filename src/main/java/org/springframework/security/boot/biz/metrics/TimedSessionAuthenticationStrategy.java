@@ -0,0 +1,59 @@
+/*
+ * Copyright (c) 2018, vindell (https://github.com/vindell).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.springframework.security.boot.biz.metrics;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.security.core.Authentication;
+import org.springframework.security.web.authentication.session.SessionAuthenticationException;
+import org.springframework.security.web.authentication.session.SessionAuthenticationStrategy;
+import org.springframework.util.Assert;
+
+/**
+ * 记录 {@link SessionAuthenticationStrategy} 耗时的包装
+ * @author ： <a href="https://github.com/vindell">wandl</a>
+ */
+public class TimedSessionAuthenticationStrategy implements SessionAuthenticationStrategy {
+
+	private final SessionAuthenticationStrategy delegate;
+	private final AuthenticationMetrics metrics;
+
+	public TimedSessionAuthenticationStrategy(SessionAuthenticationStrategy delegate, AuthenticationMetrics metrics) {
+		Assert.notNull(delegate, "delegate must not be null");
+		Assert.notNull(metrics, "metrics must not be null");
+		this.delegate = delegate;
+		this.metrics = metrics;
+	}
+
+	@Override
+	public void onAuthentication(Authentication authentication, HttpServletRequest request,
+			HttpServletResponse response) throws SessionAuthenticationException {
+		long start = System.nanoTime();
+		boolean success = false;
+		try {
+			delegate.onAuthentication(authentication, request, response);
+			success = true;
+		} finally {
+			metrics.recordSince(LoginStage.SESSION_STRATEGY, success, start);
+		}
+	}
+
+	public SessionAuthenticationStrategy getDelegate() {
+		return delegate;
+	}
+
+}
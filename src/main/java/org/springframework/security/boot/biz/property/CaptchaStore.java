@@ -0,0 +1,47 @@
+/*
+ * Copyright (c) 2018, vindell (https://github.com/vindell).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.springframework.security.boot.biz.property;
+
+/**
+ * Captcha Store
+ * @author ： <a href="https://github.com/vindell">wandl</a>
+ */
+public enum CaptchaStore {
+
+	/**
+	 * Captcha validation is disabled, every captcha is accepted.
+	 */
+	NONE,
+	/**
+	 * The captcha text is stored in the {@code HttpSession}.
+	 */
+	SESSION,
+	/**
+	 * The captcha answer is bound to an HMAC signed token carried by the client,
+	 * nothing is stored on the server except a fixed size replay filter.
+	 */
+	TOKEN,
+	/**
+	 * The captcha text is kept in a bounded in-memory store keyed by a random id
+	 * carried by the client, no session is created.
+	 */
+	MEMORY;
+
+	public boolean equals(CaptchaStore store) {
+		return this.compareTo(store) == 0;
+	}
+
+}
@@ -0,0 +1,41 @@
+/*
+ * Copyright (c) 2018, vindell (https://github.com/vindell).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.springframework.security.boot.biz.property;
+
+/**
+ * Executor Type
+ * @author ： <a href="https://github.com/vindell">wandl</a>
+ */
+public enum ExecutorType {
+
+	/**
+	 * Virtual threads when the JVM supports them (JDK 21 or later), platform threads otherwise.
+	 */
+	AUTO,
+	/**
+	 * Bounded pools of platform threads.
+	 */
+	PLATFORM,
+	/**
+	 * A virtual thread per task, startup fails when the JVM does not support them.
+	 */
+	VIRTUAL;
+
+	public boolean equals(ExecutorType type) {
+		return this.compareTo(type) == 0;
+	}
+
+}
@@ -0,0 +1,42 @@
+/*
+ * Copyright (c) 2018, vindell (https://github.com/vindell).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.springframework.security.boot.biz.property;
+
+/**
+ * Request Cache Store
+ * @author ： <a href="https://github.com/vindell">wandl</a>
+ */
+public enum RequestCacheStore {
+
+	/**
+	 * No request is saved, users are sent to the success url after login.
+	 */
+	NONE,
+	/**
+	 * The method and url of the request are kept in a small session attribute,
+	 * a session is only created when session creation is allowed.
+	 */
+	SESSION,
+	/**
+	 * The url of the request is kept in a signed short-lived cookie, no session is used.
+	 */
+	COOKIE;
+
+	public boolean equals(RequestCacheStore store) {
+		return this.compareTo(store) == 0;
+	}
+
+}
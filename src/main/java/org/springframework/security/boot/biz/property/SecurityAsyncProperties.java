@@ -0,0 +1,67 @@
+/*
+ * Copyright (c) 2018, vindell (https://github.com/vindell).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.springframework.security.boot.biz.property;
+
+import org.springframework.security.boot.biz.authentication.PostRequestAuthenticationProcessingFilter;
+
+/**
+ * Servlet 应用中异步登录的配置
+ * @author ： <a href="https://github.com/vindell">wandl</a>
+ */
+public class SecurityAsyncProperties {
+
+	/** whether login requests are put in async mode, running the user lookup and password match off the container threads */
+	private boolean enabled = false;
+	/** how long an asynchronous login may take before it fails, in milliseconds */
+	private long timeout = PostRequestAuthenticationProcessingFilter.DEFAULT_ASYNC_TIMEOUT;
+	/** the maximum number of logins verified at the same time, the pool size when platform threads are used */
+	private int threads = Runtime.getRuntime().availableProcessors();
+	/** how many logins may wait to be verified before new ones are rejected */
+	private int queueCapacity = 1024;
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	public void setEnabled(boolean enabled) {
+		this.enabled = enabled;
+	}
+
+	public long getTimeout() {
+		return timeout;
+	}
+
+	public void setTimeout(long timeout) {
+		this.timeout = timeout;
+	}
+
+	public int getThreads() {
+		return threads;
+	}
+
+	public void setThreads(int threads) {
+		this.threads = threads;
+	}
+
+	public int getQueueCapacity() {
+		return queueCapacity;
+	}
+
+	public void setQueueCapacity(int queueCapacity) {
+		this.queueCapacity = queueCapacity;
+	}
+
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright (c) 2018, vindell (https://github.com/vindell).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.springframework.security.boot.biz.property;
+
+import org.springframework.security.boot.biz.audit.AuditJournal;
+
+/**
+ * 登录审计日志的配置
+ * @author ： <a href="https://github.com/vindell">wandl</a>
+ */
+public class SecurityAuditProperties {
+
+	/** whether login outcomes are written to the memory-mapped audit journal */
+	private boolean enabled = false;
+	/** the directory of the journal segment files */
+	private String directory = "security-audit";
+	/** the size of each segment file in bytes */
+	private int segmentSize = AuditJournal.DEFAULT_SEGMENT_SIZE;
+	/** how many segment files are kept */
+	private int maxSegments = AuditJournal.DEFAULT_MAX_SEGMENTS;
+	/** how many events may wait for the writer thread before new ones are dropped */
+	private int queueCapacity = AuditJournal.DEFAULT_QUEUE_CAPACITY;
+	/** how often written records are forced to disk, in milliseconds */
+	private long forceInterval = AuditJournal.DEFAULT_FORCE_INTERVAL;
+	/** the salt prepended to usernames before they are hashed */
+	private String usernameSalt = "";
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	public void setEnabled(boolean enabled) {
+		this.enabled = enabled;
+	}
+
+	public String getDirectory() {
+		return directory;
+	}
+
+	public void setDirectory(String directory) {
+		this.directory = directory;
+	}
+
+	public int getSegmentSize() {
+		return segmentSize;
+	}
+
+	public void setSegmentSize(int segmentSize) {
+		this.segmentSize = segmentSize;
+	}
+
+	public int getMaxSegments() {
+		return maxSegments;
+	}
+
+	public void setMaxSegments(int maxSegments) {
+		this.maxSegments = maxSegments;
+	}
+
+	public int getQueueCapacity() {
+		return queueCapacity;
+	}
+
+	public void setQueueCapacity(int queueCapacity) {
+		this.queueCapacity = queueCapacity;
+	}
+
+	public long getForceInterval() {
+		return forceInterval;
+	}
+
+	public void setForceInterval(long forceInterval) {
+		this.forceInterval = forceInterval;
+	}
+
+	public String getUsernameSalt() {
+		return usernameSalt;
+	}
+
+	public void setUsernameSalt(String usernameSalt) {
+		this.usernameSalt = usernameSalt;
+	}
+
+}
@@ -16,6 +16,11 @@
 package org.springframework.security.boot.biz.property;
 
 import org.springframework.security.boot.biz.authentication.PostRequestAuthenticationProcessingFilter;
+import org.springframework.security.boot.biz.authentication.captcha.AbstractCaptchaTokenResolver;
+import org.springframework.security.boot.biz.authentication.captcha.CaptchaImageFilter;
+import org.springframework.security.boot.biz.authentication.captcha.CaptchaImagePool;
+import org.springframework.security.boot.biz.authentication.captcha.HmacCaptchaResolver;
+import org.springframework.security.boot.biz.authentication.captcha.MemoryCaptchaResolver;
 
 public class SecurityCaptchaProperties {
 
@@ -33,6 +38,52 @@ public class SecurityCaptchaProperties {
 	 * Whether to captcha required
 	 */
 	private boolean required = false;
+	/**
+	 * Where the expected captcha answer is kept between rendering and validation
+	 */
+	private CaptchaStore store = CaptchaStore.NONE;
+	/**
+	 * How long a captcha stays valid, in milliseconds
+	 */
+	private long timeout = AbstractCaptchaTokenResolver.DEFAULT_TIMEOUT;
+	/**
+	 * The secret used to sign captcha tokens, required when the store is TOKEN
+	 */
+	private String secret;
+	/**
+	 * The request header that carries the captcha token
+	 */
+	private String tokenHeaderName = AbstractCaptchaTokenResolver.DEFAULT_TOKEN_HEADER_NAME;
+	/**
+	 * The request parameter and cookie name that carries the captcha token
+	 */
+	private String tokenParameterName = AbstractCaptchaTokenResolver.DEFAULT_TOKEN_PARAMETER_NAME;
+	/**
+	 * The number of consumed captcha tokens remembered per timeout window
+	 */
+	private long replayCapacity = HmacCaptchaResolver.DEFAULT_REPLAY_CAPACITY;
+	/**
+	 * The maximum number of captchas kept by the memory store
+	 */
+	private int storeCapacity = MemoryCaptchaResolver.DEFAULT_MAX_ENTRIES;
+	/**
+	 * Whether to serve captcha images from a pool of pre-rendered images
+	 */
+	private boolean imageEnabled = false;
+	/**
+	 * The url that serves captcha images
+	 */
+	private String imageUrl = CaptchaImageFilter.DEFAULT_IMAGE_URL;
+	/**
+	 * The number of pre-rendered captcha images kept in the pool
+	 */
+	private int imagePoolSize = CaptchaImagePool.DEFAULT_CAPACITY;
+	private int imageWidth = 120;
+	private int imageHeight = 40;
+	/**
+	 * The number of characters of the captcha text
+	 */
+	private int textLength = 4;
 	
 	public String getParamName() {
 		return paramName;
@@ -58,4 +109,108 @@ public class SecurityCaptchaProperties {
 		this.required = required;
 	}
 
+	public CaptchaStore getStore() {
+		return store;
+	}
+
+	public void setStore(CaptchaStore store) {
+		this.store = store;
+	}
+
+	public long getTimeout() {
+		return timeout;
+	}
+
+	public void setTimeout(long timeout) {
+		this.timeout = timeout;
+	}
+
+	public String getSecret() {
+		return secret;
+	}
+
+	public void setSecret(String secret) {
+		this.secret = secret;
+	}
+
+	public String getTokenHeaderName() {
+		return tokenHeaderName;
+	}
+
+	public void setTokenHeaderName(String tokenHeaderName) {
+		this.tokenHeaderName = tokenHeaderName;
+	}
+
+	public String getTokenParameterName() {
+		return tokenParameterName;
+	}
+
+	public void setTokenParameterName(String tokenParameterName) {
+		this.tokenParameterName = tokenParameterName;
+	}
+
+	public long getReplayCapacity() {
+		return replayCapacity;
+	}
+
+	public void setReplayCapacity(long replayCapacity) {
+		this.replayCapacity = replayCapacity;
+	}
+
+	public int getStoreCapacity() {
+		return storeCapacity;
+	}
+
+	public void setStoreCapacity(int storeCapacity) {
+		this.storeCapacity = storeCapacity;
+	}
+
+	public boolean isImageEnabled() {
+		return imageEnabled;
+	}
+
+	public void setImageEnabled(boolean imageEnabled) {
+		this.imageEnabled = imageEnabled;
+	}
+
+	public String getImageUrl() {
+		return imageUrl;
+	}
+
+	public void setImageUrl(String imageUrl) {
+		this.imageUrl = imageUrl;
+	}
+
+	public int getImagePoolSize() {
+		return imagePoolSize;
+	}
+
+	public void setImagePoolSize(int imagePoolSize) {
+		this.imagePoolSize = imagePoolSize;
+	}
+
+	public int getImageWidth() {
+		return imageWidth;
+	}
+
+	public void setImageWidth(int imageWidth) {
+		this.imageWidth = imageWidth;
+	}
+
+	public int getImageHeight() {
+		return imageHeight;
+	}
+
+	public void setImageHeight(int imageHeight) {
+		this.imageHeight = imageHeight;
+	}
+
+	public int getTextLength() {
+		return textLength;
+	}
+
+	public void setTextLength(int textLength) {
+		this.textLength = textLength;
+	}
+
 }
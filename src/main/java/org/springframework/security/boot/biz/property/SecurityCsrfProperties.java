@@ -31,6 +31,7 @@ public class SecurityCsrfProperties {
 
 	private String key;
 
+	/** the key signing csrf tokens in stateless mode, required when csrf is enabled there */
 	private String secret;
 
 	private boolean tokenAsHeader;
@@ -41,6 +42,15 @@ public class SecurityCsrfProperties {
 	
 	private String ignoringAntMatchers;
 	
+	/** the name of the cookie holding the csrf token in stateless mode */
+	private String cookieName = "XSRF-TOKEN";
+	/** the name of the header the csrf token is sent back in */
+	private String headerName = "X-XSRF-TOKEN";
+	/** the name of the parameter the csrf token is sent back in */
+	private String parameterName = "_csrf";
+	/** how long a csrf token is accepted in stateless mode, in milliseconds */
+	private long timeout = 12 * 60 * 60 * 1000L;
+	
 
 	/* Map containing user defined parameters */
 	private Map<String, String> customParams = new HashMap<String, String>();
@@ -56,6 +66,38 @@ public class SecurityCsrfProperties {
 	
 	
 
+	public String getCookieName() {
+		return cookieName;
+	}
+
+	public void setCookieName(String cookieName) {
+		this.cookieName = cookieName;
+	}
+
+	public String getHeaderName() {
+		return headerName;
+	}
+
+	public void setHeaderName(String headerName) {
+		this.headerName = headerName;
+	}
+
+	public String getParameterName() {
+		return parameterName;
+	}
+
+	public void setParameterName(String parameterName) {
+		this.parameterName = parameterName;
+	}
+
+	public long getTimeout() {
+		return timeout;
+	}
+
+	public void setTimeout(long timeout) {
+		this.timeout = timeout;
+	}
+
 	public String getIgnoringAntMatchers() {
 		return ignoringAntMatchers;
 	}
@@ -0,0 +1,57 @@
+/*
+ * Copyright (c) 2018, vindell (https://github.com/vindell).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.springframework.security.boot.biz.property;
+
+import org.springframework.security.boot.biz.jfr.VirtualThreadPinningMonitor;
+
+/**
+ * 阻塞阶段（异步登录、响应式登录中的用户查询和密码校验）所用执行器的配置
+ * @author ： <a href="https://github.com/vindell">wandl</a>
+ */
+public class SecurityExecutorProperties {
+
+	/** the kind of threads running blocking stages, AUTO uses virtual threads on JDK 21 or later */
+	private ExecutorType type = ExecutorType.AUTO;
+	/** whether virtual threads pinned to their carrier thread are reported, requires JDK 21 or later */
+	private boolean pinningDiagnostics = true;
+	/** how long a virtual thread must stay pinned before it is reported, in milliseconds */
+	private long pinningThreshold = VirtualThreadPinningMonitor.DEFAULT_THRESHOLD;
+
+	public ExecutorType getType() {
+		return type;
+	}
+
+	public void setType(ExecutorType type) {
+		this.type = type;
+	}
+
+	public boolean isPinningDiagnostics() {
+		return pinningDiagnostics;
+	}
+
+	public void setPinningDiagnostics(boolean pinningDiagnostics) {
+		this.pinningDiagnostics = pinningDiagnostics;
+	}
+
+	public long getPinningThreshold() {
+		return pinningThreshold;
+	}
+
+	public void setPinningThreshold(long pinningThreshold) {
+		this.pinningThreshold = pinningThreshold;
+	}
+
+}
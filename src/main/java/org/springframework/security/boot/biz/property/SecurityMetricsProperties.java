@@ -0,0 +1,45 @@
+/*
+ * Copyright (c) 2018, vindell (https://github.com/vindell).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.springframework.security.boot.biz.property;
+
+/**
+ * 登录分阶段耗时指标和 Flight Recorder 事件的配置
+ * @author ： <a href="https://github.com/vindell">wandl</a>
+ */
+public class SecurityMetricsProperties {
+
+	/** whether the time spent in each login stage is recorded */
+	private boolean enabled = true;
+	/** whether login stages are also emitted as Flight Recorder events, which still have to be enabled in the recording */
+	private boolean flightRecorder = true;
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	public void setEnabled(boolean enabled) {
+		this.enabled = enabled;
+	}
+
+	public boolean isFlightRecorder() {
+		return flightRecorder;
+	}
+
+	public void setFlightRecorder(boolean flightRecorder) {
+		this.flightRecorder = flightRecorder;
+	}
+
+}
@@ -0,0 +1,45 @@
+/*
+ * Copyright (c) 2018, vindell (https://github.com/vindell).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.springframework.security.boot.biz.property;
+
+/**
+ * WebFlux 应用中登录认证的配置
+ * @author ： <a href="https://github.com/vindell">wandl</a>
+ */
+public class SecurityReactiveProperties {
+
+	/** the maximum number of logins verified at the same time off the event loop, the pool size when platform threads are used */
+	private int loginThreads = Runtime.getRuntime().availableProcessors();
+	/** how many logins may wait to be verified before new ones are rejected */
+	private int loginQueueCapacity = 256;
+
+	public int getLoginThreads() {
+		return loginThreads;
+	}
+
+	public void setLoginThreads(int loginThreads) {
+		this.loginThreads = loginThreads;
+	}
+
+	public int getLoginQueueCapacity() {
+		return loginQueueCapacity;
+	}
+
+	public void setLoginQueueCapacity(int loginQueueCapacity) {
+		this.loginQueueCapacity = loginQueueCapacity;
+	}
+
+}
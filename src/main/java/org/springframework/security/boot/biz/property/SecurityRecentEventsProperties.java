@@ -0,0 +1,47 @@
+/*
+ * Copyright (c) 2018, vindell (https://github.com/vindell).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.springframework.security.boot.biz.property;
+
+import org.springframework.security.boot.biz.audit.RecentAuthenticationEvents;
+
+/**
+ * 最近登录事件缓冲区的配置
+ * @author ： <a href="https://github.com/vindell">wandl</a>
+ */
+public class SecurityRecentEventsProperties {
+
+	/** whether recent login outcomes are kept in memory and exposed by the loginevents endpoint */
+	private boolean enabled = true;
+	/** the number of events kept, rounded up to a power of two */
+	private int capacity = RecentAuthenticationEvents.DEFAULT_CAPACITY;
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	public void setEnabled(boolean enabled) {
+		this.enabled = enabled;
+	}
+
+	public int getCapacity() {
+		return capacity;
+	}
+
+	public void setCapacity(int capacity) {
+		this.capacity = capacity;
+	}
+
+}
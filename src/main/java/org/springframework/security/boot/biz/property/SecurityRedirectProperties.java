@@ -18,6 +18,12 @@ package org.springframework.security.boot.biz.property;
 public class SecurityRedirectProperties {
 
 	private boolean contextRelative;
+	/** the name of the cookie holding the url requested before login */
+	private String requestedUrlCookieName = "REQUESTED_URL";
+	/** how long the requested url stays valid, in milliseconds */
+	private long requestedUrlTimeout = 10 * 60 * 1000L;
+	/** the secret used to sign the requested url cookie, required when request.cache-store is COOKIE */
+	private String requestedUrlSecret;
 
 	/**
 	 * If <tt>true</tt>, causes any redirection URLs to be calculated minus the protocol
@@ -34,5 +40,29 @@ public class SecurityRedirectProperties {
 	public boolean isContextRelative() {
 		return contextRelative;
 	}
+
+	public String getRequestedUrlCookieName() {
+		return requestedUrlCookieName;
+	}
+
+	public void setRequestedUrlCookieName(String requestedUrlCookieName) {
+		this.requestedUrlCookieName = requestedUrlCookieName;
+	}
+
+	public long getRequestedUrlTimeout() {
+		return requestedUrlTimeout;
+	}
+
+	public void setRequestedUrlTimeout(long requestedUrlTimeout) {
+		this.requestedUrlTimeout = requestedUrlTimeout;
+	}
+
+	public String getRequestedUrlSecret() {
+		return requestedUrlSecret;
+	}
+
+	public void setRequestedUrlSecret(String requestedUrlSecret) {
+		this.requestedUrlSecret = requestedUrlSecret;
+	}
 	
 }
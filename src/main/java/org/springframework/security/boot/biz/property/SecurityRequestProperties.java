@@ -15,7 +15,49 @@
  */
 package org.springframework.security.boot.biz.property;
 
+import org.springframework.security.boot.biz.savedrequest.SaveableRequestMatcher;
+
 public class SecurityRequestProperties {
 
- 
+	/** where the request interrupted by login is saved */
+	private RequestCacheStore cacheStore = RequestCacheStore.SESSION;
+	/** comma separated extensions of static resources, which are never saved */
+	private String cacheAssetExtensions = SaveableRequestMatcher.DEFAULT_ASSET_EXTENSIONS;
+	/** comma separated path prefixes of static resources, which are never saved */
+	private String cacheAssetPaths = SaveableRequestMatcher.DEFAULT_ASSET_PATHS;
+	/** requests with a longer url are not saved */
+	private int cacheMaxUrlLength = 1024;
+
+	public RequestCacheStore getCacheStore() {
+		return cacheStore;
+	}
+
+	public void setCacheStore(RequestCacheStore cacheStore) {
+		this.cacheStore = cacheStore;
+	}
+
+	public String getCacheAssetExtensions() {
+		return cacheAssetExtensions;
+	}
+
+	public void setCacheAssetExtensions(String cacheAssetExtensions) {
+		this.cacheAssetExtensions = cacheAssetExtensions;
+	}
+
+	public String getCacheAssetPaths() {
+		return cacheAssetPaths;
+	}
+
+	public void setCacheAssetPaths(String cacheAssetPaths) {
+		this.cacheAssetPaths = cacheAssetPaths;
+	}
+
+	public int getCacheMaxUrlLength() {
+		return cacheMaxUrlLength;
+	}
+
+	public void setCacheMaxUrlLength(int cacheMaxUrlLength) {
+		this.cacheMaxUrlLength = cacheMaxUrlLength;
+	}
+
 }
@@ -37,6 +37,16 @@ public class SecuritySessionMgtProperties {
 	
 	private String sessionAttrName = "SPRING_SECURITY_SAVED_REQUEST";
 	
+	/**
+	 * how long a registered session may stay idle before it is removed from the session registry, in milliseconds;
+	 * defaults to server.servlet.session.timeout and must not be shorter than it, 0 disables it
+	 */
+	private Long registryIdleTimeout;
+	/** the delay between two sweeps of the session registry, in milliseconds */
+	private long registrySweepInterval = 60 * 1000L;
+	/** the maximum number of sessions handled per batch while sweeping */
+	private int registrySweepBatchSize = 1000;
+	
 	public boolean isAllowSessionCreation() {
 		return allowSessionCreation;
 	}
@@ -138,5 +148,29 @@ public class SecuritySessionMgtProperties {
 	public String getSessionAttrName() {
 		return sessionAttrName;
 	}
+
+	public Long getRegistryIdleTimeout() {
+		return registryIdleTimeout;
+	}
+
+	public void setRegistryIdleTimeout(Long registryIdleTimeout) {
+		this.registryIdleTimeout = registryIdleTimeout;
+	}
+
+	public long getRegistrySweepInterval() {
+		return registrySweepInterval;
+	}
+
+	public void setRegistrySweepInterval(long registrySweepInterval) {
+		this.registrySweepInterval = registrySweepInterval;
+	}
+
+	public int getRegistrySweepBatchSize() {
+		return registrySweepBatchSize;
+	}
+
+	public void setRegistrySweepBatchSize(int registrySweepBatchSize) {
+		this.registrySweepBatchSize = registrySweepBatchSize;
+	}
 	
 }
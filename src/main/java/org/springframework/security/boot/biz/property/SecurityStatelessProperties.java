@@ -0,0 +1,135 @@
+/*
+ * Copyright (c) 2018, vindell (https://github.com/vindell).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.springframework.security.boot.biz.property;
+
+/**
+ * 无状态模式（{@code session-mgt.creation-policy=STATELESS}）下认证信息 Cookie 和请求头令牌的配置
+ * @author ： <a href="https://github.com/vindell">wandl</a>
+ */
+public class SecurityStatelessProperties {
+
+	/** whether the security context is kept in a signed cookie when creation-policy is STATELESS */
+	private boolean enabled = false;
+	/** the name of the cookie holding the signed security context */
+	private String cookieName = "SECURITY_CONTEXT";
+	/** the master secret the signing keys are derived from, required when the cookie or bearer tokens are enabled */
+	private String secret;
+	/** how long an issued token stays valid, in milliseconds */
+	private long timeout = 30 * 60 * 1000L;
+	/** a token is renewed once it expires within this time, in milliseconds */
+	private long renewWindow = 10 * 60 * 1000L;
+	/** how long a derived signing key is used before rotating to the next one, in milliseconds */
+	private long keyRotationPeriod = 24 * 60 * 60 * 1000L;
+	/** whether login issues a token and requests may authenticate with an {@code Authorization: Bearer} header */
+	private boolean bearerEnabled = false;
+	/** the header holding the bearer token */
+	private String bearerHeaderName = "Authorization";
+	/** the maximum number of verified tokens cached for their remaining lifetime */
+	private int bearerCacheCapacity = 10_000;
+	/** the maximum number of revoked, not yet expired tokens remembered */
+	private int revocationCapacity = 100_000;
+	/** the false positive probability of the Bloom filter in front of the revoked tokens */
+	private double revocationFpp = 0.001;
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	public void setEnabled(boolean enabled) {
+		this.enabled = enabled;
+	}
+
+	public String getCookieName() {
+		return cookieName;
+	}
+
+	public void setCookieName(String cookieName) {
+		this.cookieName = cookieName;
+	}
+
+	public String getSecret() {
+		return secret;
+	}
+
+	public void setSecret(String secret) {
+		this.secret = secret;
+	}
+
+	public long getTimeout() {
+		return timeout;
+	}
+
+	public void setTimeout(long timeout) {
+		this.timeout = timeout;
+	}
+
+	public long getRenewWindow() {
+		return renewWindow;
+	}
+
+	public void setRenewWindow(long renewWindow) {
+		this.renewWindow = renewWindow;
+	}
+
+	public long getKeyRotationPeriod() {
+		return keyRotationPeriod;
+	}
+
+	public void setKeyRotationPeriod(long keyRotationPeriod) {
+		this.keyRotationPeriod = keyRotationPeriod;
+	}
+
+	public boolean isBearerEnabled() {
+		return bearerEnabled;
+	}
+
+	public void setBearerEnabled(boolean bearerEnabled) {
+		this.bearerEnabled = bearerEnabled;
+	}
+
+	public String getBearerHeaderName() {
+		return bearerHeaderName;
+	}
+
+	public void setBearerHeaderName(String bearerHeaderName) {
+		this.bearerHeaderName = bearerHeaderName;
+	}
+
+	public int getBearerCacheCapacity() {
+		return bearerCacheCapacity;
+	}
+
+	public void setBearerCacheCapacity(int bearerCacheCapacity) {
+		this.bearerCacheCapacity = bearerCacheCapacity;
+	}
+
+	public int getRevocationCapacity() {
+		return revocationCapacity;
+	}
+
+	public void setRevocationCapacity(int revocationCapacity) {
+		this.revocationCapacity = revocationCapacity;
+	}
+
+	public double getRevocationFpp() {
+		return revocationFpp;
+	}
+
+	public void setRevocationFpp(double revocationFpp) {
+		this.revocationFpp = revocationFpp;
+	}
+
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright (c) 2018, vindell (https://github.com/vindell).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.springframework.security.boot.biz.property;
+
+import org.springframework.security.boot.biz.userdetails.BatchingUserDetailsService;
+
+/**
+ * 登录时用户查询的配置
+ * @author ： <a href="https://github.com/vindell">wandl</a>
+ */
+public class SecurityUserLookupProperties {
+
+	/** whether lookups of concurrent logins are merged into one UserDetailsServiceAdapter#loadUsersByUsernames call */
+	private boolean batching = false;
+	/** how long the first lookup of a batch waits for others, in milliseconds */
+	private long batchWindow = BatchingUserDetailsService.DEFAULT_BATCH_WINDOW;
+	/** the number of lookups which sends a batch without waiting for the window to end */
+	private int maxBatchSize = BatchingUserDetailsService.DEFAULT_MAX_BATCH_SIZE;
+	/** how long a lookup waits for the batch loaded by another login before it fails, in milliseconds */
+	private long batchTimeout = BatchingUserDetailsService.DEFAULT_BATCH_TIMEOUT;
+
+	public boolean isBatching() {
+		return batching;
+	}
+
+	public void setBatching(boolean batching) {
+		this.batching = batching;
+	}
+
+	public long getBatchWindow() {
+		return batchWindow;
+	}
+
+	public void setBatchWindow(long batchWindow) {
+		this.batchWindow = batchWindow;
+	}
+
+	public int getMaxBatchSize() {
+		return maxBatchSize;
+	}
+
+	public void setMaxBatchSize(int maxBatchSize) {
+		this.maxBatchSize = maxBatchSize;
+	}
+
+	public long getBatchTimeout() {
+		return batchTimeout;
+	}
+
+	public void setBatchTimeout(long batchTimeout) {
+		this.batchTimeout = batchTimeout;
+	}
+
+}
@@ -0,0 +1,316 @@
+/*
+ * Copyright (c) 2018, vindell (https://github.com/vindell).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.springframework.security.boot.biz.reactive;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.AbstractAuthenticationToken;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.InternalAuthenticationServiceException;
+import org.springframework.security.authentication.ReactiveAuthenticationManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.boot.biz.authentication.PostLoginRequest;
+import org.springframework.security.boot.biz.exception.AuthMethodNotSupportedException;
+import org.springframework.security.boot.biz.exception.AuthenticationCaptchaIncorrectException;
+import org.springframework.security.boot.biz.exception.AuthenticationCaptchaNotFoundException;
+import org.springframework.security.boot.biz.exception.AuthenticationOverRetryRemindException;
+import org.springframework.security.boot.biz.metrics.AuthenticationMetrics;
+import org.springframework.security.boot.biz.metrics.LoginStage;
+import org.springframework.security.boot.utils.StringUtils;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import org.springframework.security.core.context.SecurityContextImpl;
+import org.springframework.security.web.server.WebFilterExchange;
+import org.springframework.security.web.server.authentication.ServerAuthenticationFailureHandler;
+import org.springframework.security.web.server.authentication.ServerAuthenticationSuccessHandler;
+import org.springframework.security.web.server.context.ServerSecurityContextRepository;
+import org.springframework.security.web.server.context.WebSessionServerSecurityContextRepository;
+import org.springframework.security.web.server.util.matcher.ServerWebExchangeMatcher;
+import org.springframework.security.web.server.util.matcher.ServerWebExchangeMatcher.MatchResult;
+import org.springframework.util.Assert;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * {@link org.springframework.security.boot.biz.authentication.PostRequestAuthenticationProcessingFilter} 的响应式版本：
+ * 账号、密码、验证码认证过滤器。
+ * <p>
+ * 请求体的解析、验证码和失败次数的检查都在同一条响应式链上完成，其中任何一步失败都交给
+ * {@link ServerAuthenticationFailureHandler} 处理；认证失败时失败次数加一，
+ * 次数达到 {@code retryTimesWhenAccessDenied} 时提醒一次，之后要求填入验证码。
+ * </p>
+ * @author ： <a href="https://github.com/vindell">wandl</a>
+ */
+public class PostRequestAuthenticationWebFilter implements WebFilter {
+
+	public static final String SPRING_SECURITY_FORM_USERNAME_KEY = "username";
+	public static final String SPRING_SECURITY_FORM_PASSWORD_KEY = "password";
+	public static final String SPRING_SECURITY_FORM_CAPTCHA_KEY = "captcha";
+	public static final String DEFAULT_RETRY_TIMES_KEY_ATTRIBUTE_NAME = "securityLoginFailureRetries";
+
+	private final ReactiveAuthenticationManager authenticationManager;
+	private final ObjectMapper objectMapper;
+
+	private String filterProcessesUrl = "/login";
+	private ServerWebExchangeMatcher requiresAuthenticationMatcher = ReactiveFilterChainDefinitions.antMatcher(filterProcessesUrl);
+	private String usernameParameter = SPRING_SECURITY_FORM_USERNAME_KEY;
+	private String passwordParameter = SPRING_SECURITY_FORM_PASSWORD_KEY;
+	private boolean captchaRequired = false;
+	private String captchaParameter = SPRING_SECURITY_FORM_CAPTCHA_KEY;
+	private ReactiveCaptchaResolver captchaResolver = new NullReactiveCaptchaResolver();
+	private boolean postOnly = true;
+	private String retryTimesKeyAttribute = DEFAULT_RETRY_TIMES_KEY_ATTRIBUTE_NAME;
+	/** Maximum number of retry to login . */
+	private int retryTimesWhenAccessDenied = 3;
+
+	private ReactiveAuthenticatingFailureCounter failureCounter;
+	private ServerAuthenticationSuccessHandler authenticationSuccessHandler = new PostRequestServerAuthenticationSuccessHandler("/");
+	private ServerAuthenticationFailureHandler authenticationFailureHandler = new PostRequestServerAuthenticationFailureHandler();
+	private ServerSecurityContextRepository securityContextRepository = new WebSessionServerSecurityContextRepository();
+	private AuthenticationMetrics metrics = AuthenticationMetrics.NOOP;
+
+	public PostRequestAuthenticationWebFilter(ReactiveAuthenticationManager authenticationManager,
+			ObjectMapper objectMapper) {
+		Assert.notNull(authenticationManager, "authenticationManager must not be null");
+		Assert.notNull(objectMapper, "objectMapper must not be null");
+		this.authenticationManager = authenticationManager;
+		this.objectMapper = objectMapper;
+	}
+
+	@Override
+	public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+		return requiresAuthenticationMatcher.matches(exchange)
+				.filter(MatchResult::isMatch)
+				.switchIfEmpty(chain.filter(exchange).then(Mono.empty()))
+				.flatMap(matchResult -> attemptAuthentication(new WebFilterExchange(exchange, chain)));
+	}
+
+	protected Mono<Void> attemptAuthentication(WebFilterExchange webFilterExchange) {
+		ServerWebExchange exchange = webFilterExchange.getExchange();
+		if (isPostOnly() && !HttpMethod.POST.equals(exchange.getRequest().getMethod())) {
+			return onAuthenticationFailure(webFilterExchange, new AuthMethodNotSupportedException(
+					"Authentication method not supported: " + exchange.getRequest().getMethodValue()), System.nanoTime());
+		}
+		long start = System.nanoTime();
+		return obtainLoginRequest(exchange)
+				.doOnNext(loginRequest -> metrics.recordSince(LoginStage.PARSE, true, start))
+				.flatMap(loginRequest -> checkCaptcha(exchange, loginRequest).thenReturn(loginRequest))
+				.map(loginRequest -> authenticationToken(loginRequest.getUsername(), loginRequest.getPassword()))
+				.flatMap(authenticationManager::authenticate)
+				.switchIfEmpty(Mono.defer(() -> Mono.error(new BadCredentialsException("Invalid Credentials"))))
+				.flatMap(authentication -> {
+					metrics.recordSince(LoginStage.ATTEMPT, true, start);
+					return onAuthenticationSuccess(webFilterExchange, authentication);
+				})
+				.onErrorResume(AuthenticationException.class, e -> onAuthenticationFailure(webFilterExchange, e, start));
+	}
+
+	/**
+	 * 读取 JSON 请求体或表单参数，用户名去掉首尾空白
+	 */
+	protected Mono<PostLoginRequest> obtainLoginRequest(ServerWebExchange exchange) {
+		MediaType contentType = exchange.getRequest().getHeaders().getContentType();
+		if (contentType != null && MediaType.APPLICATION_JSON.isCompatibleWith(contentType)) {
+			return DataBufferUtils.join(exchange.getRequest().getBody())
+					.map(buffer -> {
+						try (InputStream input = buffer.asInputStream(true)) {
+							return objectMapper.readValue(input, PostLoginRequest.class);
+						} catch (IOException e) {
+							throw new InternalAuthenticationServiceException(e.getMessage());
+						}
+					})
+					.switchIfEmpty(Mono.defer(() -> Mono.error(new InternalAuthenticationServiceException("No login request body"))))
+					.map(loginRequest -> new PostLoginRequest(trimToEmpty(loginRequest.getUsername()),
+							nullToEmpty(loginRequest.getPassword()), loginRequest.getCaptcha()));
+		}
+		return exchange.getFormData()
+				.map(form -> new PostLoginRequest(trimToEmpty(form.getFirst(usernameParameter)),
+						nullToEmpty(form.getFirst(passwordParameter)), form.getFirst(captchaParameter)));
+	}
+
+	private Mono<Void> checkCaptcha(ServerWebExchange exchange, PostLoginRequest loginRequest) {
+		long start = System.nanoTime();
+		Mono<Integer> retryTimes = failureCounter != null
+				? failureCounter.get(exchange, retryTimesKeyAttribute) : Mono.just(0);
+		return retryTimes.flatMap(retries -> {
+			// The retry limit has been exceeded and a reminder is required
+			if (retries == retryTimesWhenAccessDenied) {
+				return Mono.error(new AuthenticationOverRetryRemindException(
+						"The number of login errors exceeds the maximum retry limit and a verification code is required."));
+			}
+			// 验证码必填或者错误次数超出系统限制，则要求填入验证码
+			if (!isCaptchaRequired() && retries < retryTimesWhenAccessDenied) {
+				return Mono.empty();
+			}
+			if (!StringUtils.hasText(loginRequest.getCaptcha())) {
+				return Mono.error(new AuthenticationCaptchaNotFoundException("Captcha not provided"));
+			}
+			return captchaResolver.validCaptcha(exchange, loginRequest.getCaptcha())
+					.flatMap(validation -> validation ? Mono.<Void>empty()
+							: Mono.<Void>error(new AuthenticationCaptchaIncorrectException("Captcha validation failed!")));
+		}).doOnSuccess(v -> metrics.recordSince(LoginStage.CAPTCHA, true, start));
+	}
+
+	protected AbstractAuthenticationToken authenticationToken(String username, String password) {
+		return new UsernamePasswordAuthenticationToken(username, password);
+	}
+
+	protected Mono<Void> onAuthenticationSuccess(WebFilterExchange webFilterExchange, Authentication authentication) {
+		SecurityContextImpl securityContext = new SecurityContextImpl(authentication);
+		return securityContextRepository.save(webFilterExchange.getExchange(), securityContext)
+				.then(authenticationSuccessHandler.onAuthenticationSuccess(webFilterExchange, authentication))
+				.subscriberContext(ReactiveSecurityContextHolder.withSecurityContext(Mono.just(securityContext)));
+	}
+
+	protected Mono<Void> onAuthenticationFailure(WebFilterExchange webFilterExchange, AuthenticationException e,
+			long start) {
+		metrics.recordSince(LoginStage.ATTEMPT, false, start);
+		Mono<Void> increment = failureCounter != null && !(e instanceof AuthMethodNotSupportedException)
+				? failureCounter.increment(webFilterExchange.getExchange(), retryTimesKeyAttribute) : Mono.empty();
+		return increment.then(authenticationFailureHandler.onAuthenticationFailure(webFilterExchange, e));
+	}
+
+	private static String trimToEmpty(String value) {
+		return value != null ? value.trim() : "";
+	}
+
+	private static String nullToEmpty(String value) {
+		return value != null ? value : "";
+	}
+
+	public String getFilterProcessesUrl() {
+		return filterProcessesUrl;
+	}
+
+	/**
+	 * @param filterProcessesUrl the ant pattern of the login url
+	 */
+	public void setFilterProcessesUrl(String filterProcessesUrl) {
+		Assert.hasText(filterProcessesUrl, "filterProcessesUrl must not be empty or null");
+		this.filterProcessesUrl = filterProcessesUrl;
+		this.requiresAuthenticationMatcher = ReactiveFilterChainDefinitions.antMatcher(filterProcessesUrl);
+	}
+
+	public String getUsernameParameter() {
+		return usernameParameter;
+	}
+
+	public void setUsernameParameter(String usernameParameter) {
+		Assert.hasText(usernameParameter, "Username parameter must not be empty or null");
+		this.usernameParameter = usernameParameter;
+	}
+
+	public String getPasswordParameter() {
+		return passwordParameter;
+	}
+
+	public void setPasswordParameter(String passwordParameter) {
+		Assert.hasText(passwordParameter, "Password parameter must not be empty or null");
+		this.passwordParameter = passwordParameter;
+	}
+
+	public boolean isCaptchaRequired() {
+		return captchaRequired;
+	}
+
+	public void setCaptchaRequired(boolean captchaRequired) {
+		this.captchaRequired = captchaRequired;
+	}
+
+	public String getCaptchaParameter() {
+		return captchaParameter;
+	}
+
+	public void setCaptchaParameter(String captchaParameter) {
+		this.captchaParameter = captchaParameter;
+	}
+
+	public ReactiveCaptchaResolver getCaptchaResolver() {
+		return captchaResolver;
+	}
+
+	public void setCaptchaResolver(ReactiveCaptchaResolver captchaResolver) {
+		Assert.notNull(captchaResolver, "captchaResolver must not be null");
+		this.captchaResolver = captchaResolver;
+	}
+
+	public boolean isPostOnly() {
+		return postOnly;
+	}
+
+	public void setPostOnly(boolean postOnly) {
+		this.postOnly = postOnly;
+	}
+
+	public String getRetryTimesKeyAttribute() {
+		return retryTimesKeyAttribute;
+	}
+
+	public void setRetryTimesKeyAttribute(String retryTimesKeyAttribute) {
+		this.retryTimesKeyAttribute = retryTimesKeyAttribute;
+	}
+
+	public int getRetryTimesWhenAccessDenied() {
+		return retryTimesWhenAccessDenied;
+	}
+
+	public void setRetryTimesWhenAccessDenied(int retryTimesWhenAccessDenied) {
+		this.retryTimesWhenAccessDenied = retryTimesWhenAccessDenied;
+	}
+
+	public ReactiveAuthenticatingFailureCounter getFailureCounter() {
+		return failureCounter;
+	}
+
+	public void setFailureCounter(ReactiveAuthenticatingFailureCounter failureCounter) {
+		this.failureCounter = failureCounter;
+	}
+
+	public void setAuthenticationSuccessHandler(ServerAuthenticationSuccessHandler authenticationSuccessHandler) {
+		Assert.notNull(authenticationSuccessHandler, "authenticationSuccessHandler must not be null");
+		this.authenticationSuccessHandler = authenticationSuccessHandler;
+	}
+
+	public void setAuthenticationFailureHandler(ServerAuthenticationFailureHandler authenticationFailureHandler) {
+		Assert.notNull(authenticationFailureHandler, "authenticationFailureHandler must not be null");
+		this.authenticationFailureHandler = authenticationFailureHandler;
+	}
+
+	public void setSecurityContextRepository(ServerSecurityContextRepository securityContextRepository) {
+		Assert.notNull(securityContextRepository, "securityContextRepository must not be null");
+		this.securityContextRepository = securityContextRepository;
+	}
+
+	public AuthenticationMetrics getMetrics() {
+		return metrics;
+	}
+
+	public void setMetrics(AuthenticationMetrics metrics) {
+		Assert.notNull(metrics, "metrics must not be null");
+		this.metrics = metrics;
+	}
+
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright (c) 2018, vindell (https://github.com/vindell).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.springframework.security.boot.biz.reactive;
+
+import java.util.concurrent.RejectedExecutionException;
+
+import org.springframework.security.authentication.ReactiveAuthenticationManager;
+import org.springframework.security.boot.biz.authentication.PostRequestAuthenticationProvider;
+import org.springframework.security.boot.biz.exception.AuthenticationRejectedException;
+import org.springframework.security.core.Authentication;
+import org.springframework.util.Assert;
+
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+/**
+ * {@link PostRequestAuthenticationProvider} 的响应式包装。
+ * <p>
+ * 用户查询和 BCrypt 校验都是阻塞的 CPU 密集操作，不能在事件循环线程上执行，
+ * 因此放到有界的 {@link Scheduler} 上运行；调度器拒绝任务时（队列已满）直接认证失败，
+ * 登录洪峰不会无限堆积在内存中，也不会拖慢其它请求。
+ * </p>
+ * @author ： <a href="https://github.com/vindell">wandl</a>
+ */
+public class PostRequestReactiveAuthenticationManager implements ReactiveAuthenticationManager {
+
+	private final PostRequestAuthenticationProvider authenticationProvider;
+	private final Scheduler scheduler;
+
+	public PostRequestReactiveAuthenticationManager(PostRequestAuthenticationProvider authenticationProvider,
+			Scheduler scheduler) {
+		Assert.notNull(authenticationProvider, "authenticationProvider must not be null");
+		Assert.notNull(scheduler, "scheduler must not be null");
+		this.authenticationProvider = authenticationProvider;
+		this.scheduler = scheduler;
+	}
+
+	@Override
+	public Mono<Authentication> authenticate(Authentication authentication) {
+		if (!authenticationProvider.supports(authentication.getClass())) {
+			return Mono.empty();
+		}
+		return Mono.fromCallable(() -> authenticationProvider.authenticate(authentication))
+				.subscribeOn(scheduler)
+				.onErrorMap(RejectedExecutionException.class,
+						e -> new AuthenticationRejectedException("Too many concurrent login attempts", e));
+	}
+
+	public PostRequestAuthenticationProvider getAuthenticationProvider() {
+		return authenticationProvider;
+	}
+
+	public Scheduler getScheduler() {
+		return scheduler;
+	}
+
+}
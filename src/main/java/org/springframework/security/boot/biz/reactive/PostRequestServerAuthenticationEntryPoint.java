@@ -0,0 +1,50 @@
+/*
+ * Copyright (c) 2018, vindell (https://github.com/vindell).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.springframework.security.boot.biz.reactive;
+
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.boot.biz.exception.ErrorResponse;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.web.server.ServerAuthenticationEntryPoint;
+import org.springframework.security.web.server.authentication.RedirectServerAuthenticationEntryPoint;
+import org.springframework.web.server.ServerWebExchange;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * POST 请求返回 401 和 JSON 格式的错误信息，其它请求重定向到登录页，与
+ * {@link org.springframework.security.boot.biz.authentication.PostRequestAuthenticationEntryPoint} 对应
+ * @author ： <a href="https://github.com/vindell">wandl</a>
+ */
+public class PostRequestServerAuthenticationEntryPoint implements ServerAuthenticationEntryPoint {
+
+	private final RedirectServerAuthenticationEntryPoint redirectEntryPoint;
+
+	public PostRequestServerAuthenticationEntryPoint(String loginUrl) {
+		this.redirectEntryPoint = new RedirectServerAuthenticationEntryPoint(loginUrl);
+	}
+
+	@Override
+	public Mono<Void> commence(ServerWebExchange exchange, AuthenticationException e) {
+		if (HttpMethod.POST.equals(exchange.getRequest().getMethod())) {
+			ErrorResponse error = ErrorResponse.of(e);
+			return ReactiveResponses.writeJSON(exchange.getResponse(), HttpStatus.valueOf(error.getStatus()), error);
+		}
+		return redirectEntryPoint.commence(exchange, e);
+	}
+
+}
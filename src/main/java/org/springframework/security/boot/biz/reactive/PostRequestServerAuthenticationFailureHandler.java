@@ -0,0 +1,39 @@
+/*
+ * Copyright (c) 2018, vindell (https://github.com/vindell).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.springframework.security.boot.biz.reactive;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.security.boot.biz.exception.ErrorResponse;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.web.server.WebFilterExchange;
+import org.springframework.security.web.server.authentication.ServerAuthenticationFailureHandler;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * 登录失败后返回 JSON 格式的 {@link ErrorResponse}，与 Servlet 版本的响应一致
+ * @author ： <a href="https://github.com/vindell">wandl</a>
+ */
+public class PostRequestServerAuthenticationFailureHandler implements ServerAuthenticationFailureHandler {
+
+	@Override
+	public Mono<Void> onAuthenticationFailure(WebFilterExchange webFilterExchange, AuthenticationException exception) {
+		ErrorResponse error = ErrorResponse.of(exception);
+		return ReactiveResponses.writeJSON(webFilterExchange.getExchange().getResponse(),
+				HttpStatus.valueOf(error.getStatus()), error);
+	}
+
+}
@@ -0,0 +1,52 @@
+/*
+ * Copyright (c) 2018, vindell (https://github.com/vindell).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.springframework.security.boot.biz.reactive;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.web.server.WebFilterExchange;
+import org.springframework.security.web.server.authentication.ServerAuthenticationSuccessHandler;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * 登录成功后返回 JSON，与 Servlet 版本 POST 登录的响应一致
+ * @author ： <a href="https://github.com/vindell">wandl</a>
+ */
+public class PostRequestServerAuthenticationSuccessHandler implements ServerAuthenticationSuccessHandler {
+
+	private final String successUrl;
+
+	public PostRequestServerAuthenticationSuccessHandler(String successUrl) {
+		this.successUrl = successUrl;
+	}
+
+	@Override
+	public Mono<Void> onAuthenticationSuccess(WebFilterExchange webFilterExchange, Authentication authentication) {
+		Map<String, Object> retMap = new HashMap<String, Object>();
+		retMap.put("status", "1");
+		retMap.put("successUrl", successUrl);
+		return ReactiveResponses.writeJSON(webFilterExchange.getExchange().getResponse(), HttpStatus.OK, retMap);
+	}
+
+	public String getSuccessUrl() {
+		return successUrl;
+	}
+
+}
@@ -0,0 +1,32 @@
+/*
+ * Copyright (c) 2018, vindell (https://github.com/vindell).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.springframework.security.boot.biz.reactive;
+
+import org.springframework.web.server.ServerWebExchange;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * {@link org.springframework.security.boot.biz.authentication.AuthenticatingFailureCounter} 的响应式版本
+ * @author ： <a href="https://github.com/vindell">wandl</a>
+ */
+public interface ReactiveAuthenticatingFailureCounter {
+
+	Mono<Integer> get(ServerWebExchange exchange, String retryTimesKeyAttribute);
+
+	Mono<Void> increment(ServerWebExchange exchange, String retryTimesKeyAttribute);
+
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright (c) 2018, vindell (https://github.com/vindell).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.springframework.security.boot.biz.reactive;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.security.boot.biz.authorization.FilterChainDefinitions;
+import org.springframework.security.boot.biz.authorization.FilterChainDefinitions.Rule;
+import org.springframework.security.boot.utils.StringUtils;
+import org.springframework.security.config.web.server.ServerHttpSecurity;
+import org.springframework.security.web.server.util.matcher.ServerWebExchangeMatcher;
+import org.springframework.security.web.server.util.matcher.ServerWebExchangeMatcher.MatchResult;
+import org.springframework.util.AntPathMatcher;
+
+/**
+ * 把 {@link FilterChainDefinitions} 应用到 {@link ServerHttpSecurity}：与 Servlet 版本一样，
+ * {@code anon} 路径和登录地址放行，其余规则按定义顺序注册，先匹配的规则生效，未定义的路径放行。
+ * <p>
+ * 路径仍按 Ant 风格匹配，与 {@code filterChainDefinitionMap} 在 Servlet 应用中的含义保持一致。
+ * </p>
+ * @author ： <a href="https://github.com/vindell">wandl</a>
+ */
+public final class ReactiveFilterChainDefinitions {
+
+	private static final AntPathMatcher PATH_MATCHER = new AntPathMatcher();
+
+	private ReactiveFilterChainDefinitions() {
+	}
+
+	/**
+	 * Permit the anon patterns and the given patterns, then register the rules in order.
+	 * @param http the security builder
+	 * @param definitions the parsed definition map
+	 * @param permitPatterns further patterns open to everyone, such as the login url
+	 */
+	public static void authorizeExchange(ServerHttpSecurity http, FilterChainDefinitions definitions,
+			String... permitPatterns) {
+		ServerHttpSecurity.AuthorizeExchangeSpec spec = http.authorizeExchange();
+		List<String> permitMatchers = new ArrayList<String>(definitions.getAnonPatterns());
+		for (String permitPattern : permitPatterns) {
+			if (StringUtils.hasText(permitPattern)) {
+				permitMatchers.add(permitPattern);
+			}
+		}
+		if (!permitMatchers.isEmpty()) {
+			spec.matchers(antMatcher(permitMatchers.toArray(new String[permitMatchers.size()]))).permitAll();
+		}
+		for (Rule rule : definitions.getRules()) {
+			spec.matchers(antMatcher(rule.getPattern())).access(new RuleReactiveAuthorizationManager(rule));
+		}
+		spec.anyExchange().permitAll();
+	}
+
+	/**
+	 * @return a matcher for the path within the application, matching any of the ant patterns
+	 */
+	public static ServerWebExchangeMatcher antMatcher(String... patterns) {
+		return exchange -> {
+			String path = exchange.getRequest().getPath().pathWithinApplication().value();
+			for (String pattern : patterns) {
+				if (PATH_MATCHER.match(pattern, path)) {
+					return MatchResult.match();
+				}
+			}
+			return MatchResult.notMatch();
+		};
+	}
+
+}
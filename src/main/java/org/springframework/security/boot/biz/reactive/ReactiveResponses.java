@@ -0,0 +1,44 @@
+/*
+ * Copyright (c) 2018, vindell (https://github.com/vindell).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.springframework.security.boot.biz.reactive;
+
+import java.nio.charset.StandardCharsets;
+
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+
+import com.alibaba.fastjson.JSONObject;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * 以 JSON 写出响应，与 Servlet 版本的处理器使用同样的序列化方式
+ */
+final class ReactiveResponses {
+
+	private ReactiveResponses() {
+	}
+
+	static Mono<Void> writeJSON(ServerHttpResponse response, HttpStatus status, Object body) {
+		response.setStatusCode(status);
+		response.getHeaders().setContentType(MediaType.APPLICATION_JSON_UTF8);
+		DataBuffer buffer = response.bufferFactory().wrap(JSONObject.toJSONString(body).getBytes(StandardCharsets.UTF_8));
+		return response.writeWith(Mono.just(buffer));
+	}
+
+}
@@ -0,0 +1,130 @@
+/*
+ * Copyright (c) 2018, vindell (https://github.com/vindell).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.springframework.security.boot.biz.reactive;
+
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.springframework.security.authorization.AuthorizationDecision;
+import org.springframework.security.authorization.ReactiveAuthorizationManager;
+import org.springframework.security.boot.biz.authorization.FilterChainDefinitions.Clause;
+import org.springframework.security.boot.biz.authorization.FilterChainDefinitions.Rule;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.web.server.authorization.AuthorizationContext;
+import org.springframework.security.web.util.matcher.IpAddressMatcher;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * 按 {@link Rule} 授权：{@code roles[...]}、{@code perms[...]} 和 {@code ipaddr[...]} 需要同时满足，
+ * 与 Servlet 版本生成的授权表达式含义相同；角色、权限和地址都在创建时预先整理好，授权时不解析表达式。
+ * @author ： <a href="https://github.com/vindell">wandl</a>
+ */
+public class RuleReactiveAuthorizationManager implements ReactiveAuthorizationManager<AuthorizationContext> {
+
+	private static final String ROLE_PREFIX = "ROLE_";
+	private static final Mono<AuthorizationDecision> GRANTED = Mono.just(new AuthorizationDecision(true));
+	private static final Mono<AuthorizationDecision> DENIED = Mono.just(new AuthorizationDecision(false));
+
+	private final Rule rule;
+	/** 每个 roles、perms 子句一组权限，每组至少具备一个 */
+	private final List<Set<String>> authorityGroups = new ArrayList<Set<String>>();
+	/** 每个 ipaddr 子句一组地址，每组至少匹配一个 */
+	private final List<List<IpAddressMatcher>> addressGroups = new ArrayList<List<IpAddressMatcher>>();
+
+	public RuleReactiveAuthorizationManager(Rule rule) {
+		this.rule = rule;
+		for (Clause clause : rule.getClauses()) {
+			if (Clause.IPADDR.equals(clause.getName())) {
+				List<IpAddressMatcher> matchers = new ArrayList<IpAddressMatcher>();
+				for (String value : clause.getValues()) {
+					matchers.add(new IpAddressMatcher(value));
+				}
+				addressGroups.add(matchers);
+			} else {
+				Set<String> authorities = new HashSet<String>();
+				for (String value : clause.getValues()) {
+					authorities.add(Clause.ROLES.equals(clause.getName()) && !value.startsWith(ROLE_PREFIX)
+							? ROLE_PREFIX + value : value);
+				}
+				authorityGroups.add(authorities);
+			}
+		}
+	}
+
+	@Override
+	public Mono<AuthorizationDecision> check(Mono<Authentication> authentication, AuthorizationContext context) {
+		if (!addressGranted(context.getExchange().getRequest().getRemoteAddress())) {
+			return DENIED;
+		}
+		if (authorityGroups.isEmpty()) {
+			return GRANTED;
+		}
+		return authentication
+				.filter(Authentication::isAuthenticated)
+				.map(this::authoritiesGranted)
+				.map(AuthorizationDecision::new)
+				.defaultIfEmpty(new AuthorizationDecision(false));
+	}
+
+	private boolean addressGranted(InetSocketAddress remoteAddress) {
+		if (addressGroups.isEmpty()) {
+			return true;
+		}
+		if (remoteAddress == null || remoteAddress.getAddress() == null) {
+			return false;
+		}
+		String address = remoteAddress.getAddress().getHostAddress();
+		for (List<IpAddressMatcher> matchers : addressGroups) {
+			boolean any = false;
+			for (IpAddressMatcher matcher : matchers) {
+				if (matcher.matches(address)) {
+					any = true;
+					break;
+				}
+			}
+			if (!any) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private boolean authoritiesGranted(Authentication authentication) {
+		for (Set<String> authorities : authorityGroups) {
+			boolean any = false;
+			for (GrantedAuthority authority : authentication.getAuthorities()) {
+				if (authorities.contains(authority.getAuthority())) {
+					any = true;
+					break;
+				}
+			}
+			if (!any) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	public Rule getRule() {
+		return rule;
+	}
+
+}
@@ -0,0 +1,50 @@
+/*
+ * Copyright (c) 2018, vindell (https://github.com/vindell).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.springframework.security.boot.biz.reactive;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.security.boot.biz.jfr.SecurityFlightRecorder;
+import org.springframework.web.server.ServerWebExchange;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * 认证失败次数保存在 {@link org.springframework.web.server.WebSession} 中，同一会话的并发请求共享一个计数器
+ * @author ： <a href="https://github.com/vindell">wandl</a>
+ */
+public class WebSessionAuthenticatingFailureCounter implements ReactiveAuthenticatingFailureCounter {
+
+	@Override
+	public Mono<Integer> get(ServerWebExchange exchange, String retryTimesKeyAttribute) {
+		return exchange.getSession().map(session -> {
+			AtomicInteger count = session.getAttribute(retryTimesKeyAttribute);
+			int retryTimes = count != null ? count.get() : 0;
+			SecurityFlightRecorder.failureCount(this, "get", retryTimes);
+			return retryTimes;
+		});
+	}
+
+	@Override
+	public Mono<Void> increment(ServerWebExchange exchange, String retryTimesKeyAttribute) {
+		return exchange.getSession().doOnNext(session -> {
+			AtomicInteger count = (AtomicInteger) session.getAttributes().computeIfAbsent(retryTimesKeyAttribute,
+					key -> new AtomicInteger());
+			SecurityFlightRecorder.failureCount(this, "increment", count.incrementAndGet());
+		}).then();
+	}
+
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright (c) 2018, vindell (https://github.com/vindell).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.springframework.security.boot.biz.reactive;
+
+import java.util.Date;
+
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.web.server.ServerWebExchange;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * 验证码保存在 {@link org.springframework.web.server.WebSession} 中，与
+ * {@link org.springframework.security.boot.biz.authentication.captcha.SessionCaptchaResolver} 对应
+ * @author ： <a href="https://github.com/vindell">wandl</a>
+ */
+public class WebSessionCaptchaResolver implements ReactiveCaptchaResolver {
+
+	public static final String KAPTCHA_SESSION_ATTRIBUTE_NAME = WebSessionCaptchaResolver.class.getName() + ".KAPTCHA";
+	public static final String KAPTCHA_DATE_SESSION_ATTRIBUTE_NAME = WebSessionCaptchaResolver.class.getName() + ".KAPTCHA_DATE";
+
+	private String sessionKeyValue = KAPTCHA_SESSION_ATTRIBUTE_NAME;
+	private String sessionKeyDateValue = KAPTCHA_DATE_SESSION_ATTRIBUTE_NAME;
+
+	@Override
+	public Mono<Boolean> validCaptcha(ServerWebExchange exchange, String capText) {
+		if (StringUtils.isEmpty(capText)) {
+			return Mono.just(Boolean.FALSE);
+		}
+		return exchange.getSession().map(session -> {
+			String sessionCapText = session.getAttribute(sessionKeyValue);
+			return sessionCapText != null && StringUtils.equalsIgnoreCase(sessionCapText, capText);
+		});
+	}
+
+	@Override
+	public Mono<Void> setCaptcha(ServerWebExchange exchange, String capText, Date capDate) {
+		return exchange.getSession().doOnNext(session -> {
+			if (StringUtils.isNotEmpty(capText)) {
+				session.getAttributes().put(sessionKeyValue, capText);
+			} else {
+				session.getAttributes().remove(sessionKeyValue);
+			}
+			session.getAttributes().put(sessionKeyDateValue, capDate != null ? capDate : new Date());
+		}).then();
+	}
+
+	public String getSessionKeyValue() {
+		return sessionKeyValue;
+	}
+
+	public void setSessionKeyValue(String sessionKeyValue) {
+		this.sessionKeyValue = sessionKeyValue;
+	}
+
+	public String getSessionKeyDateValue() {
+		return sessionKeyDateValue;
+	}
+
+	public void setSessionKeyDateValue(String sessionKeyDateValue) {
+		this.sessionKeyDateValue = sessionKeyDateValue;
+	}
+
+}
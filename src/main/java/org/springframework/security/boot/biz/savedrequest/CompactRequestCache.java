@@ -0,0 +1,163 @@
+/*
+ * Copyright (c) 2018, vindell (https://github.com/vindell).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.springframework.security.boot.biz.savedrequest;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpSession;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.boot.biz.authentication.RequestedUrlCookieRepository;
+import org.springframework.security.web.savedrequest.RequestCache;
+import org.springframework.security.web.savedrequest.SavedRequest;
+import org.springframework.security.web.util.UrlUtils;
+import org.springframework.security.web.util.matcher.RequestMatcher;
+import org.springframework.util.Assert;
+
+/**
+ * 轻量的 {@link RequestCache}：只保存请求方法和地址，代替 {@code HttpSessionRequestCache} 保存完整的
+ * {@code DefaultSavedRequest}（请求头、Cookie、参数和区域信息）。
+ * <p>
+ * 保存位置可以是会话中的一个小对象，也可以是 {@link RequestedUrlCookieRepository} 管理的签名 Cookie；
+ * 地址超过长度上限的请求以及 {@link SaveableRequestMatcher} 不匹配的请求（非 GET、AJAX、静态资源）不会被保存。
+ * </p>
+ * @author ： <a href="https://github.com/vindell">wandl</a>
+ */
+public class CompactRequestCache implements RequestCache {
+
+	public static final String DEFAULT_SESSION_ATTR_NAME = "SPRING_SECURITY_SAVED_REQUEST";
+	public static final int DEFAULT_MAX_URL_LENGTH = 1024;
+
+	protected final Logger logger = LoggerFactory.getLogger(getClass());
+
+	private final RequestedUrlCookieRepository cookieRepository;
+	private RequestMatcher requestMatcher = new SaveableRequestMatcher();
+	private String sessionAttrName = DEFAULT_SESSION_ATTR_NAME;
+	private boolean createSessionAllowed = true;
+	private int maxUrlLength = DEFAULT_MAX_URL_LENGTH;
+
+	/**
+	 * Create a cache keeping the saved request in the session.
+	 */
+	public CompactRequestCache() {
+		this.cookieRepository = null;
+	}
+
+	/**
+	 * Create a cache keeping the url of the saved request in a signed cookie, only GET
+	 * requests can be saved this way.
+	 */
+	public CompactRequestCache(RequestedUrlCookieRepository cookieRepository) {
+		Assert.notNull(cookieRepository, "cookieRepository must not be null");
+		this.cookieRepository = cookieRepository;
+	}
+
+	@Override
+	public void saveRequest(HttpServletRequest request, HttpServletResponse response) {
+		if (!requestMatcher.matches(request)) {
+			if (logger.isDebugEnabled()) {
+				logger.debug("Request not saved as configured RequestMatcher did not match");
+			}
+			return;
+		}
+		if (cookieRepository != null) {
+			if ("GET".equals(request.getMethod())) {
+				cookieRepository.saveRequestedUrl(request, response);
+			}
+			return;
+		}
+		String redirectUrl = UrlUtils.buildFullRequestUrl(request);
+		if (redirectUrl.length() > maxUrlLength) {
+			if (logger.isDebugEnabled()) {
+				logger.debug("Request not saved as its url is longer than " + maxUrlLength);
+			}
+			return;
+		}
+		HttpSession session = request.getSession(createSessionAllowed);
+		if (session != null) {
+			session.setAttribute(sessionAttrName, new CompactSavedRequest(request.getMethod(), redirectUrl));
+		}
+	}
+
+	@Override
+	public SavedRequest getRequest(HttpServletRequest request, HttpServletResponse response) {
+		if (cookieRepository != null) {
+			String url = cookieRepository.getRequestedUrl(request);
+			if (url == null) {
+				return null;
+			}
+			return new CompactSavedRequest("GET", UrlUtils.buildFullRequestUrl(request.getScheme(),
+					request.getServerName(), request.getServerPort(), request.getContextPath() + url, null));
+		}
+		HttpSession session = request.getSession(false);
+		if (session == null) {
+			return null;
+		}
+		Object savedRequest = session.getAttribute(sessionAttrName);
+		return savedRequest instanceof SavedRequest ? (SavedRequest) savedRequest : null;
+	}
+
+	@Override
+	public HttpServletRequest getMatchingRequest(HttpServletRequest request, HttpServletResponse response) {
+		SavedRequest savedRequest = getRequest(request, response);
+		if (savedRequest == null || !savedRequest.getMethod().equals(request.getMethod())
+				|| !savedRequest.getRedirectUrl().equals(UrlUtils.buildFullRequestUrl(request))) {
+			return null;
+		}
+		// 只保存了地址，当前请求本身就是要恢复的请求，不需要包装
+		removeRequest(request, response);
+		return request;
+	}
+
+	@Override
+	public void removeRequest(HttpServletRequest request, HttpServletResponse response) {
+		if (cookieRepository != null) {
+			cookieRepository.removeRequestedUrl(request, response);
+			return;
+		}
+		HttpSession session = request.getSession(false);
+		if (session != null) {
+			session.removeAttribute(sessionAttrName);
+		}
+	}
+
+	public void setRequestMatcher(RequestMatcher requestMatcher) {
+		Assert.notNull(requestMatcher, "requestMatcher must not be null");
+		this.requestMatcher = requestMatcher;
+	}
+
+	public void setSessionAttrName(String sessionAttrName) {
+		Assert.hasText(sessionAttrName, "sessionAttrName must not be empty");
+		this.sessionAttrName = sessionAttrName;
+	}
+
+	/**
+	 * If <code>true</code>, indicates that it is permitted to store the target URL and
+	 * exception information in a new <code>HttpSession</code> (the default).
+	 */
+	public void setCreateSessionAllowed(boolean createSessionAllowed) {
+		this.createSessionAllowed = createSessionAllowed;
+	}
+
+	/**
+	 * @param maxUrlLength requests with a longer url are not saved in the session
+	 */
+	public void setMaxUrlLength(int maxUrlLength) {
+		this.maxUrlLength = maxUrlLength;
+	}
+
+}
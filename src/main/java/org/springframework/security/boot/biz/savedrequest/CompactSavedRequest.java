@@ -0,0 +1,110 @@
+/*
+ * Copyright (c) 2018, vindell (https://github.com/vindell).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.springframework.security.boot.biz.savedrequest;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import javax.servlet.http.Cookie;
+
+import org.springframework.security.web.savedrequest.SavedRequest;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.util.UriComponentsBuilder;
+import org.springframework.web.util.UriUtils;
+
+/**
+ * 只保存请求方法和地址的 {@link SavedRequest}，不保存请求头、Cookie 和区域信息；
+ * 请求参数在需要时从地址的查询串中解析。
+ * @author ： <a href="https://github.com/vindell">wandl</a>
+ */
+public class CompactSavedRequest implements SavedRequest {
+
+	private static final long serialVersionUID = 1L;
+
+	private final String method;
+	private final String redirectUrl;
+	private transient Map<String, String[]> parameters;
+
+	public CompactSavedRequest(String method, String redirectUrl) {
+		this.method = method;
+		this.redirectUrl = redirectUrl;
+	}
+
+	@Override
+	public String getRedirectUrl() {
+		return redirectUrl;
+	}
+
+	@Override
+	public String getMethod() {
+		return method;
+	}
+
+	@Override
+	public List<Cookie> getCookies() {
+		return Collections.emptyList();
+	}
+
+	@Override
+	public List<String> getHeaderValues(String name) {
+		return Collections.emptyList();
+	}
+
+	@Override
+	public Collection<String> getHeaderNames() {
+		return Collections.emptyList();
+	}
+
+	@Override
+	public List<Locale> getLocales() {
+		return Collections.emptyList();
+	}
+
+	@Override
+	public String[] getParameterValues(String name) {
+		return getParameterMap().get(name);
+	}
+
+	@Override
+	public Map<String, String[]> getParameterMap() {
+		if (parameters == null) {
+			MultiValueMap<String, String> query = UriComponentsBuilder.fromUriString(redirectUrl).build(false)
+					.getQueryParams();
+			Map<String, String[]> map = new LinkedHashMap<String, String[]>(query.size());
+			for (Map.Entry<String, List<String>> entry : query.entrySet()) {
+				String[] values = new String[entry.getValue().size()];
+				for (int i = 0; i < values.length; i++) {
+					String value = entry.getValue().get(i);
+					values[i] = value != null ? UriUtils.decode(value, StandardCharsets.UTF_8) : "";
+				}
+				map.put(UriUtils.decode(entry.getKey(), StandardCharsets.UTF_8), values);
+			}
+			parameters = Collections.unmodifiableMap(map);
+		}
+		return parameters;
+	}
+
+	@Override
+	public String toString() {
+		return "CompactSavedRequest[" + method + " " + redirectUrl + "]";
+	}
+
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright (c) 2018, vindell (https://github.com/vindell).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.springframework.security.boot.biz.savedrequest;
+
+import java.util.regex.Pattern;
+
+import javax.servlet.http.HttpServletRequest;
+
+import org.springframework.security.web.util.matcher.RequestMatcher;
+import org.springframework.util.StringUtils;
+
+/**
+ * 判断请求是否值得保存：只保存 GET 请求，跳过 AJAX 请求和静态资源请求。
+ * <p>
+ * 静态资源的扩展名和路径前缀在构造时预编译为一个正则表达式，匹配时只做一次检索。
+ * </p>
+ * @author ： <a href="https://github.com/vindell">wandl</a>
+ */
+public class SaveableRequestMatcher implements RequestMatcher {
+
+	public static final String DEFAULT_ASSET_EXTENSIONS = "css,js,map,png,jpg,jpeg,gif,svg,ico,webp,woff,woff2,ttf,eot";
+	public static final String DEFAULT_ASSET_PATHS = "/static/,/webjars/,/assets/";
+
+	private static final String XHR_HEADER = "X-Requested-With";
+	private static final String XHR_VALUE = "XMLHttpRequest";
+
+	private final Pattern assetPattern;
+
+	public SaveableRequestMatcher() {
+		this(DEFAULT_ASSET_EXTENSIONS, DEFAULT_ASSET_PATHS);
+	}
+
+	/**
+	 * @param assetExtensions comma separated extensions of static resources
+	 * @param assetPaths comma separated path prefixes of static resources
+	 */
+	public SaveableRequestMatcher(String assetExtensions, String assetPaths) {
+		this.assetPattern = compile(StringUtils.commaDelimitedListToStringArray(assetExtensions),
+				StringUtils.commaDelimitedListToStringArray(assetPaths));
+	}
+
+	private static Pattern compile(String[] extensions, String[] paths) {
+		StringBuilder regex = new StringBuilder();
+		for (String path : paths) {
+			if (StringUtils.hasText(path)) {
+				regex.append(regex.length() > 0 ? "|" : "").append('^').append(Pattern.quote(path.trim()));
+			}
+		}
+		StringBuilder ext = new StringBuilder();
+		for (String extension : extensions) {
+			if (StringUtils.hasText(extension)) {
+				ext.append(ext.length() > 0 ? "|" : "").append(Pattern.quote(extension.trim()));
+			}
+		}
+		if (ext.length() > 0) {
+			regex.append(regex.length() > 0 ? "|" : "").append("\\.(?:").append(ext).append(")$");
+		}
+		return regex.length() > 0 ? Pattern.compile(regex.toString(), Pattern.CASE_INSENSITIVE) : null;
+	}
+
+	@Override
+	public boolean matches(HttpServletRequest request) {
+		if (!"GET".equals(request.getMethod())) {
+			return false;
+		}
+		if (XHR_VALUE.equalsIgnoreCase(request.getHeader(XHR_HEADER))) {
+			return false;
+		}
+		return assetPattern == null || !assetPattern.matcher(path(request)).find();
+	}
+
+	private static String path(HttpServletRequest request) {
+		String path = request.getServletPath();
+		if (request.getPathInfo() != null) {
+			path = path + request.getPathInfo();
+		}
+		if (StringUtils.hasLength(path)) {
+			return path;
+		}
+		return request.getRequestURI().substring(request.getContextPath().length());
+	}
+
+}
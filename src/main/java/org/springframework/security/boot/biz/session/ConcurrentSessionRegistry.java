@@ -0,0 +1,374 @@
+/*
+ * Copyright (c) 2018, vindell (https://github.com/vindell).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.springframework.security.boot.biz.session;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.context.ApplicationListener;
+import org.springframework.security.boot.biz.cache.TimingWheel;
+import org.springframework.security.core.session.SessionDestroyedEvent;
+import org.springframework.security.core.session.SessionInformation;
+import org.springframework.security.core.session.SessionRegistry;
+import org.springframework.util.Assert;
+
+/**
+ * 高并发的 {@link SessionRegistry} 实现，用于替换 {@code SessionRegistryImpl}。
+ * <p>
+ * 每个用户的会话保存在两个并发集合中（活动的和已过期的），增删会话不再复制整个数组；
+ * 会话被 {@link SessionInformation#expireNow()} 标记过期时会立即从活动集合移到过期集合，
+ * 因此 {@code getAllSessions(principal, false)} 不需要逐个过滤，会话数量可以 O(1) 获取。
+ * </p>
+ * <p>
+ * 设置了空闲超时时间后，会话按最后请求时间挂在分层时间轮上，由后台线程分批清理空闲的会话，
+ * 避免容器崩溃或缺少 {@link SessionDestroyedEvent} 时会话信息永远留在内存中。
+ * 刷新最后请求时间不需要加锁，到期时再按实际的最后请求时间重新调度。
+ * </p>
+ * @author ： <a href="https://github.com/vindell">wandl</a>
+ */
+public class ConcurrentSessionRegistry implements SessionRegistry, ApplicationListener<SessionDestroyedEvent>,
+		InitializingBean, DisposableBean {
+
+	public static final long DEFAULT_SWEEP_INTERVAL = 60 * 1000L;
+	public static final int DEFAULT_SWEEP_BATCH_SIZE = 1000;
+
+	private static final long TICK_MILLIS = 1000L;
+
+	protected final Logger logger = LoggerFactory.getLogger(getClass());
+
+	/** &lt;principal:Object,PrincipalSessions&gt; */
+	private final ConcurrentMap<Object, PrincipalSessions> principals = new ConcurrentHashMap<Object, PrincipalSessions>();
+	/** &lt;sessionId:Object,SessionInformation&gt; */
+	private final ConcurrentMap<String, RegistrySessionInformation> sessionIds = new ConcurrentHashMap<String, RegistrySessionInformation>();
+
+	private final long idleTimeout;
+	private final TimingWheel<RegistrySessionInformation> wheel;
+	private final ReentrantLock lock = new ReentrantLock();
+	private long sweepInterval = DEFAULT_SWEEP_INTERVAL;
+	private int sweepBatchSize = DEFAULT_SWEEP_BATCH_SIZE;
+	private ScheduledExecutorService sweeper;
+
+	private final LongAdder reaped = new LongAdder();
+	private final LongAdder reapedExpired = new LongAdder();
+	private final LongAdder sweeps = new LongAdder();
+
+	/**
+	 * Create a registry which only removes sessions on {@link SessionDestroyedEvent}.
+	 */
+	public ConcurrentSessionRegistry() {
+		this(0);
+	}
+
+	/**
+	 * @param idleTimeout how long a session may stay without requests before it is
+	 *        removed by the sweeper, in milliseconds; zero or less disables sweeping
+	 */
+	public ConcurrentSessionRegistry(long idleTimeout) {
+		this.idleTimeout = idleTimeout;
+		this.wheel = idleTimeout > 0 ? new TimingWheel<RegistrySessionInformation>(TICK_MILLIS, System.currentTimeMillis()) : null;
+	}
+
+	@Override
+	public void afterPropertiesSet() {
+		if (wheel == null || sweeper != null) {
+			return;
+		}
+		sweeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "session-registry-sweeper");
+			thread.setDaemon(true);
+			return thread;
+		});
+		sweeper.scheduleWithFixedDelay(this::sweepQuietly, sweepInterval, sweepInterval, TimeUnit.MILLISECONDS);
+	}
+
+	@Override
+	public void destroy() {
+		if (sweeper != null) {
+			sweeper.shutdownNow();
+			sweeper = null;
+		}
+	}
+
+	@Override
+	public List<Object> getAllPrincipals() {
+		return new ArrayList<Object>(principals.keySet());
+	}
+
+	@Override
+	public List<SessionInformation> getAllSessions(Object principal, boolean includeExpiredSessions) {
+		PrincipalSessions sessions = principals.get(principal);
+		if (sessions == null) {
+			return Collections.emptyList();
+		}
+		List<SessionInformation> list = new ArrayList<SessionInformation>(
+				sessions.active.size() + (includeExpiredSessions ? sessions.expired.size() : 0));
+		list.addAll(sessions.active);
+		if (includeExpiredSessions) {
+			list.addAll(sessions.expired);
+		}
+		return list;
+	}
+
+	/**
+	 * Obtains the number of sessions of the principal without copying them.
+	 * @param principal to locate sessions for
+	 * @param includeExpiredSessions if <code>true</code>, expired sessions are counted too
+	 * @return the number of sessions
+	 */
+	public int getSessionCount(Object principal, boolean includeExpiredSessions) {
+		PrincipalSessions sessions = principals.get(principal);
+		if (sessions == null) {
+			return 0;
+		}
+		return sessions.active.size() + (includeExpiredSessions ? sessions.expired.size() : 0);
+	}
+
+	@Override
+	public SessionInformation getSessionInformation(String sessionId) {
+		Assert.hasText(sessionId, "SessionId required as per interface contract");
+		return sessionIds.get(sessionId);
+	}
+
+	@Override
+	public void onApplicationEvent(SessionDestroyedEvent event) {
+		removeSessionInformation(event.getId());
+	}
+
+	@Override
+	public void refreshLastRequest(String sessionId) {
+		Assert.hasText(sessionId, "SessionId required as per interface contract");
+		SessionInformation info = getSessionInformation(sessionId);
+		if (info != null) {
+			info.refreshLastRequest();
+		}
+	}
+
+	@Override
+	public void registerNewSession(String sessionId, Object principal) {
+		Assert.hasText(sessionId, "SessionId required as per interface contract");
+		Assert.notNull(principal, "Principal required as per interface contract");
+
+		if (getSessionInformation(sessionId) != null) {
+			removeSessionInformation(sessionId);
+		}
+
+		if (logger.isDebugEnabled()) {
+			logger.debug("Registering session " + sessionId + ", for principal " + principal);
+		}
+
+		RegistrySessionInformation info = new RegistrySessionInformation(this, principal, sessionId, new Date());
+		/*
+		 * 在用户的 compute 中登记 id：并发的 removeSessionInformation 若在登记后取走了 id，
+		 * 其 computeIfPresent 会等待本次 compute 结束，再把会话从用户的集合中移除，不会留下残余
+		 */
+		principals.compute(principal, (key, sessions) -> {
+			if (sessions == null) {
+				sessions = new PrincipalSessions();
+			}
+			sessions.active.add(info);
+			sessionIds.put(sessionId, info);
+			return sessions;
+		});
+		if (wheel != null) {
+			lock.lock();
+			try {
+				info.node = wheel.schedule(info, info.getLastRequest().getTime() + idleTimeout);
+			} finally {
+				lock.unlock();
+			}
+		}
+	}
+
+	@Override
+	public void removeSessionInformation(String sessionId) {
+		Assert.hasText(sessionId, "SessionId required as per interface contract");
+
+		RegistrySessionInformation info = sessionIds.remove(sessionId);
+		if (info == null) {
+			return;
+		}
+
+		if (logger.isDebugEnabled()) {
+			logger.debug("Removing session " + sessionId + " from set of registered sessions");
+		}
+
+		if (wheel != null && info.node != null) {
+			lock.lock();
+			try {
+				wheel.cancel(info.node);
+			} finally {
+				lock.unlock();
+			}
+		}
+		removePrincipalSession(info);
+	}
+
+	private void removePrincipalSession(RegistrySessionInformation info) {
+		principals.computeIfPresent(info.getPrincipal(), (key, sessions) -> {
+			sessions.active.remove(info);
+			sessions.expired.remove(info);
+			if (sessions.isEmpty()) {
+				if (logger.isDebugEnabled()) {
+					logger.debug("Removing principal " + info.getPrincipal() + " from registry");
+				}
+				return null;
+			}
+			return sessions;
+		});
+	}
+
+	/**
+	 * Called by {@link RegistrySessionInformation#expireNow()}.
+	 */
+	void onExpired(RegistrySessionInformation info) {
+		principals.computeIfPresent(info.getPrincipal(), (key, sessions) -> {
+			if (sessions.active.remove(info)) {
+				sessions.expired.add(info);
+			}
+			return sessions;
+		});
+	}
+
+	/**
+	 * Remove the sessions which have been idle for longer than the idle timeout, in
+	 * batches of {@link #getSweepBatchSize()} so that registrations are not blocked
+	 * for the whole sweep.
+	 * @return the number of removed sessions
+	 */
+	public int sweep() {
+		if (wheel == null) {
+			return 0;
+		}
+		long now = System.currentTimeMillis();
+		List<RegistrySessionInformation> idle = new ArrayList<RegistrySessionInformation>();
+		int removed = 0;
+		int polled;
+		do {
+			lock.lock();
+			try {
+				polled = wheel.advance(now, sweepBatchSize, node -> {
+					RegistrySessionInformation info = node.getValue();
+					if (sessionIds.get(info.getSessionId()) != info) {
+						// 已被移除或被同一 id 的新会话替换
+						return;
+					}
+					long deadline = info.getLastRequest().getTime() + idleTimeout;
+					if (deadline > now) {
+						wheel.reschedule(node, deadline);
+					} else {
+						idle.add(info);
+					}
+				});
+			} finally {
+				lock.unlock();
+			}
+			for (RegistrySessionInformation info : idle) {
+				if (sessionIds.remove(info.getSessionId(), info)) {
+					removePrincipalSession(info);
+					removed++;
+					reaped.increment();
+					if (info.isExpired()) {
+						reapedExpired.increment();
+					}
+				}
+			}
+			idle.clear();
+		} while (polled >= sweepBatchSize);
+		sweeps.increment();
+		if (removed > 0 && logger.isDebugEnabled()) {
+			logger.debug("Removed " + removed + " idle sessions from registry");
+		}
+		return removed;
+	}
+
+	private void sweepQuietly() {
+		try {
+			sweep();
+		} catch (RuntimeException e) {
+			logger.warn("Failed to sweep idle sessions", e);
+		}
+	}
+
+	/**
+	 * @return the number of registered sessions
+	 */
+	public int size() {
+		return sessionIds.size();
+	}
+
+	public long getIdleTimeout() {
+		return idleTimeout;
+	}
+
+	public long getSweepInterval() {
+		return sweepInterval;
+	}
+
+	public void setSweepInterval(long sweepInterval) {
+		Assert.isTrue(sweepInterval > 0, "sweepInterval must be positive");
+		this.sweepInterval = sweepInterval;
+	}
+
+	public int getSweepBatchSize() {
+		return sweepBatchSize;
+	}
+
+	public void setSweepBatchSize(int sweepBatchSize) {
+		Assert.isTrue(sweepBatchSize > 0, "sweepBatchSize must be positive");
+		this.sweepBatchSize = sweepBatchSize;
+	}
+
+	/** @return the number of sessions removed by the sweeper */
+	public long getReaped() {
+		return reaped.sum();
+	}
+
+	/** @return the number of already expired sessions removed by the sweeper */
+	public long getReapedExpired() {
+		return reapedExpired.sum();
+	}
+
+	/** @return the number of sweeps run */
+	public long getSweeps() {
+		return sweeps.sum();
+	}
+
+	private static final class PrincipalSessions {
+
+		private final Set<RegistrySessionInformation> active = ConcurrentHashMap.newKeySet();
+		private final Set<RegistrySessionInformation> expired = ConcurrentHashMap.newKeySet();
+
+		boolean isEmpty() {
+			return active.isEmpty() && expired.isEmpty();
+		}
+
+	}
+
+}
@@ -0,0 +1,50 @@
+/*
+ * Copyright (c) 2018, vindell (https://github.com/vindell).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.springframework.security.boot.biz.session;
+
+import java.util.Date;
+
+import org.springframework.security.boot.biz.cache.TimingWheel;
+import org.springframework.security.core.session.SessionInformation;
+
+/**
+ * {@link SessionInformation} that notifies its {@link ConcurrentSessionRegistry}
+ * when it is expired, so the registry can keep active and expired sessions apart.
+ * @author ： <a href="https://github.com/vindell">wandl</a>
+ */
+@SuppressWarnings("serial")
+public class RegistrySessionInformation extends SessionInformation {
+
+	private final transient ConcurrentSessionRegistry registry;
+	/** 空闲清理用的时间轮节点，由注册表在持有锁时读写 */
+	transient TimingWheel.Node<RegistrySessionInformation> node;
+
+	public RegistrySessionInformation(ConcurrentSessionRegistry registry, Object principal, String sessionId,
+			Date lastRequest) {
+		super(principal, sessionId, lastRequest);
+		this.registry = registry;
+	}
+
+	@Override
+	public void expireNow() {
+		boolean wasExpired = isExpired();
+		super.expireNow();
+		if (!wasExpired && registry != null) {
+			registry.onExpired(this);
+		}
+	}
+
+}
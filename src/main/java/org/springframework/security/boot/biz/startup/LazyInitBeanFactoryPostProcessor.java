@@ -0,0 +1,143 @@
+/*
+ * Copyright (c) 2018, vindell (https://github.com/vindell).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.springframework.security.boot.biz.startup;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.BeanClassLoaderAware;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.AnnotatedBeanDefinition;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.BeanFactoryPostProcessor;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.context.Lifecycle;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.core.Ordered;
+import org.springframework.core.type.MethodMetadata;
+import org.springframework.util.ClassUtils;
+
+/**
+ * 把本 starter 的自动配置声明的单例 Bean 标记为延迟初始化：应用用不到的 Bean 不会在启动时创建，
+ * 用到的 Bean 在第一次被注入或查找时创建。
+ * <p>
+ * 过滤器链、Servlet 过滤器注册等在启动时就会被查找的 Bean 仍然在启动时创建，
+ * 因此只有真正没被引用的 Bean 才会被跳过。
+ * 同一包下其他 starter 和应用自己的 Bean 不受影响；启动时就要执行的 Bean
+ * （{@link InitializingBean}、{@link Lifecycle}，或标注了 {@code @Lazy(false)}）也保持立即创建，
+ * 例如启动后台线程的审计日志和会话清理。
+ * </p>
+ * @author ： <a href="https://github.com/vindell">wandl</a>
+ */
+public class LazyInitBeanFactoryPostProcessor implements BeanFactoryPostProcessor, BeanClassLoaderAware, Ordered {
+
+	/**
+	 * The auto-configurations of this starter, their nested configurations included. Named rather than
+	 * referenced, the reactive and metrics configurations need classes which may be missing.
+	 */
+	static final List<String> AUTO_CONFIGURATIONS = Arrays.asList(
+			"org.springframework.security.boot.SecurityBizAutoConfiguration",
+			"org.springframework.security.boot.SecurityBizUpcAutoConfiguration",
+			"org.springframework.security.boot.SecurityBizUpcFilterAutoConfiguration",
+			"org.springframework.security.boot.SecurityBizReactiveAutoConfiguration",
+			"org.springframework.security.boot.SecurityBizMetricsAutoConfiguration");
+
+	private static final Logger LOG = LoggerFactory.getLogger(LazyInitBeanFactoryPostProcessor.class);
+
+	private ClassLoader beanClassLoader = ClassUtils.getDefaultClassLoader();
+
+	@Override
+	public void setBeanClassLoader(ClassLoader classLoader) {
+		this.beanClassLoader = classLoader;
+	}
+
+	@Override
+	public void postProcessBeanFactory(ConfigurableListableBeanFactory beanFactory) throws BeansException {
+		int lazy = 0;
+		for (String beanName : beanFactory.getBeanDefinitionNames()) {
+			BeanDefinition definition = beanFactory.getBeanDefinition(beanName);
+			if (definition.isSingleton() && !definition.isLazyInit() && isStarterBean(definition)
+					&& !isEager(definition)) {
+				definition.setLazyInit(true);
+				lazy++;
+			}
+		}
+		if (LOG.isDebugEnabled()) {
+			LOG.debug("Marked " + lazy + " security starter beans as lazy");
+		}
+	}
+
+	@Override
+	public int getOrder() {
+		return Ordered.LOWEST_PRECEDENCE;
+	}
+
+	/**
+	 * @return whether the bean is declared by an auto-configuration of this starter,
+	 *         either as a configuration class or by a {@code @Bean} method of one
+	 */
+	static boolean isStarterBean(BeanDefinition definition) {
+		if (definition instanceof AnnotatedBeanDefinition) {
+			MethodMetadata factoryMethod = ((AnnotatedBeanDefinition) definition).getFactoryMethodMetadata();
+			if (factoryMethod != null) {
+				return isAutoConfiguration(factoryMethod.getDeclaringClassName());
+			}
+		}
+		return isAutoConfiguration(definition.getBeanClassName());
+	}
+
+	private static boolean isAutoConfiguration(String className) {
+		if (className == null) {
+			return false;
+		}
+		for (String autoConfiguration : AUTO_CONFIGURATIONS) {
+			if (className.equals(autoConfiguration) || className.startsWith(autoConfiguration + "$")) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * @return whether the bean has to be created at startup for its side effects,
+	 *         or its type cannot be told without creating it
+	 */
+	boolean isEager(BeanDefinition definition) {
+		String typeName = definition.getBeanClassName();
+		if (definition instanceof AnnotatedBeanDefinition) {
+			MethodMetadata factoryMethod = ((AnnotatedBeanDefinition) definition).getFactoryMethodMetadata();
+			if (factoryMethod != null) {
+				if (factoryMethod.isAnnotated(Lazy.class.getName())) {
+					return !Boolean.TRUE.equals(factoryMethod.getAnnotationAttributes(Lazy.class.getName()).get("value"));
+				}
+				typeName = factoryMethod.getReturnTypeName();
+			}
+		}
+		if (typeName == null) {
+			return true;
+		}
+		try {
+			Class<?> type = ClassUtils.forName(typeName, beanClassLoader);
+			return InitializingBean.class.isAssignableFrom(type) || Lifecycle.class.isAssignableFrom(type);
+		} catch (ClassNotFoundException | LinkageError e) {
+			return true;
+		}
+	}
+
+}
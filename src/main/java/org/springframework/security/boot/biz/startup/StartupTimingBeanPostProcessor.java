@@ -0,0 +1,194 @@
+/*
+ * Copyright (c) 2018, vindell (https://github.com/vindell).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.springframework.security.boot.biz.startup;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.BeanFactoryAware;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.beans.factory.config.InstantiationAwareBeanPostProcessor;
+import org.springframework.core.Ordered;
+import org.springframework.core.PriorityOrdered;
+
+/**
+ * 统计本 starter 每个 Bean 的创建耗时（从实例化前到初始化后），启动完成时输出汇总。
+ * <p>
+ * 创建一个 Bean 时依赖的其他 Bean 会嵌套创建，按线程记录创建栈，
+ * 每个 Bean 同时给出包含依赖的总耗时和扣除依赖后的自身耗时。
+ * 汇总以 INFO 级别输出一行，每个 Bean 的明细以 DEBUG 级别输出；延迟创建的 Bean 在创建后计入 {@link #getTimings()}。
+ * </p>
+ * @author ： <a href="https://github.com/vindell">wandl</a>
+ */
+public class StartupTimingBeanPostProcessor
+		implements InstantiationAwareBeanPostProcessor, BeanFactoryAware, SmartInitializingSingleton, PriorityOrdered {
+
+	private static final Logger LOG = LoggerFactory.getLogger(StartupTimingBeanPostProcessor.class);
+
+	private final ThreadLocal<Deque<Frame>> creating = ThreadLocal.withInitial(ArrayDeque::new);
+	private final Map<String, Timing> timings = new ConcurrentHashMap<String, Timing>();
+	private ConfigurableListableBeanFactory beanFactory;
+
+	@Override
+	public void setBeanFactory(BeanFactory beanFactory) {
+		if (beanFactory instanceof ConfigurableListableBeanFactory) {
+			this.beanFactory = (ConfigurableListableBeanFactory) beanFactory;
+		}
+	}
+
+	@Override
+	public Object postProcessBeforeInstantiation(Class<?> beanClass, String beanName) throws BeansException {
+		creating.get().push(new Frame(beanName, System.nanoTime()));
+		return null;
+	}
+
+	@Override
+	public Object postProcessAfterInitialization(Object bean, String beanName) throws BeansException {
+		Deque<Frame> stack = creating.get();
+		if (!containsFrame(stack, beanName)) {
+			// 内部 Bean 或由实例化回调短路创建的 Bean
+			return bean;
+		}
+		Frame frame = stack.peek();
+		while (!frame.beanName.equals(beanName)) {
+			// 创建失败的 Bean 不会回调到这里，丢弃其记录
+			stack.pop();
+			frame = stack.peek();
+		}
+		stack.pop();
+		long total = System.nanoTime() - frame.start;
+		Frame parent = stack.peek();
+		if (parent != null) {
+			parent.children += total;
+		}
+		if (isStarterBean(beanName)) {
+			timings.put(beanName, new Timing(beanName, total, total - frame.children));
+		}
+		return bean;
+	}
+
+	private static boolean containsFrame(Deque<Frame> stack, String beanName) {
+		for (Frame frame : stack) {
+			if (frame.beanName.equals(beanName)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private boolean isStarterBean(String beanName) {
+		return beanFactory != null && beanFactory.containsBeanDefinition(beanName)
+				&& LazyInitBeanFactoryPostProcessor.isStarterBean(beanFactory.getBeanDefinition(beanName));
+	}
+
+	@Override
+	public void afterSingletonsInstantiated() {
+		creating.remove();
+		List<Timing> sorted = getTimings();
+		long self = 0;
+		for (Timing timing : sorted) {
+			self += timing.getSelfNanos();
+		}
+		if (LOG.isInfoEnabled()) {
+			StringBuilder slowest = new StringBuilder();
+			for (int i = 0; i < Math.min(3, sorted.size()); i++) {
+				slowest.append(i == 0 ? "" : ", ").append(sorted.get(i));
+			}
+			LOG.info(String.format("Security starter created %d beans in %.1f ms, slowest: %s", sorted.size(),
+					self / 1e6, slowest));
+		}
+		if (LOG.isDebugEnabled()) {
+			for (Timing timing : sorted) {
+				LOG.debug(String.format("  %-48s %8.2f ms self %8.2f ms total", timing.getBeanName(),
+						timing.getSelfNanos() / 1e6, timing.getTotalNanos() / 1e6));
+			}
+		}
+	}
+
+	/**
+	 * @return the timings of the starter beans created so far, slowest first by self time
+	 */
+	public List<Timing> getTimings() {
+		List<Timing> sorted = new ArrayList<Timing>(timings.values());
+		Collections.sort(sorted, (a, b) -> Long.compare(b.getSelfNanos(), a.getSelfNanos()));
+		return sorted;
+	}
+
+	@Override
+	public int getOrder() {
+		return Ordered.HIGHEST_PRECEDENCE;
+	}
+
+	private static final class Frame {
+
+		private final String beanName;
+		private final long start;
+		private long children;
+
+		Frame(String beanName, long start) {
+			this.beanName = beanName;
+			this.start = start;
+		}
+
+	}
+
+	/**
+	 * The time spent creating one bean.
+	 */
+	public static final class Timing {
+
+		private final String beanName;
+		private final long totalNanos;
+		private final long selfNanos;
+
+		Timing(String beanName, long totalNanos, long selfNanos) {
+			this.beanName = beanName;
+			this.totalNanos = totalNanos;
+			this.selfNanos = selfNanos;
+		}
+
+		public String getBeanName() {
+			return beanName;
+		}
+
+		/** @return the time including the beans created as its dependencies */
+		public long getTotalNanos() {
+			return totalNanos;
+		}
+
+		/** @return the time excluding the beans created as its dependencies */
+		public long getSelfNanos() {
+			return selfNanos;
+		}
+
+		@Override
+		public String toString() {
+			return String.format("%s %.1f ms", beanName, selfNanos / 1e6);
+		}
+
+	}
+
+}
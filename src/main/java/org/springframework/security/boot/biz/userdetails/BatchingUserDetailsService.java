@@ -0,0 +1,267 @@
+/*
+ * Copyright (c) 2018, vindell (https://github.com/vindell).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.springframework.security.boot.biz.userdetails;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.springframework.security.authentication.InternalAuthenticationServiceException;
+import org.springframework.security.boot.biz.exception.AuthenticationTimeoutException;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.util.Assert;
+
+/**
+ * 合并并发登录的用户查询：在一个时间窗口内（或凑满一批后）到达的 {@link #loadUserByUsername(String)} 调用
+ * 通过一次 {@link UserDetailsServiceAdapter#loadUsersByUsernames(Collection)} 加载，结果再分发给各个等待的请求。
+ * <p>
+ * 不需要额外的线程：每批的第一个请求最多等待一个窗口，然后在自己的线程上执行批量查询；凑满一批的请求立即执行。
+ * 同一批中已经有相同用户名时直接单独查询，而不是共享同一个 {@link UserDetails}，
+ * 因为认证成功后其中的凭证会被擦除，共享的对象会让另一个同时进行的登录失败。
+ * 低负载时每次登录最多多出一个窗口的延迟，只有委托对象以一次查询实现批量加载时才值得开启。
+ * 等待其他线程执行批量查询的请求最多等待 batchTimeout，超时后以 {@link AuthenticationTimeoutException} 失败。
+ * </p>
+ * @author ： <a href="https://github.com/vindell">wandl</a>
+ */
+public class BatchingUserDetailsService extends UserDetailsServiceAdapter {
+
+	public static final long DEFAULT_BATCH_WINDOW = 2L;
+	public static final int DEFAULT_MAX_BATCH_SIZE = 64;
+	public static final long DEFAULT_BATCH_TIMEOUT = 10 * 1000L;
+
+	private final UserDetailsServiceAdapter delegate;
+	private final long batchWindow;
+	private final int maxBatchSize;
+	private final long batchTimeout;
+	private final ReentrantLock lock = new ReentrantLock();
+	/** 正在收集请求的批次，由 lock 保护 */
+	private Batch current;
+
+	private final LongAdder batches = new LongAdder();
+	private final LongAdder batchedLookups = new LongAdder();
+	private final LongAdder directLookups = new LongAdder();
+
+	public BatchingUserDetailsService(UserDetailsServiceAdapter delegate) {
+		this(delegate, DEFAULT_BATCH_WINDOW, DEFAULT_MAX_BATCH_SIZE);
+	}
+
+	/**
+	 * @param delegate the service loading the users
+	 * @param batchWindow how long the first lookup of a batch waits for others, in milliseconds
+	 * @param maxBatchSize the number of lookups which dispatches a batch without waiting
+	 */
+	public BatchingUserDetailsService(UserDetailsServiceAdapter delegate, long batchWindow, int maxBatchSize) {
+		this(delegate, batchWindow, maxBatchSize, DEFAULT_BATCH_TIMEOUT);
+	}
+
+	/**
+	 * @param delegate the service loading the users
+	 * @param batchWindow how long the first lookup of a batch waits for others, in milliseconds
+	 * @param maxBatchSize the number of lookups which dispatches a batch without waiting
+	 * @param batchTimeout how long a lookup waits for the batch loaded by another thread, in milliseconds
+	 */
+	public BatchingUserDetailsService(UserDetailsServiceAdapter delegate, long batchWindow, int maxBatchSize,
+			long batchTimeout) {
+		Assert.notNull(delegate, "delegate must not be null");
+		Assert.isTrue(batchWindow >= 0, "batchWindow must not be negative");
+		Assert.isTrue(maxBatchSize > 0, "maxBatchSize must be positive");
+		Assert.isTrue(batchTimeout > 0, "batchTimeout must be positive");
+		this.delegate = delegate;
+		this.batchWindow = batchWindow;
+		this.maxBatchSize = maxBatchSize;
+		this.batchTimeout = batchTimeout;
+	}
+
+	@Override
+	public UserDetails loadUserDetails(Authentication token) throws UsernameNotFoundException {
+		if (token.getPrincipal() instanceof String) {
+			return loadUserByUsername((String) token.getPrincipal());
+		}
+		return delegate.loadUserDetails(token);
+	}
+
+	@Override
+	public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
+		Batch batch;
+		CompletableFuture<UserDetails> future = new CompletableFuture<UserDetails>();
+		boolean leader = false;
+		boolean full = false;
+		lock.lock();
+		try {
+			batch = current;
+			if (batch == null) {
+				batch = current = new Batch();
+				leader = true;
+			} else if (batch.lookups.containsKey(username)) {
+				batch = null;
+			}
+			if (batch != null) {
+				batch.lookups.put(username, future);
+				if (batch.lookups.size() >= maxBatchSize) {
+					current = null;
+					full = true;
+				}
+			}
+		} finally {
+			lock.unlock();
+		}
+		if (batch == null) {
+			directLookups.increment();
+			return delegate.loadUserByUsername(username);
+		}
+		if (full) {
+			batch.sealed.countDown();
+			dispatch(batch);
+		} else if (leader) {
+			awaitSealed(batch);
+			boolean expired = false;
+			lock.lock();
+			try {
+				if (current == batch) {
+					current = null;
+					expired = true;
+				}
+			} finally {
+				lock.unlock();
+			}
+			if (expired) {
+				dispatch(batch);
+			}
+		}
+		return await(future);
+	}
+
+	private void awaitSealed(Batch batch) {
+		try {
+			batch.sealed.await(batchWindow, TimeUnit.MILLISECONDS);
+		} catch (InterruptedException e) {
+			// 不再等待，立即执行这一批
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * Load a closed batch with one call of the delegate and complete every waiting lookup.
+	 */
+	private void dispatch(Batch batch) {
+		batches.increment();
+		batchedLookups.add(batch.lookups.size());
+		try {
+			Map<String, UserDetails> users = delegate.loadUsersByUsernames(batch.lookups.keySet());
+			for (Map.Entry<String, CompletableFuture<UserDetails>> entry : batch.lookups.entrySet()) {
+				UserDetails user = users != null ? users.get(entry.getKey()) : null;
+				if (user != null) {
+					entry.getValue().complete(user);
+				} else {
+					entry.getValue().completeExceptionally(new UsernameNotFoundException("User " + entry.getKey() + " not found"));
+				}
+			}
+		} catch (Throwable e) {
+			// 包括 Error，否则同一批中其他线程会一直等到超时；已经完成的请求不受影响
+			for (CompletableFuture<UserDetails> future : batch.lookups.values()) {
+				future.completeExceptionally(e);
+			}
+		}
+	}
+
+	private UserDetails await(CompletableFuture<UserDetails> future) {
+		boolean interrupted = false;
+		long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(batchTimeout);
+		try {
+			while (true) {
+				try {
+					return future.get(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+				} catch (InterruptedException e) {
+					// 批次很快会完成，等待结束后恢复中断状态
+					interrupted = true;
+				} catch (TimeoutException e) {
+					throw new AuthenticationTimeoutException("User lookup timed out after " + batchTimeout + " ms");
+				} catch (ExecutionException e) {
+					if (e.getCause() instanceof RuntimeException) {
+						throw (RuntimeException) e.getCause();
+					}
+					if (e.getCause() instanceof Error) {
+						throw (Error) e.getCause();
+					}
+					throw new InternalAuthenticationServiceException(e.getCause().getMessage(), e.getCause());
+				}
+			}
+		} finally {
+			if (interrupted) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+
+	@Override
+	public Map<String, UserDetails> loadUsersByUsernames(Collection<String> usernames) {
+		return delegate.loadUsersByUsernames(usernames);
+	}
+
+	@Override
+	public UserDetails updatePassword(UserDetails user, String newPassword) {
+		return delegate.updatePassword(user, newPassword);
+	}
+
+	public UserDetailsServiceAdapter getDelegate() {
+		return delegate;
+	}
+
+	public long getBatchWindow() {
+		return batchWindow;
+	}
+
+	public int getMaxBatchSize() {
+		return maxBatchSize;
+	}
+
+	public long getBatchTimeout() {
+		return batchTimeout;
+	}
+
+	/** @return the number of batches sent to the delegate */
+	public long getBatches() {
+		return batches.sum();
+	}
+
+	/** @return the number of lookups resolved by batches */
+	public long getBatchedLookups() {
+		return batchedLookups.sum();
+	}
+
+	/** @return the number of lookups sent to the delegate one by one, because the username was already pending */
+	public long getDirectLookups() {
+		return directLookups.sum();
+	}
+
+	private static final class Batch {
+
+		/** 只在持有锁且批次未关闭时修改 */
+		private final Map<String, CompletableFuture<UserDetails>> lookups = new LinkedHashMap<String, CompletableFuture<UserDetails>>();
+		private final CountDownLatch sealed = new CountDownLatch(1);
+
+	}
+
+}
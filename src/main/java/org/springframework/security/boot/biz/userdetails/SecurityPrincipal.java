@@ -1,5 +1,11 @@
 package org.springframework.security.boot.biz.userdetails;
 
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.io.ObjectStreamException;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
@@ -153,6 +159,14 @@ public class SecurityPrincipal extends User implements Cloneable {
 		return userid != null ? userid.hashCode() : 0;
 	}
 
+	/**
+	 * 序列化时使用 {@link SecurityPrincipalCodec} 的紧凑格式代替默认的 Java 序列化；
+	 * 子类可能有额外的字段，仍使用默认序列化。
+	 */
+	protected Object writeReplace() throws ObjectStreamException {
+		return getClass() == SecurityPrincipal.class ? new SerializationProxy(this) : this;
+	}
+
 	@Override
 	public String toString() {
 		return " User {" + "userid=" + userid + ", username='" + getUsername() + '\'' + ", password='" + getPassword() + '\''
@@ -160,4 +174,49 @@ public class SecurityPrincipal extends User implements Cloneable {
 				+ ", credentialsNonExpired=" + isCredentialsNonExpired() + ", accountNonLocked=" + isAccountNonLocked() + '}';
 	}
 
+	/**
+	 * Serialized form of {@link SecurityPrincipal}, holding the {@link SecurityPrincipalCodec} encoding.
+	 */
+	public static final class SerializationProxy implements Externalizable {
+
+		private static final long serialVersionUID = 1L;
+		private static final int MAX_LENGTH = 1 << 20;
+
+		private SecurityPrincipal principal;
+
+		public SerializationProxy() {
+		}
+
+		SerializationProxy(SecurityPrincipal principal) {
+			this.principal = principal;
+		}
+
+		@Override
+		public void writeExternal(ObjectOutput out) throws IOException {
+			byte[] data = SecurityPrincipalCodec.encode(principal);
+			out.writeInt(data.length);
+			out.write(data);
+		}
+
+		@Override
+		public void readExternal(ObjectInput in) throws IOException {
+			int length = in.readInt();
+			if (length < 0 || length > MAX_LENGTH) {
+				throw new InvalidObjectException("Invalid length " + length);
+			}
+			byte[] data = new byte[length];
+			in.readFully(data);
+			try {
+				this.principal = SecurityPrincipalCodec.decode(data);
+			} catch (IllegalArgumentException e) {
+				throw new InvalidObjectException(e.getMessage());
+			}
+		}
+
+		private Object readResolve() {
+			return principal;
+		}
+
+	}
+
 }
@@ -0,0 +1,143 @@
+/*
+ * Copyright (c) 2018, vindell (https://github.com/vindell).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.springframework.security.boot.biz.userdetails;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.springframework.security.boot.biz.codec.AuthorityPool;
+import org.springframework.security.boot.biz.codec.CompactInput;
+import org.springframework.security.boot.biz.codec.CompactOutput;
+import org.springframework.security.core.GrantedAuthority;
+
+/**
+ * {@link SecurityPrincipal} 的紧凑二进制格式：
+ * 版本(1)|状态位(1)|username|password|userid|userkey|salt|secret|alias|权限|角色|权限标记。
+ * <p>
+ * 字符串以 varint 长度前缀加 UTF-8 编码，权限、角色和权限标记中重复的名称只写一次；
+ * 解码出的权限对象和名称取自 {@link AuthorityPool}，在大量会话之间共享。
+ * </p>
+ * @author ： <a href="https://github.com/vindell">wandl</a>
+ */
+public final class SecurityPrincipalCodec {
+
+	public static final int VERSION = 1;
+
+	private static final int ENABLED = 1;
+	private static final int ACCOUNT_NON_EXPIRED = 1 << 1;
+	private static final int CREDENTIALS_NON_EXPIRED = 1 << 2;
+	private static final int ACCOUNT_NON_LOCKED = 1 << 3;
+
+	private SecurityPrincipalCodec() {
+	}
+
+	public static byte[] encode(SecurityPrincipal principal) {
+		CompactOutput out = new CompactOutput(128);
+		write(principal, out);
+		return out.toByteArray();
+	}
+
+	/**
+	 * @throws IllegalArgumentException if the data is malformed
+	 */
+	public static SecurityPrincipal decode(byte[] data) {
+		return read(new CompactInput(data));
+	}
+
+	public static void write(SecurityPrincipal principal, CompactOutput out) {
+		int flags = (principal.isEnabled() ? ENABLED : 0)
+				| (principal.isAccountNonExpired() ? ACCOUNT_NON_EXPIRED : 0)
+				| (principal.isCredentialsNonExpired() ? CREDENTIALS_NON_EXPIRED : 0)
+				| (principal.isAccountNonLocked() ? ACCOUNT_NON_LOCKED : 0);
+		out.writeByte(VERSION);
+		out.writeByte(flags);
+		out.writeString(principal.getUsername());
+		out.writeString(principal.getPassword());
+		out.writeString(principal.getUserid());
+		out.writeString(principal.getUserkey());
+		out.writeString(principal.getSalt());
+		out.writeString(principal.getSecret());
+		out.writeString(principal.getAlias());
+		Collection<GrantedAuthority> authorities = principal.getAuthorities();
+		out.writeVarInt(authorities.size());
+		for (GrantedAuthority authority : authorities) {
+			out.writeInternedString(authority.getAuthority());
+		}
+		writeNames(principal.getRoles(), out);
+		writeNames(principal.getPerms(), out);
+	}
+
+	public static SecurityPrincipal read(CompactInput in) {
+		int version = in.readByte();
+		if (version != VERSION) {
+			throw new IllegalArgumentException("Unsupported version " + version);
+		}
+		int flags = in.readByte();
+		String username = in.readString();
+		String password = in.readString();
+		String userid = in.readString();
+		String userkey = in.readString();
+		String salt = in.readString();
+		String secret = in.readString();
+		String alias = in.readString();
+		int count = in.readLength();
+		List<GrantedAuthority> authorities = new ArrayList<GrantedAuthority>(count);
+		for (int i = 0; i < count; i++) {
+			authorities.add(AuthorityPool.authority(in.readInternedString()));
+		}
+		SecurityPrincipal principal = new SecurityPrincipal(username, password != null ? password : "",
+				(flags & ENABLED) != 0, (flags & ACCOUNT_NON_EXPIRED) != 0,
+				(flags & CREDENTIALS_NON_EXPIRED) != 0, (flags & ACCOUNT_NON_LOCKED) != 0, authorities);
+		if (password == null) {
+			principal.eraseCredentials();
+		}
+		principal.setUserid(userid);
+		principal.setUserkey(userkey);
+		principal.setSalt(salt);
+		principal.setSecret(secret);
+		principal.setAlias(alias);
+		principal.setRoles(readNames(in));
+		principal.setPerms(readNames(in));
+		return principal;
+	}
+
+	private static void writeNames(Set<String> names, CompactOutput out) {
+		if (names == null) {
+			out.writeByte(0);
+			return;
+		}
+		out.writeVarInt(names.size() + 1);
+		for (String name : names) {
+			out.writeInternedString(name);
+		}
+	}
+
+	private static Set<String> readNames(CompactInput in) {
+		int count = in.readLength() - 1;
+		if (count < 0) {
+			return null;
+		}
+		Set<String> names = new HashSet<String>(count * 4 / 3 + 1);
+		for (int i = 0; i < count; i++) {
+			names.add(AuthorityPool.name(in.readInternedString()));
+		}
+		return names;
+	}
+
+}
@@ -15,6 +15,10 @@
  */
 package org.springframework.security.boot.biz.userdetails;
 
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.userdetails.AuthenticationUserDetailsService;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -42,4 +46,25 @@ public abstract class UserDetailsServiceAdapter implements UserDetailsService, U
 		return null;
 	}
 
+	/**
+	 * 批量加载用户，{@link BatchingUserDetailsService} 用它把并发登录的单个查询合并为一次后端调用。
+	 * 默认逐个调用 {@link #loadUserByUsername(String)}，实现类应以一次查询（例如 {@code IN} 条件）覆盖本方法。
+	 * @param usernames the usernames to load, without duplicates
+	 * @return the users keyed by the requested usernames, usernames without a user are left out
+	 */
+	public Map<String, UserDetails> loadUsersByUsernames(Collection<String> usernames) {
+		Map<String, UserDetails> users = new LinkedHashMap<String, UserDetails>(usernames.size() * 2);
+		for (String username : usernames) {
+			try {
+				UserDetails user = loadUserByUsername(username);
+				if (user != null) {
+					users.put(username, user);
+				}
+			} catch (UsernameNotFoundException e) {
+				// 不存在的用户不放入结果
+			}
+		}
+		return users;
+	}
+
 }
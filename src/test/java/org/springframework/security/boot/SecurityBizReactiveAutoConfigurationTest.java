@@ -0,0 +1,157 @@
+/*
+ * Copyright (c) 2018, vindell (https://github.com/vindell).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.springframework.security.boot;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+import org.springframework.boot.test.context.runner.ReactiveWebApplicationContextRunner;
+import org.springframework.boot.test.context.runner.WebApplicationContextRunner;
+import org.springframework.context.ApplicationContext;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseCookie;
+import org.springframework.security.boot.biz.metrics.AuthenticationMetrics;
+import org.springframework.security.boot.biz.metrics.HistogramAuthenticationMetrics;
+import org.springframework.security.boot.biz.reactive.NullReactiveCaptchaResolver;
+import org.springframework.security.boot.biz.reactive.PostRequestReactiveAuthenticationManager;
+import org.springframework.security.boot.biz.reactive.ReactiveCaptchaResolver;
+import org.springframework.security.boot.biz.reactive.WebSessionCaptchaResolver;
+import org.springframework.security.web.server.SecurityWebFilterChain;
+import org.springframework.security.web.server.WebFilterChainProxy;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+public class SecurityBizReactiveAutoConfigurationTest {
+
+	private static final String LOGIN_URL = "/authz/login";
+
+	private final ReactiveWebApplicationContextRunner contextRunner = new ReactiveWebApplicationContextRunner()
+			.withUserConfiguration(SecurityBizUpcAutoConfigurationTest.TestApplication.class)
+			.withPropertyValues("spring.security.upc.enabled=true",
+					"spring.security.upc.authc.login-url-patterns=" + LOGIN_URL,
+					"spring.security.filter-chain-definition-map[/assets/**]=anon",
+					"spring.security.filter-chain-definition-map[/admin/public/**]=roles[guest]",
+					"spring.security.filter-chain-definition-map[/admin/**]=roles[admin]",
+					"spring.security.filter-chain-definition-map[/monitoring4]=perms[1]",
+					"spring.security.filter-chain-definition-map[/druid/**]=ipaddr[10.0.0.0/8]");
+
+	@Test
+	public void activatesForAReactiveApplicationWithUpc() {
+		contextRunner.run(context -> {
+			assertNull(context.getStartupFailure());
+			assertEquals(1, context.getBeansOfType(PostRequestReactiveAuthenticationManager.class).size());
+			assertTrue(context.containsBean("upcSecurityWebFilterChain"));
+			assertTrue(context.getBean("upcHistogramAuthenticationMetrics") instanceof HistogramAuthenticationMetrics);
+			assertTrue(context.getBean("upcAuthenticationMetrics") instanceof AuthenticationMetrics);
+			assertTrue(context.getBean(ReactiveCaptchaResolver.class) instanceof NullReactiveCaptchaResolver);
+		});
+	}
+
+	@Test
+	public void theSessionCaptchaStoreUsesTheWebSession() {
+		contextRunner.withPropertyValues("spring.security.upc.captcha.store=SESSION").run(context -> {
+			assertTrue(context.getBean(ReactiveCaptchaResolver.class) instanceof WebSessionCaptchaResolver);
+		});
+	}
+
+	@Test
+	public void staysOffWithoutUpc() {
+		contextRunner.withPropertyValues("spring.security.upc.enabled=false").run(context -> {
+			assertNull(context.getStartupFailure());
+			assertTrue(context.getBeansOfType(PostRequestReactiveAuthenticationManager.class).isEmpty());
+			assertFalse(context.containsBean("upcSecurityWebFilterChain"));
+		});
+	}
+
+	@Test
+	public void staysOffForAServletApplication() {
+		new WebApplicationContextRunner()
+				.withUserConfiguration(SecurityBizUpcAutoConfigurationTest.TestApplication.class)
+				.withPropertyValues("spring.security.upc.enabled=true").run(context -> {
+					assertNull(context.getStartupFailure());
+					assertTrue(context.getBeansOfType(PostRequestReactiveAuthenticationManager.class).isEmpty());
+					assertTrue(context.getBeansOfType(SecurityWebFilterChain.class).isEmpty());
+					// 指标记录器由两种配置共用
+					assertTrue(context.containsBean("upcAuthenticationMetrics"));
+				});
+	}
+
+	@Test
+	public void anonymousRequestsOnlyReachOpenPaths() {
+		contextRunner.run(context -> {
+			WebTestClient client = client(context);
+			client.get().uri("/assets/app.js").exchange().expectStatus().isOk();
+			client.get().uri("/index").exchange().expectStatus().isOk();
+			// 未登录时重定向到登录页
+			client.get().uri("/admin/index").exchange().expectStatus().is3xxRedirection();
+		});
+	}
+
+	@Test
+	public void rulesAreAppliedInOrderAfterLogin() {
+		contextRunner.run(context -> {
+			WebTestClient client = client(context);
+			ResponseCookie session = client.post().uri(LOGIN_URL)
+					.contentType(MediaType.APPLICATION_JSON_UTF8)
+					.syncBody("{\"username\":\"admin\",\"password\":\"secret\"}")
+					.exchange()
+					.expectStatus().isOk()
+					.expectBody().jsonPath("$.status").isEqualTo("1")
+					.returnResult().getResponseCookies().getFirst("SESSION");
+
+			// roles[admin]
+			assertEquals(HttpStatus.OK, status(client, "/admin/index", session));
+			// 先定义的 /admin/public/** 规则生效，即使之后的 /admin/** 规则允许访问
+			assertEquals(HttpStatus.FORBIDDEN, status(client, "/admin/public/index", session));
+			// perms[1]
+			assertEquals(HttpStatus.FORBIDDEN, status(client, "/monitoring4", session));
+			// ipaddr[10.0.0.0/8]：请求没有来源地址
+			assertEquals(HttpStatus.FORBIDDEN, status(client, "/druid/index", session));
+			// 没有规则的路径放行
+			assertEquals(HttpStatus.OK, status(client, "/index", session));
+		});
+	}
+
+	@Test
+	public void aWrongPasswordIsAnsweredWithJSON() {
+		contextRunner.run(context -> {
+			client(context).post().uri(LOGIN_URL)
+					.contentType(MediaType.APPLICATION_FORM_URLENCODED)
+					.syncBody("username=admin&password=wrong")
+					.exchange()
+					.expectStatus().isUnauthorized()
+					.expectBody().jsonPath("$.message").isEqualTo("Invalid username or password");
+		});
+	}
+
+	private static HttpStatus status(WebTestClient client, String path, ResponseCookie session) {
+		return client.get().uri(path).cookie(session.getName(), session.getValue())
+				.exchange().returnResult(Void.class).getStatus();
+	}
+
+	/**
+	 * @return a client sending requests through the security filter chain to a handler answering 200
+	 */
+	private static WebTestClient client(ApplicationContext context) {
+		return WebTestClient.bindToWebHandler(exchange -> exchange.getResponse().setComplete())
+				.webFilter(context.getBean(WebFilterChainProxy.class))
+				.build();
+	}
+
+}
@@ -0,0 +1,185 @@
+/*
+ * Copyright (c) 2018, vindell (https://github.com/vindell).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.springframework.security.boot;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.test.context.runner.WebApplicationContextRunner;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.boot.biz.authentication.RequestedUrlCookieRepository;
+import org.springframework.security.boot.biz.authentication.captcha.CaptchaResolver;
+import org.springframework.security.boot.biz.authentication.captcha.HmacCaptchaResolver;
+import org.springframework.security.boot.biz.context.CookieSecurityContextRepository;
+import org.springframework.security.boot.biz.csrf.HmacCsrfTokenRepository;
+import org.springframework.security.boot.biz.savedrequest.CompactRequestCache;
+import org.springframework.security.boot.biz.session.ConcurrentSessionRegistry;
+import org.springframework.security.boot.biz.userdetails.SecurityPrincipal;
+import org.springframework.security.boot.biz.userdetails.UserDetailsServiceAdapter;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+public class SecurityBizUpcAutoConfigurationTest {
+
+	private final WebApplicationContextRunner contextRunner = new WebApplicationContextRunner()
+			.withUserConfiguration(TestApplication.class)
+			.withPropertyValues("spring.security.upc.enabled=true");
+
+	@Test
+	public void statelessContextCookieIsOptIn() {
+		contextRunner.run(context -> {
+			assertNull(context.getStartupFailure());
+			assertFalse(context.containsBean("upcSecurityContextRepository"));
+			assertFalse(context.containsBean("upcStatelessTokenCodec"));
+		});
+	}
+
+	@Test
+	public void statelessContextCookieRequiresASecret() {
+		contextRunner.withPropertyValues("spring.security.upc.stateless.enabled=true").run(context -> {
+			Throwable failure = context.getStartupFailure();
+			assertNotNull(failure);
+			assertTrue(rootMessage(failure).contains("spring.security.upc.stateless.secret must be set"));
+		});
+	}
+
+	@Test
+	public void bearerTokensRequireASecret() {
+		contextRunner.withPropertyValues("spring.security.upc.stateless.bearer-enabled=true").run(context -> {
+			assertNotNull(context.getStartupFailure());
+		});
+	}
+
+	@Test
+	public void statelessContextCookieIsUsedWithASecret() {
+		contextRunner.withPropertyValues("spring.security.upc.stateless.enabled=true",
+				"spring.security.upc.stateless.secret=auto-configuration-test-secret").run(context -> {
+			assertTrue(context.getBean("upcSecurityContextRepository") instanceof CookieSecurityContextRepository);
+		});
+	}
+
+	@Test
+	public void statelessCsrfRequiresASecret() {
+		contextRunner.withPropertyValues("spring.security.upc.csrf.enabled=true").run(context -> {
+			Throwable failure = context.getStartupFailure();
+			assertNotNull(failure);
+			assertTrue(rootMessage(failure).contains("spring.security.upc.csrf.secret must be set"));
+		});
+		contextRunner.withPropertyValues("spring.security.upc.csrf.enabled=true",
+				"spring.security.upc.csrf.secret=auto-configuration-test-secret").run(context -> {
+			assertTrue(context.getBean("upcCsrfTokenRepository") instanceof HmacCsrfTokenRepository);
+		});
+	}
+
+	@Test
+	public void requestedUrlCookieIsOnlyUsedByTheCookieRequestCache() {
+		contextRunner.run(context -> {
+			assertNull(context.getStartupFailure());
+			assertFalse(context.containsBean("upcRequestedUrlRepository"));
+		});
+		contextRunner.withPropertyValues("spring.security.upc.request.cache-store=cookie").run(context -> {
+			Throwable failure = context.getStartupFailure();
+			assertNotNull(failure);
+			assertTrue(rootMessage(failure).contains("spring.security.upc.redirect.requested-url-secret must be set"));
+		});
+		contextRunner.withPropertyValues("spring.security.upc.request.cache-store=cookie",
+				"spring.security.upc.redirect.requested-url-secret=auto-configuration-test-secret").run(context -> {
+			assertNull(context.getStartupFailure());
+			assertTrue(context.getBean("upcRequestedUrlRepository") instanceof RequestedUrlCookieRepository);
+			assertTrue(context.getBean("upcRequestCache") instanceof CompactRequestCache);
+		});
+	}
+
+	@Test
+	public void tokenCaptchaRequiresASecret() {
+		contextRunner.withPropertyValues("spring.security.upc.captcha.store=token").run(context -> {
+			Throwable failure = context.getStartupFailure();
+			assertNotNull(failure);
+			assertTrue(rootMessage(failure).contains("spring.security.upc.captcha.secret must be set"));
+		});
+		contextRunner.withPropertyValues("spring.security.upc.captcha.store=token",
+				"spring.security.upc.captcha.secret=auto-configuration-test-secret").run(context -> {
+			assertTrue(context.getBean(CaptchaResolver.class) instanceof HmacCaptchaResolver);
+		});
+	}
+
+	@Test
+	public void sessionRegistryIdleTimeoutFollowsTheContainerSessionTimeout() {
+		contextRunner.run(context -> {
+			assertEquals(30 * 60 * 1000L, context.getBean(ConcurrentSessionRegistry.class).getIdleTimeout());
+		});
+		contextRunner.withPropertyValues("server.servlet.session.timeout=2h").run(context -> {
+			assertEquals(2 * 60 * 60 * 1000L, context.getBean(ConcurrentSessionRegistry.class).getIdleTimeout());
+		});
+		contextRunner.withPropertyValues("server.servlet.session.timeout=2h",
+				"spring.security.upc.session-mgt.registry-idle-timeout=10800000").run(context -> {
+			assertEquals(3 * 60 * 60 * 1000L, context.getBean(ConcurrentSessionRegistry.class).getIdleTimeout());
+		});
+		contextRunner.withPropertyValues("spring.security.upc.session-mgt.registry-idle-timeout=0").run(context -> {
+			assertEquals(0, context.getBean(ConcurrentSessionRegistry.class).getIdleTimeout());
+		});
+	}
+
+	@Test
+	public void sessionRegistryIdleTimeoutMustNotBeShorterThanTheContainerSessionTimeout() {
+		contextRunner.withPropertyValues("server.servlet.session.timeout=2h",
+				"spring.security.upc.session-mgt.registry-idle-timeout=1800000").run(context -> {
+			Throwable failure = context.getStartupFailure();
+			assertNotNull(failure);
+			assertTrue(rootMessage(failure).contains("registry-idle-timeout must not be shorter"));
+		});
+	}
+
+	private static String rootMessage(Throwable failure) {
+		Throwable cause = failure;
+		while (cause.getCause() != null) {
+			cause = cause.getCause();
+		}
+		return String.valueOf(cause.getMessage());
+	}
+
+	@Configuration
+	@EnableAutoConfiguration
+	public static class TestApplication {
+
+		@Bean
+		public UserDetailsServiceAdapter userDetailsService() {
+			// 与自动配置的 BCryptPasswordEncoder 一致
+			String password = new BCryptPasswordEncoder(4).encode("secret");
+			return new UserDetailsServiceAdapter() {
+
+				@Override
+				public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
+					if (!"admin".equals(username)) {
+						throw new UsernameNotFoundException(username);
+					}
+					return new SecurityPrincipal(username, password, AuthorityUtils.createAuthorityList("ROLE_admin"));
+				}
+
+			};
+		}
+
+	}
+
+}
@@ -0,0 +1,169 @@
+/*
+ * Copyright (c) 2018, vindell (https://github.com/vindell).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.springframework.security.boot;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import javax.servlet.Filter;
+
+import org.junit.Test;
+import org.springframework.boot.test.context.runner.WebApplicationContextRunner;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.ApplicationContext;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.mock.web.MockHttpSession;
+import org.springframework.security.boot.biz.authentication.PostRequestAuthenticationProcessingFilter;
+import org.springframework.security.config.annotation.web.configuration.WebSecurityConfigurerAdapter;
+import org.springframework.security.web.FilterChainProxy;
+import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.access.intercept.FilterSecurityInterceptor;
+
+public class SecurityFilterChainTest {
+
+	private static final String LOGIN_URL = "/authz/login";
+
+	private final WebApplicationContextRunner contextRunner = new WebApplicationContextRunner()
+			.withUserConfiguration(SecurityBizUpcAutoConfigurationTest.TestApplication.class)
+			.withPropertyValues("spring.security.upc.enabled=true",
+					"spring.security.upc.authc.login-url-patterns=" + LOGIN_URL,
+					"spring.security.filter-chain-definition-map[/assets/**]=anon",
+					"spring.security.filter-chain-definition-map[/monitoring]=roles[admin]",
+					"spring.security.filter-chain-definition-map[/monitoring4]=perms[1]",
+					"spring.security.filter-chain-definition-map[/druid/**]=ipaddr[10.0.0.0/8]");
+
+	@Test
+	public void theUpcChainIsTheOnlyChainMatchingEveryRequest() {
+		contextRunner.run(context -> {
+			assertNull(context.getStartupFailure());
+			assertEquals(1, context.getBeansOfType(WebSecurityConfigurerAdapter.class).size());
+
+			List<SecurityFilterChain> chains = context.getBean(FilterChainProxy.class).getFilterChains();
+			SecurityFilterChain last = chains.get(chains.size() - 1);
+			assertTrue(contains(last, PostRequestAuthenticationProcessingFilter.class));
+			assertTrue(contains(last, FilterSecurityInterceptor.class));
+			// 其余的链只是被忽略的 anon 路径
+			for (SecurityFilterChain chain : chains.subList(0, chains.size() - 1)) {
+				assertTrue(chain.getFilters().isEmpty());
+			}
+			assertEquals(2, chains.size());
+		});
+	}
+
+	@Test
+	public void theBizChainIsUsedWithoutUpc() {
+		contextRunner.withPropertyValues("spring.security.upc.enabled=false").run(context -> {
+			assertNull(context.getStartupFailure());
+			assertEquals(1, context.getBeansOfType(WebSecurityConfigurerAdapter.class).size());
+			List<SecurityFilterChain> chains = context.getBean(FilterChainProxy.class).getFilterChains();
+			assertFalse(contains(chains.get(chains.size() - 1), PostRequestAuthenticationProcessingFilter.class));
+		});
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void theProcessingFilterIsNotRegisteredAsAServletFilter() {
+		contextRunner.run(context -> {
+			for (FilterRegistrationBean<?> registration : context.getBeansOfType(FilterRegistrationBean.class).values()) {
+				if (registration.getFilter() instanceof PostRequestAuthenticationProcessingFilter) {
+					assertFalse(registration.isEnabled());
+					return;
+				}
+			}
+			throw new AssertionError("no registration for the processing filter");
+		});
+	}
+
+	@Test
+	public void anonymousRequestsOnlyReachOpenPaths() {
+		contextRunner.run(context -> {
+			MockHttpSession session = new MockHttpSession();
+			assertTrue(passes(context, get("/assets/app.js", session)));
+			assertFalse(passes(context, get("/monitoring", session)));
+		});
+	}
+
+	@Test
+	public void rulesAreAppliedAfterLogin() {
+		contextRunner.withPropertyValues("spring.security.upc.session-mgt.creation-policy=IF_REQUIRED").run(context -> {
+			MockHttpSession session = new MockHttpSession();
+			MockHttpServletRequest login = new MockHttpServletRequest("POST", LOGIN_URL);
+			login.setServletPath(LOGIN_URL);
+			login.setSession(session);
+			login.setContentType("application/json;charset=UTF-8");
+			login.setContent("{\"username\":\"admin\",\"password\":\"secret\"}".getBytes(StandardCharsets.UTF_8));
+			MockHttpServletResponse response = new MockHttpServletResponse();
+			MockFilterChain chain = new MockFilterChain();
+			context.getBean(FilterChainProxy.class).doFilter(login, response, chain);
+			assertEquals(200, response.getStatus());
+			// 登录请求由登录过滤器处理，不再交给后续的过滤器
+			assertNull(chain.getRequest());
+
+			// roles[admin]
+			assertTrue(passes(context, get("/monitoring", session)));
+			// perms[1]
+			MockHttpServletResponse denied = new MockHttpServletResponse();
+			assertFalse(passes(context, get("/monitoring4", session), denied));
+			assertEquals(403, denied.getStatus());
+			// ipaddr[10.0.0.0/8]
+			MockHttpServletRequest inside = get("/druid/index", session);
+			inside.setRemoteAddr("10.1.2.3");
+			assertTrue(passes(context, inside));
+			assertFalse(passes(context, get("/druid/index", session)));
+			// 没有规则的路径放行
+			assertTrue(passes(context, get("/index", session)));
+		});
+	}
+
+	private static MockHttpServletRequest get(String path, MockHttpSession session) {
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", path);
+		request.setServletPath(path);
+		request.setSession(session);
+		return request;
+	}
+
+	private static boolean passes(ApplicationContext context, MockHttpServletRequest request) throws Exception {
+		return passes(context, request, new MockHttpServletResponse());
+	}
+
+	/**
+	 * @return true if the request made it through the security filter chain
+	 */
+	private static boolean passes(ApplicationContext context, MockHttpServletRequest request,
+			MockHttpServletResponse response) throws Exception {
+		MockFilterChain chain = new MockFilterChain();
+		context.getBean(FilterChainProxy.class).doFilter(request, response, chain);
+		return chain.getRequest() != null;
+	}
+
+	private static boolean contains(SecurityFilterChain chain, Class<? extends Filter> type) {
+		for (Filter filter : chain.getFilters()) {
+			if (type.isInstance(filter)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+}
@@ -0,0 +1,177 @@
+/*
+ * Copyright (c) 2018, vindell (https://github.com/vindell).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.springframework.security.boot.biz.audit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class AuditJournalTest {
+
+	@Rule
+	public final TemporaryFolder folder = new TemporaryFolder();
+
+	private Path directory;
+	private AuditJournal journal;
+
+	@Before
+	public void setUp() {
+		directory = folder.getRoot().toPath().resolve("audit");
+		journal = new AuditJournal(directory);
+	}
+
+	@After
+	public void tearDown() throws InterruptedException {
+		journal.destroy();
+	}
+
+	private List<AuditRecord> readAll() throws Exception {
+		List<AuditRecord> records = new ArrayList<AuditRecord>();
+		new AuditJournalReader(directory).read(records::add);
+		return records;
+	}
+
+	@Test
+	public void recordsAreWrittenAndReadBack() throws Exception {
+		journal.setUsernameSalt("pepper");
+		journal.afterPropertiesSet();
+		long before = System.currentTimeMillis();
+		assertTrue(journal.append("alice", "10.1.2.3", AuditOutcome.SUCCESS, 1_500_000));
+		assertTrue(journal.append("bob", "2001:db8::1", AuditOutcome.BAD_CREDENTIALS, -1));
+		assertTrue(journal.append(null, "gateway.local", AuditOutcome.ERROR, 0));
+		journal.destroy();
+
+		List<AuditRecord> records = readAll();
+		assertEquals(3, records.size());
+		assertEquals(3, journal.getWritten());
+
+		AuditRecord alice = records.get(0);
+		assertTrue(alice.getTimestamp() >= before);
+		assertEquals(AuditRecord.hashUsername("pepper".getBytes(StandardCharsets.UTF_8), "alice"), alice.getUsernameHash());
+		assertEquals("10.1.2.3", alice.getAddress());
+		assertEquals(AuditOutcome.SUCCESS, alice.getOutcome());
+		assertEquals(1500, alice.getLatencyMicros());
+
+		AuditRecord bob = records.get(1);
+		assertEquals("2001:db8:0:0:0:0:0:1", bob.getAddress());
+		assertEquals(AuditOutcome.BAD_CREDENTIALS, bob.getOutcome());
+		assertEquals(-1, bob.getLatencyMicros());
+
+		// 用户名为空记为 0，主机名不解析，记为未知地址
+		AuditRecord unknown = records.get(2);
+		assertEquals(0L, unknown.getUsernameHash());
+		assertNull(unknown.getAddress());
+	}
+
+	@Test
+	public void segmentsRotateAndOnlyTheLatestAreKept() throws Exception {
+		journal.setSegmentSize(AuditJournal.HEADER_SIZE + 2 * AuditRecord.SIZE);
+		journal.setMaxSegments(2);
+		journal.afterPropertiesSet();
+		for (int i = 0; i < 7; i++) {
+			journal.append("user" + i, "10.0.0." + i, AuditOutcome.SUCCESS, i * 1000);
+		}
+		journal.destroy();
+
+		assertEquals(4, journal.getRotations());
+		List<Path> segments = AuditJournal.listSegments(directory);
+		assertEquals(2, segments.size());
+		assertEquals(3, AuditJournal.sequenceOf(segments.get(0)));
+		assertEquals(4, AuditJournal.sequenceOf(segments.get(1)));
+
+		List<AuditRecord> records = readAll();
+		assertEquals(3, records.size());
+		for (int i = 0; i < records.size(); i++) {
+			assertEquals("10.0.0." + (i + 4), records.get(i).getAddress());
+			assertEquals(i + 4, records.get(i).getLatencyMicros());
+		}
+	}
+
+	@Test
+	public void aRestartedJournalContinuesWithANewSegment() throws Exception {
+		journal.afterPropertiesSet();
+		journal.append("alice", "10.0.0.1", AuditOutcome.SUCCESS, 0);
+		journal.destroy();
+
+		journal = new AuditJournal(directory);
+		journal.afterPropertiesSet();
+		journal.append("bob", "10.0.0.2", AuditOutcome.LOCKED, 0);
+		journal.destroy();
+
+		assertEquals(2, AuditJournal.listSegments(directory).size());
+		List<AuditRecord> records = readAll();
+		assertEquals(2, records.size());
+		assertEquals(AuditOutcome.SUCCESS, records.get(0).getOutcome());
+		assertEquals(AuditOutcome.LOCKED, records.get(1).getOutcome());
+	}
+
+	@Test
+	public void eventsAreDroppedWhileTheJournalIsStopped() throws Exception {
+		assertFalse(journal.append("alice", "10.0.0.1", AuditOutcome.SUCCESS, 0));
+		journal.afterPropertiesSet();
+		journal.destroy();
+		assertFalse(journal.append("alice", "10.0.0.1", AuditOutcome.SUCCESS, 0));
+
+		assertEquals(2, journal.getDropped());
+		assertEquals(0, journal.getAppended());
+		assertEquals(0, readAll().size());
+	}
+
+	@Test
+	public void aTailingCursorFollowsTheWriterAcrossSegments() throws Exception {
+		journal.setSegmentSize(AuditJournal.HEADER_SIZE + 2 * AuditRecord.SIZE);
+		journal.afterPropertiesSet();
+		journal.append("old", "10.0.0.1", AuditOutcome.SUCCESS, 0);
+		waitForWritten(1);
+
+		AuditJournalReader.Cursor cursor = new AuditJournalReader(directory).tail();
+		List<AuditRecord> records = new ArrayList<AuditRecord>();
+		assertEquals(0, cursor.poll(records::add, 10));
+		for (int i = 0; i < 5; i++) {
+			journal.append("new" + i, "10.0.1." + i, AuditOutcome.SUCCESS, 0);
+		}
+		waitForWritten(6);
+
+		while (cursor.poll(records::add, 10) > 0) {
+			// 读到最新的记录为止
+		}
+		assertEquals(5, records.size());
+		for (int i = 0; i < records.size(); i++) {
+			assertEquals("10.0.1." + i, records.get(i).getAddress());
+		}
+	}
+
+	private void waitForWritten(long count) throws InterruptedException {
+		long deadline = System.currentTimeMillis() + 5000;
+		while (journal.getWritten() < count && System.currentTimeMillis() < deadline) {
+			Thread.sleep(5);
+		}
+		assertEquals(count, journal.getWritten());
+	}
+
+}
@@ -0,0 +1,164 @@
+/*
+ * Copyright (c) 2018, vindell (https://github.com/vindell).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.springframework.security.boot.biz.audit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.Test;
+
+public class RecentAuthenticationEventsTest {
+
+	private static List<RecentAuthenticationEvent> all(RecentAuthenticationEvents events) {
+		return events.query(null, null, null, 0, Long.MAX_VALUE, Integer.MAX_VALUE);
+	}
+
+	@Test
+	public void capacityIsRoundedUpToAPowerOfTwo() {
+		assertEquals(1, new RecentAuthenticationEvents(1).getCapacity());
+		assertEquals(8, new RecentAuthenticationEvents(5).getCapacity());
+		assertEquals(8, new RecentAuthenticationEvents(8).getCapacity());
+		assertEquals(RecentAuthenticationEvents.DEFAULT_CAPACITY, new RecentAuthenticationEvents().getCapacity());
+	}
+
+	@Test
+	public void eventsAreReturnedNewestFirst() {
+		RecentAuthenticationEvents events = new RecentAuthenticationEvents(8);
+		long before = System.currentTimeMillis();
+		events.record("alice", "10.0.0.1", AuditOutcome.SUCCESS, 2_500_000);
+		events.record("bob", "10.0.0.2", AuditOutcome.BAD_CREDENTIALS, -1);
+
+		List<RecentAuthenticationEvent> found = all(events);
+		assertEquals(2, found.size());
+		RecentAuthenticationEvent bob = found.get(0);
+		assertEquals(1, bob.getSequence());
+		assertEquals("bob", bob.getUsername());
+		assertEquals("10.0.0.2", bob.getAddress());
+		assertEquals(AuditOutcome.BAD_CREDENTIALS, bob.getOutcome());
+		assertEquals(-1, bob.getLatencyMicros());
+		RecentAuthenticationEvent alice = found.get(1);
+		assertEquals(2500, alice.getLatencyMicros());
+		assertTrue(alice.getTimestamp() >= before);
+	}
+
+	@Test
+	public void queriesMatchEveryCondition() {
+		RecentAuthenticationEvents events = new RecentAuthenticationEvents(16);
+		events.record("alice", "10.0.0.1", AuditOutcome.SUCCESS, 0);
+		events.record("alice", "10.0.0.2", AuditOutcome.BAD_CREDENTIALS, 0);
+		events.record("bob", "10.0.0.1", AuditOutcome.BAD_CREDENTIALS, 0);
+		events.record("bob", "10.0.0.1", AuditOutcome.LOCKED, 0);
+
+		assertEquals(2, events.query("alice", null, null, 0, Long.MAX_VALUE, 10).size());
+		assertEquals(3, events.query(null, "10.0.0.1", null, 0, Long.MAX_VALUE, 10).size());
+		assertEquals(2, events.query(null, null, EnumSet.of(AuditOutcome.BAD_CREDENTIALS), 0, Long.MAX_VALUE, 10).size());
+		assertEquals(4, events.query(null, null, Collections.<AuditOutcome>emptySet(), 0, Long.MAX_VALUE, 10).size());
+		assertEquals(1, events.query("bob", "10.0.0.1", EnumSet.of(AuditOutcome.BAD_CREDENTIALS, AuditOutcome.SUCCESS),
+				0, Long.MAX_VALUE, 10).size());
+		assertEquals(0, events.query(null, null, null, System.currentTimeMillis() + 60_000, Long.MAX_VALUE, 10).size());
+		assertEquals(0, events.query(null, null, null, 0, 0, 10).size());
+
+		List<RecentAuthenticationEvent> limited = events.query(null, null, null, 0, Long.MAX_VALUE, 2);
+		assertEquals(2, limited.size());
+		assertEquals(AuditOutcome.LOCKED, limited.get(0).getOutcome());
+		assertEquals(0, events.query(null, null, null, 0, Long.MAX_VALUE, 0).size());
+	}
+
+	@Test
+	public void aFullBufferOverwritesTheOldestEvents() {
+		RecentAuthenticationEvents events = new RecentAuthenticationEvents(4);
+		for (int i = 0; i < 10; i++) {
+			events.record("user" + i, null, AuditOutcome.SUCCESS, 0);
+		}
+		List<RecentAuthenticationEvent> found = all(events);
+		assertEquals(4, found.size());
+		for (int i = 0; i < 4; i++) {
+			assertEquals("user" + (9 - i), found.get(i).getUsername());
+		}
+		assertEquals(10, events.getRecorded());
+		assertEquals(0, events.getDropped());
+	}
+
+	@Test
+	public void queriesUnderConcurrentWritesNeverSeeTornEvents() throws Exception {
+		final int writers = 4;
+		final int perWriter = 50_000;
+		RecentAuthenticationEvents events = new RecentAuthenticationEvents(256);
+		AtomicBoolean writing = new AtomicBoolean(true);
+		CountDownLatch started = new CountDownLatch(1);
+		ExecutorService executor = Executors.newFixedThreadPool(writers + 2);
+		try {
+			List<Future<?>> writes = new ArrayList<Future<?>>();
+			for (int w = 0; w < writers; w++) {
+				final int writer = w;
+				writes.add(executor.submit(() -> {
+					started.await();
+					for (int i = 0; i < perWriter; i++) {
+						// 地址和耗时都由用户名推导，读到的字段来自不同事件时可以发现
+						events.record("w" + writer, writer + "." + i, AuditOutcome.valueOf(i % 10), i * 1000L);
+					}
+					return null;
+				}));
+			}
+			List<Future<Long>> reads = new ArrayList<Future<Long>>();
+			for (int r = 0; r < 2; r++) {
+				reads.add(executor.submit(() -> {
+					started.await();
+					long checked = 0;
+					while (writing.get()) {
+						long previous = Long.MAX_VALUE;
+						for (RecentAuthenticationEvent event : all(events)) {
+							assertTrue(event.getSequence() < previous);
+							previous = event.getSequence();
+							String[] address = event.getAddress().split("\\.");
+							assertEquals("w" + address[0], event.getUsername());
+							int i = Integer.parseInt(address[1]);
+							assertEquals(i, event.getLatencyMicros());
+							assertEquals(AuditOutcome.valueOf(i % 10), event.getOutcome());
+							checked++;
+						}
+					}
+					return checked;
+				}));
+			}
+			started.countDown();
+			for (Future<?> write : writes) {
+				write.get();
+			}
+			writing.set(false);
+			for (Future<Long> read : reads) {
+				assertTrue(read.get() > 0);
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+		assertEquals((long) writers * perWriter, events.getRecorded());
+		List<RecentAuthenticationEvent> found = all(events);
+		assertTrue(found.size() <= events.getCapacity());
+		assertTrue(found.size() + events.getDropped() >= events.getCapacity());
+	}
+
+}
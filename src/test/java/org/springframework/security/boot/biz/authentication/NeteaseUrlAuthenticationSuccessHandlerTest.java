@@ -0,0 +1,137 @@
+/*
+ * Copyright (c) 2018, vindell (https://github.com/vindell).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.springframework.security.boot.biz.authentication;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import javax.servlet.http.Cookie;
+
+import org.junit.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.authentication.InsufficientAuthenticationException;
+import org.springframework.security.boot.biz.crypto.HmacSigner;
+import org.springframework.security.boot.biz.savedrequest.CompactRequestCache;
+
+public class NeteaseUrlAuthenticationSuccessHandlerTest {
+
+	private final RequestedUrlCookieRepository repository = new RequestedUrlCookieRepository(HmacSigner.of("redirect-test-secret"));
+
+	@Test
+	public void redirectsToTheUrlSavedByTheRequestCache() throws Exception {
+		MockHttpServletRequest protectedRequest = get("/orders");
+		protectedRequest.setQueryString("page=2");
+		MockHttpServletResponse entryResponse = new MockHttpServletResponse();
+		new CompactRequestCache(repository).saveRequest(protectedRequest, entryResponse);
+		Cookie saved = entryResponse.getCookie(RequestedUrlCookieRepository.DEFAULT_COOKIE_NAME);
+		assertNull(protectedRequest.getSession(false));
+
+		NeteaseUrlAuthenticationSuccessHandler handler = new NeteaseUrlAuthenticationSuccessHandler("/home", repository);
+		MockHttpServletRequest login = new MockHttpServletRequest("POST", "/login");
+		login.setCookies(saved);
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		handler.onAuthenticationSuccess(login, response, new TestingAuthenticationToken("alice", "secret"));
+
+		assertEquals("/orders?page=2", response.getRedirectedUrl());
+		assertEquals(0, response.getCookie(RequestedUrlCookieRepository.DEFAULT_COOKIE_NAME).getMaxAge());
+	}
+
+	@Test
+	public void ignoresCookiesSignedWithAnotherKey() throws Exception {
+		RequestedUrlCookieRepository other = new RequestedUrlCookieRepository(HmacSigner.of("another-secret"));
+		MockHttpServletRequest protectedRequest = get("/orders");
+		MockHttpServletResponse saveResponse = new MockHttpServletResponse();
+		other.saveRequestedUrl(protectedRequest, saveResponse);
+
+		NeteaseUrlAuthenticationSuccessHandler handler = new NeteaseUrlAuthenticationSuccessHandler("/home", repository);
+		MockHttpServletRequest login = new MockHttpServletRequest("POST", "/login");
+		login.setCookies(saveResponse.getCookie(RequestedUrlCookieRepository.DEFAULT_COOKIE_NAME));
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		handler.onAuthenticationSuccess(login, response, new TestingAuthenticationToken("alice", "secret"));
+
+		assertEquals("/home", response.getRedirectedUrl());
+	}
+
+	/*
+	 * Java 8 的编译器对导入过时的类同样告警，因此在方法内使用全限定名
+	 */
+	@Test
+	@SuppressWarnings("deprecation")
+	public void readsTheUrlWrittenToTheSessionByTheDeprecatedFilter() throws Exception {
+		MockHttpServletRequest protectedRequest = new MockHttpServletRequest("GET", "/app/orders");
+		protectedRequest.setServletPath("/app");
+		protectedRequest.setPathInfo("/orders");
+		MockHttpServletResponse filterResponse = new MockHttpServletResponse();
+		new org.springframework.security.boot.biz.filter.HttpParamsFilter().doFilter(protectedRequest, filterResponse, new MockFilterChain());
+		assertEquals(0, filterResponse.getCookies().length);
+
+		NeteaseUrlAuthenticationSuccessHandler handler = new NeteaseUrlAuthenticationSuccessHandler("/home");
+		MockHttpServletRequest login = new MockHttpServletRequest("POST", "/login");
+		login.setSession(protectedRequest.getSession(false));
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		handler.onAuthenticationSuccess(login, response, new TestingAuthenticationToken("alice", "secret"));
+
+		assertEquals("/orders", response.getRedirectedUrl());
+	}
+
+	@Test
+	@SuppressWarnings("deprecation")
+	public void sharesTheCookieRepositoryWithTheDeprecatedFilter() throws Exception {
+		MockHttpServletRequest protectedRequest = get("/orders");
+		MockHttpServletResponse filterResponse = new MockHttpServletResponse();
+		new org.springframework.security.boot.biz.filter.HttpParamsFilter(repository).doFilter(protectedRequest, filterResponse, new MockFilterChain());
+		assertNull(protectedRequest.getSession(false));
+
+		NeteaseUrlAuthenticationSuccessHandler handler = new NeteaseUrlAuthenticationSuccessHandler("/home", repository);
+		MockHttpServletRequest login = new MockHttpServletRequest("POST", "/login");
+		login.setCookies(filterResponse.getCookie(RequestedUrlCookieRepository.DEFAULT_COOKIE_NAME));
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		handler.onAuthenticationSuccess(login, response, new TestingAuthenticationToken("alice", "secret"));
+
+		assertEquals("/orders", response.getRedirectedUrl());
+	}
+
+	@Test
+	public void theEntryPointLeavesSavingTheUrlToTheRequestCache() throws Exception {
+		MockHttpServletRequest protectedRequest = get("/favicon.ico");
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		new PostRequestAuthenticationEntryPoint("/login").commence(protectedRequest, response,
+				new InsufficientAuthenticationException("login"));
+		assertEquals("http://localhost/login", response.getRedirectedUrl());
+		assertEquals(0, response.getCookies().length);
+	}
+
+	@Test
+	public void fallsBackToTheDefaultTargetUrl() throws Exception {
+		NeteaseUrlAuthenticationSuccessHandler handler = new NeteaseUrlAuthenticationSuccessHandler("/home");
+		MockHttpServletRequest login = new MockHttpServletRequest("POST", "/login");
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		handler.onAuthenticationSuccess(login, response, new TestingAuthenticationToken("alice", "secret"));
+
+		assertEquals("/home", response.getRedirectedUrl());
+		assertNull(login.getSession(false));
+	}
+
+	private static MockHttpServletRequest get(String path) {
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", path);
+		request.setServletPath(path);
+		return request;
+	}
+
+}
@@ -0,0 +1,170 @@
+/*
+ * Copyright (c) 2018, vindell (https://github.com/vindell).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.springframework.security.boot.biz.authentication;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.RejectedExecutionException;
+
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.DispatcherType;
+
+import org.junit.Test;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockAsyncContext;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.web.context.HttpSessionSecurityContextRepository;
+import org.springframework.security.web.context.SecurityContextPersistenceFilter;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import com.alibaba.fastjson.JSONObject;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+public class PostRequestAuthenticationProcessingFilterAsyncTest {
+
+	/** 提交到登录线程池、尚未执行的任务 */
+	private final Queue<Runnable> workers = new ArrayDeque<Runnable>();
+	private final PostRequestAuthenticationProcessingFilter filter = new PostRequestAuthenticationProcessingFilter(
+			new ObjectMapper());
+	private final MockMvc mockMvc;
+
+	public PostRequestAuthenticationProcessingFilterAsyncTest() {
+		filter.setAuthenticationManager(authentication -> {
+			if (!"secret".equals(authentication.getCredentials())) {
+				throw new BadCredentialsException("Bad credentials");
+			}
+			return new UsernamePasswordAuthenticationToken(authentication.getPrincipal(), null,
+					AuthorityUtils.createAuthorityList("ROLE_admin"));
+		});
+		filter.setAuthenticationSuccessHandler(new PostRequestAuthenticationSuccessHandler("/"));
+		filter.setAuthenticationFailureHandler(new PostRequestAuthenticationFailureHandler("/error"));
+		filter.setAsyncExecutor(workers::add);
+		mockMvc = MockMvcBuilders.standaloneSetup().addFilters(new SecurityContextPersistenceFilter(), filter).build();
+	}
+
+	@Test
+	public void successResumesOnTheAsyncDispatchAndPersistsTheContext() throws Exception {
+		MvcResult started = login("secret");
+		assertTrue(started.getRequest().isAsyncStarted());
+		assertNull(dispatchedPath(started));
+
+		workers.remove().run();
+		MvcResult resumed = asyncDispatch(started);
+
+		assertEquals(200, resumed.getResponse().getStatus());
+		SecurityContext context = (SecurityContext) resumed.getRequest().getSession()
+				.getAttribute(HttpSessionSecurityContextRepository.SPRING_SECURITY_CONTEXT_KEY);
+		assertNotNull(context);
+		assertEquals("admin", context.getAuthentication().getName());
+	}
+
+	@Test
+	public void failureGoesThroughTheFailureHandler() throws Exception {
+		MvcResult started = login("wrong");
+		workers.remove().run();
+		MvcResult resumed = asyncDispatch(started);
+
+		assertEquals(401, resumed.getResponse().getStatus());
+		assertEquals("Invalid username or password", error(resumed).getString("message"));
+		assertNull(resumed.getRequest().getSession(false));
+	}
+
+	@Test
+	public void timeoutRespondsWithServiceUnavailable() throws Exception {
+		MvcResult started = login("secret");
+		timeout(started);
+		MvcResult resumed = asyncDispatch(started);
+
+		assertEquals(503, resumed.getResponse().getStatus());
+		assertEquals(MediaType.APPLICATION_JSON_UTF8_VALUE, resumed.getResponse().getContentType());
+		assertEquals("Authentication timed out", error(resumed).getString("message"));
+	}
+
+	@Test
+	public void aResultArrivingAfterTheTimeoutIsIgnored() throws Exception {
+		MvcResult started = login("secret");
+		timeout(started);
+		MvcResult resumed = asyncDispatch(started);
+
+		// 超时后线程池才执行到这次登录，结果不能再次分派
+		workers.remove().run();
+		assertNull(resumed.getRequest().getAttribute(PostRequestAuthenticationProcessingFilter.ASYNC_RESULT_ATTRIBUTE));
+		assertEquals(503, resumed.getResponse().getStatus());
+		assertNull(resumed.getRequest().getSession(false));
+	}
+
+	@Test
+	public void aFullLoginPoolRespondsWithServiceUnavailable() throws Exception {
+		filter.setAsyncExecutor(task -> {
+			throw new RejectedExecutionException("full");
+		});
+		MvcResult started = login("secret");
+		assertNotNull(dispatchedPath(started));
+		MvcResult resumed = asyncDispatch(started);
+
+		// 服务端过载，不能报告为凭证错误
+		assertEquals(503, resumed.getResponse().getStatus());
+		assertEquals("Too many concurrent login attempts", error(resumed).getString("message"));
+	}
+
+	private MvcResult login(String password) throws Exception {
+		return mockMvc.perform(post("/login").contentType(MediaType.APPLICATION_JSON)
+				.content("{\"username\":\"admin\",\"password\":\"" + password + "\"}")).andReturn();
+	}
+
+	/**
+	 * {@code MockMvcRequestBuilders.asyncDispatch} waits for a result set by the DispatcherServlet, here the
+	 * filter starts the async processing itself, so the ASYNC dispatch is replayed the same way.
+	 */
+	private MvcResult asyncDispatch(MvcResult started) throws Exception {
+		assertNotNull("the login was not dispatched", dispatchedPath(started));
+		return mockMvc.perform(servletContext -> {
+			MockHttpServletRequest request = started.getRequest();
+			request.setDispatcherType(DispatcherType.ASYNC);
+			request.setAsyncStarted(false);
+			return request;
+		}).andReturn();
+	}
+
+	private static String dispatchedPath(MvcResult started) {
+		return ((MockAsyncContext) started.getRequest().getAsyncContext()).getDispatchedPath();
+	}
+
+	private static void timeout(MvcResult started) throws Exception {
+		MockAsyncContext asyncContext = (MockAsyncContext) started.getRequest().getAsyncContext();
+		for (AsyncListener listener : asyncContext.getListeners()) {
+			listener.onTimeout(new AsyncEvent(asyncContext));
+		}
+	}
+
+	private static JSONObject error(MvcResult result) throws Exception {
+		return JSONObject.parseObject(result.getResponse().getContentAsString());
+	}
+
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright (c) 2018, vindell (https://github.com/vindell).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.springframework.security.boot.biz.authentication.captcha;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+public class CaptchaImageFilterTest {
+
+	private static final byte[] PNG_SIGNATURE = { (byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1a, '\n' };
+
+	private final MemoryCaptchaResolver resolver = new MemoryCaptchaResolver();
+	private final CaptchaImageFilter filter = new CaptchaImageFilter(new CaptchaImagePool(new DefaultCaptchaProducer() {
+
+		@Override
+		public String createText() {
+			return "abcd";
+		}
+
+	}), resolver);
+
+	@Test
+	public void writesAPngAndStoresTheAnswerThroughTheResolver() throws Exception {
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		MockFilterChain chain = new MockFilterChain();
+		filter.doFilter(imageRequest("GET"), response, chain);
+
+		assertNull(chain.getRequest());
+		assertEquals(CaptchaImagePool.CONTENT_TYPE, response.getContentType());
+		byte[] data = response.getContentAsByteArray();
+		assertEquals(data.length, response.getContentLength());
+		assertArrayEquals(PNG_SIGNATURE, Arrays.copyOf(data, PNG_SIGNATURE.length));
+		assertTrue(response.getHeader("Cache-Control").contains("no-store"));
+
+		String token = response.getHeader(resolver.getTokenHeaderName());
+		assertNotNull(token);
+		MockHttpServletRequest login = new MockHttpServletRequest("POST", "/login");
+		login.addHeader(resolver.getTokenHeaderName(), token);
+		assertTrue(resolver.validCaptcha(login, "abcd"));
+	}
+
+	@Test
+	public void otherRequestsContinueTheChain() throws Exception {
+		MockHttpServletRequest request = imageRequest("POST");
+		MockFilterChain chain = new MockFilterChain();
+		filter.doFilter(request, new MockHttpServletResponse(), chain);
+		assertSame(request, chain.getRequest());
+		assertEquals(0, resolver.size());
+	}
+
+	private static MockHttpServletRequest imageRequest(String method) {
+		MockHttpServletRequest request = new MockHttpServletRequest(method, CaptchaImageFilter.DEFAULT_IMAGE_URL);
+		request.setServletPath(CaptchaImageFilter.DEFAULT_IMAGE_URL);
+		return request;
+	}
+
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright (c) 2018, vindell (https://github.com/vindell).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.springframework.security.boot.biz.authentication.captcha;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import javax.imageio.ImageIO;
+
+import org.junit.After;
+import org.junit.Test;
+
+public class CaptchaImagePoolTest {
+
+	private final CountingCaptchaProducer producer = new CountingCaptchaProducer();
+	private final CaptchaImagePool pool = new CaptchaImagePool(producer, 2);
+
+	@After
+	public void stop() {
+		pool.destroy();
+	}
+
+	@Test
+	public void producerDrawsTheTextWithTheConfiguredSize() {
+		DefaultCaptchaProducer producer = new DefaultCaptchaProducer();
+		producer.setChars("ab");
+		producer.setLength(6);
+		producer.setWidth(200);
+		producer.setHeight(50);
+		String text = producer.createText();
+		assertTrue(text.matches("[ab]{6}"));
+		BufferedImage image = producer.createImage(text);
+		assertEquals(200, image.getWidth());
+		assertEquals(50, image.getHeight());
+	}
+
+	@Test
+	public void anEmptyPoolRendersInline() throws Exception {
+		CaptchaImage image = pool.take();
+		assertEquals(1, pool.getMisses());
+		assertEquals(0, pool.getHits());
+		assertEquals(1, producer.rendered.get());
+		assertEquals(CaptchaImagePool.CONTENT_TYPE, image.getContentType());
+		assertEquals(4, image.getText().length());
+		BufferedImage decoded = ImageIO.read(new ByteArrayInputStream(image.getData()));
+		assertNotNull(decoded);
+		assertEquals(120, decoded.getWidth());
+		assertEquals(40, decoded.getHeight());
+	}
+
+	@Test
+	public void poolServesPreRenderedImagesAndRefillsAfterATake() throws Exception {
+		pool.afterPropertiesSet();
+		awaitTrue(() -> pool.size() == 2);
+		int rendered = producer.rendered.get();
+
+		CaptchaImage image = pool.take();
+		assertEquals(1, pool.getHits());
+		assertEquals(0, pool.getMisses());
+		assertNotNull(ImageIO.read(new ByteArrayInputStream(image.getData())));
+		// 取走的图片由后台线程补充，而不是在请求线程上渲染
+		awaitTrue(() -> pool.size() == 2);
+		assertTrue(producer.rendered.get() > rendered);
+		assertFalse(Thread.currentThread() == producer.renderer);
+	}
+
+	@Test
+	public void refillThreadStopsOnDestroy() throws Exception {
+		pool.afterPropertiesSet();
+		awaitTrue(() -> pool.size() == 2);
+		Thread refiller = producer.renderer;
+		assertTrue(refiller.isAlive());
+
+		pool.destroy();
+		refiller.join(TimeUnit.SECONDS.toMillis(5));
+		assertFalse(refiller.isAlive());
+		assertEquals(0, pool.size());
+	}
+
+	private static void awaitTrue(BooleanSupplier condition) throws InterruptedException {
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+		while (!condition.getAsBoolean()) {
+			assertTrue("condition not met within 5 seconds", System.nanoTime() < deadline);
+			Thread.sleep(10);
+		}
+	}
+
+	private static class CountingCaptchaProducer extends DefaultCaptchaProducer {
+
+		final AtomicInteger rendered = new AtomicInteger();
+		volatile Thread renderer;
+
+		@Override
+		public BufferedImage createImage(String text) {
+			rendered.incrementAndGet();
+			renderer = Thread.currentThread();
+			return super.createImage(text);
+		}
+
+	}
+
+}
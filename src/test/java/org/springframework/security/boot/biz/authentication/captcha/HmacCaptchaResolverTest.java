@@ -0,0 +1,118 @@
+/*
+ * Copyright (c) 2018, vindell (https://github.com/vindell).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.springframework.security.boot.biz.authentication.captcha;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.boot.biz.crypto.HmacSigner;
+
+public class HmacCaptchaResolverTest {
+
+	private final HmacCaptchaResolver resolver = new HmacCaptchaResolver(HmacSigner.of("captcha-test-secret"));
+	private final ExecutorService executor = Executors.newFixedThreadPool(16);
+
+	@After
+	public void shutdown() {
+		executor.shutdownNow();
+	}
+
+	@Test
+	public void tokenIsAcceptedOnceWithTheRightAnswer() {
+		String token = issue(resolver, "AbCd", new Date());
+		assertTrue(resolver.validCaptcha(request(token), "abcd"));
+		assertFalse(resolver.validCaptcha(request(token), "abcd"));
+	}
+
+	@Test
+	public void wrongAnswerConsumesTheToken() {
+		String token = issue(resolver, "abcd", new Date());
+		assertFalse(resolver.validCaptcha(request(token), "abce"));
+		assertFalse(resolver.validCaptcha(request(token), "abcd"));
+	}
+
+	@Test
+	public void rejectsMissingTamperedForeignAndExpiredTokens() {
+		assertFalse(resolver.validCaptcha(new MockHttpServletRequest(), "abcd"));
+		assertFalse(resolver.validCaptcha(request("not-a-token"), "abcd"));
+
+		byte[] bytes = Base64.getUrlDecoder().decode(issue(resolver, "abcd", new Date()));
+		bytes[3] ^= 1;
+		assertFalse(resolver.validCaptcha(request(Base64.getUrlEncoder().withoutPadding().encodeToString(bytes)), "abcd"));
+
+		HmacCaptchaResolver other = new HmacCaptchaResolver(HmacSigner.of("another-secret"));
+		assertFalse(resolver.validCaptcha(request(issue(other, "abcd", new Date())), "abcd"));
+
+		Date issuedLongAgo = new Date(System.currentTimeMillis() - HmacCaptchaResolver.DEFAULT_TIMEOUT - 1000);
+		assertFalse(resolver.validCaptcha(request(issue(resolver, "abcd", issuedLongAgo)), "abcd"));
+	}
+
+	@Test
+	public void concurrentReplaysOfATokenAreAcceptedOnce() throws Exception {
+		final int threads = 16;
+		for (int round = 0; round < 200; round++) {
+			String token = issue(resolver, "abcd", new Date());
+			CyclicBarrier barrier = new CyclicBarrier(threads);
+			AtomicInteger accepted = new AtomicInteger();
+			List<Future<?>> futures = new ArrayList<Future<?>>();
+			for (int t = 0; t < threads; t++) {
+				futures.add(executor.submit(() -> {
+					MockHttpServletRequest request = request(token);
+					barrier.await();
+					if (resolver.validCaptcha(request, "abcd")) {
+						accepted.incrementAndGet();
+					}
+					return null;
+				}));
+			}
+			for (Future<?> future : futures) {
+				future.get();
+			}
+			assertEquals("round " + round, 1, accepted.get());
+		}
+	}
+
+	private static String issue(HmacCaptchaResolver resolver, String text, Date date) {
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		resolver.setCaptcha(new MockHttpServletRequest(), response, text, date);
+		String token = response.getHeader(resolver.getTokenHeaderName());
+		assertNotNull(token);
+		return token;
+	}
+
+	private static MockHttpServletRequest request(String token) {
+		MockHttpServletRequest request = new MockHttpServletRequest("POST", "/authz/login");
+		request.addHeader(AbstractCaptchaTokenResolver.DEFAULT_TOKEN_HEADER_NAME, token);
+		return request;
+	}
+
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright (c) 2018, vindell (https://github.com/vindell).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.springframework.security.boot.biz.authentication.captcha;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Date;
+
+import org.junit.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+public class MemoryCaptchaResolverTest {
+
+	@Test
+	public void captchaIsAcceptedOnceWithTheRightAnswer() {
+		MemoryCaptchaResolver resolver = new MemoryCaptchaResolver();
+		String token = issue(resolver, "AbCd", new Date());
+		assertEquals(1, resolver.size());
+		assertTrue(resolver.validCaptcha(request(token), "abcd"));
+		assertFalse(resolver.validCaptcha(request(token), "abcd"));
+		assertEquals(0, resolver.size());
+		assertEquals(1, resolver.getMatched());
+		assertEquals(1, resolver.getMissing());
+	}
+
+	@Test
+	public void wrongAnswerConsumesTheCaptcha() {
+		MemoryCaptchaResolver resolver = new MemoryCaptchaResolver();
+		String token = issue(resolver, "abcd", new Date());
+		assertFalse(resolver.validCaptcha(request(token), "abce"));
+		assertFalse(resolver.validCaptcha(request(token), "abcd"));
+		assertEquals(1, resolver.getMismatched());
+	}
+
+	@Test
+	public void rejectsUnknownAndExpiredCaptchas() {
+		MemoryCaptchaResolver resolver = new MemoryCaptchaResolver(60_000, 10);
+		assertFalse(resolver.validCaptcha(new MockHttpServletRequest(), "abcd"));
+		assertFalse(resolver.validCaptcha(request("unknown"), "abcd"));
+
+		Date issuedLongAgo = new Date(System.currentTimeMillis() - 120_000);
+		String token = issue(resolver, "abcd", issuedLongAgo);
+		assertFalse(resolver.validCaptcha(request(token), "abcd"));
+		assertEquals(3, resolver.getMissing());
+	}
+
+	@Test
+	public void expiredCaptchasAreRemovedByLaterCalls() throws InterruptedException {
+		MemoryCaptchaResolver resolver = new MemoryCaptchaResolver(60_000, 10);
+		issue(resolver, "abcd", new Date(System.currentTimeMillis() - 120_000));
+		// 时间轮精度为 1 秒，过期条目最晚在下一个 tick 被移除
+		Thread.sleep(1100);
+		issue(resolver, "abcd", new Date());
+		assertEquals(1, resolver.size());
+		assertEquals(1, resolver.getExpired());
+	}
+
+	@Test
+	public void evictsTheEarliestCaptchaWhenFull() {
+		MemoryCaptchaResolver resolver = new MemoryCaptchaResolver(60_000, 2);
+		long now = System.currentTimeMillis();
+		String first = issue(resolver, "first", new Date(now));
+		String second = issue(resolver, "second", new Date(now + 5_000));
+		String third = issue(resolver, "third", new Date(now + 10_000));
+		assertEquals(2, resolver.size());
+		assertEquals(1, resolver.getEvicted());
+		assertFalse(resolver.validCaptcha(request(first), "first"));
+		assertTrue(resolver.validCaptcha(request(second), "second"));
+		assertTrue(resolver.validCaptcha(request(third), "third"));
+	}
+
+	private static String issue(MemoryCaptchaResolver resolver, String text, Date date) {
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		resolver.setCaptcha(new MockHttpServletRequest(), response, text, date);
+		String token = response.getHeader(resolver.getTokenHeaderName());
+		assertNotNull(token);
+		return token;
+	}
+
+	private static MockHttpServletRequest request(String token) {
+		MockHttpServletRequest request = new MockHttpServletRequest("POST", "/authz/login");
+		request.addHeader(AbstractCaptchaTokenResolver.DEFAULT_TOKEN_HEADER_NAME, token);
+		return request;
+	}
+
+}
@@ -0,0 +1,129 @@
+/*
+ * Copyright (c) 2018, vindell (https://github.com/vindell).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.springframework.security.boot.biz.authentication.token;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+import org.springframework.security.boot.biz.context.RevokedTokenRegistry;
+import org.springframework.security.boot.biz.context.StatelessAuthenticationToken;
+import org.springframework.security.boot.biz.context.StatelessToken;
+import org.springframework.security.boot.biz.context.StatelessTokenCodec;
+import org.springframework.security.boot.biz.crypto.RotatingKeySet;
+import org.springframework.security.boot.biz.exception.AuthTokenExpiredException;
+import org.springframework.security.boot.biz.exception.AuthTokenIncorrectException;
+import org.springframework.security.boot.biz.exception.AuthTokenRevokedException;
+import org.springframework.security.core.Authentication;
+
+public class BearerTokenAuthenticationProviderTest {
+
+	private final StatelessTokenCodec codec = new StatelessTokenCodec(
+			RotatingKeySet.of("bearer-test-secret", RotatingKeySet.DEFAULT_ROTATION_PERIOD));
+
+	private final BearerTokenAuthenticationProvider provider = new BearerTokenAuthenticationProvider(codec);
+
+	private String issue(long tokenId, long expiry) {
+		return codec.encode(new StatelessToken(tokenId, expiry, "u-1", "alice", Arrays.asList("ROLE_USER")));
+	}
+
+	@Test
+	public void validTokensAuthenticateAndAreCached() {
+		String value = issue(1L, System.currentTimeMillis() + 60_000);
+
+		Authentication result = provider.authenticate(new BearerTokenAuthenticationToken(value));
+
+		assertTrue(result instanceof StatelessAuthenticationToken);
+		assertTrue(result.isAuthenticated());
+		assertEquals("alice", result.getName());
+		assertEquals("ROLE_USER", result.getAuthorities().iterator().next().getAuthority());
+		assertEquals(1, provider.getVerifiedCache().size());
+		assertEquals(0, provider.getVerifiedCache().getHits());
+	}
+
+	@Test
+	public void repeatedTokensAreServedFromTheCache() {
+		String value = issue(1L, System.currentTimeMillis() + 60_000);
+		Authentication first = provider.authenticate(new BearerTokenAuthenticationToken(value));
+		Authentication second = provider.authenticate(new BearerTokenAuthenticationToken(value));
+
+		assertNotSame(first, second);
+		assertEquals(first.getName(), second.getName());
+		assertEquals(1, provider.getVerifiedCache().getHits());
+
+		provider.evict(value);
+		assertFalse(provider.getVerifiedCache().containsKey(value));
+	}
+
+	@Test
+	public void forgedTokensAreIncorrect() {
+		StatelessTokenCodec other = new StatelessTokenCodec(
+				RotatingKeySet.of("another-secret", RotatingKeySet.DEFAULT_ROTATION_PERIOD));
+		String forged = other.encode(new StatelessToken(1L, System.currentTimeMillis() + 60_000, null, "alice", null));
+		for (String value : new String[] { forged, "garbage" }) {
+			try {
+				provider.authenticate(new BearerTokenAuthenticationToken(value));
+				fail("expected AuthTokenIncorrectException for " + value);
+			} catch (AuthTokenIncorrectException expected) {
+			}
+		}
+		assertEquals(2, provider.getIncorrect());
+		assertEquals(0, provider.getVerifiedCache().size());
+	}
+
+	@Test
+	public void expiredTokensAreRejectedAndNotCached() {
+		String value = issue(1L, System.currentTimeMillis() - 2_000);
+		try {
+			provider.authenticate(new BearerTokenAuthenticationToken(value));
+			fail("expected AuthTokenExpiredException");
+		} catch (AuthTokenExpiredException expected) {
+		}
+		assertEquals(1, provider.getExpired());
+		assertEquals(0, provider.getVerifiedCache().size());
+	}
+
+	@Test
+	public void revokedTokensAreRejectedEvenWhenCached() {
+		RevokedTokenRegistry registry = new RevokedTokenRegistry(120_000);
+		provider.setRevokedTokenRegistry(registry);
+		String value = issue(1L, System.currentTimeMillis() + 60_000);
+		String other = issue(2L, System.currentTimeMillis() + 60_000);
+		provider.authenticate(new BearerTokenAuthenticationToken(value));
+
+		registry.revoke(((StatelessAuthenticationToken) provider
+				.authenticate(new BearerTokenAuthenticationToken(value))).getToken());
+		try {
+			provider.authenticate(new BearerTokenAuthenticationToken(value));
+			fail("expected AuthTokenRevokedException");
+		} catch (AuthTokenRevokedException expected) {
+		}
+		assertEquals("alice", provider.authenticate(new BearerTokenAuthenticationToken(other)).getName());
+		assertEquals(1, provider.getRevoked());
+	}
+
+	@Test
+	public void supportsOnlyBearerTokens() {
+		assertTrue(provider.supports(BearerTokenAuthenticationToken.class));
+		assertFalse(provider.supports(StatelessAuthenticationToken.class));
+	}
+
+}
@@ -0,0 +1,179 @@
+/*
+ * Copyright (c) 2018, vindell (https://github.com/vindell).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.springframework.security.boot.biz.authorization;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.access.AccessDecisionVoter;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.access.ConfigAttribute;
+import org.springframework.security.access.SecurityConfig;
+import org.springframework.security.access.vote.AffirmativeBased;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.boot.biz.authorization.FilterChainDefinitions.Clause;
+import org.springframework.security.boot.biz.authorization.FilterChainDefinitions.Rule;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.web.FilterInvocation;
+import org.springframework.security.web.access.expression.DefaultWebSecurityExpressionHandler;
+import org.springframework.security.web.access.expression.ExpressionBasedFilterInvocationSecurityMetadataSource;
+import org.springframework.security.web.access.expression.WebExpressionVoter;
+import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
+import org.springframework.security.web.util.matcher.RequestMatcher;
+
+public class FilterChainDefinitionsTest {
+
+	private static Map<String, String> definitionMap(String... entries) {
+		Map<String, String> definitionMap = new LinkedHashMap<String, String>();
+		for (int i = 0; i < entries.length; i += 2) {
+			definitionMap.put(entries[i], entries[i + 1]);
+		}
+		return definitionMap;
+	}
+
+	@Test
+	public void anonPatternsAreCollectedSeparately() {
+		FilterChainDefinitions definitions = FilterChainDefinitions.parse(definitionMap(
+				"/assets/**", "anon", "/login", " anon ", "/admin/**", "roles[admin]"));
+
+		assertEquals(Arrays.asList("/assets/**", "/login"), definitions.getAnonPatterns());
+		assertEquals(1, definitions.getRules().size());
+	}
+
+	@Test
+	public void rolesBecomeHasAnyRole() {
+		Rule rule = FilterChainDefinitions.parse(definitionMap("/admin/**", "roles[admin, ops]")).getRules().get(0);
+
+		assertEquals("/admin/**", rule.getPattern());
+		assertEquals("hasAnyRole('admin','ops')", rule.getExpression());
+		Clause clause = rule.getClauses().get(0);
+		assertEquals(Clause.ROLES, clause.getName());
+		assertEquals(Arrays.asList("admin", "ops"), clause.getValues());
+	}
+
+	@Test
+	public void permsBecomeHasAnyAuthority() {
+		assertEquals("hasAnyAuthority('user:view','user:edit')",
+				FilterChainDefinitions.toExpression("perms[user:view,user:edit]"));
+	}
+
+	@Test
+	public void ipaddrBecomesAnyHasIpAddress() {
+		assertEquals("(hasIpAddress('10.0.0.0/8') or hasIpAddress('127.0.0.1'))",
+				FilterChainDefinitions.toExpression("ipaddr[10.0.0.0/8,127.0.0.1]"));
+	}
+
+	@Test
+	public void combinedDefinitionsMustAllPass() {
+		assertEquals("hasAnyRole('admin') and hasAnyAuthority('audit:view') and (hasIpAddress('10.0.0.0/8'))",
+				FilterChainDefinitions.toExpression("roles[admin], perms[audit:view], ipaddr[10.0.0.0/8]"));
+	}
+
+	@Test
+	public void unsupportedAndEmptyDefinitionsAreIgnored() {
+		FilterChainDefinitions definitions = FilterChainDefinitions.parse(definitionMap(
+				"/a/**", "authc", "/b/**", "roles[]", "/c/**", "", "", "anon", "/d/**", "authc, perms[d:view]"));
+
+		assertTrue(definitions.getAnonPatterns().isEmpty());
+		assertEquals(1, definitions.getRules().size());
+		assertEquals("/d/**=hasAnyAuthority('d:view')", definitions.getRules().get(0).toString());
+		assertNull(FilterChainDefinitions.toExpression("authc"));
+	}
+
+	@Test
+	public void quotesCannotEscapeTheExpression() {
+		assertEquals("hasAnyRole('admin) or true or (')",
+				FilterChainDefinitions.toExpression("roles[admin') or true or ('']"));
+	}
+
+	@Test
+	public void rulesKeepTheDefinitionOrder() {
+		FilterChainDefinitions definitions = FilterChainDefinitions.parse(definitionMap(
+				"/api/public/**", "perms[public]", "/api/**", "roles[api]", "/**", "roles[user]"));
+
+		List<String> patterns = new ArrayList<String>();
+		for (Rule rule : definitions.getRules()) {
+			patterns.add(rule.getPattern());
+		}
+		assertEquals(Arrays.asList("/api/public/**", "/api/**", "/**"), patterns);
+	}
+
+	@Test
+	public void theFirstMatchingRuleDecides() {
+		FilterChainDefinitions definitions = FilterChainDefinitions.parse(definitionMap(
+				"/api/public/**", "anon",
+				"/api/admin/**", "roles[admin]",
+				"/api/report/**", "perms[report:view], ipaddr[10.0.0.0/8]",
+				"/api/**", "roles[user]"));
+		Authentication user = new UsernamePasswordAuthenticationToken("alice", "",
+				AuthorityUtils.createAuthorityList("ROLE_user", "report:view"));
+		Authentication admin = new UsernamePasswordAuthenticationToken("bob", "",
+				AuthorityUtils.createAuthorityList("ROLE_admin"));
+
+		assertTrue(decide(definitions, user, "/api/public/info", "192.168.1.1"));
+		assertFalse(decide(definitions, user, "/api/admin/users", "10.1.1.1"));
+		assertTrue(decide(definitions, admin, "/api/admin/users", "10.1.1.1"));
+		assertTrue(decide(definitions, user, "/api/report/daily", "10.1.1.1"));
+		assertFalse(decide(definitions, user, "/api/report/daily", "192.168.1.1"));
+		// 管理员不具备 roles[user]，后面的 /api/** 规则不会被更具体的规则覆盖
+		assertFalse(decide(definitions, admin, "/api/orders", "10.1.1.1"));
+		assertTrue(decide(definitions, user, "/api/orders", "10.1.1.1"));
+	}
+
+	/**
+	 * Evaluate the request the way {@code http.authorizeRequests()} does: anon patterns first, then the rules.
+	 */
+	private static boolean decide(FilterChainDefinitions definitions, Authentication authentication, String path,
+			String remoteAddr) {
+		LinkedHashMap<RequestMatcher, Collection<ConfigAttribute>> requestMap = new LinkedHashMap<RequestMatcher, Collection<ConfigAttribute>>();
+		for (String pattern : definitions.getAnonPatterns()) {
+			requestMap.put(new AntPathRequestMatcher(pattern), SecurityConfig.createList("permitAll"));
+		}
+		for (Rule rule : definitions.getRules()) {
+			requestMap.put(new AntPathRequestMatcher(rule.getPattern()), SecurityConfig.createList(rule.getExpression()));
+		}
+		ExpressionBasedFilterInvocationSecurityMetadataSource metadataSource = new ExpressionBasedFilterInvocationSecurityMetadataSource(
+				requestMap, new DefaultWebSecurityExpressionHandler());
+		List<AccessDecisionVoter<?>> voters = new ArrayList<AccessDecisionVoter<?>>();
+		voters.add(new WebExpressionVoter());
+
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", path);
+		request.setServletPath(path);
+		request.setRemoteAddr(remoteAddr);
+		FilterInvocation invocation = new FilterInvocation(request, new MockHttpServletResponse(), new MockFilterChain());
+		try {
+			new AffirmativeBased(voters).decide(authentication, invocation, metadataSource.getAttributes(invocation));
+			return true;
+		} catch (AccessDeniedException e) {
+			return false;
+		}
+	}
+
+}
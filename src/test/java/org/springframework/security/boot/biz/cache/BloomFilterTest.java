@@ -0,0 +1,61 @@
+/*
+ * Copyright (c) 2018, vindell (https://github.com/vindell).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.springframework.security.boot.biz.cache;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.junit.Test;
+
+public class BloomFilterTest {
+
+	@Test
+	public void containsEveryInsertedKey() {
+		BloomFilter filter = new BloomFilter(10_000, 0.001);
+		for (long key = 0; key < 10_000; key++) {
+			filter.put(key * 31);
+		}
+		for (long key = 0; key < 10_000; key++) {
+			assertTrue(filter.mightContain(key * 31));
+		}
+	}
+
+	@Test
+	public void putReportsWhetherTheKeyWasAbsent() {
+		BloomFilter filter = new BloomFilter(1000, 0.001);
+		assertTrue(filter.put(42L));
+		assertFalse(filter.put(42L));
+	}
+
+	@Test
+	public void falsePositiveRateStaysNearTheTarget() {
+		BloomFilter filter = new BloomFilter(10_000, 0.01);
+		ThreadLocalRandom random = ThreadLocalRandom.current();
+		for (int i = 0; i < 10_000; i++) {
+			filter.put(random.nextLong());
+		}
+		int falsePositives = 0;
+		for (int i = 0; i < 100_000; i++) {
+			if (filter.mightContain(random.nextLong())) {
+				falsePositives++;
+			}
+		}
+		assertTrue("false positives: " + falsePositives, falsePositives < 2000);
+	}
+
+}
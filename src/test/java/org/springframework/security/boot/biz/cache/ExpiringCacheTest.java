@@ -0,0 +1,119 @@
+/*
+ * Copyright (c) 2018, vindell (https://github.com/vindell).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.springframework.security.boot.biz.cache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class ExpiringCacheTest {
+
+	@Test
+	public void getReturnsLiveEntriesAndCountsHitsAndMisses() {
+		ExpiringCache<String, String> cache = new ExpiringCache<String, String>(10);
+		cache.put("a", "1", System.currentTimeMillis() + 60_000);
+
+		assertEquals("1", cache.get("a"));
+		assertNull(cache.get("b"));
+		assertTrue(cache.containsKey("a"));
+		assertFalse(cache.containsKey("b"));
+		assertEquals(1, cache.getHits());
+		assertEquals(1, cache.getMisses());
+	}
+
+	@Test
+	public void entriesWithAPastDeadlineAreIgnored() {
+		ExpiringCache<String, String> cache = new ExpiringCache<String, String>(10);
+		cache.put("a", "1", System.currentTimeMillis() - 1);
+		assertNull(cache.get("a"));
+		assertEquals(0, cache.size());
+	}
+
+	@Test
+	public void expiredEntriesAreMissesAndAreRemovedByExpire() throws InterruptedException {
+		ExpiringCache<String, String> cache = new ExpiringCache<String, String>(10, 10);
+		cache.put("a", "1", System.currentTimeMillis() + 50);
+		cache.put("b", "2", System.currentTimeMillis() + 60_000);
+		Thread.sleep(100);
+
+		// 未清除前读取同样视为不存在
+		assertNull(cache.get("a"));
+		assertFalse(cache.containsKey("a"));
+		assertEquals(2, cache.size());
+
+		cache.expire();
+		assertEquals(1, cache.size());
+		assertEquals("2", cache.get("b"));
+	}
+
+	@Test
+	public void putReplacesTheValueAndTheDeadline() throws InterruptedException {
+		ExpiringCache<String, String> cache = new ExpiringCache<String, String>(10, 10);
+		cache.put("a", "1", System.currentTimeMillis() + 50);
+		cache.put("a", "2", System.currentTimeMillis() + 60_000);
+		Thread.sleep(100);
+		cache.expire();
+
+		assertEquals(1, cache.size());
+		assertEquals("2", cache.get("a"));
+	}
+
+	@Test
+	public void aFullCacheEvictsTheEarliestDeadline() {
+		ExpiringCache<String, String> cache = new ExpiringCache<String, String>(2);
+		long now = System.currentTimeMillis();
+		cache.put("late", "1", now + 120_000);
+		cache.put("early", "2", now + 60_000);
+		cache.put("new", "3", now + 90_000);
+
+		assertEquals(2, cache.size());
+		assertEquals(1, cache.getEvictions());
+		assertNull(cache.get("early"));
+		assertEquals("1", cache.get("late"));
+		assertEquals("3", cache.get("new"));
+	}
+
+	@Test
+	public void replacingAnEntryDoesNotEvict() {
+		ExpiringCache<String, String> cache = new ExpiringCache<String, String>(2);
+		long now = System.currentTimeMillis();
+		cache.put("a", "1", now + 60_000);
+		cache.put("b", "2", now + 60_000);
+		cache.put("a", "3", now + 60_000);
+
+		assertEquals(0, cache.getEvictions());
+		assertEquals("3", cache.get("a"));
+		assertEquals("2", cache.get("b"));
+	}
+
+	@Test
+	public void removeFreesTheSlot() {
+		ExpiringCache<String, String> cache = new ExpiringCache<String, String>(1);
+		long now = System.currentTimeMillis();
+		cache.put("a", "1", now + 60_000);
+		cache.remove("a");
+		cache.remove("missing");
+		cache.put("b", "2", now + 60_000);
+
+		assertNull(cache.get("a"));
+		assertEquals("2", cache.get("b"));
+		assertEquals(0, cache.getEvictions());
+	}
+
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright (c) 2018, vindell (https://github.com/vindell).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.springframework.security.boot.biz.cache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import org.junit.Test;
+
+public class RotatingBloomFilterTest {
+
+	@Test
+	public void putIfAbsentAcceptsAKeyOnce() {
+		RotatingBloomFilter filter = new RotatingBloomFilter(1000, 0.0001, 60_000);
+		assertTrue(filter.putIfAbsent(7L));
+		assertFalse(filter.putIfAbsent(7L));
+		assertTrue(filter.mightContain(7L));
+		assertFalse(filter.mightContain(8L));
+	}
+
+	@Test
+	public void keysAreRememberedForOneSliceAndForgottenAfterTwo() throws InterruptedException {
+		RotatingBloomFilter filter = new RotatingBloomFilter(1000, 0.0001, 200);
+		assertTrue(filter.putIfAbsent(7L));
+		Thread.sleep(250);
+		// 已轮换到上一个分片，仍然被记住
+		assertFalse(filter.putIfAbsent(7L));
+		Thread.sleep(450);
+		assertFalse(filter.mightContain(7L));
+		assertTrue(filter.putIfAbsent(7L));
+	}
+
+	@Test
+	public void putRefreshesAKeyOfThePreviousSlice() throws InterruptedException {
+		RotatingBloomFilter filter = new RotatingBloomFilter(1000, 0.0001, 200);
+		filter.put(7L);
+		Thread.sleep(250);
+		assertFalse(filter.putIfAbsent(7L));
+		filter.put(7L);
+		Thread.sleep(250);
+		// putIfAbsent 不会写入当前分片，put 会
+		assertTrue(filter.mightContain(7L));
+	}
+
+	@Test
+	public void concurrentPutIfAbsentOfTheSameKeySucceedsOnce() throws Exception {
+		final int threads = 8;
+		final int keys = 2000;
+		RotatingBloomFilter filter = new RotatingBloomFilter(keys, 0.0001, 60_000);
+		AtomicIntegerArray accepted = new AtomicIntegerArray(keys);
+		CyclicBarrier barrier = new CyclicBarrier(threads);
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		try {
+			List<Future<?>> futures = new ArrayList<Future<?>>();
+			for (int t = 0; t < threads; t++) {
+				futures.add(executor.submit(() -> {
+					for (int key = 0; key < keys; key++) {
+						barrier.await();
+						if (filter.putIfAbsent(key)) {
+							accepted.incrementAndGet(key);
+						}
+					}
+					return null;
+				}));
+			}
+			for (Future<?> future : futures) {
+				future.get();
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+		int total = 0;
+		for (int key = 0; key < keys; key++) {
+			assertTrue("key " + key + " accepted " + accepted.get(key) + " times", accepted.get(key) <= 1);
+			total += accepted.get(key);
+		}
+		// 误判只会让少量键被拒绝，不会被重复接受
+		assertEquals(keys, total, keys / 100);
+	}
+
+}
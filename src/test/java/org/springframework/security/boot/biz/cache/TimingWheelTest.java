@@ -0,0 +1,184 @@
+/*
+ * Copyright (c) 2018, vindell (https://github.com/vindell).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.springframework.security.boot.biz.cache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class TimingWheelTest {
+
+	private static final long TICK = 10;
+
+	@Test
+	public void expiresNoEarlierThanDeadlineAndWithinOneTick() {
+		TimingWheel<String> wheel = new TimingWheel<String>(TICK, 0);
+		wheel.schedule("a", 25);
+		List<String> expired = new ArrayList<String>();
+		assertEquals(0, wheel.advance(29, Integer.MAX_VALUE, node -> expired.add(node.getValue())));
+		assertEquals(1, wheel.advance(30, Integer.MAX_VALUE, node -> expired.add(node.getValue())));
+		assertEquals("a", expired.get(0));
+		assertEquals(0, wheel.size());
+	}
+
+	@Test
+	public void cascadesFromEveryLevelAtTheRightTick() {
+		TimingWheel<Long> wheel = new TimingWheel<Long>(TICK, 0);
+		// 第 0 层到第 3 层各一个
+		long[] deadlines = { 10 * 50, 10 * 70, 10 * 5000, 10 * 300000 };
+		for (long deadline : deadlines) {
+			wheel.schedule(deadline, deadline);
+		}
+		for (long deadline : deadlines) {
+			List<Long> expired = new ArrayList<Long>();
+			wheel.advance(deadline - TICK, Integer.MAX_VALUE, node -> expired.add(node.getValue()));
+			assertTrue("expired early: " + expired, expired.isEmpty());
+			wheel.advance(deadline, Integer.MAX_VALUE, node -> expired.add(node.getValue()));
+			assertEquals(1, expired.size());
+			assertEquals(deadline, expired.get(0).longValue());
+		}
+		assertEquals(0, wheel.size());
+	}
+
+	@Test
+	public void randomDeadlinesExpireInTheirOwnTick() {
+		Random random = new Random(42);
+		TimingWheel<Long> wheel = new TimingWheel<Long>(TICK, 0);
+		int count = 5000;
+		for (int i = 0; i < count; i++) {
+			long deadline = 1 + (long) (random.nextDouble() * 2_000_000);
+			wheel.schedule(deadline, deadline);
+		}
+		long previous = 0;
+		int total = 0;
+		while (wheel.size() > 0) {
+			long now = previous + 1 + random.nextInt(20_000);
+			long lower = previous / TICK;
+			long upper = now / TICK;
+			total += wheel.advance(now, Integer.MAX_VALUE, node -> {
+				long tick = (node.getDeadline() + TICK - 1) / TICK;
+				assertTrue("expired early: " + node.getDeadline(), tick <= upper);
+				assertTrue("expired late: " + node.getDeadline(), tick > lower);
+				assertFalse(node.isScheduled());
+			});
+			previous = now;
+		}
+		assertEquals(count, total);
+	}
+
+	@Test
+	public void deadlinesBeyondTheWheelSpanAreRescheduledNotExpired() {
+		TimingWheel<String> wheel = new TimingWheel<String>(1, 0);
+		long deadline = (1L << 24) + 1000;
+		wheel.schedule("far", deadline);
+		List<String> expired = new ArrayList<String>();
+		wheel.advance(deadline - 1, Integer.MAX_VALUE, node -> expired.add(node.getValue()));
+		assertTrue(expired.isEmpty());
+		assertEquals(1, wheel.size());
+		wheel.advance(deadline, Integer.MAX_VALUE, node -> expired.add(node.getValue()));
+		assertEquals(1, expired.size());
+	}
+
+	@Test
+	public void cancelUnlinksFromTheMiddleOfASlot() {
+		TimingWheel<String> wheel = new TimingWheel<String>(TICK, 0);
+		wheel.schedule("a", 100);
+		TimingWheel.Node<String> b = wheel.schedule("b", 100);
+		wheel.schedule("c", 100);
+		TimingWheel.Node<String> upper = wheel.schedule("upper", 10 * 5000);
+
+		assertTrue(wheel.cancel(b));
+		assertFalse(b.isScheduled());
+		assertFalse(wheel.cancel(b));
+		assertTrue(wheel.cancel(upper));
+		assertEquals(2, wheel.size());
+
+		List<String> expired = new ArrayList<String>();
+		wheel.advance(10 * 6000, Integer.MAX_VALUE, node -> expired.add(node.getValue()));
+		assertEquals(2, expired.size());
+		assertEquals("a", expired.get(0));
+		assertEquals("c", expired.get(1));
+	}
+
+	@Test
+	public void rescheduleMovesScheduledAndExpiredNodes() {
+		TimingWheel<String> wheel = new TimingWheel<String>(TICK, 0);
+		TimingWheel.Node<String> node = wheel.schedule("a", 100);
+		wheel.reschedule(node, 1000);
+		assertEquals(1, wheel.size());
+		assertEquals(0, wheel.advance(990, Integer.MAX_VALUE, n -> { }));
+		assertEquals(1, wheel.advance(1000, Integer.MAX_VALUE, n -> { }));
+
+		wheel.reschedule(node, 2000);
+		assertTrue(node.isScheduled());
+		assertEquals(1, wheel.advance(2000, Integer.MAX_VALUE, n -> { }));
+	}
+
+	@Test
+	public void consumerMayRescheduleExpiredNodes() {
+		TimingWheel<String> wheel = new TimingWheel<String>(TICK, 0);
+		wheel.schedule("a", 100);
+		List<Long> seen = new ArrayList<Long>();
+		wheel.advance(100, Integer.MAX_VALUE, node -> {
+			seen.add(node.getDeadline());
+			wheel.reschedule(node, 200);
+		});
+		assertEquals(1, wheel.size());
+		wheel.advance(200, Integer.MAX_VALUE, node -> seen.add(node.getDeadline()));
+		assertEquals(2, seen.size());
+		assertEquals(0, wheel.size());
+	}
+
+	@Test
+	public void budgetLeavesTheRemainderForTheNextCall() {
+		TimingWheel<Integer> wheel = new TimingWheel<Integer>(TICK, 0);
+		for (int i = 0; i < 5; i++) {
+			wheel.schedule(i, 100);
+		}
+		wheel.schedule(5, 200);
+		List<Integer> expired = new ArrayList<Integer>();
+		assertEquals(2, wheel.advance(1000, 2, node -> expired.add(node.getValue())));
+		assertEquals(2, wheel.advance(1000, 2, node -> expired.add(node.getValue())));
+		assertEquals(2, wheel.advance(1000, 2, node -> expired.add(node.getValue())));
+		assertEquals(0, wheel.advance(1000, 2, node -> expired.add(node.getValue())));
+		for (int i = 0; i < 6; i++) {
+			assertEquals(i, expired.get(i).intValue());
+		}
+	}
+
+	@Test
+	public void pollFirstReturnsTheEarliestNode() {
+		TimingWheel<String> wheel = new TimingWheel<String>(TICK, 0);
+		assertNull(wheel.pollFirst());
+		wheel.schedule("upper", 10 * 5000);
+		TimingWheel.Node<String> first = wheel.schedule("first", 300);
+		wheel.schedule("second", 400);
+		assertSame(first, wheel.pollFirst());
+		assertEquals("second", wheel.pollFirst().getValue());
+		assertEquals("upper", wheel.pollFirst().getValue());
+		assertNull(wheel.pollFirst());
+		assertEquals(0, wheel.size());
+	}
+
+}
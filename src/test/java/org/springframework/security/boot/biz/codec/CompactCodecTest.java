@@ -0,0 +1,180 @@
+/*
+ * Copyright (c) 2018, vindell (https://github.com/vindell).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.springframework.security.boot.biz.codec;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+
+public class CompactCodecTest {
+
+	@Test
+	public void roundTripsVarintsAtTheirBoundaries() {
+		long[] values = { 0, 1, 127, 128, 16383, 16384, Integer.MAX_VALUE, 0xFFFFFFFFL, Long.MAX_VALUE, -1L, Long.MIN_VALUE };
+		CompactOutput out = new CompactOutput();
+		for (long value : values) {
+			out.writeVarLong(value);
+		}
+		CompactInput in = new CompactInput(out.toByteArray());
+		for (long value : values) {
+			assertEquals(value, in.readVarLong());
+		}
+		assertEquals(0, in.remaining());
+	}
+
+	@Test
+	public void varintsUseSevenBitsPerByte() {
+		assertEquals(1, sizeOfVarLong(127));
+		assertEquals(2, sizeOfVarLong(128));
+		assertEquals(5, sizeOfVarLong(0xFFFFFFFFL));
+		assertEquals(10, sizeOfVarLong(-1L));
+	}
+
+	@Test
+	public void roundTripsIntsLongsBytesAndBooleans() {
+		CompactOutput out = new CompactOutput(1);
+		out.writeVarInt(-1);
+		out.writeVarInt(300);
+		out.writeLong(Long.MIN_VALUE);
+		out.writeLong(0x0102030405060708L);
+		out.writeByte(0xFF);
+		out.writeBoolean(true);
+		out.writeBoolean(false);
+		CompactInput in = new CompactInput(out.toByteArray());
+		assertEquals(-1, in.readVarInt());
+		assertEquals(300, in.readVarInt());
+		assertEquals(Long.MIN_VALUE, in.readLong());
+		assertEquals(0x0102030405060708L, in.readLong());
+		assertEquals(0xFF, in.readByte());
+		assertTrue(in.readBoolean());
+		assertFalse(in.readBoolean());
+	}
+
+	@Test
+	public void roundTripsStrings() {
+		String[] values = { null, "", "a", "用户名", new String(new char[1000]).replace('\0', 'x') };
+		CompactOutput out = new CompactOutput();
+		for (String value : values) {
+			out.writeString(value);
+		}
+		CompactInput in = new CompactInput(out.toByteArray());
+		for (String value : values) {
+			assertEquals(value, in.readString());
+		}
+	}
+
+	@Test
+	public void internedStringsAreWrittenOnce() {
+		CompactOutput out = new CompactOutput();
+		out.writeInternedString("ROLE_ADMINISTRATOR");
+		int first = out.size();
+		out.writeInternedString(null);
+		out.writeInternedString("ROLE_USER");
+		out.writeInternedString("ROLE_ADMINISTRATOR");
+		out.writeInternedString("ROLE_USER");
+		assertEquals(first + 1 + 10 + 1 + 1, out.size());
+
+		CompactInput in = new CompactInput(out.toByteArray());
+		String administrator = in.readInternedString();
+		assertEquals("ROLE_ADMINISTRATOR", administrator);
+		assertNull(in.readInternedString());
+		assertEquals("ROLE_USER", in.readInternedString());
+		assertSame(administrator, in.readInternedString());
+		assertEquals("ROLE_USER", in.readInternedString());
+	}
+
+	@Test
+	public void readsWithinTheGivenRange() {
+		CompactOutput out = new CompactOutput();
+		out.writeByte(9);
+		out.writeString("abc");
+		out.writeByte(9);
+		byte[] data = out.toByteArray();
+		CompactInput in = new CompactInput(data, 1, data.length - 2);
+		assertEquals("abc", in.readString());
+		assertEquals(0, in.remaining());
+		assertMalformed(() -> in.readByte());
+		assertMalformed(() -> new CompactInput(data, 2, data.length));
+		assertMalformed(() -> new CompactInput(data, -1, 1));
+	}
+
+	@Test
+	public void everyTruncationIsRejected() {
+		CompactOutput out = new CompactOutput();
+		out.writeLong(42);
+		out.writeVarLong(Long.MAX_VALUE);
+		out.writeString("truncated");
+		out.writeInternedString("interned");
+		byte[] data = out.toByteArray();
+		for (int length = 0; length < data.length; length++) {
+			CompactInput in = new CompactInput(Arrays.copyOf(data, length));
+			assertMalformed(() -> {
+				in.readLong();
+				in.readVarLong();
+				in.readString();
+				in.readInternedString();
+			});
+		}
+	}
+
+	@Test
+	public void malformedInputIsRejected() {
+		// 超过 10 个字节的 varint
+		byte[] overlong = new byte[11];
+		Arrays.fill(overlong, (byte) 0x80);
+		assertMalformed(() -> new CompactInput(overlong).readVarLong());
+		// 超过 32 位的 int
+		CompactOutput wide = new CompactOutput();
+		wide.writeVarLong(1L << 32);
+		assertMalformed(() -> new CompactInput(wide.toByteArray()).readVarInt());
+		// 长度超过剩余字节
+		CompactOutput length = new CompactOutput();
+		length.writeVarInt(5);
+		length.writeByte(0);
+		assertMalformed(() -> new CompactInput(length.toByteArray()).readLength());
+		// 负的字符串长度
+		CompactOutput negative = new CompactOutput();
+		negative.writeVarInt(-1);
+		assertMalformed(() -> new CompactInput(negative.toByteArray()).readString());
+		// 引用了尚未出现的字符串
+		CompactOutput reference = new CompactOutput();
+		reference.writeVarInt(3 << 1 | 1);
+		assertMalformed(() -> new CompactInput(reference.toByteArray()).readInternedString());
+	}
+
+	private static int sizeOfVarLong(long value) {
+		CompactOutput out = new CompactOutput();
+		out.writeVarLong(value);
+		return out.size();
+	}
+
+	private static void assertMalformed(Runnable read) {
+		try {
+			read.run();
+			fail("Expected IllegalArgumentException");
+		} catch (IllegalArgumentException e) {
+			// expected
+		}
+	}
+
+}
@@ -0,0 +1,147 @@
+/*
+ * Copyright (c) 2018, vindell (https://github.com/vindell).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.springframework.security.boot.biz.concurrent;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.junit.Assume.assumeFalse;
+import static org.junit.Assume.assumeTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+import org.springframework.security.boot.biz.property.ExecutorType;
+
+public class BlockingExecutorFactoryTest {
+
+	@Test
+	public void platformThreadsAreUsedWhenConfigured() {
+		BlockingExecutorFactory factory = BlockingExecutorFactory.of(ExecutorType.PLATFORM);
+		assertTrue(factory instanceof PlatformThreadExecutorFactory);
+		assertFalse(factory.isVirtual());
+	}
+
+	@Test
+	public void autoPicksVirtualThreadsOnlyWhenSupported() {
+		BlockingExecutorFactory factory = BlockingExecutorFactory.of(ExecutorType.AUTO);
+		assertEquals(VirtualThreadExecutorFactory.isSupported(), factory.isVirtual());
+		assertEquals(VirtualThreadExecutorFactory.isSupported(), factory instanceof VirtualThreadExecutorFactory);
+	}
+
+	@Test
+	public void requiredVirtualThreadsFailOnOlderJvms() {
+		assumeFalse(VirtualThreadExecutorFactory.isSupported());
+		try {
+			BlockingExecutorFactory.of(ExecutorType.VIRTUAL);
+			fail("virtual threads are not supported");
+		} catch (IllegalStateException e) {
+			assertTrue(e.getMessage().contains("JDK 21"));
+		}
+	}
+
+	@Test
+	public void requiredVirtualThreadsAreUsedWhenSupported() throws Exception {
+		assumeTrue(VirtualThreadExecutorFactory.isSupported());
+		BlockingExecutorFactory factory = BlockingExecutorFactory.of(ExecutorType.VIRTUAL);
+		assertTrue(factory.isVirtual());
+		ExecutorService executor = factory.create("login", 1, 1);
+		try {
+			Thread thread = executor.submit(Thread::currentThread).get(5, TimeUnit.SECONDS);
+			assertTrue(thread.getName().startsWith("security-login-"));
+			assertTrue((Boolean) Thread.class.getMethod("isVirtual").invoke(thread));
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	@Test
+	public void platformThreadsAreNamedAfterTheStage() throws Exception {
+		ExecutorService executor = new PlatformThreadExecutorFactory().create("login", 1, 1);
+		try {
+			Thread thread = executor.submit(Thread::currentThread).get(5, TimeUnit.SECONDS);
+			assertEquals("security-login-1", thread.getName());
+			assertTrue(thread.isDaemon());
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	@Test
+	public void platformExecutorRejectsBeyondItsBounds() throws Exception {
+		assertBounded(new PlatformThreadExecutorFactory().create("bounded", 2, 3), 2, 3);
+	}
+
+	@Test
+	public void boundedExecutorRejectsBeyondItsBounds() throws Exception {
+		// 无界的线程池，相当于每个任务一个虚拟线程
+		assertBounded(new BoundedExecutorService(Executors.newCachedThreadPool(), 2, 3), 2, 3);
+	}
+
+	@Test
+	public void virtualExecutorRejectsBeyondItsBounds() throws Exception {
+		assumeTrue(VirtualThreadExecutorFactory.isSupported());
+		assertBounded(new VirtualThreadExecutorFactory().create("bounded", 2, 3), 2, 3);
+	}
+
+	private static void assertBounded(ExecutorService executor, int concurrency, int queueCapacity)
+			throws Exception {
+		CountDownLatch started = new CountDownLatch(concurrency);
+		CountDownLatch release = new CountDownLatch(1);
+		AtomicInteger running = new AtomicInteger();
+		AtomicInteger maxRunning = new AtomicInteger();
+		try {
+			List<Future<?>> accepted = new ArrayList<Future<?>>();
+			for (int i = 0; i < concurrency + queueCapacity; i++) {
+				accepted.add(executor.submit(() -> {
+					maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+					started.countDown();
+					release.await();
+					running.decrementAndGet();
+					return null;
+				}));
+			}
+			assertTrue(started.await(5, TimeUnit.SECONDS));
+			try {
+				executor.submit(() -> null);
+				fail("the executor is full");
+			} catch (RejectedExecutionException e) {
+				// 期望的结果
+			}
+			release.countDown();
+			for (Future<?> future : accepted) {
+				future.get(5, TimeUnit.SECONDS);
+			}
+			assertEquals(concurrency, maxRunning.get());
+			// 完成的任务归还了名额
+			for (int i = 0; i < concurrency + queueCapacity; i++) {
+				executor.submit(() -> null).get(5, TimeUnit.SECONDS);
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+}
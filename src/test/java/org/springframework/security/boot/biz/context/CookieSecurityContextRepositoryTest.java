@@ -0,0 +1,149 @@
+/*
+ * Copyright (c) 2018, vindell (https://github.com/vindell).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.springframework.security.boot.biz.context;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+
+import javax.servlet.http.Cookie;
+
+import org.junit.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.boot.biz.crypto.RotatingKeySet;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.context.HttpRequestResponseHolder;
+
+public class CookieSecurityContextRepositoryTest {
+
+	private final StatelessTokenCodec codec = new StatelessTokenCodec(
+			RotatingKeySet.of("stateless-test-secret", RotatingKeySet.DEFAULT_ROTATION_PERIOD));
+	private final CookieSecurityContextRepository repository = new CookieSecurityContextRepository(codec);
+
+	@Test
+	public void loginWritesACookieThatLaterRequestsLoad() {
+		Cookie cookie = login();
+		assertEquals(CookieSecurityContextRepository.DEFAULT_COOKIE_NAME, cookie.getName());
+		assertTrue(cookie.isHttpOnly());
+		assertEquals((int) (CookieSecurityContextRepository.DEFAULT_TIMEOUT / 1000), cookie.getMaxAge());
+
+		MockHttpServletRequest request = new MockHttpServletRequest();
+		request.setCookies(cookie);
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		HttpRequestResponseHolder holder = new HttpRequestResponseHolder(request, response);
+		SecurityContext context = repository.loadContext(holder);
+
+		assertTrue(repository.containsContext(request));
+		assertTrue(context.getAuthentication() instanceof StatelessAuthenticationToken);
+		assertEquals("alice", context.getAuthentication().getName());
+		assertEquals(AuthorityUtils.createAuthorityList("ROLE_USER"), context.getAuthentication().getAuthorities());
+		// 远离过期时间时不重新签发
+		repository.saveContext(context, request, holder.getResponse());
+		assertNull(response.getCookie(CookieSecurityContextRepository.DEFAULT_COOKIE_NAME));
+	}
+
+	@Test
+	public void renewsTheCookieWithinTheRenewWindowKeepingTheTokenId() {
+		repository.setTimeout(60_000);
+		repository.setRenewWindow(120_000);
+		Cookie cookie = login();
+		long tokenId = codec.decode(cookie.getValue()).getTokenId();
+
+		MockHttpServletRequest request = new MockHttpServletRequest();
+		request.setCookies(cookie);
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		HttpRequestResponseHolder holder = new HttpRequestResponseHolder(request, response);
+		SecurityContext context = repository.loadContext(holder);
+		repository.saveContext(context, request, holder.getResponse());
+
+		Cookie renewed = response.getCookie(CookieSecurityContextRepository.DEFAULT_COOKIE_NAME);
+		assertNotNull(renewed);
+		assertEquals(tokenId, codec.decode(renewed.getValue()).getTokenId());
+	}
+
+	@Test
+	public void invalidAndExpiredCookiesAreCleared() {
+		String expired = codec.encode(new StatelessToken(1L, System.currentTimeMillis() - 2_000, null, "alice", null));
+		String forged = new StatelessTokenCodec(RotatingKeySet.of("another-secret", RotatingKeySet.DEFAULT_ROTATION_PERIOD))
+				.encode(new StatelessToken(1L, System.currentTimeMillis() + 60_000, null, "alice", null));
+		for (String value : Arrays.asList("garbage", expired, forged)) {
+			MockHttpServletRequest request = new MockHttpServletRequest();
+			request.setCookies(new Cookie(CookieSecurityContextRepository.DEFAULT_COOKIE_NAME, value));
+			MockHttpServletResponse response = new MockHttpServletResponse();
+			HttpRequestResponseHolder holder = new HttpRequestResponseHolder(request, response);
+			SecurityContext context = repository.loadContext(holder);
+
+			assertNull(context.getAuthentication());
+			assertFalse(repository.containsContext(request));
+			repository.saveContext(context, request, holder.getResponse());
+			Cookie cleared = response.getCookie(CookieSecurityContextRepository.DEFAULT_COOKIE_NAME);
+			assertNotNull(value, cleared);
+			assertEquals(0, cleared.getMaxAge());
+		}
+	}
+
+	@Test
+	public void anonymousRequestsWithoutACookieWriteNothing() {
+		MockHttpServletRequest request = new MockHttpServletRequest();
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		HttpRequestResponseHolder holder = new HttpRequestResponseHolder(request, response);
+		SecurityContext context = repository.loadContext(holder);
+		repository.saveContext(context, request, holder.getResponse());
+		assertEquals(0, response.getCookies().length);
+	}
+
+	@Test
+	public void clearingTheAuthenticationRemovesTheCookie() {
+		Cookie cookie = login();
+		MockHttpServletRequest request = new MockHttpServletRequest();
+		request.setCookies(cookie);
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		HttpRequestResponseHolder holder = new HttpRequestResponseHolder(request, response);
+		SecurityContext context = repository.loadContext(holder);
+		context.setAuthentication(null);
+		repository.saveContext(context, request, holder.getResponse());
+		assertEquals(0, response.getCookie(CookieSecurityContextRepository.DEFAULT_COOKIE_NAME).getMaxAge());
+	}
+
+	@Test
+	public void newLoginsGetNewTokenIds() {
+		assertNotEquals(codec.decode(login().getValue()).getTokenId(), codec.decode(login().getValue()).getTokenId());
+	}
+
+	private Cookie login() {
+		MockHttpServletRequest request = new MockHttpServletRequest("POST", "/authz/login");
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		HttpRequestResponseHolder holder = new HttpRequestResponseHolder(request, response);
+		repository.loadContext(holder);
+		SecurityContext context = SecurityContextHolder.createEmptyContext();
+		context.setAuthentication(new UsernamePasswordAuthenticationToken("alice", "secret",
+				AuthorityUtils.createAuthorityList("ROLE_USER")));
+		repository.saveContext(context, request, holder.getResponse());
+		Cookie cookie = response.getCookie(CookieSecurityContextRepository.DEFAULT_COOKIE_NAME);
+		assertNotNull(cookie);
+		return cookie;
+	}
+
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright (c) 2018, vindell (https://github.com/vindell).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.springframework.security.boot.biz.context;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class RevokedTokenRegistryTest {
+
+	@Test
+	public void revokedTokensAreRevokedAndOthersAreNot() {
+		RevokedTokenRegistry registry = new RevokedTokenRegistry(60_000);
+		StatelessToken token = new StatelessToken(7L, System.currentTimeMillis() + 30_000, null, "alice", null);
+		registry.revoke(token);
+
+		assertTrue(registry.isRevoked(token));
+		assertTrue(registry.isRevoked(7L));
+		assertFalse(registry.isRevoked(8L));
+		assertEquals(1, registry.size());
+	}
+
+	@Test
+	public void expiredTokensAreNotRecorded() {
+		RevokedTokenRegistry registry = new RevokedTokenRegistry(60_000);
+		registry.revoke(7L, System.currentTimeMillis() - 1);
+		assertFalse(registry.isRevoked(7L));
+		assertEquals(0, registry.size());
+	}
+
+	@Test
+	public void revocationEndsWhenTheTokenExpires() throws InterruptedException {
+		RevokedTokenRegistry registry = new RevokedTokenRegistry(60_000);
+		registry.revoke(7L, System.currentTimeMillis() + 100);
+		assertTrue(registry.isRevoked(7L));
+		Thread.sleep(150);
+		assertFalse(registry.isRevoked(7L));
+	}
+
+	@Test
+	public void revocationIsCappedAtTheMaxLifetime() throws InterruptedException {
+		RevokedTokenRegistry registry = new RevokedTokenRegistry(100);
+		registry.revoke(7L, System.currentTimeMillis() + 60_000);
+		assertTrue(registry.isRevoked(7L));
+		Thread.sleep(250);
+		assertFalse(registry.isRevoked(7L));
+	}
+
+	@Test
+	public void anIdFoundInThePreviousSliceIsStillWrittenToTheCurrentOne() throws InterruptedException {
+		RevokedTokenRegistry registry = new RevokedTokenRegistry(1000);
+		registry.revoke(7L, System.currentTimeMillis() + 1000);
+		Thread.sleep(1050);
+		// 轮换：第一次写入所在分片成为上一个分片
+		assertFalse(registry.isRevoked(8L));
+		Thread.sleep(700);
+		// 布隆过滤器在上一个分片中找到该 id（与误判相同），仍然必须写入当前分片
+		registry.revoke(7L, System.currentTimeMillis() + 1000);
+		Thread.sleep(500);
+		// 再次轮换后第一次写入所在分片已被淘汰
+		assertTrue(registry.isRevoked(7L));
+	}
+
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright (c) 2018, vindell (https://github.com/vindell).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.springframework.security.boot.biz.context;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import java.util.Arrays;
+import java.util.Base64;
+
+import org.junit.Test;
+import org.springframework.security.boot.biz.crypto.RotatingKeySet;
+
+public class StatelessTokenCodecTest {
+
+	private final StatelessTokenCodec codec = new StatelessTokenCodec(
+			RotatingKeySet.of("stateless-test-secret", RotatingKeySet.DEFAULT_ROTATION_PERIOD));
+
+	@Test
+	public void roundTripsEveryField() {
+		long expiry = System.currentTimeMillis() + 60_000;
+		StatelessToken token = new StatelessToken(-42L, expiry, "u-1", "alice",
+				Arrays.asList("ROLE_ADMIN", "ROLE_USER", "perm:read", "ROLE_ADMIN"));
+
+		StatelessToken decoded = codec.decode(codec.encode(token));
+
+		assertNotNull(decoded);
+		assertEquals(-42L, decoded.getTokenId());
+		assertEquals(expiry / 1000 * 1000, decoded.getExpiry());
+		assertEquals("u-1", decoded.getUserid());
+		assertEquals("alice", decoded.getUsername());
+		assertEquals(token.getAuthorities(), decoded.getAuthorities());
+	}
+
+	@Test
+	public void roundTripsMissingUseridAndNoAuthorities() {
+		StatelessToken token = new StatelessToken(1L, System.currentTimeMillis() + 60_000, null, "用户", null);
+		StatelessToken decoded = codec.decode(codec.encode(token));
+		assertNull(decoded.getUserid());
+		assertEquals("用户", decoded.getUsername());
+		assertEquals(0, decoded.getAuthorities().size());
+	}
+
+	@Test
+	public void everyTamperedByteIsRejected() {
+		String encoded = codec.encode(new StatelessToken(7L, System.currentTimeMillis() + 60_000, "u-1", "alice",
+				Arrays.asList("ROLE_USER")));
+		byte[] bytes = Base64.getUrlDecoder().decode(encoded);
+		for (int i = 0; i < bytes.length; i++) {
+			byte[] tampered = bytes.clone();
+			tampered[i] ^= 0x01;
+			assertNull("byte " + i, codec.verify(Base64.getUrlEncoder().withoutPadding().encodeToString(tampered)));
+		}
+	}
+
+	@Test
+	public void rejectsMalformedAndForeignTokens() {
+		assertNull(codec.decode(""));
+		assertNull(codec.decode("not base64 !"));
+		assertNull(codec.decode("AAAA"));
+		String encoded = codec.encode(new StatelessToken(7L, System.currentTimeMillis() + 60_000, null, "alice", null));
+		assertNull(codec.decode(encoded.substring(0, encoded.length() - 4)));
+
+		byte[] bytes = Base64.getUrlDecoder().decode(encoded);
+		bytes[0] = StatelessTokenCodec.VERSION + 1;
+		assertNull(codec.decode(Base64.getUrlEncoder().withoutPadding().encodeToString(bytes)));
+
+		StatelessTokenCodec other = new StatelessTokenCodec(
+				RotatingKeySet.of("another-secret", RotatingKeySet.DEFAULT_ROTATION_PERIOD));
+		assertNull(other.decode(encoded));
+	}
+
+	@Test
+	public void tokensAreAcceptedByOtherNodesWithTheSameSecret() {
+		StatelessTokenCodec otherNode = new StatelessTokenCodec(
+				RotatingKeySet.of("stateless-test-secret", RotatingKeySet.DEFAULT_ROTATION_PERIOD));
+		String encoded = codec.encode(new StatelessToken(7L, System.currentTimeMillis() + 60_000, null, "alice", null));
+		assertEquals("alice", otherNode.decode(encoded).getUsername());
+	}
+
+	@Test
+	public void expiredTokensVerifyButDoNotDecode() {
+		String encoded = codec.encode(new StatelessToken(7L, System.currentTimeMillis() - 2_000, null, "alice", null));
+		assertNull(codec.decode(encoded));
+		assertEquals("alice", codec.verify(encoded).getUsername());
+	}
+
+}
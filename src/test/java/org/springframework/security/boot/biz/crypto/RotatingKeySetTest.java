@@ -0,0 +1,73 @@
+/*
+ * Copyright (c) 2018, vindell (https://github.com/vindell).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.springframework.security.boot.biz.crypto;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import org.junit.Test;
+
+public class RotatingKeySetTest {
+
+	private static final long PERIOD = 1000;
+	private static final byte[] DATA = "signed data".getBytes(StandardCharsets.UTF_8);
+
+	private final RotatingKeySet keySet = new RotatingKeySet(HmacSigner.of("rotating-test-secret"), PERIOD);
+
+	@Test
+	public void kidIsTheLowByteOfThePeriod() {
+		assertEquals(0, keySet.currentKid(0));
+		assertEquals(1, keySet.currentKid(PERIOD));
+		assertEquals(255, keySet.currentKid(255 * PERIOD + 999));
+		assertEquals(0, keySet.currentKid(256 * PERIOD));
+	}
+
+	@Test
+	public void keysRotateEveryPeriod() {
+		byte[] first = keySet.current(5 * PERIOD).sign(DATA);
+		assertArrayEquals(first, keySet.current(5 * PERIOD + PERIOD - 1).sign(DATA));
+		assertFalse(Arrays.equals(first, keySet.current(6 * PERIOD).sign(DATA)));
+	}
+
+	@Test
+	public void kidResolvesToTheSigningPeriodAfterRollover() {
+		long signedAt = 300 * PERIOD + 500;
+		int kid = keySet.currentKid(signedAt);
+		byte[] tag = keySet.current(signedAt).sign(DATA);
+
+		// 之后的 255 个时间段内都能按 kid 找回签名密钥，期间 kid 已经回绕过 0
+		for (int elapsed = 0; elapsed < 256; elapsed++) {
+			long now = signedAt + elapsed * PERIOD;
+			assertArrayEquals("elapsed " + elapsed, tag, keySet.forKid(kid, now).sign(DATA));
+		}
+		// 满 256 个时间段后 kid 指向新的时间段，旧签名不再有效
+		assertFalse(Arrays.equals(tag, keySet.forKid(kid, signedAt + 256 * PERIOD).sign(DATA)));
+	}
+
+	@Test
+	public void keysAreDerivedFromTheMasterSecretOnly() {
+		RotatingKeySet otherNode = RotatingKeySet.of("rotating-test-secret", PERIOD);
+		RotatingKeySet otherSecret = RotatingKeySet.of("another-secret", PERIOD);
+		long now = 42 * PERIOD;
+		assertArrayEquals(keySet.current(now).sign(DATA), otherNode.current(now).sign(DATA));
+		assertFalse(Arrays.equals(keySet.current(now).sign(DATA), otherSecret.current(now).sign(DATA)));
+	}
+
+}
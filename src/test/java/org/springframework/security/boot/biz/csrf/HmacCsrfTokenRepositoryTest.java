@@ -0,0 +1,123 @@
+/*
+ * Copyright (c) 2018, vindell (https://github.com/vindell).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.springframework.security.boot.biz.csrf;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Base64;
+
+import javax.servlet.http.Cookie;
+
+import org.junit.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.boot.biz.crypto.HmacSigner;
+import org.springframework.security.web.csrf.CsrfToken;
+
+public class HmacCsrfTokenRepositoryTest {
+
+	private final HmacCsrfTokenRepository repository = new HmacCsrfTokenRepository(HmacSigner.of("csrf-test-secret"));
+
+	@Test
+	public void tokenAndCookieAreOnlyCreatedWhenRead() {
+		MockHttpServletRequest request = new MockHttpServletRequest();
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		CsrfToken token = repository.generateToken(request);
+		repository.saveToken(token, request, response);
+		assertEquals(0, response.getCookies().length);
+
+		String value = token.getToken();
+		assertEquals(value, token.getToken());
+		Cookie cookie = response.getCookie(HmacCsrfTokenRepository.DEFAULT_CSRF_COOKIE_NAME);
+		assertEquals(value, cookie.getValue());
+		assertFalse(cookie.isHttpOnly());
+		assertEquals(HmacCsrfTokenRepository.DEFAULT_CSRF_HEADER_NAME, token.getHeaderName());
+		assertEquals(HmacCsrfTokenRepository.DEFAULT_CSRF_PARAMETER_NAME, token.getParameterName());
+	}
+
+	@Test
+	public void tokenReadBeforeSaveIsWrittenOnSave() {
+		MockHttpServletRequest request = new MockHttpServletRequest();
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		CsrfToken token = repository.generateToken(request);
+		String value = token.getToken();
+		repository.saveToken(token, request, response);
+		assertEquals(value, response.getCookie(HmacCsrfTokenRepository.DEFAULT_CSRF_COOKIE_NAME).getValue());
+	}
+
+	@Test
+	public void loadsOnlyValidTokensFromTheCookie() {
+		String value = repository.generateToken(new MockHttpServletRequest()).getToken();
+		assertNotEquals(value, repository.generateToken(new MockHttpServletRequest()).getToken());
+
+		CsrfToken loaded = repository.loadToken(request(value));
+		assertNotNull(loaded);
+		assertEquals(value, loaded.getToken());
+
+		assertNull(repository.loadToken(new MockHttpServletRequest()));
+		assertNull(repository.loadToken(request("not a token")));
+		byte[] bytes = Base64.getUrlDecoder().decode(value);
+		for (int i = 0; i < bytes.length; i++) {
+			byte[] tampered = bytes.clone();
+			tampered[i] ^= 0x01;
+			assertNull("byte " + i, repository.loadToken(request(Base64.getUrlEncoder().withoutPadding().encodeToString(tampered))));
+		}
+		HmacCsrfTokenRepository other = new HmacCsrfTokenRepository(HmacSigner.of("another-secret"));
+		assertFalse(repository.isValid(other.generateToken(new MockHttpServletRequest()).getToken()));
+	}
+
+	@Test
+	public void tokensAreAcceptedWithinTheValidityWindowOnly() throws InterruptedException {
+		repository.setTimeSlice(10);
+		repository.setTimeout(100);
+		String value = repository.generateToken(new MockHttpServletRequest()).getToken();
+		assertTrue(repository.isValid(value));
+		Thread.sleep(150);
+		assertFalse(repository.isValid(value));
+	}
+
+	@Test
+	public void tokensFromTheFutureAreRejected() {
+		// 同一密钥，时间片减半的仓库签发的令牌序号约为本仓库的两倍，在本仓库看来来自未来
+		HmacCsrfTokenRepository fineGrained = new HmacCsrfTokenRepository(HmacSigner.of("csrf-test-secret"));
+		fineGrained.setTimeSlice(HmacCsrfTokenRepository.DEFAULT_TIME_SLICE / 2);
+		assertFalse(repository.isValid(fineGrained.generateToken(new MockHttpServletRequest()).getToken()));
+	}
+
+	@Test
+	public void savingNoTokenClearsAnExistingCookie() {
+		String value = repository.generateToken(new MockHttpServletRequest()).getToken();
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		repository.saveToken(null, request(value), response);
+		assertEquals(0, response.getCookie(HmacCsrfTokenRepository.DEFAULT_CSRF_COOKIE_NAME).getMaxAge());
+
+		MockHttpServletResponse empty = new MockHttpServletResponse();
+		repository.saveToken(null, new MockHttpServletRequest(), empty);
+		assertEquals(0, empty.getCookies().length);
+	}
+
+	private static MockHttpServletRequest request(String value) {
+		MockHttpServletRequest request = new MockHttpServletRequest();
+		request.setCookies(new Cookie(HmacCsrfTokenRepository.DEFAULT_CSRF_COOKIE_NAME, value));
+		return request;
+	}
+
+}
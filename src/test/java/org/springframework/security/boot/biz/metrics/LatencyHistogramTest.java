@@ -0,0 +1,116 @@
+/*
+ * Copyright (c) 2018, vindell (https://github.com/vindell).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.springframework.security.boot.biz.metrics;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Test;
+
+public class LatencyHistogramTest {
+
+	@Test
+	public void anEmptyHistogramReportsZero() {
+		LatencyHistogram histogram = new LatencyHistogram();
+		assertEquals(0, histogram.getCount());
+		assertEquals(0, histogram.getMaxNanos());
+		assertEquals(0, histogram.getMeanNanos(), 0);
+		assertEquals(0, histogram.getQuantileNanos(0.99));
+	}
+
+	@Test
+	public void recordsCountTotalMeanAndMax() {
+		LatencyHistogram histogram = new LatencyHistogram();
+		histogram.record(100);
+		histogram.record(300);
+		histogram.record(-5);
+
+		assertEquals(3, histogram.getCount());
+		assertEquals(400, histogram.getTotalNanos());
+		assertEquals(400 / 3.0, histogram.getMeanNanos(), 0.001);
+		assertEquals(300, histogram.getMaxNanos());
+	}
+
+	@Test
+	public void quantilesAreTheUpperBoundOfTheirBucket() {
+		LatencyHistogram histogram = new LatencyHistogram();
+		for (int i = 0; i < 90; i++) {
+			// 1000 落在 [512, 1023] 桶
+			histogram.record(1000);
+		}
+		for (int i = 0; i < 10; i++) {
+			// 1_000_000 落在 [524288, 1048575] 桶
+			histogram.record(1_000_000);
+		}
+		histogram.record(5_000_000);
+
+		assertEquals(1023, histogram.getQuantileNanos(0.5));
+		assertEquals(1023, histogram.getQuantileNanos(0.89));
+		assertEquals(1_048_575, histogram.getQuantileNanos(0.95));
+		// 上界不超过实际最大值
+		assertEquals(5_000_000, histogram.getQuantileNanos(1.0));
+	}
+
+	@Test
+	public void quantilesNeverExceedTheMax() {
+		LatencyHistogram histogram = new LatencyHistogram();
+		histogram.record(600);
+		assertEquals(600, histogram.getQuantileNanos(0.5));
+	}
+
+	@Test
+	public void bucketBoundariesAndExtremes() {
+		LatencyHistogram histogram = new LatencyHistogram();
+		histogram.record(0);
+		assertEquals(0, histogram.getQuantileNanos(0.5));
+		histogram.record(1);
+		histogram.record(Long.MAX_VALUE);
+		assertEquals(1, histogram.getQuantileNanos(0.5));
+		assertEquals(Long.MAX_VALUE, histogram.getQuantileNanos(1.0));
+	}
+
+	@Test
+	public void concurrentRecordsAreAllCounted() throws Exception {
+		final int threads = 8;
+		final int records = 10_000;
+		LatencyHistogram histogram = new LatencyHistogram();
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		try {
+			List<Future<?>> futures = new ArrayList<Future<?>>();
+			for (int t = 0; t < threads; t++) {
+				futures.add(executor.submit(() -> {
+					for (int i = 0; i < records; i++) {
+						histogram.record(i);
+					}
+				}));
+			}
+			for (Future<?> future : futures) {
+				future.get();
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+		assertEquals((long) threads * records, histogram.getCount());
+		assertEquals((long) threads * records * (records - 1) / 2, histogram.getTotalNanos());
+		assertEquals(records - 1, histogram.getMaxNanos());
+	}
+
+}
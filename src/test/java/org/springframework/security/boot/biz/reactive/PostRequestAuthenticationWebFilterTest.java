@@ -0,0 +1,160 @@
+/*
+ * Copyright (c) 2018, vindell (https://github.com/vindell).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.springframework.security.boot.biz.reactive;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import org.junit.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseCookie;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.boot.SecurityBizUpcAutoConfigurationTest;
+import org.springframework.security.boot.biz.authentication.PostRequestAuthenticationProvider;
+import org.springframework.security.boot.biz.exception.AuthMethodNotSupportedException;
+import org.springframework.security.boot.biz.exception.AuthenticationCaptchaIncorrectException;
+import org.springframework.security.boot.biz.exception.AuthenticationCaptchaNotFoundException;
+import org.springframework.security.boot.biz.exception.AuthenticationOverRetryRemindException;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.springframework.web.reactive.function.BodyInserters;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import reactor.core.scheduler.Schedulers;
+
+public class PostRequestAuthenticationWebFilterTest {
+
+	private static final String CAPTCHA_URL = "/captcha";
+
+	private final List<AuthenticationException> failures = new ArrayList<AuthenticationException>();
+	private final WebSessionCaptchaResolver captchaResolver = new WebSessionCaptchaResolver();
+	private final PostRequestAuthenticationWebFilter filter = new PostRequestAuthenticationWebFilter(
+			new PostRequestReactiveAuthenticationManager(
+					new PostRequestAuthenticationProvider(new SecurityBizUpcAutoConfigurationTest.TestApplication().userDetailsService(),
+							new BCryptPasswordEncoder(4)),
+					Schedulers.immediate()),
+			new ObjectMapper());
+	private final WebTestClient client;
+
+	public PostRequestAuthenticationWebFilterTest() {
+		PostRequestServerAuthenticationFailureHandler failureHandler = new PostRequestServerAuthenticationFailureHandler();
+		filter.setAuthenticationFailureHandler((webFilterExchange, e) -> {
+			failures.add(e);
+			return failureHandler.onAuthenticationFailure(webFilterExchange, e);
+		});
+		filter.setFailureCounter(new WebSessionAuthenticatingFailureCounter());
+		filter.setCaptchaResolver(captchaResolver);
+		filter.setRetryTimesWhenAccessDenied(2);
+		// 验证码地址把答案 abcd 存入会话，其余请求返回 200
+		client = WebTestClient.bindToWebHandler(exchange -> CAPTCHA_URL.equals(exchange.getRequest().getPath().value())
+				? captchaResolver.setCaptcha(exchange, "abcd", new Date())
+				: exchange.getResponse().setComplete())
+				.webFilter(filter)
+				.build();
+	}
+
+	@Test
+	public void jsonLogin() {
+		client.post().uri("/login")
+				.contentType(MediaType.APPLICATION_JSON_UTF8)
+				.syncBody("{\"username\":\" admin \",\"password\":\"secret\"}")
+				.exchange()
+				.expectStatus().isOk()
+				.expectBody().jsonPath("$.status").isEqualTo("1").jsonPath("$.successUrl").isEqualTo("/");
+		assertTrue(failures.isEmpty());
+	}
+
+	@Test
+	public void formLogin() {
+		client.post().uri("/login")
+				.body(BodyInserters.fromFormData("username", "admin").with("password", "secret"))
+				.exchange()
+				.expectStatus().isOk()
+				.expectBody().jsonPath("$.status").isEqualTo("1");
+		assertTrue(failures.isEmpty());
+	}
+
+	@Test
+	public void aWrongPasswordFails() {
+		client.post().uri("/login")
+				.body(BodyInserters.fromFormData("username", "admin").with("password", "wrong"))
+				.exchange()
+				.expectStatus().isUnauthorized()
+				.expectBody().jsonPath("$.message").isEqualTo("Invalid username or password");
+		assertEquals(1, failures.size());
+		assertTrue(failures.get(0) instanceof BadCredentialsException);
+	}
+
+	@Test
+	public void onlyPostIsAccepted() {
+		client.get().uri("/login").exchange().expectStatus().isEqualTo(HttpStatus.METHOD_NOT_ALLOWED);
+		assertTrue(failures.get(0) instanceof AuthMethodNotSupportedException);
+	}
+
+	@Test
+	public void otherRequestsContinueTheChain() {
+		client.post().uri("/index").exchange().expectStatus().isOk().expectBody().isEmpty();
+		assertTrue(failures.isEmpty());
+	}
+
+	@Test
+	public void repeatedFailuresRemindOnceThenRequireTheCaptcha() {
+		ResponseCookie session = client.get().uri(CAPTCHA_URL).exchange()
+				.returnResult(Void.class).getResponseCookies().getFirst("SESSION");
+
+		assertEquals(HttpStatus.UNAUTHORIZED, login(session, "wrong", null));
+		assertEquals(HttpStatus.UNAUTHORIZED, login(session, "wrong", null));
+		assertEquals(HttpStatus.UNAUTHORIZED, login(session, "secret", null));
+		assertTrue(failures.get(2) instanceof AuthenticationOverRetryRemindException);
+		// 提醒之后，即使密码正确也必须填入验证码
+		assertEquals(HttpStatus.UNAUTHORIZED, login(session, "secret", null));
+		assertTrue(failures.get(3) instanceof AuthenticationCaptchaNotFoundException);
+		assertEquals(HttpStatus.UNAUTHORIZED, login(session, "secret", "wxyz"));
+		assertTrue(failures.get(4) instanceof AuthenticationCaptchaIncorrectException);
+		assertEquals(HttpStatus.OK, login(session, "secret", "ABCD"));
+		assertEquals(5, failures.size());
+	}
+
+	@Test
+	public void theCaptchaCanBeRequiredFromTheFirstAttempt() {
+		filter.setCaptchaRequired(true);
+		ResponseCookie session = client.get().uri(CAPTCHA_URL).exchange()
+				.returnResult(Void.class).getResponseCookies().getFirst("SESSION");
+
+		assertEquals(HttpStatus.UNAUTHORIZED, login(session, "secret", null));
+		assertTrue(failures.get(0) instanceof AuthenticationCaptchaNotFoundException);
+		assertEquals(HttpStatus.OK, login(session, "secret", "abcd"));
+	}
+
+	private HttpStatus login(ResponseCookie session, String password, String captcha) {
+		String body = "{\"username\":\"admin\",\"password\":\"" + password + "\""
+				+ (captcha != null ? ",\"captcha\":\"" + captcha + "\"" : "") + "}";
+		return client.post().uri("/login")
+				.cookie(session.getName(), session.getValue())
+				.contentType(MediaType.APPLICATION_JSON_UTF8)
+				.syncBody(body)
+				.exchange()
+				.returnResult(Void.class).getStatus();
+	}
+
+}
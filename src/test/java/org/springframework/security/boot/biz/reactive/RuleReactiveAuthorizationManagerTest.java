@@ -0,0 +1,97 @@
+/*
+ * Copyright (c) 2018, vindell (https://github.com/vindell).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.springframework.security.boot.biz.reactive;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.net.InetSocketAddress;
+import java.util.Collections;
+
+import org.junit.Test;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.boot.biz.authorization.FilterChainDefinitions;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.web.server.authorization.AuthorizationContext;
+
+import reactor.core.publisher.Mono;
+
+public class RuleReactiveAuthorizationManagerTest {
+
+	private static RuleReactiveAuthorizationManager manager(String definition) {
+		FilterChainDefinitions definitions = FilterChainDefinitions.parse(Collections.singletonMap("/**", definition));
+		return new RuleReactiveAuthorizationManager(definitions.getRules().get(0));
+	}
+
+	private static Authentication user(String... authorities) {
+		return new TestingAuthenticationToken("admin", "secret", authorities);
+	}
+
+	private static boolean granted(RuleReactiveAuthorizationManager manager, Authentication authentication,
+			String remoteAddress) {
+		MockServerHttpRequest.BaseBuilder<?> request = MockServerHttpRequest.get("/");
+		if (remoteAddress != null) {
+			request.remoteAddress(new InetSocketAddress(remoteAddress, 8080));
+		}
+		AuthorizationContext context = new AuthorizationContext(MockServerWebExchange.from(request));
+		Mono<Authentication> principal = authentication != null ? Mono.just(authentication) : Mono.empty();
+		return manager.check(principal, context).block().isGranted();
+	}
+
+	@Test
+	public void rolesAreMatchedWithTheRolePrefix() {
+		RuleReactiveAuthorizationManager manager = manager("roles[admin,ops]");
+		assertTrue(granted(manager, user("ROLE_ops"), null));
+		assertFalse(granted(manager, user("admin"), null));
+		assertFalse(granted(manager, null, null));
+	}
+
+	@Test
+	public void permsAreMatchedAsTheyAre() {
+		RuleReactiveAuthorizationManager manager = manager("perms[user:read]");
+		assertTrue(granted(manager, user("user:read"), null));
+		assertFalse(granted(manager, user("ROLE_user:read"), null));
+	}
+
+	@Test
+	public void everyClauseMustBeSatisfied() {
+		RuleReactiveAuthorizationManager manager = manager("roles[admin],perms[1]");
+		assertTrue(granted(manager, user("ROLE_admin", "1"), null));
+		assertFalse(granted(manager, user("ROLE_admin"), null));
+		assertFalse(granted(manager, user("1"), null));
+	}
+
+	@Test
+	public void addressesAreMatchedWithoutAuthentication() {
+		RuleReactiveAuthorizationManager manager = manager("ipaddr[10.0.0.0/8,192.168.1.1]");
+		assertTrue(granted(manager, null, "10.1.2.3"));
+		assertTrue(granted(manager, null, "192.168.1.1"));
+		assertFalse(granted(manager, null, "192.168.1.2"));
+		// 没有来源地址时拒绝
+		assertFalse(granted(manager, null, null));
+	}
+
+	@Test
+	public void addressAndRoleTogether() {
+		RuleReactiveAuthorizationManager manager = manager("roles[admin],ipaddr[10.0.0.0/8]");
+		assertTrue(granted(manager, user("ROLE_admin"), "10.1.2.3"));
+		assertFalse(granted(manager, user("ROLE_admin"), "172.16.0.1"));
+		assertFalse(granted(manager, user("ROLE_user"), "10.1.2.3"));
+	}
+
+}
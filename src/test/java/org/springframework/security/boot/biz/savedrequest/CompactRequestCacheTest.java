@@ -0,0 +1,142 @@
+/*
+ * Copyright (c) 2018, vindell (https://github.com/vindell).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.springframework.security.boot.biz.savedrequest;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import javax.servlet.http.Cookie;
+
+import org.junit.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.mock.web.MockHttpSession;
+import org.springframework.security.boot.biz.authentication.RequestedUrlCookieRepository;
+import org.springframework.security.boot.biz.crypto.HmacSigner;
+import org.springframework.security.web.savedrequest.SavedRequest;
+
+public class CompactRequestCacheTest {
+
+	private final CompactRequestCache sessionCache = new CompactRequestCache();
+	private final CompactRequestCache cookieCache = new CompactRequestCache(
+			new RequestedUrlCookieRepository(HmacSigner.of("request-cache-test-secret")));
+
+	@Test
+	public void savesOnlyMethodAndUrlInTheSession() {
+		MockHttpServletRequest request = get("/orders");
+		request.setQueryString("page=2&q=a%20b");
+		sessionCache.saveRequest(request, new MockHttpServletResponse());
+
+		Object saved = request.getSession().getAttribute(CompactRequestCache.DEFAULT_SESSION_ATTR_NAME);
+		assertTrue(saved instanceof CompactSavedRequest);
+		SavedRequest savedRequest = sessionCache.getRequest(withSession(get("/login"), request), new MockHttpServletResponse());
+		assertEquals("GET", savedRequest.getMethod());
+		assertEquals("http://localhost/orders?page=2&q=a%20b", savedRequest.getRedirectUrl());
+		assertArrayEquals(new String[] { "a b" }, savedRequest.getParameterValues("q"));
+		assertTrue(savedRequest.getHeaderNames().isEmpty());
+	}
+
+	@Test
+	public void matchingRequestIsReturnedOnceAndRemoved() {
+		MockHttpServletRequest request = get("/orders");
+		sessionCache.saveRequest(request, new MockHttpServletResponse());
+
+		MockHttpServletRequest other = withSession(get("/other"), request);
+		assertNull(sessionCache.getMatchingRequest(other, new MockHttpServletResponse()));
+		MockHttpServletRequest replay = withSession(get("/orders"), request);
+		assertSame(replay, sessionCache.getMatchingRequest(replay, new MockHttpServletResponse()));
+		assertNull(sessionCache.getRequest(replay, new MockHttpServletResponse()));
+	}
+
+	@Test
+	public void skipsUnsaveableRequests() {
+		MockHttpServletRequest post = new MockHttpServletRequest("POST", "/orders");
+		post.setServletPath("/orders");
+		MockHttpServletRequest ajax = get("/orders");
+		ajax.addHeader("X-Requested-With", "XMLHttpRequest");
+		sessionCache.setMaxUrlLength(64);
+		MockHttpServletRequest tooLong = get("/orders/" + new String(new char[100]).replace('\0', 'x'));
+		for (MockHttpServletRequest request : new MockHttpServletRequest[] { post, ajax, get("/assets/app.js"),
+				get("/webjars/jquery/jquery.min.js"), get("/logo.PNG"), tooLong }) {
+			sessionCache.saveRequest(request, new MockHttpServletResponse());
+			assertNull(request.getRequestURI(), request.getSession(false));
+		}
+	}
+
+	@Test
+	public void doesNotCreateASessionWhenNotAllowed() {
+		sessionCache.setCreateSessionAllowed(false);
+		MockHttpServletRequest request = get("/orders");
+		sessionCache.saveRequest(request, new MockHttpServletResponse());
+		assertNull(request.getSession(false));
+	}
+
+	@Test
+	public void keepsTheUrlInASignedCookieWithoutASession() {
+		MockHttpServletRequest request = get("/orders");
+		request.setContextPath("/app");
+		request.setRequestURI("/app/orders");
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		cookieCache.saveRequest(request, response);
+		Cookie cookie = response.getCookie(RequestedUrlCookieRepository.DEFAULT_COOKIE_NAME);
+		assertNotNull(cookie);
+		assertNull(request.getSession(false));
+
+		MockHttpServletRequest login = get("/login");
+		login.setContextPath("/app");
+		login.setCookies(cookie);
+		SavedRequest savedRequest = cookieCache.getRequest(login, new MockHttpServletResponse());
+		assertEquals("http://localhost/app/orders", savedRequest.getRedirectUrl());
+
+		MockHttpServletResponse removed = new MockHttpServletResponse();
+		cookieCache.removeRequest(login, removed);
+		assertEquals(0, removed.getCookie(RequestedUrlCookieRepository.DEFAULT_COOKIE_NAME).getMaxAge());
+		assertNull(login.getSession(false));
+	}
+
+	@Test
+	public void ignoresTamperedCookies() {
+		MockHttpServletRequest login = get("/login");
+		login.setCookies(new Cookie(RequestedUrlCookieRepository.DEFAULT_COOKIE_NAME, "AAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAA"));
+		assertNull(cookieCache.getRequest(login, new MockHttpServletResponse()));
+	}
+
+	@Test
+	public void matcherIgnoresAssetsCaseInsensitivelyAndHonoursCustomLists() {
+		SaveableRequestMatcher matcher = new SaveableRequestMatcher("pdf", "/files/");
+		assertFalse(matcher.matches(get("/files/report")));
+		assertFalse(matcher.matches(get("/report.PDF")));
+		assertTrue(matcher.matches(get("/report.css")));
+		assertTrue(new SaveableRequestMatcher("", "").matches(get("/app.js")));
+	}
+
+	private static MockHttpServletRequest get(String path) {
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", path);
+		request.setServletPath(path);
+		return request;
+	}
+
+	private static MockHttpServletRequest withSession(MockHttpServletRequest request, MockHttpServletRequest from) {
+		request.setSession((MockHttpSession) from.getSession(false));
+		return request;
+	}
+
+}
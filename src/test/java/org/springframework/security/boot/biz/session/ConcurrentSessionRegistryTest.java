@@ -0,0 +1,244 @@
+/*
+ * Copyright (c) 2018, vindell (https://github.com/vindell).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.springframework.security.boot.biz.session;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Test;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.session.SessionDestroyedEvent;
+import org.springframework.security.core.session.SessionInformation;
+
+public class ConcurrentSessionRegistryTest {
+
+	private final ConcurrentSessionRegistry registry = new ConcurrentSessionRegistry();
+
+	@Test
+	public void registersSessionsPerPrincipal() {
+		registry.registerNewSession("s1", "alice");
+		registry.registerNewSession("s2", "alice");
+		registry.registerNewSession("s3", "bob");
+
+		assertEquals(2, registry.getAllPrincipals().size());
+		assertEquals(2, registry.getAllSessions("alice", false).size());
+		assertEquals(2, registry.getSessionCount("alice", false));
+		assertEquals(1, registry.getSessionCount("bob", true));
+		assertEquals(0, registry.getSessionCount("carol", true));
+		assertTrue(registry.getAllSessions("carol", true).isEmpty());
+		assertEquals("alice", registry.getSessionInformation("s1").getPrincipal());
+		assertEquals(3, registry.size());
+	}
+
+	@Test
+	public void expiredSessionsMoveOutOfTheActiveSet() {
+		registry.registerNewSession("s1", "alice");
+		registry.registerNewSession("s2", "alice");
+		SessionInformation info = registry.getSessionInformation("s1");
+		info.expireNow();
+		info.expireNow();
+
+		assertTrue(info.isExpired());
+		assertEquals(1, registry.getSessionCount("alice", false));
+		assertEquals(2, registry.getSessionCount("alice", true));
+		assertEquals("s2", registry.getAllSessions("alice", false).get(0).getSessionId());
+		assertEquals(2, registry.getAllSessions("alice", true).size());
+		assertSame(info, registry.getSessionInformation("s1"));
+	}
+
+	@Test
+	public void removingTheLastSessionRemovesThePrincipal() {
+		registry.registerNewSession("s1", "alice");
+		registry.registerNewSession("s2", "alice");
+		registry.getSessionInformation("s2").expireNow();
+
+		registry.removeSessionInformation("s1");
+		assertEquals(Collections.singletonList("alice"), registry.getAllPrincipals());
+		registry.removeSessionInformation("s2");
+		registry.removeSessionInformation("s2");
+
+		assertTrue(registry.getAllPrincipals().isEmpty());
+		assertNull(registry.getSessionInformation("s2"));
+		assertEquals(0, registry.size());
+	}
+
+	@Test
+	public void reregisteringAnIdReplacesTheOldSession() {
+		registry.registerNewSession("s1", "alice");
+		registry.registerNewSession("s1", "bob");
+
+		assertEquals(Collections.singletonList("bob"), registry.getAllPrincipals());
+		assertEquals("bob", registry.getSessionInformation("s1").getPrincipal());
+		assertEquals(1, registry.size());
+	}
+
+	@Test
+	public void sessionDestroyedEventRemovesTheSession() {
+		registry.registerNewSession("s1", "alice");
+		registry.onApplicationEvent(new SessionDestroyedEvent("s1") {
+
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			public List<SecurityContext> getSecurityContexts() {
+				return Collections.emptyList();
+			}
+
+			@Override
+			public String getId() {
+				return "s1";
+			}
+
+		});
+		assertNull(registry.getSessionInformation("s1"));
+		assertTrue(registry.getAllPrincipals().isEmpty());
+	}
+
+	@Test
+	public void refreshLastRequestUpdatesTheSession() throws InterruptedException {
+		registry.registerNewSession("s1", "alice");
+		SessionInformation info = registry.getSessionInformation("s1");
+		long before = info.getLastRequest().getTime();
+		Thread.sleep(5);
+		registry.refreshLastRequest("s1");
+		registry.refreshLastRequest("unknown");
+		assertTrue(info.getLastRequest().getTime() > before);
+	}
+
+	@Test
+	public void concurrentRegistrationsAndRemovalsKeepCountsConsistent() throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		try {
+			CountDownLatch start = new CountDownLatch(1);
+			List<Future<?>> futures = new ArrayList<Future<?>>();
+			for (int t = 0; t < 8; t++) {
+				int thread = t;
+				futures.add(executor.submit(() -> {
+					start.await();
+					for (int i = 0; i < 1000; i++) {
+						String sessionId = thread + "-" + i;
+						registry.registerNewSession(sessionId, "user" + (i % 4));
+						if (i % 2 == 0) {
+							registry.removeSessionInformation(sessionId);
+						} else if (i % 3 == 0) {
+							registry.getSessionInformation(sessionId).expireNow();
+						}
+					}
+					return null;
+				}));
+			}
+			start.countDown();
+			for (Future<?> future : futures) {
+				future.get();
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+		int active = 0;
+		int total = 0;
+		for (Object principal : registry.getAllPrincipals()) {
+			active += registry.getSessionCount(principal, false);
+			total += registry.getSessionCount(principal, true);
+		}
+		// 每个线程保留 500 个会话，其中 167 个已过期
+		assertEquals(8 * 500, registry.size());
+		assertEquals(8 * 500, total);
+		assertEquals(8 * (500 - 167), active);
+	}
+
+	@Test
+	public void removalRacingTheRegistrationOfTheSameIdLeavesNoStaleSession() throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			CyclicBarrier barrier = new CyclicBarrier(2);
+			Future<?> registering = executor.submit(() -> {
+				for (int i = 0; i < 20000; i++) {
+					barrier.await();
+					registry.registerNewSession("s" + i, "user" + (i % 8));
+				}
+				return null;
+			});
+			Future<?> removing = executor.submit(() -> {
+				for (int i = 0; i < 20000; i++) {
+					barrier.await();
+					registry.removeSessionInformation("s" + i);
+				}
+				return null;
+			});
+			registering.get();
+			removing.get();
+		} finally {
+			executor.shutdownNow();
+		}
+		// 每个会话要么两处都已登记，要么两处都已移除
+		int total = 0;
+		for (Object principal : registry.getAllPrincipals()) {
+			for (SessionInformation info : registry.getAllSessions(principal, true)) {
+				assertSame(info, registry.getSessionInformation(info.getSessionId()));
+				total++;
+			}
+		}
+		assertEquals(registry.size(), total);
+	}
+
+	@Test
+	public void sweepRemovesIdleSessionsInBatches() throws InterruptedException {
+		ConcurrentSessionRegistry idle = new ConcurrentSessionRegistry(1000);
+		idle.setSweepBatchSize(2);
+		for (int i = 0; i < 5; i++) {
+			idle.registerNewSession("idle" + i, "alice");
+		}
+		idle.registerNewSession("busy", "bob");
+		idle.registerNewSession("removed", "bob");
+		idle.removeSessionInformation("removed");
+		idle.getSessionInformation("idle0").expireNow();
+		Thread.sleep(600);
+		idle.refreshLastRequest("busy");
+		Thread.sleep(1500);
+		idle.refreshLastRequest("busy");
+
+		// 空闲超时 1 秒，时间轮精度 1 秒，2.1 秒后未刷新的会话一定已被清理
+		assertEquals(5, idle.sweep());
+		assertEquals(5, idle.getReaped());
+		assertEquals(1, idle.getReapedExpired());
+		assertEquals(1, idle.getSweeps());
+		assertEquals(Collections.singletonList("bob"), idle.getAllPrincipals());
+		assertNotNull(idle.getSessionInformation("busy"));
+		assertEquals(0, idle.sweep());
+	}
+
+	@Test
+	public void sweepIsDisabledWithoutIdleTimeout() {
+		registry.registerNewSession("s1", "alice");
+		registry.afterPropertiesSet();
+		assertEquals(0, registry.sweep());
+		assertEquals(1, registry.size());
+		registry.destroy();
+	}
+
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright (c) 2018, vindell (https://github.com/vindell).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.springframework.security.boot.biz.startup;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.beans.factory.support.RootBeanDefinition;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.test.context.runner.WebApplicationContextRunner;
+import org.springframework.core.io.support.SpringFactoriesLoader;
+import org.springframework.security.boot.SecurityBizUpcAutoConfigurationTest;
+import org.springframework.security.boot.biz.session.ConcurrentSessionRegistry;
+
+public class LazyInitBeanFactoryPostProcessorTest {
+
+	@Rule
+	public final TemporaryFolder folder = new TemporaryFolder();
+
+	private final WebApplicationContextRunner contextRunner = new WebApplicationContextRunner()
+			.withUserConfiguration(SecurityBizUpcAutoConfigurationTest.TestApplication.class)
+			.withPropertyValues("spring.security.lazy-init=true");
+
+	@Test
+	public void matchesOnlyTheAutoConfigurationsOfThisStarter() {
+		assertTrue(LazyInitBeanFactoryPostProcessor
+				.isStarterBean(new RootBeanDefinition("org.springframework.security.boot.SecurityBizAutoConfiguration")));
+		assertTrue(LazyInitBeanFactoryPostProcessor.isStarterBean(new RootBeanDefinition(
+				"org.springframework.security.boot.SecurityBizAutoConfiguration$ServletConfiguration")));
+		// 同一包下的其他 starter、本 starter 的类被应用自己声明为 Bean
+		assertFalse(LazyInitBeanFactoryPostProcessor
+				.isStarterBean(new RootBeanDefinition("org.springframework.security.boot.SecurityJwtAutoConfiguration")));
+		assertFalse(LazyInitBeanFactoryPostProcessor.isStarterBean(new RootBeanDefinition(
+				"org.springframework.security.boot.SecurityBizAutoConfigurationExtension")));
+		assertFalse(LazyInitBeanFactoryPostProcessor
+				.isStarterBean(new RootBeanDefinition(ConcurrentSessionRegistry.class.getName())));
+		assertFalse(LazyInitBeanFactoryPostProcessor.isStarterBean(new RootBeanDefinition()));
+	}
+
+	@Test
+	public void theAutoConfigurationsAreTheRegisteredOnes() {
+		List<String> registered = SpringFactoriesLoader.loadFactoryNames(EnableAutoConfiguration.class,
+				getClass().getClassLoader());
+		assertTrue(registered.containsAll(LazyInitBeanFactoryPostProcessor.AUTO_CONFIGURATIONS));
+	}
+
+	@Test
+	public void unreferencedStarterBeansBecomeLazy() {
+		contextRunner.run(context -> {
+			assertNull(context.getStartupFailure());
+			ConfigurableListableBeanFactory beanFactory = context.getBeanFactory();
+			assertTrue(beanFactory.getBeanDefinition("permissionEvaluator").isLazyInit());
+			assertTrue(beanFactory.getBeanDefinition("authoritiesMapper").isLazyInit());
+			// 应用自己的 Bean 不受影响
+			assertFalse(beanFactory.getBeanDefinition("userDetailsService").isLazyInit());
+		});
+	}
+
+	@Test
+	public void beansWithStartupSideEffectsStayEager() {
+		contextRunner.withPropertyValues("spring.security.upc.enabled=true", "spring.security.upc.audit.enabled=true",
+				"spring.security.upc.audit.directory=" + folder.getRoot().getAbsolutePath()).run(context -> {
+					assertNull(context.getStartupFailure());
+					ConfigurableListableBeanFactory beanFactory = context.getBeanFactory();
+					assertFalse(beanFactory.getBeanDefinition("upcAuditJournal").isLazyInit());
+					assertTrue(beanFactory.containsSingleton("upcAuditJournal"));
+				});
+		// 没有任何 Bean 注入会话登记表、线程钉住监控时，它们同样要启动
+		contextRunner.run(context -> {
+			assertFalse(context.getBeanFactory().getBeanDefinition("sessionRegistry").isLazyInit());
+			assertTrue(context.getBeanFactory().containsSingleton("sessionRegistry"));
+			assertFalse(context.getBeanFactory().getBeanDefinition("virtualThreadPinningMonitor").isLazyInit());
+			assertTrue(context.getBeanFactory().containsSingleton("virtualThreadPinningMonitor"));
+		});
+	}
+
+}
@@ -0,0 +1,212 @@
+/*
+ * Copyright (c) 2018, vindell (https://github.com/vindell).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.springframework.security.boot.biz.userdetails;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Test;
+import org.springframework.security.boot.biz.exception.AuthenticationTimeoutException;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+
+public class BatchingUserDetailsServiceTest {
+
+	private final RecordingUserDetailsService delegate = new RecordingUserDetailsService();
+	private final ExecutorService executor = Executors.newCachedThreadPool();
+
+	@After
+	public void shutdown() {
+		executor.shutdownNow();
+	}
+
+	@Test
+	public void aSingleLookupIsDispatchedWhenTheWindowEnds() {
+		BatchingUserDetailsService service = new BatchingUserDetailsService(delegate, 1, 64);
+		assertEquals("alice", service.loadUserByUsername("alice").getUsername());
+		assertEquals(Arrays.asList(Arrays.asList("alice")), delegate.batches);
+		assertEquals(1, service.getBatches());
+		assertEquals(1, service.getBatchedLookups());
+		assertEquals(0, service.getDirectLookups());
+	}
+
+	@Test
+	public void aFullBatchIsDispatchedWithoutWaitingForTheWindow() throws Exception {
+		// 窗口远长于等待结果的时间，只有凑满一批才能按时完成
+		BatchingUserDetailsService service = new BatchingUserDetailsService(delegate, 60_000, 4);
+		List<Future<UserDetails>> lookups = lookupConcurrently(service, "alice", "bob", "carol", "dave");
+		List<String> loaded = new ArrayList<String>();
+		for (Future<UserDetails> lookup : lookups) {
+			loaded.add(lookup.get(5, TimeUnit.SECONDS).getUsername());
+		}
+		assertEquals(Arrays.asList("alice", "bob", "carol", "dave"), loaded);
+		assertEquals(1, delegate.batches.size());
+		assertEquals(new HashSet<String>(loaded), new HashSet<String>(delegate.batches.get(0)));
+		assertEquals(1, service.getBatches());
+		assertEquals(4, service.getBatchedLookups());
+	}
+
+	@Test
+	public void aPendingUsernameIsLoadedDirectly() throws Exception {
+		BatchingUserDetailsService service = new BatchingUserDetailsService(delegate, 1_000, 64);
+		List<Future<UserDetails>> lookups = lookupConcurrently(service, "alice", "alice");
+		UserDetails first = lookups.get(0).get(5, TimeUnit.SECONDS);
+		UserDetails second = lookups.get(1).get(5, TimeUnit.SECONDS);
+		assertEquals("alice", first.getUsername());
+		assertEquals("alice", second.getUsername());
+		// 凭证会在认证后被擦除，两个登录不能共享同一个对象
+		assertNotSame(first, second);
+		assertEquals(1, service.getDirectLookups());
+		assertEquals(1, service.getBatchedLookups());
+		assertEquals(1, delegate.singleLookups.get());
+	}
+
+	@Test
+	public void aMissingUserFailsOnlyItsOwnLookup() throws Exception {
+		BatchingUserDetailsService service = new BatchingUserDetailsService(delegate, 60_000, 2);
+		List<Future<UserDetails>> lookups = lookupConcurrently(service, "alice", RecordingUserDetailsService.MISSING);
+		assertEquals("alice", lookups.get(0).get(5, TimeUnit.SECONDS).getUsername());
+		assertSame(UsernameNotFoundException.class, failureOf(lookups.get(1)).getClass());
+	}
+
+	@Test
+	public void aFailingDelegateFailsEveryLookupOfTheBatch() throws Exception {
+		BatchingUserDetailsService service = new BatchingUserDetailsService(delegate, 60_000, 3);
+		delegate.failure = new IllegalStateException("database is down");
+		for (Future<UserDetails> lookup : lookupConcurrently(service, "alice", "bob", "carol")) {
+			assertSame(delegate.failure, failureOf(lookup));
+		}
+		// Error 同样要传给每个等待的请求，而不是让它们挂起
+		delegate.failure = new NoClassDefFoundError("com/example/UserMapper");
+		for (Future<UserDetails> lookup : lookupConcurrently(service, "alice", "bob", "carol")) {
+			assertSame(delegate.failure, failureOf(lookup));
+		}
+		assertEquals(2, service.getBatches());
+	}
+
+	@Test
+	public void waitingForAnotherThreadsBatchIsBounded() throws Exception {
+		BatchingUserDetailsService service = new BatchingUserDetailsService(delegate, 60_000, 2, 100);
+		delegate.gate = new CountDownLatch(1);
+		List<Future<UserDetails>> lookups = lookupConcurrently(service, "alice", "bob");
+		// 凑满一批的线程正在执行查询，另一个线程等待超时
+		int timedOut = 0;
+		Future<UserDetails> dispatching = null;
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+		while (timedOut == 0 && System.nanoTime() < deadline) {
+			for (Future<UserDetails> lookup : lookups) {
+				if (lookup.isDone()) {
+					assertSame(AuthenticationTimeoutException.class, failureOf(lookup).getClass());
+					timedOut++;
+				} else {
+					dispatching = lookup;
+				}
+			}
+			Thread.sleep(10);
+		}
+		assertEquals(1, timedOut);
+		delegate.gate.countDown();
+		assertNotNull(dispatching.get(5, TimeUnit.SECONDS));
+	}
+
+	private List<Future<UserDetails>> lookupConcurrently(BatchingUserDetailsService service, String... usernames) {
+		CyclicBarrier barrier = new CyclicBarrier(usernames.length);
+		List<Future<UserDetails>> lookups = new ArrayList<Future<UserDetails>>();
+		for (String username : usernames) {
+			lookups.add(executor.submit(() -> {
+				barrier.await();
+				return service.loadUserByUsername(username);
+			}));
+		}
+		return lookups;
+	}
+
+	private static Throwable failureOf(Future<UserDetails> lookup) throws Exception {
+		try {
+			lookup.get(5, TimeUnit.SECONDS);
+		} catch (ExecutionException e) {
+			return e.getCause();
+		}
+		fail("the lookup should have failed");
+		return null;
+	}
+
+	private static class RecordingUserDetailsService extends UserDetailsServiceAdapter {
+
+		static final String MISSING = "nobody";
+
+		final List<List<String>> batches = new CopyOnWriteArrayList<List<String>>();
+		final AtomicInteger singleLookups = new AtomicInteger();
+		volatile Throwable failure;
+		volatile CountDownLatch gate;
+
+		@Override
+		public UserDetails loadUserByUsername(String username) {
+			singleLookups.incrementAndGet();
+			return new User(username, "secret", AuthorityUtils.NO_AUTHORITIES);
+		}
+
+		@Override
+		public Map<String, UserDetails> loadUsersByUsernames(Collection<String> usernames) {
+			batches.add(new ArrayList<String>(usernames));
+			try {
+				if (gate != null) {
+					gate.await();
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			if (failure instanceof Error) {
+				throw (Error) failure;
+			}
+			if (failure != null) {
+				throw (RuntimeException) failure;
+			}
+			Map<String, UserDetails> users = new LinkedHashMap<String, UserDetails>();
+			for (String username : usernames) {
+				if (!MISSING.equals(username)) {
+					users.put(username, new User(username, "secret", AuthorityUtils.NO_AUTHORITIES));
+				}
+			}
+			return users;
+		}
+
+	}
+
+}
@@ -0,0 +1,191 @@
+/*
+ * Copyright (c) 2018, vindell (https://github.com/vindell).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.springframework.security.boot.biz.userdetails;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.AuthorityUtils;
+
+public class SecurityPrincipalCodecTest {
+
+	@Test
+	public void roundTripsEveryField() {
+		SecurityPrincipal principal = principal();
+
+		SecurityPrincipal decoded = SecurityPrincipalCodec.decode(SecurityPrincipalCodec.encode(principal));
+
+		assertEquals("alice", decoded.getUsername());
+		assertEquals("{noop}secret", decoded.getPassword());
+		assertEquals("u-1", decoded.getUserid());
+		assertEquals("key", decoded.getUserkey());
+		assertEquals("salt", decoded.getSalt());
+		assertEquals("otp", decoded.getSecret());
+		assertEquals("爱丽丝", decoded.getAlias());
+		assertEquals(principal.getAuthorities(), decoded.getAuthorities());
+		assertEquals(principal.getRoles(), decoded.getRoles());
+		assertEquals(principal.getPerms(), decoded.getPerms());
+		assertTrue(decoded.isEnabled());
+		assertFalse(decoded.isAccountNonExpired());
+		assertTrue(decoded.isCredentialsNonExpired());
+		assertFalse(decoded.isAccountNonLocked());
+	}
+
+	@Test
+	public void keepsNullAndEmptyValuesApart() {
+		SecurityPrincipal principal = new SecurityPrincipal("alice", "secret", Collections.<GrantedAuthority>emptyList());
+		principal.eraseCredentials();
+		principal.setRoles(new HashSet<String>());
+
+		SecurityPrincipal decoded = SecurityPrincipalCodec.decode(SecurityPrincipalCodec.encode(principal));
+
+		assertNull(decoded.getPassword());
+		assertNull(decoded.getUserid());
+		assertTrue(decoded.getAuthorities().isEmpty());
+		assertTrue(decoded.getRoles().isEmpty());
+		assertNull(decoded.getPerms());
+	}
+
+	@Test
+	public void decodedAuthoritiesAreShared() {
+		byte[] data = SecurityPrincipalCodec.encode(principal());
+		SecurityPrincipal first = SecurityPrincipalCodec.decode(data);
+		SecurityPrincipal second = SecurityPrincipalCodec.decode(data);
+		assertSame(first.getAuthorities().iterator().next(), second.getAuthorities().iterator().next());
+	}
+
+	@Test
+	public void rejectsUnsupportedVersionsAndTruncatedData() {
+		byte[] data = SecurityPrincipalCodec.encode(principal());
+		byte[] version = data.clone();
+		version[0] = SecurityPrincipalCodec.VERSION + 1;
+		assertMalformed(version);
+		for (int length = 0; length < data.length; length++) {
+			assertMalformed(Arrays.copyOf(data, length));
+		}
+	}
+
+	@Test
+	public void randomCorruptionOnlyFailsWithIllegalArgument() {
+		byte[] data = SecurityPrincipalCodec.encode(principal());
+		Random random = new Random(7);
+		for (int i = 0; i < 10_000; i++) {
+			byte[] corrupted = data.clone();
+			corrupted[1 + random.nextInt(corrupted.length - 1)] = (byte) random.nextInt();
+			try {
+				SecurityPrincipalCodec.decode(corrupted);
+			} catch (IllegalArgumentException e) {
+				// 格式错误只能以 IllegalArgumentException 报告
+			}
+		}
+	}
+
+	@Test
+	public void javaSerializationUsesTheCompactForm() throws Exception {
+		SecurityPrincipal principal = principal();
+		byte[] serialized = serialize(principal);
+
+		SecurityPrincipal copy = (SecurityPrincipal) deserialize(serialized);
+
+		assertEquals(principal.getUsername(), copy.getUsername());
+		assertEquals(principal.getAuthorities(), copy.getAuthorities());
+		assertEquals(principal.getPerms(), copy.getPerms());
+		assertTrue(serialized.length < 400);
+	}
+
+	@Test
+	public void javaSerializationRejectsCorruptedData() throws Exception {
+		byte[] serialized = serialize(principal());
+		// 把紧凑数据中的版本号改掉
+		byte[] marker = SecurityPrincipalCodec.encode(principal());
+		int offset = indexOf(serialized, marker);
+		serialized[offset] = SecurityPrincipalCodec.VERSION + 1;
+		try {
+			deserialize(serialized);
+			fail("Expected InvalidObjectException");
+		} catch (InvalidObjectException e) {
+			// expected
+		}
+	}
+
+	private static SecurityPrincipal principal() {
+		List<GrantedAuthority> authorities = new ArrayList<GrantedAuthority>(
+				AuthorityUtils.createAuthorityList("ROLE_ADMIN", "ROLE_USER"));
+		SecurityPrincipal principal = new SecurityPrincipal("alice", "{noop}secret", true, false, true, false, authorities);
+		principal.setUserid("u-1");
+		principal.setUserkey("key");
+		principal.setSalt("salt");
+		principal.setSecret("otp");
+		principal.setAlias("爱丽丝");
+		principal.setRoles(new HashSet<String>(Arrays.asList("ROLE_ADMIN", "ROLE_USER")));
+		principal.setPerms(new HashSet<String>(Arrays.asList("user:read", "ROLE_ADMIN")));
+		return principal;
+	}
+
+	private static void assertMalformed(byte[] data) {
+		try {
+			SecurityPrincipalCodec.decode(data);
+			fail("Expected IllegalArgumentException for " + data.length + " bytes");
+		} catch (IllegalArgumentException e) {
+			// expected
+		}
+	}
+
+	private static byte[] serialize(Object value) throws Exception {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+			out.writeObject(value);
+		}
+		return bytes.toByteArray();
+	}
+
+	private static Object deserialize(byte[] data) throws Exception {
+		try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(data))) {
+			return in.readObject();
+		}
+	}
+
+	private static int indexOf(byte[] data, byte[] target) {
+		outer: for (int i = 0; i <= data.length - target.length; i++) {
+			for (int j = 0; j < target.length; j++) {
+				if (data[i + j] != target[j]) {
+					continue outer;
+				}
+			}
+			return i;
+		}
+		throw new IllegalStateException("not found");
+	}
+
+}